@@ -35,6 +35,8 @@ public enum Group
     TASK_SCHEDULER( "Scheduler", ExecutorServiceFactory.unschedulable() ),
     /* Background page cache worker. */
     PAGE_CACHE( "PageCacheWorker" ),
+    /** Submits the parts of vectored page cache reads and writes that are split up to keep more IO requests in flight. */
+    PAGE_CACHE_IO( "PageCacheIOSubmitter" ),
     /** Watch out for, and report, external manipulation of store files. */
     FILE_WATCHER( "FileWatcher" ),
     /** Monitor and report system-wide pauses, in case they lead to service interruption. */
@@ -51,6 +53,8 @@ public enum Group
     INDEX_POPULATION( "IndexPopulation" ),
     /** Background index sampling */
     INDEX_SAMPLING( "IndexSampling" ),
+    /** Background index compaction. */
+    INDEX_COMPACTION( "IndexCompaction" ),
     /** Background index update applier, for eventually consistent indexes. */
     INDEX_UPDATING( "IndexUpdating", ExecutorServiceFactory.singleThread() ), // Single-threaded to serialise updates with opening/closing/flushing of indexes.
     /** Thread pool for anyone who want some help doing file IO in parallel. */
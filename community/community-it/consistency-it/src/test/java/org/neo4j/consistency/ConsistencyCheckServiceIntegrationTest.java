@@ -30,10 +30,13 @@ import org.junit.rules.RuleChain;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.OpenOption;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import org.neo4j.consistency.ConsistencyCheckService.Result;
@@ -53,6 +56,10 @@ import org.neo4j.internal.kernel.api.exceptions.TransactionFailureException;
 import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.FileUtils;
 import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.DelegatingPageCache;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCacheOpenOptions;
+import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.configuration.Settings;
 import org.neo4j.kernel.impl.storageengine.impl.recordstorage.RecordStorageEngine;
@@ -64,6 +71,7 @@ import org.neo4j.kernel.impl.store.record.RelationshipRecord;
 import org.neo4j.kernel.impl.transaction.log.files.LogFilesBuilder;
 import org.neo4j.kernel.internal.GraphDatabaseAPI;
 import org.neo4j.logging.NullLogProvider;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.test.TestGraphDatabaseFactory;
 import org.neo4j.test.rule.TestDirectory;
 
@@ -78,6 +86,8 @@ import static org.junit.Assert.fail;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.SchemaIndex.LUCENE10;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.SchemaIndex.NATIVE20;
 import static org.neo4j.helpers.collection.MapUtil.stringMap;
+import static org.neo4j.io.pagecache.impl.muninn.StandalonePageCacheFactory.createPageCache;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
 import static org.neo4j.test.Property.property;
 import static org.neo4j.test.Property.set;
 
@@ -171,6 +181,43 @@ public class ConsistencyCheckServiceIntegrationTest
         assertFalse( "Unexpected generation of consistency check report file: " + reportFile, reportFile.exists() );
     }
 
+    @Test
+    public void shouldMapTheStoreFilesMemoryMappedReadOnly() throws Exception
+    {
+        // given
+        Set<File> memoryMappedFiles = ConcurrentHashMap.newKeySet();
+        ConsistencyCheckService service = new ConsistencyCheckService();
+        Config configuration = Config.defaults( settings() );
+
+        // when
+        Result result;
+        try ( JobScheduler jobScheduler = createInitialisedScheduler();
+              PageCache pageCache = new DelegatingPageCache( createPageCache( fs, jobScheduler ) )
+              {
+                  @Override
+                  public PagedFile map( File file, int pageSize, OpenOption... openOptions ) throws IOException
+                  {
+                      for ( OpenOption option : openOptions )
+                      {
+                          if ( option == PageCacheOpenOptions.MEMORY_MAPPED_READ_ONLY )
+                          {
+                              memoryMappedFiles.add( file );
+                          }
+                      }
+                      return super.map( file, pageSize, openOptions );
+                  }
+              } )
+        {
+            result = service.runFullConsistencyCheck( fixture.databaseLayout(), configuration,
+                    ProgressMonitorFactory.NONE, NullLogProvider.getInstance(), fs, pageCache, false );
+        }
+
+        // then
+        assertTrue( result.isSuccessful() );
+        assertTrue( memoryMappedFiles.contains( fixture.databaseLayout().nodeStore() ) );
+        assertTrue( memoryMappedFiles.contains( fixture.databaseLayout().relationshipStore() ) );
+    }
+
     @Test
     public void shouldFailIfTheStoreInNotConsistent() throws Exception
     {
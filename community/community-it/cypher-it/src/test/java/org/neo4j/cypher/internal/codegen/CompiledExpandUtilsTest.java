@@ -26,6 +26,7 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import org.neo4j.graphdb.DependencyResolver;
+import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.internal.kernel.api.CursorFactory;
 import org.neo4j.internal.kernel.api.Kernel;
@@ -41,6 +42,8 @@ import org.neo4j.test.rule.EmbeddedDatabaseRule;
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.neo4j.cypher.internal.codegen.CompiledExpandUtils.NOT_DENSE_DEGREE;
+import static org.neo4j.cypher.internal.codegen.CompiledExpandUtils.calculateTotalDegreeIfDense;
 import static org.neo4j.cypher.internal.codegen.CompiledExpandUtils.nodeGetDegreeIfDense;
 import static org.neo4j.graphdb.Direction.BOTH;
 import static org.neo4j.graphdb.Direction.INCOMING;
@@ -140,4 +143,153 @@ public class CompiledExpandUtilsTest
             }
         }
     }
+
+    @Test
+    public void shouldComputeTotalDegreeOfSeveralTypes() throws Exception
+    {
+        // GIVEN
+        long node;
+        int in, out, loop, other;
+        try ( Transaction tx = transaction() )
+        {
+            Write write = tx.dataWrite();
+            node = write.nodeCreate();
+            TokenWrite tokenWrite = tx.tokenWrite();
+            out = tokenWrite.relationshipTypeGetOrCreateForName( "OUT" );
+            in = tokenWrite.relationshipTypeGetOrCreateForName( "IN" );
+            loop = tokenWrite.relationshipTypeGetOrCreateForName( "LOOP" );
+            other = tokenWrite.relationshipTypeGetOrCreateForName( "OTHER" );
+            write.relationshipCreate( node, out, write.nodeCreate() );
+            write.relationshipCreate( node, out, write.nodeCreate() );
+            write.relationshipCreate( write.nodeCreate(), in, node );
+            write.relationshipCreate( node, loop, node );
+
+            tx.success();
+        }
+
+        try ( Transaction tx = transaction() )
+        {
+            Read read = tx.dataRead();
+            CursorFactory cursors = tx.cursors();
+            try ( NodeCursor nodes = cursors.allocateNodeCursor() )
+            {
+                assertThat( calculateTotalDegreeIfDense( read, node, nodes, OUTGOING, new int[]{out, in}, cursors ),
+                        equalTo( 2 ) );
+                assertThat( calculateTotalDegreeIfDense( read, node, nodes, OUTGOING, new int[]{out, loop}, cursors ),
+                        equalTo( 3 ) );
+                assertThat( calculateTotalDegreeIfDense( read, node, nodes, INCOMING, new int[]{loop, in}, cursors ),
+                        equalTo( 2 ) );
+                assertThat( calculateTotalDegreeIfDense( read, node, nodes, BOTH, new int[]{in, loop}, cursors ),
+                        equalTo( 2 ) );
+                assertThat( calculateTotalDegreeIfDense( read, node, nodes, BOTH, new int[]{other}, cursors ),
+                        equalTo( 0 ) );
+                assertThat( calculateTotalDegreeIfDense( read, node, nodes, BOTH, new int[0], cursors ),
+                        equalTo( 0 ) );
+            }
+        }
+    }
+
+    @Test
+    public void shouldComputeTotalDegreeOfAllTypesLikeTheDegreeWithoutType() throws Exception
+    {
+        // GIVEN
+        long node;
+        int[] types = new int[3];
+        try ( Transaction tx = transaction() )
+        {
+            Write write = tx.dataWrite();
+            node = write.nodeCreate();
+            TokenWrite tokenWrite = tx.tokenWrite();
+            types[0] = tokenWrite.relationshipTypeGetOrCreateForName( "R1" );
+            types[1] = tokenWrite.relationshipTypeGetOrCreateForName( "R2" );
+            types[2] = tokenWrite.relationshipTypeGetOrCreateForName( "R3" );
+            write.relationshipCreate( node, types[0], write.nodeCreate() );
+            write.relationshipCreate( node, types[1], write.nodeCreate() );
+            write.relationshipCreate( write.nodeCreate(), types[2], node );
+            write.relationshipCreate( node, types[2], node );
+
+            tx.success();
+        }
+
+        try ( Transaction tx = transaction() )
+        {
+            Read read = tx.dataRead();
+            CursorFactory cursors = tx.cursors();
+            try ( NodeCursor nodes = cursors.allocateNodeCursor() )
+            {
+                for ( Direction direction : new Direction[]{OUTGOING, INCOMING, BOTH} )
+                {
+                    assertThat( calculateTotalDegreeIfDense( read, node, nodes, direction, types, cursors ),
+                            equalTo( nodeGetDegreeIfDense( read, node, nodes, cursors, direction ) ) );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void shouldCountTypesThatAreGivenSeveralTimesOnceForEveryTime() throws Exception
+    {
+        // GIVEN
+        long node;
+        int in, out;
+        try ( Transaction tx = transaction() )
+        {
+            Write write = tx.dataWrite();
+            node = write.nodeCreate();
+            TokenWrite tokenWrite = tx.tokenWrite();
+            out = tokenWrite.relationshipTypeGetOrCreateForName( "OUT" );
+            in = tokenWrite.relationshipTypeGetOrCreateForName( "IN" );
+            write.relationshipCreate( node, out, write.nodeCreate() );
+            write.relationshipCreate( node, out, write.nodeCreate() );
+            write.relationshipCreate( write.nodeCreate(), in, node );
+
+            tx.success();
+        }
+
+        try ( Transaction tx = transaction() )
+        {
+            Read read = tx.dataRead();
+            CursorFactory cursors = tx.cursors();
+            try ( NodeCursor nodes = cursors.allocateNodeCursor() )
+            {
+                assertThat( calculateTotalDegreeIfDense( read, node, nodes, OUTGOING, new int[]{out, out}, cursors ),
+                        equalTo( 4 ) );
+                assertThat( calculateTotalDegreeIfDense( read, node, nodes, BOTH, new int[]{in, out, in}, cursors ),
+                        equalTo( 4 ) );
+            }
+        }
+    }
+
+    @Test
+    public void shouldNotComputeTotalDegreeOfSparseOrMissingNode() throws Exception
+    {
+        // GIVEN
+        long sparseNode;
+        long missingNode;
+        int type;
+        try ( Transaction tx = transaction() )
+        {
+            Write write = tx.dataWrite();
+            sparseNode = write.nodeCreate();
+            type = tx.tokenWrite().relationshipTypeGetOrCreateForName( "R" );
+            write.relationshipCreate( sparseNode, type, write.nodeCreate() );
+            missingNode = write.nodeCreate();
+            write.nodeDelete( missingNode );
+
+            tx.success();
+        }
+
+        try ( Transaction tx = transaction() )
+        {
+            Read read = tx.dataRead();
+            CursorFactory cursors = tx.cursors();
+            try ( NodeCursor nodes = cursors.allocateNodeCursor() )
+            {
+                assertThat( calculateTotalDegreeIfDense( read, sparseNode, nodes, OUTGOING, new int[]{type}, cursors ),
+                        equalTo( NOT_DENSE_DEGREE ) );
+                assertThat( calculateTotalDegreeIfDense( read, missingNode, nodes, OUTGOING, new int[]{type}, cursors ),
+                        equalTo( 0 ) );
+            }
+        }
+    }
 }
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.commandline.dbms;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.neo4j.commandline.admin.CommandFailed;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.layout.StoreLayout;
+import org.neo4j.kernel.internal.locker.StoreLocker;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith( TestDirectoryExtension.class )
+class ReorganizeCommandIT
+{
+    @Inject
+    private TestDirectory testDirectory;
+
+    private Path homeDir;
+    private Path configDir;
+    private DatabaseLayout databaseLayout;
+    private ByteArrayOutputStream output;
+
+    @BeforeEach
+    void setUp()
+    {
+        homeDir = testDirectory.directory( "home-dir" ).toPath();
+        configDir = testDirectory.directory( "config-dir" ).toPath();
+        databaseLayout = DatabaseLayout.of( homeDir.resolve( "data/databases/foo.db" ).toFile() );
+        output = new ByteArrayOutputStream();
+    }
+
+    @Test
+    void shouldReorganizeRelationshipsOfDatabase() throws Exception
+    {
+        Set<String> relationshipsBefore = createRelationships();
+
+        execute( "foo.db" );
+
+        assertThat( output.toString(), containsString( "Reorganized 6 relationships" ) );
+        assertFalse( databaseLayout.file( ReorganizeCommand.WORKING_DIRECTORY_NAME ).exists() );
+        GraphDatabaseService db = new TestGraphDatabaseFactory().newEmbeddedDatabase( databaseLayout.databaseDirectory() );
+        try
+        {
+            assertEquals( relationshipsBefore, describeRelationships( db ) );
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
+    @Test
+    void shouldRefuseDatabaseWithExplicitRelationshipIndexes() throws Exception
+    {
+        createRelationships();
+        GraphDatabaseService db = new TestGraphDatabaseFactory().newEmbeddedDatabase( databaseLayout.databaseDirectory() );
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.index().forRelationships( "knows" );
+            tx.success();
+        }
+        finally
+        {
+            db.shutdown();
+        }
+
+        CommandFailed commandFailed = assertThrows( CommandFailed.class, () -> execute( "foo.db" ) );
+        assertEquals( "the database has explicit relationship indexes knows -- drop them and try again", commandFailed.getMessage() );
+    }
+
+    @Test
+    void shouldRespectTheStoreLock() throws Exception
+    {
+        createRelationships();
+        StoreLayout storeLayout = databaseLayout.getStoreLayout();
+        try ( FileSystemAbstraction fileSystem = new DefaultFileSystemAbstraction();
+              StoreLocker storeLocker = new StoreLocker( fileSystem, storeLayout ) )
+        {
+            storeLocker.checkLock();
+
+            CommandFailed commandFailed = assertThrows( CommandFailed.class, () -> execute( "foo.db" ) );
+            assertEquals( "the database is in use -- stop Neo4j and try again", commandFailed.getMessage() );
+        }
+    }
+
+    @Test
+    void shouldFailOnMissingDatabase()
+    {
+        CommandFailed commandFailed = assertThrows( CommandFailed.class, () -> execute( "missing.db" ) );
+        assertEquals( "database does not exist: missing.db", commandFailed.getMessage() );
+    }
+
+    private void execute( String database ) throws Exception
+    {
+        new ReorganizeCommand( homeDir, configDir, new PrintStream( output, true ) ).execute( new String[]{"--database=" + database} );
+    }
+
+    private Set<String> createRelationships()
+    {
+        GraphDatabaseService db = new TestGraphDatabaseFactory().newEmbeddedDatabase( databaseLayout.databaseDirectory() );
+        try
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                Node[] nodes = {db.createNode(), db.createNode(), db.createNode()};
+                for ( int i = 0; i < 6; i++ )
+                {
+                    nodes[i % nodes.length].createRelationshipTo( nodes[(i + 1) % nodes.length], RelationshipType.withName( "R" ) )
+                            .setProperty( "i", i );
+                }
+                tx.success();
+            }
+            return describeRelationships( db );
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
+    private static Set<String> describeRelationships( GraphDatabaseService db )
+    {
+        Set<String> relationships = new TreeSet<>();
+        try ( Transaction tx = db.beginTx() )
+        {
+            db.getAllRelationships().forEach( relationship -> relationships.add(
+                    relationship.getStartNodeId() + "->" + relationship.getEndNodeId() + ":" + relationship.getProperty( "i" ) ) );
+            tx.success();
+        }
+        return relationships;
+    }
+}
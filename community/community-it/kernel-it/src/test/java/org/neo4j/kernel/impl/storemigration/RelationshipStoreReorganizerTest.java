@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storemigration;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.RuleChain;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.graphdb.mockfs.DelegatingFileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.store.MetaDataStore;
+import org.neo4j.kernel.impl.store.format.RecordFormats;
+import org.neo4j.kernel.impl.store.format.standard.Standard;
+import org.neo4j.kernel.impl.util.monitoring.SilentProgressReporter;
+import org.neo4j.storageengine.api.StoreId;
+import org.neo4j.test.TestGraphDatabaseFactory;
+import org.neo4j.test.rule.PageCacheRule;
+import org.neo4j.test.rule.TestDirectory;
+import org.neo4j.test.rule.fs.DefaultFileSystemRule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RelationshipStoreReorganizerTest
+{
+    private static final int SPARSE_NODES = 5;
+    private static final int ROUNDS = 20;
+
+    private final TestDirectory testDirectory = TestDirectory.testDirectory();
+    private final DefaultFileSystemRule fileSystemRule = new DefaultFileSystemRule();
+    private final PageCacheRule pageCacheRule = new PageCacheRule();
+
+    @Rule
+    public RuleChain ruleChain = RuleChain.outerRule( testDirectory ).around( fileSystemRule ).around( pageCacheRule );
+
+    @Test
+    public void shouldStoreRelationshipsOfEachNodeNextToEachOther() throws Exception
+    {
+        DatabaseLayout databaseLayout = testDirectory.databaseLayout();
+        List<Set<String>> relationshipsBefore = createInterleavedRelationships( databaseLayout );
+        PageCache pageCache = pageCacheRule.getPageCache( fileSystemRule );
+        StoreId storeIdBefore = MetaDataStore.getStoreId( pageCache, databaseLayout.metadataStore() );
+
+        File workingDirectory = testDirectory.directory( "reorganize" );
+        long relationships = new RelationshipStoreReorganizer( pageCache, fileSystemRule, Config.defaults() )
+                .reorganise( databaseLayout, DatabaseLayout.of( workingDirectory ), recordFormats(), SilentProgressReporter.INSTANCE );
+
+        assertEquals( ROUNDS * 2, relationships );
+        assertNotEquals( storeIdBefore, MetaDataStore.getStoreId( pageCache, databaseLayout.metadataStore() ) );
+        GraphDatabaseService db = startDatabase( databaseLayout );
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( relationshipsBefore, describeRelationships( db ) );
+            // The first node is visited first, so its relationships are the first ones in the store
+            Set<Long> firstNodeRelationshipIds = new TreeSet<>();
+            db.getNodeById( 0 ).getRelationships().forEach( relationship -> firstNodeRelationshipIds.add( relationship.getId() ) );
+            long expectedId = 0;
+            for ( long id : firstNodeRelationshipIds )
+            {
+                assertEquals( expectedId++, id );
+            }
+            tx.success();
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldCompleteInterruptedMoveOfTheNewStores() throws Exception
+    {
+        DatabaseLayout databaseLayout = testDirectory.databaseLayout();
+        List<Set<String>> relationshipsBefore = createInterleavedRelationships( databaseLayout );
+        PageCache pageCache = pageCacheRule.getPageCache( fileSystemRule );
+        StoreId storeIdBefore = MetaDataStore.getStoreId( pageCache, databaseLayout.metadataStore() );
+        DatabaseLayout workingLayout = DatabaseLayout.of( testDirectory.directory( "reorganize" ) );
+
+        DelegatingFileSystemAbstraction failingFs = new DelegatingFileSystemAbstraction( fileSystemRule.get() )
+        {
+            private int moves;
+
+            @Override
+            public void moveToDirectory( File file, File toDirectory ) throws IOException
+            {
+                if ( ++moves > 2 )
+                {
+                    throw new IOException( "Interrupted" );
+                }
+                super.moveToDirectory( file, toDirectory );
+            }
+        };
+        RelationshipStoreReorganizer failing = new RelationshipStoreReorganizer( pageCache, failingFs, Config.defaults() );
+        try
+        {
+            failing.reorganise( databaseLayout, workingLayout, recordFormats(), SilentProgressReporter.INSTANCE );
+            fail( "Should have failed to move the new stores" );
+        }
+        catch ( IOException e )
+        {
+            assertTrue( failing.hasUnfinishedMove( workingLayout ) );
+        }
+
+        RelationshipStoreReorganizer reorganizer = new RelationshipStoreReorganizer( pageCache, fileSystemRule, Config.defaults() );
+        assertTrue( reorganizer.completeInterruptedReorganisation( databaseLayout, workingLayout ) );
+        assertFalse( reorganizer.hasUnfinishedMove( workingLayout ) );
+        assertFalse( reorganizer.completeInterruptedReorganisation( databaseLayout, workingLayout ) );
+
+        assertNotEquals( storeIdBefore, MetaDataStore.getStoreId( pageCache, databaseLayout.metadataStore() ) );
+        GraphDatabaseService db = startDatabase( databaseLayout );
+        try ( Transaction tx = db.beginTx() )
+        {
+            assertEquals( relationshipsBefore, describeRelationships( db ) );
+            tx.success();
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
+    protected RecordFormats recordFormats()
+    {
+        return Standard.LATEST_RECORD_FORMATS;
+    }
+
+    private List<Set<String>> createInterleavedRelationships( DatabaseLayout databaseLayout )
+    {
+        GraphDatabaseService db = startDatabase( databaseLayout );
+        try
+        {
+            try ( Transaction tx = db.beginTx() )
+            {
+                Node[] sparse = new Node[SPARSE_NODES];
+                for ( int i = 0; i < SPARSE_NODES; i++ )
+                {
+                    sparse[i] = db.createNode();
+                }
+                Node dense = db.createNode();
+                for ( int i = 0; i < ROUNDS; i++ )
+                {
+                    RelationshipType type = RelationshipType.withName( i % 2 == 0 ? "A" : "B" );
+                    sparse[i % SPARSE_NODES].createRelationshipTo( sparse[(i + 1) % SPARSE_NODES], type ).setProperty( "round", i );
+                    dense.createRelationshipTo( sparse[i % SPARSE_NODES], type ).setProperty( "round", i );
+                }
+                tx.success();
+            }
+            try ( Transaction tx = db.beginTx() )
+            {
+                return describeRelationships( db );
+            }
+        }
+        finally
+        {
+            db.shutdown();
+        }
+    }
+
+    private static List<Set<String>> describeRelationships( GraphDatabaseService db )
+    {
+        Function<Relationship,String> description = relationship -> relationship.getType().name() + ":" +
+                relationship.getStartNodeId() + "->" + relationship.getEndNodeId() + ":" + relationship.getProperty( "round" );
+        List<Set<String>> relationships = new ArrayList<>();
+        db.getAllNodes().forEach( node ->
+        {
+            Set<String> ofNode = new TreeSet<>();
+            node.getRelationships().forEach( relationship -> ofNode.add( description.apply( relationship ) ) );
+            relationships.add( ofNode );
+        } );
+        return relationships;
+    }
+
+    private GraphDatabaseService startDatabase( DatabaseLayout databaseLayout )
+    {
+        return new TestGraphDatabaseFactory().newEmbeddedDatabaseBuilder( databaseLayout.databaseDirectory() )
+                .setConfig( GraphDatabaseSettings.dense_node_threshold, "15" )
+                .setConfig( GraphDatabaseSettings.record_format, recordFormats().name() )
+                .newGraphDatabase();
+    }
+}
@@ -45,6 +45,7 @@ import org.neo4j.io.fs.DefaultFileSystemAbstraction;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCacheOpenOptions;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
@@ -64,6 +65,7 @@ import org.neo4j.kernel.impl.scheduler.JobSchedulerFactory;
 import org.neo4j.kernel.impl.store.NeoStores;
 import org.neo4j.kernel.impl.store.StoreAccess;
 import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.format.RecordFormatSelector;
 import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
 import org.neo4j.kernel.impl.transaction.state.DefaultIndexProviderMap;
 import org.neo4j.kernel.lifecycle.LifeSupport;
@@ -231,8 +233,12 @@ public class ConsistencyCheckService
         config.augment( GraphDatabaseSettings.read_only, TRUE );
         config.augment( GraphDatabaseSettings.pagecache_warmup_enabled, FALSE );
 
+        // The checker never writes to the store files, so they can be read straight from memory mappings of the files,
+        // rather than taking up the page cache.
         StoreFactory factory = new StoreFactory( databaseLayout, config,
-                new DefaultIdGeneratorFactory( fileSystem ), pageCache, fileSystem, logProvider, EmptyVersionContextSupplier.EMPTY );
+                new DefaultIdGeneratorFactory( fileSystem ), pageCache, fileSystem,
+                RecordFormatSelector.selectForStoreOrConfig( config, databaseLayout, fileSystem, pageCache, logProvider ),
+                logProvider, EmptyVersionContextSupplier.EMPTY, PageCacheOpenOptions.MEMORY_MAPPED_READ_ONLY );
 
         ConsistencySummaryStatistics summary;
         final File reportFile = chooseReportPath( reportDir );
@@ -26,6 +26,7 @@ import org.neo4j.graphdb.Direction;
 import org.neo4j.internal.kernel.api.CursorFactory;
 import org.neo4j.internal.kernel.api.NodeCursor;
 import org.neo4j.internal.kernel.api.Read;
+import org.neo4j.internal.kernel.api.RelationshipGroupCursor;
 import org.neo4j.internal.kernel.api.exceptions.EntityNotFoundException;
 import org.neo4j.internal.kernel.api.helpers.RelationshipSelectionCursor;
 
@@ -36,7 +37,7 @@ import static org.neo4j.internal.kernel.api.helpers.Nodes.countOutgoing;
 @SuppressWarnings( "unused" )
 public abstract class CompiledExpandUtils
 {
-    private static final int NOT_DENSE_DEGREE = -1;
+    static final int NOT_DENSE_DEGREE = -1;
 
     public static RelationshipSelectionCursor connectingRelationships( Read read, CursorFactory cursors,
             NodeCursor nodeCursor,
@@ -213,7 +214,7 @@ public abstract class CompiledExpandUtils
         }
     }
 
-    private static int calculateTotalDegreeIfDense( Read read, long node, NodeCursor nodeCursor, Direction direction,
+    static int calculateTotalDegreeIfDense( Read read, long node, NodeCursor nodeCursor, Direction direction,
             int[] relTypes, CursorFactory cursors )
     {
         read.singleNode( node, nodeCursor );
@@ -228,16 +229,58 @@ public abstract class CompiledExpandUtils
         return calculateTotalDegree( nodeCursor, direction, relTypes, cursors );
     }
 
+    /**
+     * Sums the degrees of a dense node for all the given types in a single pass over its relationship groups,
+     * instead of walking the group chain once for every type. A type that is given more than once is counted once
+     * for every time it is given, just as summing the degree of every given type would.
+     */
     private static int calculateTotalDegree( NodeCursor nodeCursor, Direction direction, int[] relTypes,
             CursorFactory cursors )
     {
-        int degree = 0;
-        for ( int relType : relTypes )
+        try ( RelationshipGroupCursor group = cursors.allocateRelationshipGroupCursor() )
         {
-            degree += nodeGetDegree( nodeCursor, cursors, direction, relType );
+            nodeCursor.relationships( group );
+            int degree = 0;
+            int typesFound = 0;
+            while ( typesFound < relTypes.length && group.next() )
+            {
+                int occurrences = occurrences( relTypes, group.type() );
+                if ( occurrences > 0 )
+                {
+                    degree += occurrences * groupDegree( group, direction );
+                    typesFound += occurrences;
+                }
+            }
+            return degree;
         }
+    }
 
-        return degree;
+    private static int groupDegree( RelationshipGroupCursor group, Direction direction )
+    {
+        switch ( direction )
+        {
+        case OUTGOING:
+            return group.outgoingCount() + group.loopCount();
+        case INCOMING:
+            return group.incomingCount() + group.loopCount();
+        case BOTH:
+            return group.totalCount();
+        default:
+            throw new IllegalStateException( "Unknown direction " + direction );
+        }
+    }
+
+    private static int occurrences( int[] types, int type )
+    {
+        int occurrences = 0;
+        for ( int candidate : types )
+        {
+            if ( candidate == type )
+            {
+                occurrences++;
+            }
+        }
+        return occurrences;
     }
 
     private static RelationshipSelectionCursor connectingRelationshipsIterator(
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.commandline.dbms;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+
+import org.neo4j.commandline.admin.AdminCommand;
+import org.neo4j.commandline.admin.CommandFailed;
+import org.neo4j.commandline.admin.IncorrectUsage;
+import org.neo4j.commandline.arguments.Arguments;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.fs.DefaultFileSystemAbstraction;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.kernel.StoreLockException;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.index.IndexConfigStore;
+import org.neo4j.kernel.impl.pagecache.ConfigurableStandalonePageCacheFactory;
+import org.neo4j.kernel.impl.recovery.RecoveryRequiredChecker;
+import org.neo4j.kernel.impl.recovery.RecoveryRequiredException;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.SchemaStorage;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.StoreType;
+import org.neo4j.kernel.impl.store.format.RecordFormatSelector;
+import org.neo4j.kernel.impl.store.format.RecordFormats;
+import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
+import org.neo4j.kernel.impl.storemigration.RelationshipStoreReorganizer;
+import org.neo4j.kernel.impl.storemigration.StoreVersionCheck;
+import org.neo4j.kernel.impl.util.Validators;
+import org.neo4j.kernel.impl.util.monitoring.LogProgressReporter;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.logging.FormattedLogProvider;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.storageengine.api.EntityType;
+import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
+
+import static java.lang.String.format;
+import static org.neo4j.commandline.Util.canonicalPath;
+import static org.neo4j.commandline.arguments.common.Database.ARG_DATABASE;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.database_path;
+import static org.neo4j.kernel.impl.scheduler.JobSchedulerFactory.createInitialisedScheduler;
+
+public class ReorganizeCommand implements AdminCommand
+{
+    static final String WORKING_DIRECTORY_NAME = "reorganize-working-dir";
+
+    private static final Arguments arguments = new Arguments()
+            .withDatabase();
+
+    private final Path homeDir;
+    private final Path configDir;
+    private final PrintStream output;
+
+    public ReorganizeCommand( Path homeDir, Path configDir, PrintStream output )
+    {
+        this.homeDir = homeDir;
+        this.configDir = configDir;
+        this.output = output;
+    }
+
+    @Override
+    public void execute( String[] args ) throws IncorrectUsage, CommandFailed
+    {
+        String database = arguments.parse( args ).get( ARG_DATABASE );
+
+        Config config = buildConfig( database );
+        Path databaseDirectory = canonicalPath( config.get( database_path ).toPath() );
+        DatabaseLayout databaseLayout = DatabaseLayout.of( databaseDirectory.toFile() );
+
+        try
+        {
+            Validators.CONTAINS_EXISTING_DATABASE.validate( databaseLayout.databaseDirectory() );
+        }
+        catch ( IllegalArgumentException e )
+        {
+            throw new CommandFailed( "database does not exist: " + database, e );
+        }
+
+        try ( Closeable ignored = StoreLockChecker.check( databaseLayout.getStoreLayout() );
+              FileSystemAbstraction fileSystem = new DefaultFileSystemAbstraction();
+              JobScheduler jobScheduler = createInitialisedScheduler();
+              PageCache pageCache = ConfigurableStandalonePageCacheFactory.createPageCache( fileSystem, config, jobScheduler ) )
+        {
+            RelationshipStoreReorganizer reorganizer = new RelationshipStoreReorganizer( pageCache, fileSystem, config );
+            DatabaseLayout workingLayout = DatabaseLayout.of( databaseLayout.file( WORKING_DIRECTORY_NAME ) );
+            if ( reorganizer.completeInterruptedReorganisation( databaseLayout, workingLayout ) )
+            {
+                fileSystem.deleteRecursively( workingLayout.databaseDirectory() );
+                output.println( "Completed an interrupted reorganization" );
+                return;
+            }
+            checkDbState( fileSystem, pageCache, databaseLayout, config );
+            RecordFormats format = selectFormat( pageCache, databaseLayout );
+            checkNoRelationshipIndexes( fileSystem, pageCache, databaseLayout, config, format );
+            reorganize( fileSystem, reorganizer, databaseLayout, workingLayout, format );
+        }
+        catch ( StoreLockException e )
+        {
+            throw new CommandFailed( "the database is in use -- stop Neo4j and try again", e );
+        }
+        catch ( IOException e )
+        {
+            throw new CommandFailed(
+                    format( "unable to reorganize database: %s: %s", e.getClass().getSimpleName(), e.getMessage() ), e );
+        }
+        catch ( CommandFailed e )
+        {
+            throw e;
+        }
+        catch ( Exception e )
+        {
+            throw new CommandFailed( e.getMessage(), e );
+        }
+    }
+
+    private Config buildConfig( String databaseName )
+    {
+        return Config.fromFile( configDir.resolve( Config.DEFAULT_CONFIG_FILE_NAME ) )
+                .withHome( homeDir )
+                .withConnectorsDisabled()
+                .withNoThrowOnFileLoadFailure()
+                .withSetting( GraphDatabaseSettings.active_database, databaseName )
+                .build();
+    }
+
+    private static void checkDbState( FileSystemAbstraction fileSystem, PageCache pageCache, DatabaseLayout databaseLayout, Config config )
+            throws CommandFailed
+    {
+        try
+        {
+            RecoveryRequiredChecker.assertRecoveryIsNotRequired( fileSystem, pageCache, config, databaseLayout, new Monitors() );
+        }
+        catch ( RecoveryRequiredException rre )
+        {
+            throw new CommandFailed( rre.getMessage() );
+        }
+        catch ( Exception e )
+        {
+            throw new CommandFailed( "Failure when checking for recovery state: '%s'." + e.getMessage(), e );
+        }
+    }
+
+    private static RecordFormats selectFormat( PageCache pageCache, DatabaseLayout databaseLayout ) throws CommandFailed
+    {
+        String storeVersion = new StoreVersionCheck( pageCache )
+                .getVersion( databaseLayout.metadataStore() )
+                .orElseThrow( () -> new CommandFailed(
+                        format( "Could not find version metadata in store '%s'", databaseLayout.databaseDirectory() ) ) );
+        return RecordFormatSelector.selectForVersion( storeVersion );
+    }
+
+    /**
+     * Relationship ids change, which would leave explicit and schema indexes of relationships pointing at the wrong
+     * relationships. They have to be dropped before, and re-created after, reorganizing.
+     */
+    private static void checkNoRelationshipIndexes( FileSystemAbstraction fileSystem, PageCache pageCache, DatabaseLayout databaseLayout,
+            Config config, RecordFormats format ) throws CommandFailed
+    {
+        IndexConfigStore indexConfigStore = new IndexConfigStore( databaseLayout, fileSystem );
+        indexConfigStore.init();
+        String[] explicitIndexes = indexConfigStore.getNames( Relationship.class );
+        if ( explicitIndexes.length > 0 )
+        {
+            throw new CommandFailed( format( "the database has explicit relationship indexes %s -- drop them and try again",
+                    String.join( ", ", explicitIndexes ) ) );
+        }
+
+        StoreFactory storeFactory = new StoreFactory( databaseLayout, config, new DefaultIdGeneratorFactory( fileSystem ), pageCache, fileSystem,
+                format, NullLogProvider.getInstance(), EmptyVersionContextSupplier.EMPTY );
+        try ( NeoStores neoStores = storeFactory.openNeoStores( false, StoreType.SCHEMA ) )
+        {
+            Iterator<StoreIndexDescriptor> indexes = new SchemaStorage( neoStores.getSchemaStore() ).indexesGetAll();
+            while ( indexes.hasNext() )
+            {
+                StoreIndexDescriptor index = indexes.next();
+                if ( index.schema().entityType() == EntityType.RELATIONSHIP )
+                {
+                    throw new CommandFailed( format( "the database has relationship index %s -- drop it and try again",
+                            index.getUserSuppliedName().orElse( String.valueOf( index.getId() ) ) ) );
+                }
+            }
+        }
+    }
+
+    private void reorganize( FileSystemAbstraction fileSystem, RelationshipStoreReorganizer reorganizer, DatabaseLayout databaseLayout,
+            DatabaseLayout workingLayout, RecordFormats format ) throws IOException
+    {
+        // Left over from a reorganization that failed before it touched the database
+        if ( fileSystem.fileExists( workingLayout.databaseDirectory() ) )
+        {
+            fileSystem.deleteRecursively( workingLayout.databaseDirectory() );
+        }
+        try
+        {
+            LogProgressReporter progress = new LogProgressReporter(
+                    FormattedLogProvider.toOutputStream( output ).getLog( RelationshipStoreReorganizer.class ) );
+            long relationships = reorganizer.reorganise( databaseLayout, workingLayout, format, progress );
+            output.println( format( "Reorganized %d relationships", relationships ) );
+        }
+        finally
+        {
+            // The new stores must be kept if they were only partly moved over the database, so that running the
+            // command again can complete the move
+            if ( !reorganizer.hasUnfinishedMove( workingLayout ) )
+            {
+                fileSystem.deleteRecursively( workingLayout.databaseDirectory() );
+            }
+        }
+    }
+
+    public static Arguments arguments()
+    {
+        return arguments;
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.commandline.dbms;
+
+import java.nio.file.Path;
+import javax.annotation.Nonnull;
+
+import org.neo4j.commandline.admin.AdminCommand;
+import org.neo4j.commandline.admin.AdminCommandSection;
+import org.neo4j.commandline.admin.OutsideWorld;
+import org.neo4j.commandline.arguments.Arguments;
+
+public class ReorganizeCommandProvider extends AdminCommand.Provider
+{
+    public ReorganizeCommandProvider()
+    {
+        super( "reorganize" );
+    }
+
+    @Override
+    @Nonnull
+    public Arguments allArguments()
+    {
+        return ReorganizeCommand.arguments();
+    }
+
+    @Override
+    @Nonnull
+    public String description()
+    {
+        return "Rewrite the relationship store of a database so that the relationships of each node are stored next " +
+                "to each other, which makes traversals read fewer pages. Relationships get new ids, so the database " +
+                "must not have any explicit or schema indexes of relationships, and the store id changes, so backups " +
+                "and cluster members of the database from before cannot be used with it afterwards. It is not " +
+                "possible to reorganize a database that is mounted in a running Neo4j server. The new stores are " +
+                "written to a working directory in the database directory first, and then moved over the old ones. " +
+                "If the command is interrupted while moving them, the database must not be started until the " +
+                "command has been run again, which completes the move.";
+    }
+
+    @Override
+    @Nonnull
+    public String summary()
+    {
+        return "Store the relationships of each node next to each other.";
+    }
+
+    @Override
+    @Nonnull
+    public AdminCommandSection commandSection()
+    {
+        return AdminCommandSection.general();
+    }
+
+    @Override
+    @Nonnull
+    public AdminCommand create( Path homeDir, Path configDir, OutsideWorld outsideWorld )
+    {
+        return new ReorganizeCommand( homeDir, configDir, outsideWorld.outStream() );
+    }
+}
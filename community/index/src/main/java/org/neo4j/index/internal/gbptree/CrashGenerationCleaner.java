@@ -80,6 +80,14 @@ class CrashGenerationCleaner
         return min(MAX_BATCH_SIZE, max(MIN_BATCH_SIZE, pagesToClean / (100L * threads)));
     }
 
+    private static int numberOfThreads( long pagesToClean, long batchSize )
+    {
+        // No more threads than there are batches, small trees are cleaned by one or a few threads
+        // leaving the rest of the executor to other trees being cleaned at the same time
+        long batches = (pagesToClean + batchSize - 1) / batchSize;
+        return (int) max( 1, min( NUMBER_OF_WORKERS, batches ) );
+    }
+
     // === Methods about the execution and threading ===
 
     public void clean( ExecutorService executor )
@@ -90,8 +98,8 @@ class CrashGenerationCleaner
 
         long startTime = currentTimeMillis();
         long pagesToClean = highTreeNodeId - lowTreeNodeId;
-        int threads = NUMBER_OF_WORKERS;
-        long batchSize = batchSize( pagesToClean, threads );
+        long batchSize = batchSize( pagesToClean, NUMBER_OF_WORKERS );
+        int threads = numberOfThreads( pagesToClean, batchSize );
         AtomicLong nextId = new AtomicLong( lowTreeNodeId );
         AtomicReference<Throwable> error = new AtomicReference<>();
         AtomicInteger cleanedPointers = new AtomicInteger();
@@ -31,13 +31,19 @@ import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Consumer;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
 import org.neo4j.cursor.RawCursor;
 import org.neo4j.helpers.Exceptions;
+import org.neo4j.index.internal.gbptree.TreeNode.Overflow;
+import org.neo4j.io.IOUtils;
 import org.neo4j.io.pagecache.CursorException;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
@@ -55,6 +61,10 @@ import static org.neo4j.index.internal.gbptree.Header.CARRY_OVER_PREVIOUS_HEADER
 import static org.neo4j.index.internal.gbptree.Header.replace;
 import static org.neo4j.index.internal.gbptree.PageCursorUtil.checkOutOfBounds;
 import static org.neo4j.index.internal.gbptree.PointerChecking.assertNoSuccessor;
+import static org.neo4j.index.internal.gbptree.TreeNode.Overflow.NO_NEED_DEFRAG;
+import static org.neo4j.index.internal.gbptree.TreeNode.Overflow.YES;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.INTERNAL;
+import static org.neo4j.index.internal.gbptree.TreeNode.Type.LEAF;
 
 /**
  * A generation-aware B+tree (GB+Tree) implementation directly atop a {@link PageCache} with no caching in between.
@@ -185,6 +195,16 @@ public class GBPTree<KEY,VALUE> implements Closeable
             public void treeShrink()
             {   // no-op
             }
+
+            @Override
+            public void compactionProgress( long numberOfLeavesVisited, long numberOfLeavesMerged )
+            {   // no-op
+            }
+
+            @Override
+            public void compactionCompleted( long numberOfLeavesVisited, long numberOfLeavesMerged, long reclaimedBytes )
+            {   // no-op
+            }
         }
 
         /**
@@ -244,6 +264,23 @@ public class GBPTree<KEY,VALUE> implements Closeable
          * Report tree shrink, when root becomes empty.
          */
         void treeShrink();
+
+        /**
+         * Called after each call to {@link GBPTree#compact(double, int)} which did not complete a compaction pass.
+         *
+         * @param numberOfLeavesVisited number of leaves visited so far in the current compaction pass.
+         * @param numberOfLeavesMerged number of leaves merged into their right sibling so far in the current compaction pass.
+         */
+        void compactionProgress( long numberOfLeavesVisited, long numberOfLeavesMerged );
+
+        /**
+         * Called when a compaction pass, i.e. {@link GBPTree#compact(double, int)} having visited all leaves, has completed.
+         *
+         * @param numberOfLeavesVisited number of leaves visited in the compaction pass.
+         * @param numberOfLeavesMerged number of leaves merged into their right sibling in the compaction pass.
+         * @param reclaimedBytes number of bytes of the merged leaves, now released to the free-list for reuse.
+         */
+        void compactionCompleted( long numberOfLeavesVisited, long numberOfLeavesMerged, long reclaimedBytes );
     }
 
     /**
@@ -322,6 +359,26 @@ public class GBPTree<KEY,VALUE> implements Closeable
      */
     private final GBPTreeLock lock = new GBPTreeLock();
 
+    /**
+     * Held shared by {@link ConcurrentWriter concurrent writers} while updating a single leaf and exclusively
+     * while changing the structure of the tree.
+     */
+    private final ReentrantReadWriteLock structureLatch = new ReentrantReadWriteLock();
+
+    /**
+     * Striped locks guarding leaves which {@link ConcurrentWriter concurrent writers} update while holding
+     * {@link #structureLatch} shared. Length is a power of two.
+     */
+    private final ReentrantLock[] leafLocks = newLeafLocks( 1024 );
+
+    /**
+     * Key in the leaf where the next call to {@link #compact(double, int)} continues, or {@code null} if the next call
+     * starts a new compaction pass from the leftmost leaf. Guarded by synchronizing on this tree.
+     */
+    private KEY compactionPosition;
+    private long compactionLeavesVisited;
+    private long compactionLeavesMerged;
+
     /**
      * Page size, i.e. tree node size, of the tree nodes in this tree. The page size is determined on
      * tree creation, stored in meta page and read when opening tree later.
@@ -914,6 +971,251 @@ public class GBPTree<KEY,VALUE> implements Closeable
                 exceptionDecorator, SeekCursor.DEFAULT_MAX_READ_AHEAD );
     }
 
+    /**
+     * Seeks hits in multiple key ranges in one go. The ranges must be ascending, i.e. each range must have its
+     * {@code fromInclusive} less than or equal to its {@code toExclusive}, and ranges must come in ascending order
+     * without overlapping each other. As with {@link #seek(Object, Object)}, a range where {@code fromInclusive} and
+     * {@code toExclusive} are equal is an exact match, where {@code toExclusive} is also inclusive.
+     * <p>
+     * Hits from all ranges are returned in ascending order. Compared to seeking each range separately this saves
+     * traversing down from the root for every range which starts in the leaf where the previous range ended,
+     * which is typical for lookups of many nearby keys.
+     *
+     * @param ranges key ranges, given as {@code fromInclusive} and {@code toExclusive} pairs, to seek.
+     * @return a {@link RawCursor} used to iterate over the hits in all the ranges.
+     * @throws IOException on error reading from index.
+     * @throws IllegalArgumentException if there are no ranges or if ranges are not ascending.
+     */
+    public RawCursor<Hit<KEY,VALUE>,IOException> seekAll( List<Pair<KEY,KEY>> ranges ) throws IOException
+    {
+        if ( ranges.isEmpty() )
+        {
+            throw new IllegalArgumentException( "Need at least one range to seek" );
+        }
+        Pair<KEY,KEY> previous = null;
+        for ( Pair<KEY,KEY> range : ranges )
+        {
+            if ( layout.compare( range.getLeft(), range.getRight() ) > 0 || (previous != null && overlaps( previous, range )) )
+            {
+                throw new IllegalArgumentException( format( "Ranges must be ascending and not overlapping, but got %s", ranges ) );
+            }
+            previous = range;
+        }
+
+        // The seek cursor keeps, and sometimes modifies, the keys of its range, so give it its own keys
+        Pair<KEY,KEY> first = ranges.get( 0 );
+        KEY fromInclusive = layout.copyKey( first.getLeft(), layout.newKey() );
+        KEY toExclusive = layout.copyKey( first.getRight(), layout.newKey() );
+        SeekCursor<KEY,VALUE> seekCursor = (SeekCursor<KEY,VALUE>) seek( fromInclusive, toExclusive );
+        return new MultiRangeSeekCursor<>( seekCursor, ranges.subList( 1, ranges.size() ).iterator(), rootCatchupSupplier );
+    }
+
+    private boolean overlaps( Pair<KEY,KEY> previous, Pair<KEY,KEY> range )
+    {
+        int comparison = layout.compare( previous.getRight(), range.getLeft() );
+        boolean previousIsExactMatch = layout.compare( previous.getLeft(), previous.getRight() ) == 0;
+        // The end of an exact match is inclusive
+        return previousIsExactMatch ? comparison >= 0 : comparison > 0;
+    }
+
+    /**
+     * Seeks hits in the given key range, split into partitions which can be seeked independently of each other,
+     * e.g. by different threads. The partitions are chosen using the separator keys in the internal nodes of the tree,
+     * going as far down in the tree as needed for there to be at least {@code desiredNumberOfPartitions - 1} separators
+     * inside the range, picking evenly spread separators among those. This gives partitions of roughly equal size without
+     * reading any leaves. There may be fewer partitions than desired, e.g. if the range is small or the tree has few levels.
+     * <p>
+     * Concurrent changes to the tree may affect how evenly sized partitions are, but never which hits are found.
+     * Only seeking forwards is supported.
+     *
+     * @param fromInclusive lower bound of the whole range to seek (inclusive).
+     * @param toExclusive higher bound of the whole range to seek (exclusive).
+     * @param desiredNumberOfPartitions number of partitions to split the range into, if possible.
+     * @return one {@link RawCursor} per partition, in key order. Each of them must be closed separately.
+     * @throws IOException on error reading from index.
+     * @throws IllegalArgumentException if range is not ascending or {@code desiredNumberOfPartitions} is less than one.
+     * @see #partitionBoundaries(Object, Object, int)
+     */
+    public List<RawCursor<Hit<KEY,VALUE>,IOException>> partitionedSeek( KEY fromInclusive, KEY toExclusive, int desiredNumberOfPartitions )
+            throws IOException
+    {
+        List<KEY> boundaries = partitionBoundaries( fromInclusive, toExclusive, desiredNumberOfPartitions );
+        List<RawCursor<Hit<KEY,VALUE>,IOException>> seekers = new ArrayList<>( boundaries.size() - 1 );
+        try
+        {
+            // The seek cursors keep, and sometimes modify, the keys of their ranges, so give them their own keys
+            for ( int i = 0; i < boundaries.size() - 1; i++ )
+            {
+                seekers.add( seek( layout.copyKey( boundaries.get( i ), layout.newKey() ),
+                        layout.copyKey( boundaries.get( i + 1 ), layout.newKey() ) ) );
+            }
+            return seekers;
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            IOUtils.closeAllSilently( seekers );
+            throw e;
+        }
+    }
+
+    /**
+     * Splits the given key range into partitions the same way as {@link #partitionedSeek(Object, Object, int)}, but only returns
+     * the boundaries of the partitions instead of opening a seek cursor for each of them. This is useful when the partitions are
+     * seeked later, if at all, e.g. by different threads.
+     *
+     * @param fromInclusive lower bound of the whole range (inclusive).
+     * @param toExclusive higher bound of the whole range (exclusive).
+     * @param desiredNumberOfPartitions number of partitions to split the range into, if possible.
+     * @return the boundaries of the partitions, in key order, starting with {@code fromInclusive} and ending with {@code toExclusive}.
+     * Partition {@code i} is the range from boundary {@code i} (inclusive) to boundary {@code i + 1} (exclusive). The keys are new instances,
+     * which are not modified by the tree afterwards.
+     * @throws IOException on error reading from index.
+     * @throws IllegalArgumentException if range is not ascending or {@code desiredNumberOfPartitions} is less than one.
+     */
+    public List<KEY> partitionBoundaries( KEY fromInclusive, KEY toExclusive, int desiredNumberOfPartitions ) throws IOException
+    {
+        if ( layout.compare( fromInclusive, toExclusive ) > 0 )
+        {
+            throw new IllegalArgumentException( "Partitioned seek only supports seeking forwards" );
+        }
+        if ( desiredNumberOfPartitions < 1 )
+        {
+            throw new IllegalArgumentException( "Need at least one partition, but wanted " + desiredNumberOfPartitions );
+        }
+
+        List<KEY> splitters = desiredNumberOfPartitions == 1 || layout.compare( fromInclusive, toExclusive ) == 0
+                              ? new ArrayList<>() : partitionSplitters( fromInclusive, toExclusive, desiredNumberOfPartitions );
+        List<KEY> boundaries = new ArrayList<>( splitters.size() + 2 );
+        boundaries.add( layout.copyKey( fromInclusive, layout.newKey() ) );
+        boundaries.addAll( splitters );
+        boundaries.add( layout.copyKey( toExclusive, layout.newKey() ) );
+        return boundaries;
+    }
+
+    private List<KEY> partitionSplitters( KEY fromInclusive, KEY toExclusive, int desiredNumberOfPartitions ) throws IOException
+    {
+        long generation = this.generation;
+        long stableGeneration = stableGeneration( generation );
+        long unstableGeneration = unstableGeneration( generation );
+
+        List<KEY> splitters = new ArrayList<>();
+        try ( PageCursor cursor = pagedFile.io( 0L /*ignored*/, PagedFile.PF_SHARED_READ_LOCK ) )
+        {
+            // Go down one level at a time, each level having more separators to choose from than the one above
+            List<Long> level = new ArrayList<>();
+            level.add( root.id() );
+            while ( splitters.size() + 1 < desiredNumberOfPartitions && !level.isEmpty() )
+            {
+                List<KEY> levelSplitters = new ArrayList<>();
+                List<Long> nextLevel = new ArrayList<>();
+                boolean completeLevel = true;
+                for ( long nodeId : level )
+                {
+                    if ( !readPartitionSplitters( cursor, nodeId, fromInclusive, toExclusive, levelSplitters, nextLevel,
+                            stableGeneration, unstableGeneration ) )
+                    {
+                        // Either we've reached the leaves or read a child pointer we couldn't follow, either way this is as far as we go
+                        completeLevel = false;
+                        break;
+                    }
+                }
+                if ( completeLevel || splitters.isEmpty() )
+                {
+                    splitters = levelSplitters;
+                }
+                level = completeLevel ? nextLevel : new ArrayList<>();
+            }
+        }
+
+        // Concurrent changes to the tree could have given us separators out of order, which mustn't end up as overlapping partitions
+        splitters.sort( layout );
+        List<KEY> distinctSplitters = new ArrayList<>( splitters.size() );
+        for ( KEY splitter : splitters )
+        {
+            if ( distinctSplitters.isEmpty() || layout.compare( distinctSplitters.get( distinctSplitters.size() - 1 ), splitter ) < 0 )
+            {
+                distinctSplitters.add( splitter );
+            }
+        }
+        return evenlySpread( distinctSplitters, desiredNumberOfPartitions - 1 );
+    }
+
+    /**
+     * Reads the separator keys inside the given range, and pointers to the children intersecting the given range, from an internal node.
+     *
+     * @return {@code true} if the node was an internal node and all relevant child pointers could be read, otherwise {@code false}.
+     */
+    private boolean readPartitionSplitters( PageCursor cursor, long nodeId, KEY fromInclusive, KEY toExclusive, List<KEY> splitters,
+            List<Long> children, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        PageCursorUtil.goTo( cursor, "partition", nodeId );
+        List<KEY> keys = new ArrayList<>();
+        List<Long> childPointers = new ArrayList<>();
+        boolean isInternal;
+        do
+        {
+            keys.clear();
+            childPointers.clear();
+            isInternal = TreeNode.nodeType( cursor ) == TreeNode.NODE_TYPE_TREE_NODE && TreeNode.isInternal( cursor );
+            int keyCount = TreeNode.keyCount( cursor );
+            if ( isInternal && bTreeNode.reasonableKeyCount( keyCount ) )
+            {
+                for ( int pos = 0; pos < keyCount; pos++ )
+                {
+                    keys.add( bTreeNode.keyAt( cursor, layout.newKey(), pos, INTERNAL ) );
+                    childPointers.add( bTreeNode.childAt( cursor, pos, stableGeneration, unstableGeneration ) );
+                }
+                childPointers.add( bTreeNode.childAt( cursor, keyCount, stableGeneration, unstableGeneration ) );
+            }
+        }
+        while ( cursor.shouldRetry() );
+        checkOutOfBounds( cursor );
+        cursor.checkAndClearCursorException();
+        if ( !isInternal || childPointers.isEmpty() )
+        {
+            return false;
+        }
+
+        int keyCount = keys.size();
+        for ( int pos = 0; pos <= keyCount; pos++ )
+        {
+            // Child at pos holds keys in range [keys[pos - 1], keys[pos])
+            boolean endsAfterFrom = pos == keyCount || layout.compare( keys.get( pos ), fromInclusive ) > 0;
+            boolean startsBeforeTo = pos == 0 || layout.compare( keys.get( pos - 1 ), toExclusive ) < 0;
+            if ( endsAfterFrom && startsBeforeTo )
+            {
+                long childPointer = childPointers.get( pos );
+                if ( !GenerationSafePointerPair.isSuccess( childPointer ) )
+                {
+                    return false;
+                }
+                children.add( GenerationSafePointerPair.pointer( childPointer ) );
+            }
+        }
+        for ( KEY key : keys )
+        {
+            if ( layout.compare( key, fromInclusive ) > 0 && layout.compare( key, toExclusive ) < 0 )
+            {
+                splitters.add( key );
+            }
+        }
+        return true;
+    }
+
+    private static <KEY> List<KEY> evenlySpread( List<KEY> candidates, int count )
+    {
+        if ( candidates.size() <= count )
+        {
+            return candidates;
+        }
+        List<KEY> spread = new ArrayList<>( count );
+        for ( int i = 1; i <= count; i++ )
+        {
+            spread.add( candidates.get( (int) ((long) i * candidates.size() / (count + 1)) ) );
+        }
+        return spread;
+    }
+
     /**
      * Checkpoints and flushes any pending changes to storage. After a successful call to this method
      * the data is durable and safe. {@link #writer() Changes} made after this call and until crashing or
@@ -1113,6 +1415,201 @@ public class GBPTree<KEY,VALUE> implements Closeable
         return writer;
     }
 
+    /**
+     * Returns a {@link BulkLoader} able to fill this tree, which must be empty, with entries given in strictly ascending key order.
+     * Leaves are filled up to {@code fillFactor} one after the other and internal levels are built bottom-up along the way,
+     * which makes bulk loading much cheaper than inserting the same entries one by one using a {@link Writer}.
+     * The bulk loader acts as the {@link #writer() writer} of this tree while open, and must be closed after usage,
+     * typically by using try-with-resource clause. Added entries become visible to readers when the bulk loader is closed.
+     *
+     * @param fillFactor how much of each node to fill before continuing to the next, 1=fill nodes completely.
+     * Nodes that are not completely filled leaves room for future inserts without splitting.
+     * @return a {@link BulkLoader} for this tree.
+     * @throws IOException on error accessing the index.
+     * @throws IllegalStateException if the tree is not empty.
+     */
+    public BulkLoader<KEY,VALUE> bulkLoader( double fillFactor ) throws IOException
+    {
+        assertNotReadOnly( "Open tree bulk loader." );
+        if ( fillFactor <= 0 || fillFactor > 1 )
+        {
+            throw new IllegalArgumentException( "Fill factor must be within (0,1], but was " + fillFactor );
+        }
+        SortedBulkLoader bulkLoader = new SortedBulkLoader( fillFactor );
+        bulkLoader.initialize();
+        changesSinceLastCheckpoint = true;
+        return bulkLoader;
+    }
+
+    /**
+     * Use default value for ratioToKeepInLeftOnSplit
+     * @see GBPTree#concurrentWriter(double)
+     */
+    public Writer<KEY,VALUE> concurrentWriter() throws IOException
+    {
+        return concurrentWriter( InternalTreeLogic.DEFAULT_SPLIT_RATIO );
+    }
+
+    /**
+     * Returns a {@link Writer} able to modify the index, i.e. insert and remove keys/values, concurrently with
+     * other writers returned from this method. Each returned writer must only be used by a single thread and
+     * must be closed after usage, typically by using try-with-resource clause.
+     * <p>
+     * Concurrent writers exclude the {@link #writer() single writer}, as well as {@link #checkpoint(IOLimiter) checkpoints},
+     * which will wait for all concurrent writers to close. Updates local to a single leaf are applied concurrently
+     * with other such updates, whereas updates changing the structure of the tree, like splits and merges,
+     * are applied one at a time.
+     *
+     * @param ratioToKeepInLeftOnSplit Decide how much to keep in left node on split, 0=keep nothing, 0.5=split 50-50, 1=keep everything.
+     * @return a new {@link Writer} which can be used concurrently with other concurrent writers.
+     * @throws IOException on error accessing the index.
+     */
+    public Writer<KEY,VALUE> concurrentWriter( double ratioToKeepInLeftOnSplit ) throws IOException
+    {
+        assertNotReadOnly( "Open concurrent tree writer." );
+        ConcurrentWriter concurrentWriter = new ConcurrentWriter( ratioToKeepInLeftOnSplit );
+        concurrentWriter.initialize();
+        changesSinceLastCheckpoint = true;
+        return concurrentWriter;
+    }
+
+    /**
+     * Compacts the tree online by merging leaves which are filled less than {@code maxFillRatio} into their right sibling,
+     * whenever the right sibling has room for them. Merged leaves are released to the free-list and their pages reused for
+     * new tree nodes. Since this walks the whole tree it's meant to be called repeatedly, typically by a periodic background
+     * job, where each call visits at most {@code maxLeaves} leaves, continuing where the previous call stopped.
+     * <p>
+     * Readers are not blocked by compaction. {@link #concurrentWriter() Concurrent writers}, {@link #writer()} and
+     * {@link #checkpoint(IOLimiter)} are only held up while each single leaf is visited, not for the whole call.
+     * Progress is reported to {@link Monitor#compactionProgress(long, long)} and
+     * {@link Monitor#compactionCompleted(long, long, long)}.
+     *
+     * @param maxFillRatio leaves filled less than this, 0=empty, 1=full, are merged into their right sibling if possible.
+     * @param maxLeaves maximum number of leaves to visit in this call.
+     * @return {@code true} if the last leaf was visited by this call, i.e. the compaction pass was completed,
+     * otherwise {@code false}.
+     * @throws IOException on error accessing the index.
+     */
+    public synchronized boolean compact( double maxFillRatio, int maxLeaves ) throws IOException
+    {
+        assertNotReadOnly( "Compact tree." );
+        if ( maxLeaves <= 0 )
+        {
+            throw new IllegalArgumentException( "Expected a positive number of leaves to visit, but was " + maxLeaves );
+        }
+
+        InternalTreeLogic<KEY,VALUE> treeLogic = new InternalTreeLogic<>( freeList, bTreeNode, layout, monitor );
+        StructurePropagation<KEY> structurePropagation = new StructurePropagation<>( layout.newKey(), layout.newKey(), layout.newKey() );
+        try
+        {
+            if ( compactionPosition == null )
+            {
+                KEY lowestKey = layout.newKey();
+                if ( !findLowestKey( treeLogic, lowestKey ) )
+                {
+                    monitor.compactionCompleted( 0, 0, 0 );
+                    return true;
+                }
+                compactionPosition = lowestKey;
+                compactionLeavesVisited = 0;
+                compactionLeavesMerged = 0;
+            }
+
+            int leavesVisited = 0;
+            while ( leavesVisited < maxLeaves )
+            {
+                InternalTreeLogic.LeafCompaction compaction = compactLeaf( treeLogic, structurePropagation, maxFillRatio );
+                leavesVisited++;
+                compactionLeavesVisited++;
+                if ( compaction == InternalTreeLogic.LeafCompaction.MERGED )
+                {
+                    compactionLeavesMerged++;
+                }
+                else if ( compaction == InternalTreeLogic.LeafCompaction.LAST_LEAF )
+                {
+                    compactionPosition = null;
+                    monitor.compactionCompleted( compactionLeavesVisited, compactionLeavesMerged,
+                            compactionLeavesMerged * pageSize );
+                    return true;
+                }
+            }
+            monitor.compactionProgress( compactionLeavesVisited, compactionLeavesMerged );
+            return false;
+        }
+        catch ( Throwable e )
+        {
+            // Start over on next call, the position may point to a key which was never written to the tree
+            compactionPosition = null;
+            appendTreeInformation( e );
+            throw e;
+        }
+    }
+
+    private boolean findLowestKey( InternalTreeLogic<KEY,VALUE> treeLogic, KEY into ) throws IOException
+    {
+        // Block here until cleaning has completed, if cleaning was required
+        lock.concurrentWriterLock();
+        try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK ) )
+        {
+            assertRecoveryCleanSuccessful();
+            structureLatch.writeLock().lock();
+            try
+            {
+                root.goTo( cursor );
+                treeLogic.initialize( cursor, InternalTreeLogic.DEFAULT_SPLIT_RATIO );
+                return treeLogic.lowestKey( cursor, into, stableGeneration( generation ), unstableGeneration( generation ) );
+            }
+            finally
+            {
+                structureLatch.writeLock().unlock();
+            }
+        }
+        finally
+        {
+            lock.concurrentWriterUnlock();
+        }
+    }
+
+    /**
+     * Visits the leaf at {@link #compactionPosition}, holding the lock only for this single leaf so that {@link #writer()} and
+     * {@link #checkpoint(IOLimiter)} get to run between leaves. The generation is read anew for every leaf for the same reason.
+     */
+    private InternalTreeLogic.LeafCompaction compactLeaf( InternalTreeLogic<KEY,VALUE> treeLogic, StructurePropagation<KEY> structurePropagation,
+            double maxFillRatio ) throws IOException
+    {
+        lock.concurrentWriterLock();
+        try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK ) )
+        {
+            assertRecoveryCleanSuccessful();
+            long stableGeneration = stableGeneration( generation );
+            long unstableGeneration = unstableGeneration( generation );
+            InternalTreeLogic.LeafCompaction compaction;
+            structureLatch.writeLock().lock();
+            try
+            {
+                root.goTo( cursor );
+                treeLogic.initialize( cursor, InternalTreeLogic.DEFAULT_SPLIT_RATIO );
+                compaction = treeLogic.compactLeaf( cursor, structurePropagation, compactionPosition, maxFillRatio,
+                        stableGeneration, unstableGeneration );
+                handleRootStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration );
+            }
+            finally
+            {
+                structureLatch.writeLock().unlock();
+            }
+            if ( compaction == InternalTreeLogic.LeafCompaction.MERGED )
+            {
+                // Only a merge changes the tree, visiting leaves which are left as they are doesn't require a checkpoint
+                changesSinceLastCheckpoint = true;
+            }
+            return compaction;
+        }
+        finally
+        {
+            lock.concurrentWriterUnlock();
+        }
+    }
+
     private void setRoot( long rootId, long rootGeneration )
     {
         this.root = new Root( rootId, rootGeneration );
@@ -1409,13 +1906,6 @@ public class GBPTree<KEY,VALUE> implements Closeable
             checkOutOfBounds( cursor );
         }
 
-        private void setRoot( long rootPointer )
-        {
-            long rootId = GenerationSafePointerPair.pointer( rootPointer );
-            GBPTree.this.setRoot( rootId, unstableGeneration );
-            treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
-        }
-
         @Override
         public VALUE remove( KEY key )
         {
@@ -1444,26 +1934,10 @@ public class GBPTree<KEY,VALUE> implements Closeable
 
         private void handleStructureChanges() throws IOException
         {
-            if ( structurePropagation.hasRightKeyInsert )
-            {
-                // New root
-                long newRootId = freeList.acquireNewId( stableGeneration, unstableGeneration );
-                PageCursorUtil.goTo( cursor, "new root", newRootId );
-
-                bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
-                bTreeNode.setChildAt( cursor, structurePropagation.midChild, 0,
-                        stableGeneration, unstableGeneration );
-                bTreeNode.insertKeyAndRightChildAt( cursor, structurePropagation.rightKey, structurePropagation.rightChild, 0, 0,
-                        stableGeneration, unstableGeneration );
-                TreeNode.setKeyCount( cursor, 1 );
-                setRoot( newRootId );
-                monitor.treeGrowth();
-            }
-            else if ( structurePropagation.hasMidChildUpdate )
+            if ( handleRootStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration ) )
             {
-                setRoot( structurePropagation.midChild );
+                treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
             }
-            structurePropagation.clear();
         }
 
         @Override
@@ -1488,6 +1962,518 @@ public class GBPTree<KEY,VALUE> implements Closeable
         }
     }
 
+    /**
+     * Applies the structure changes that an insert or remove has propagated all the way up to the root, i.e. grows the tree
+     * with a new root or points the root to the successor of the old root. Must be called by the one and only thread
+     * currently allowed to change the structure of the tree.
+     *
+     * @return whether or not the root changed, in which case the cursor is left at the new root.
+     */
+    private boolean handleRootStructureChanges( PageCursor cursor, StructurePropagation<KEY> structurePropagation,
+            long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        boolean rootChanged = false;
+        if ( structurePropagation.hasRightKeyInsert )
+        {
+            // New root
+            long newRootId = freeList.acquireNewId( stableGeneration, unstableGeneration );
+            PageCursorUtil.goTo( cursor, "new root", newRootId );
+
+            bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+            bTreeNode.setChildAt( cursor, structurePropagation.midChild, 0,
+                    stableGeneration, unstableGeneration );
+            bTreeNode.insertKeyAndRightChildAt( cursor, structurePropagation.rightKey, structurePropagation.rightChild, 0, 0,
+                    stableGeneration, unstableGeneration );
+            TreeNode.setKeyCount( cursor, 1 );
+            setRoot( newRootId, unstableGeneration );
+            monitor.treeGrowth();
+            rootChanged = true;
+        }
+        else if ( structurePropagation.hasMidChildUpdate )
+        {
+            setRoot( GenerationSafePointerPair.pointer( structurePropagation.midChild ), unstableGeneration );
+            rootChanged = true;
+        }
+        structurePropagation.clear();
+        return rootChanged;
+    }
+
+    /**
+     * A {@link Writer} which may be used concurrently with other {@link ConcurrentWriter concurrent writers}.
+     * Inserts and removes which only affect a single leaf, that is which don't split, merge or rebalance
+     * and don't need to create a successor of the leaf, are done while holding {@link #structureLatch} shared
+     * and the {@link #leafLocks leaf lock} of the leaf. All other changes fall back to holding
+     * {@link #structureLatch} exclusively, making them behave like {@link SingleWriter}.
+     */
+    private class ConcurrentWriter implements Writer<KEY,VALUE>
+    {
+        private final InternalTreeLogic<KEY,VALUE> treeLogic;
+        private final StructurePropagation<KEY> structurePropagation;
+        private final double ratioToKeepInLeftOnSplit;
+        private PageCursor cursor;
+        private boolean closed;
+
+        // Writer can't live past a checkpoint because of the mutex with checkpoint,
+        // therefore safe to locally cache these generation fields from the volatile generation in the tree
+        private long stableGeneration;
+        private long unstableGeneration;
+
+        ConcurrentWriter( double ratioToKeepInLeftOnSplit )
+        {
+            this.treeLogic = new InternalTreeLogic<>( freeList, bTreeNode, layout, monitor );
+            this.structurePropagation = new StructurePropagation<>( layout.newKey(), layout.newKey(), layout.newKey() );
+            this.ratioToKeepInLeftOnSplit = ratioToKeepInLeftOnSplit;
+        }
+
+        void initialize() throws IOException
+        {
+            // Block here until cleaning has completed, if cleaning was required
+            lock.concurrentWriterLock();
+            boolean success = false;
+            try
+            {
+                assertRecoveryCleanSuccessful();
+                cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK );
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    closed = true;
+                    closeCursor();
+                    lock.concurrentWriterUnlock();
+                }
+            }
+        }
+
+        @Override
+        public void put( KEY key, VALUE value )
+        {
+            merge( key, value, ValueMergers.overwrite() );
+        }
+
+        @Override
+        public void merge( KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger )
+        {
+            try
+            {
+                InternalTreeLogic.LeafUpdate update;
+                structureLatch.readLock().lock();
+                try
+                {
+                    moveToLeaf( key );
+                    ReentrantLock leafLock = leafLock( cursor.getCurrentPageId() );
+                    leafLock.lock();
+                    try
+                    {
+                        update = treeLogic.tryInsertInLeaf( cursor, key, value, valueMerger, unstableGeneration );
+                    }
+                    finally
+                    {
+                        leafLock.unlock();
+                    }
+                }
+                finally
+                {
+                    structureLatch.readLock().unlock();
+                }
+
+                if ( update == InternalTreeLogic.LeafUpdate.NEEDS_STRUCTURE_CHANGE )
+                {
+                    structureLatch.writeLock().lock();
+                    try
+                    {
+                        goToRoot();
+                        treeLogic.insert( cursor, structurePropagation, key, value, valueMerger,
+                                stableGeneration, unstableGeneration );
+                        handleRootStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration );
+                    }
+                    finally
+                    {
+                        structureLatch.writeLock().unlock();
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+
+            checkOutOfBounds( cursor );
+        }
+
+        @Override
+        public VALUE remove( KEY key )
+        {
+            VALUE result;
+            try
+            {
+                VALUE into = layout.newValue();
+                InternalTreeLogic.LeafUpdate update;
+                structureLatch.readLock().lock();
+                try
+                {
+                    moveToLeaf( key );
+                    ReentrantLock leafLock = leafLock( cursor.getCurrentPageId() );
+                    leafLock.lock();
+                    try
+                    {
+                        update = treeLogic.tryRemoveFromLeaf( cursor, key, into, stableGeneration, unstableGeneration );
+                    }
+                    finally
+                    {
+                        leafLock.unlock();
+                    }
+                }
+                finally
+                {
+                    structureLatch.readLock().unlock();
+                }
+
+                switch ( update )
+                {
+                case DONE:
+                    result = into;
+                    break;
+                case NOT_FOUND:
+                    result = null;
+                    break;
+                default:
+                    structureLatch.writeLock().lock();
+                    try
+                    {
+                        goToRoot();
+                        result = treeLogic.remove( cursor, structurePropagation, key, into,
+                                stableGeneration, unstableGeneration );
+                        handleRootStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration );
+                    }
+                    finally
+                    {
+                        structureLatch.writeLock().unlock();
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+
+            checkOutOfBounds( cursor );
+            return result;
+        }
+
+        private void moveToLeaf( KEY key ) throws IOException
+        {
+            goToRoot();
+            treeLogic.moveToLeaf( cursor, key, stableGeneration, unstableGeneration );
+        }
+
+        private void goToRoot() throws IOException
+        {
+            root.goTo( cursor );
+            treeLogic.initialize( cursor, ratioToKeepInLeftOnSplit );
+        }
+
+        @Override
+        public void close()
+        {
+            if ( closed )
+            {
+                throw new IllegalStateException( "Tried to close concurrent writer of " + GBPTree.this +
+                        ", but writer is already closed." );
+            }
+            closed = true;
+            closeCursor();
+            lock.concurrentWriterUnlock();
+        }
+
+        private void closeCursor()
+        {
+            if ( cursor != null )
+            {
+                cursor.close();
+                cursor = null;
+            }
+        }
+    }
+
+    /**
+     * Builds a tree bottom-up from entries given in ascending key order. There's one {@link BulkLevel} per level in the tree,
+     * each one with a cursor at the rightmost node on its level, i.e. the node currently being filled. When a node on one level
+     * is considered full a new right sibling is created and the key separating them is added to the level above,
+     * creating a new root level when needed. When closed, the node of the top level becomes the new root.
+     */
+    private class SortedBulkLoader implements BulkLoader<KEY,VALUE>
+    {
+        private final double fillFactor;
+        private final List<BulkLevel> levels = new ArrayList<>();
+        private final KEY lastKey;
+        private final KEY splitter;
+        private long oldRootId;
+        private boolean hasLastKey;
+        private boolean locked;
+
+        // Bulk loader can't live past a checkpoint because of the mutex with checkpoint,
+        // therefore safe to locally cache these generation fields from the volatile generation in the tree
+        private long stableGeneration;
+        private long unstableGeneration;
+
+        SortedBulkLoader( double fillFactor )
+        {
+            this.fillFactor = fillFactor;
+            this.lastKey = layout.newKey();
+            this.splitter = layout.newKey();
+        }
+
+        void initialize() throws IOException
+        {
+            // Block here until cleaning has completed, if cleaning was required
+            lock.writerAndCleanerLock();
+            locked = true;
+            boolean success = false;
+            try
+            {
+                assertRecoveryCleanSuccessful();
+                stableGeneration = stableGeneration( generation );
+                unstableGeneration = unstableGeneration( generation );
+                try ( PageCursor cursor = openRootCursor( PagedFile.PF_SHARED_WRITE_LOCK ) )
+                {
+                    if ( !TreeNode.isLeaf( cursor ) || TreeNode.keyCount( cursor ) != 0 )
+                    {
+                        throw new IllegalStateException( "Tried to bulk load " + GBPTree.this + ", but it is not empty." );
+                    }
+                    oldRootId = cursor.getCurrentPageId();
+                }
+                success = true;
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    unlock();
+                }
+            }
+        }
+
+        @Override
+        public void add( KEY key, VALUE value )
+        {
+            bTreeNode.validateKeyValueSize( key, value );
+            if ( hasLastKey && layout.compare( lastKey, key ) >= 0 )
+            {
+                throw new IllegalArgumentException( format( "Keys must be added in strictly ascending order, but %s was added after %s",
+                        key, lastKey ) );
+            }
+
+            try
+            {
+                BulkLevel leaves = levels.isEmpty() ? newLevel() : levels.get( 0 );
+                PageCursor cursor = leaves.cursor;
+                Overflow overflow = bTreeNode.leafOverflow( cursor, leaves.keyCount, key, value );
+                if ( leaves.keyCount > 0 && (overflow == YES || bTreeNode.fillRatio( cursor, leaves.keyCount, LEAF ) >= fillFactor) )
+                {
+                    // This leaf is full, continue in a new right sibling
+                    long newLeafId = newRightSibling( leaves, true );
+                    layout.minimalSplitter( lastKey, key, splitter );
+                    addToLevel( 1, splitter, newLeafId );
+                }
+                else if ( overflow == NO_NEED_DEFRAG )
+                {
+                    bTreeNode.defragmentLeaf( cursor );
+                }
+                bTreeNode.insertKeyValueAt( cursor, key, value, leaves.keyCount, leaves.keyCount );
+                TreeNode.setKeyCount( cursor, ++leaves.keyCount );
+                layout.copyKey( key, lastKey );
+                hasLastKey = true;
+                checkOutOfBounds( cursor );
+            }
+            catch ( IOException e )
+            {
+                appendTreeInformation( e );
+                throw new UncheckedIOException( e );
+            }
+            catch ( Throwable t )
+            {
+                appendTreeInformation( t );
+                throw t;
+            }
+        }
+
+        /**
+         * Adds {@code key} and {@code rightChild} to the rightmost node on the given level, creating that level if needed.
+         * A new node on a level is created with a key already in it, by moving the last key and right child of its full
+         * left sibling into it, so that no internal node is ever left without keys.
+         */
+        private void addToLevel( int levelIndex, KEY key, long rightChild ) throws IOException
+        {
+            BulkLevel level = levelIndex < levels.size() ? levels.get( levelIndex ) : newLevel();
+            PageCursor cursor = level.cursor;
+            Overflow overflow = bTreeNode.internalOverflow( cursor, level.keyCount, key );
+            if ( level.keyCount > 1 && (overflow == YES || bTreeNode.fillRatio( cursor, level.keyCount, INTERNAL ) >= fillFactor) )
+            {
+                // This node is full, move its last key and right child to a new right sibling and continue there
+                int lastPos = level.keyCount - 1;
+                bTreeNode.keyAt( cursor, level.tmpKey, lastPos, INTERNAL );
+                long lastChild = bTreeNode.childAt( cursor, level.keyCount, stableGeneration, unstableGeneration );
+                bTreeNode.removeKeyAndRightChildAt( cursor, lastPos, level.keyCount );
+                TreeNode.setKeyCount( cursor, lastPos );
+
+                long newNodeId = newRightSibling( level, false );
+                bTreeNode.setChildAt( cursor, lastChild, 0, stableGeneration, unstableGeneration );
+                addToLevel( levelIndex + 1, level.tmpKey, newNodeId );
+            }
+            else if ( overflow == NO_NEED_DEFRAG )
+            {
+                bTreeNode.defragmentInternal( cursor );
+            }
+            bTreeNode.insertKeyAndRightChildAt( cursor, key, rightChild, level.keyCount, level.keyCount,
+                    stableGeneration, unstableGeneration );
+            TreeNode.setKeyCount( cursor, ++level.keyCount );
+            checkOutOfBounds( cursor );
+        }
+
+        /**
+         * Creates the next level on top of the current top level, with a single node having the first node of the level below
+         * as its only child. The very first level is the leaf level, with a single empty leaf.
+         */
+        private BulkLevel newLevel() throws IOException
+        {
+            long nodeId = freeList.acquireNewId( stableGeneration, unstableGeneration );
+            PageCursor cursor = pagedFile.io( nodeId, PagedFile.PF_SHARED_WRITE_LOCK );
+            BulkLevel level = new BulkLevel( cursor, nodeId, layout.newKey() );
+            PageCursorUtil.goTo( cursor, "new bulk level", nodeId );
+            if ( levels.isEmpty() )
+            {
+                bTreeNode.initializeLeaf( cursor, stableGeneration, unstableGeneration );
+            }
+            else
+            {
+                bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+                long leftmostChild = levels.get( levels.size() - 1 ).firstNodeId;
+                bTreeNode.setChildAt( cursor, leftmostChild, 0, stableGeneration, unstableGeneration );
+            }
+            levels.add( level );
+            return level;
+        }
+
+        /**
+         * Creates a new, empty, node as right sibling of the node currently being filled on the given level
+         * and moves the cursor of the level to it.
+         */
+        private long newRightSibling( BulkLevel level, boolean isLeaf ) throws IOException
+        {
+            PageCursor cursor = level.cursor;
+            long nodeId = cursor.getCurrentPageId();
+            long newNodeId = freeList.acquireNewId( stableGeneration, unstableGeneration );
+            TreeNode.setRightSibling( cursor, newNodeId, stableGeneration, unstableGeneration );
+            PageCursorUtil.goTo( cursor, "new right sibling", newNodeId );
+            if ( isLeaf )
+            {
+                bTreeNode.initializeLeaf( cursor, stableGeneration, unstableGeneration );
+            }
+            else
+            {
+                bTreeNode.initializeInternal( cursor, stableGeneration, unstableGeneration );
+            }
+            TreeNode.setLeftSibling( cursor, nodeId, stableGeneration, unstableGeneration );
+            level.keyCount = 0;
+            return newNodeId;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            if ( !locked )
+            {
+                throw new IllegalStateException( "Tried to close bulk loader of " + GBPTree.this + ", but it is already closed." );
+            }
+            try
+            {
+                if ( !levels.isEmpty() )
+                {
+                    BulkLevel top = levels.get( levels.size() - 1 );
+                    freeList.releaseId( stableGeneration, unstableGeneration, oldRootId );
+                    setRoot( top.firstNodeId, unstableGeneration );
+                }
+            }
+            catch ( Throwable e )
+            {
+                appendTreeInformation( e );
+                throw e;
+            }
+            finally
+            {
+                unlock();
+            }
+        }
+
+        private void unlock()
+        {
+            for ( BulkLevel level : levels )
+            {
+                level.cursor.close();
+            }
+            levels.clear();
+            locked = false;
+            lock.writerAndCleanerUnlock();
+        }
+    }
+
+    private class BulkLevel
+    {
+        private final PageCursor cursor;
+        private final long firstNodeId;
+        private final KEY tmpKey;
+        private int keyCount;
+
+        BulkLevel( PageCursor cursor, long firstNodeId, KEY tmpKey )
+        {
+            this.cursor = cursor;
+            this.firstNodeId = firstNodeId;
+            this.tmpKey = tmpKey;
+        }
+    }
+
+    private static ReentrantLock[] newLeafLocks( int count )
+    {
+        ReentrantLock[] locks = new ReentrantLock[count];
+        for ( int i = 0; i < count; i++ )
+        {
+            locks[i] = new ReentrantLock();
+        }
+        return locks;
+    }
+
+    private ReentrantLock leafLock( long leafId )
+    {
+        return leafLocks[(int) (leafId ^ (leafId >>> 32)) & (leafLocks.length - 1)];
+    }
+
     public boolean wasDirtyOnStartup()
     {
         return dirtyOnStartup;
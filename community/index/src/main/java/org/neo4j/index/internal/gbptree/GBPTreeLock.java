@@ -32,6 +32,15 @@ class GBPTreeLock
     private static final long stateOffset = UnsafeUtil.getFieldOffset( GBPTreeLock.class, "state" );
     private static final long writerLockBit = 0x00000000_00000001L;
     private static final long cleanerLockBit = 0x00000000_00000002L;
+    // The number of concurrent writers that are holding the lock is kept in the high 32 bits. Concurrent writers share
+    // the lock with each other, but exclude the writer lock and the cleaner lock.
+    private static final long concurrentWriterCountUnit = 0x00000001_00000000L;
+    private static final long concurrentWriterCountMask = 0xFFFFFFFF_00000000L;
+    // The number of threads waiting for the writer lock or the cleaner lock is kept in the bits in between. New
+    // concurrent writers wait while anyone is waiting for those locks, so a steady stream of concurrent writers cannot
+    // starve the single writer or checkpoint.
+    private static final long exclusiveWaiterCountUnit = 0x00000000_00000100L;
+    private static final long exclusiveWaiterCountMask = 0x00000000_FFFFFF00L;
     private volatile long state;
 
     // Used for testing
@@ -72,21 +81,71 @@ class GBPTreeLock
         doUnlock( writerLockBit | cleanerLockBit );
     }
 
+    void concurrentWriterLock()
+    {
+        long currentState;
+        do
+        {
+            currentState = state;
+            while ( (currentState & (writerLockBit | cleanerLockBit | exclusiveWaiterCountMask)) != 0 )
+            {
+                sleep();
+                currentState = state;
+            }
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState + concurrentWriterCountUnit ) );
+    }
+
+    void concurrentWriterUnlock()
+    {
+        long currentState;
+        do
+        {
+            currentState = state;
+            if ( (currentState & concurrentWriterCountMask) == 0 )
+            {
+                throw new IllegalStateException( "Can not unlock lock that is not locked by any concurrent writer" );
+            }
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState - concurrentWriterCountUnit ) );
+    }
+
     private void doLock( long targetLockBit )
+    {
+        long currentState = state;
+        if ( canLock( currentState, targetLockBit ) &&
+             UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState | targetLockBit ) )
+        {
+            return;
+        }
+        awaitLock( targetLockBit );
+    }
+
+    /**
+     * Wait for the given lock while registered as a waiter, which holds off new concurrent writers. The lock is taken,
+     * and the waiter deregistered, in the same atomic update.
+     */
+    private void awaitLock( long targetLockBit )
     {
         long currentState;
+        do
+        {
+            currentState = state;
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, currentState + exclusiveWaiterCountUnit ) );
+
         long newState;
         do
         {
             currentState = state;
             while ( !canLock( currentState, targetLockBit ) )
             {
-                // sleep
                 sleep();
                 currentState = state;
             }
-            newState = currentState | targetLockBit;
-        } while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, newState ) );
+            newState = (currentState | targetLockBit) - exclusiveWaiterCountUnit;
+        }
+        while ( !UnsafeUtil.compareAndSwapLong( this, stateOffset, currentState, newState ) );
     }
 
     private void doUnlock( long targetLockBit )
@@ -107,7 +166,7 @@ class GBPTreeLock
 
     private boolean canLock( long state, long targetLockBit )
     {
-        return (state & targetLockBit) == 0;
+        return (state & (targetLockBit | concurrentWriterCountMask)) == 0;
     }
 
     private boolean canUnlock( long state, long targetLockBit )
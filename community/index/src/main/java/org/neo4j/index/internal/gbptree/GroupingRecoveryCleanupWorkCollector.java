@@ -22,9 +22,12 @@
  */
 package org.neo4j.index.internal.gbptree;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.StringJoiner;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
@@ -32,12 +35,22 @@ import java.util.function.Consumer;
 import org.neo4j.scheduler.Group;
 import org.neo4j.scheduler.JobHandle;
 import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.util.FeatureToggles;
+
+import static java.lang.Math.min;
 
 /**
  * Runs cleanup work as they're added in {@link #add(CleanupJob)}, but the thread that calls {@link #add(CleanupJob)} will not execute them itself.
+ * Multiple jobs, i.e. trees, are cleaned concurrently and each job may in turn clean its tree using multiple threads. A tree is available
+ * for writing as soon as its own job has completed, regardless of other jobs.
  */
 public class GroupingRecoveryCleanupWorkCollector extends RecoveryCleanupWorkCollector
 {
+    private static final String NUMBER_OF_CONCURRENT_JOBS_NAME = "number_of_concurrent_jobs";
+    private static final int NUMBER_OF_CONCURRENT_JOBS_DEFAULT = min( 4, Runtime.getRuntime().availableProcessors() );
+    private static final int NUMBER_OF_CONCURRENT_JOBS =
+            FeatureToggles.getInteger( GroupingRecoveryCleanupWorkCollector.class, NUMBER_OF_CONCURRENT_JOBS_NAME, NUMBER_OF_CONCURRENT_JOBS_DEFAULT );
+
     private final BlockingQueue<CleanupJob> jobs = new LinkedBlockingQueue<>();
     private final JobScheduler jobScheduler;
     private volatile boolean started;
@@ -104,35 +117,69 @@ public class GroupingRecoveryCleanupWorkCollector extends RecoveryCleanupWorkCol
         return () ->
                 executeWithExecutor( executor ->
                 {
-                    CleanupJob job = null;
-                    do
+                    // The scheduled job runs jobs itself, together with additional runners if configured to. All of them share the executor
+                    // which the jobs use for cleaning their trees. The additional runners are scheduled in the same group as this job, and
+                    // can't run in that executor too since they wait for work they have submitted to it and could end up occupying all its threads.
+                    int additionalRunners = NUMBER_OF_CONCURRENT_JOBS - 1;
+                    List<JobHandle> runners = new ArrayList<>( Math.max( 0, additionalRunners ) );
+                    for ( int i = 0; i < additionalRunners; i++ )
                     {
-                        try
-                        {
-                            job = jobs.poll( 100, TimeUnit.MILLISECONDS );
-                            if ( job != null )
-                            {
-                                job.run( executor );
-                            }
-                        }
-                        catch ( Exception e )
-                        {
-                            // There's no audience for these exceptions. The jobs themselves know if they've failed and communicates
-                            // that to its tree. The scheduled job is just a vessel for running these cleanup jobs.
-                        }
-                        finally
-                        {
-                            if ( job != null )
-                            {
-                                job.close();
-                            }
-                        }
+                        runners.add( jobScheduler.schedule( Group.STORAGE_MAINTENANCE, () -> runJobs( executor ) ) );
+                    }
+                    runJobs( executor );
+                    for ( JobHandle runner : runners )
+                    {
+                        awaitRunner( runner );
                     }
-                    // Even if there are no jobs in the queue then continue looping until we go to started state
-                    while ( !jobs.isEmpty() || !started );
                 } );
     }
 
+    private void runJobs( ExecutorService executor )
+    {
+        CleanupJob job = null;
+        do
+        {
+            try
+            {
+                job = jobs.poll( 100, TimeUnit.MILLISECONDS );
+                if ( job != null )
+                {
+                    job.run( executor );
+                }
+            }
+            catch ( Exception e )
+            {
+                // There's no audience for these exceptions. The jobs themselves know if they've failed and communicates
+                // that to its tree. The scheduled job is just a vessel for running these cleanup jobs.
+            }
+            finally
+            {
+                if ( job != null )
+                {
+                    job.close();
+                }
+            }
+        }
+        // Even if there are no jobs in the queue then continue looping until we go to started state
+        while ( !jobs.isEmpty() || !started );
+    }
+
+    private static void awaitRunner( JobHandle runner )
+    {
+        try
+        {
+            runner.waitTermination();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( ExecutionException e )
+        {
+            // Can't happen since the runner catches all exceptions from the jobs it runs
+        }
+    }
+
     private void consumeAndCloseJobs( Consumer<CleanupJob> consumer )
     {
         CleanupJob job;
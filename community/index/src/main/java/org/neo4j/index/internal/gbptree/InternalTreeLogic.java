@@ -89,6 +89,33 @@ class InternalTreeLogic<KEY,VALUE>
 {
     static final double DEFAULT_SPLIT_RATIO = 0.5;
 
+    /**
+     * Outcome of trying to update a leaf in place, using {@link #tryInsertInLeaf(PageCursor, Object, Object, ValueMerger,
+     * long)} or {@link #tryRemoveFromLeaf(PageCursor, Object, Object, long, long)}.
+     */
+    enum LeafUpdate
+    {
+        /** The leaf was updated. */
+        DONE,
+        /** The key was not in the leaf, so nothing was changed. */
+        NOT_FOUND,
+        /** The update would change the structure of the tree, so nothing was changed. */
+        NEEDS_STRUCTURE_CHANGE
+    }
+
+    /**
+     * Outcome of compacting a leaf, using {@link #compactLeaf(PageCursor, StructurePropagation, Object, double, long, long)}.
+     */
+    enum LeafCompaction
+    {
+        /** The leaf was merged into its right sibling, which may now be compacted further. */
+        MERGED,
+        /** The leaf was left as it was and compaction continues with its right sibling. */
+        NOT_MERGED,
+        /** The leaf was left as it was and is the last leaf of the tree. */
+        LAST_LEAF
+    }
+
     private final IdProvider idProvider;
     private final TreeNode<KEY,VALUE> bTreeNode;
     private final Layout<KEY,VALUE> layout;
@@ -735,6 +762,212 @@ class InternalTreeLogic<KEY,VALUE>
         return into;
     }
 
+    /**
+     * Move the cursor to the leaf where the given key belongs, without changing anything. This is the first step of
+     * updating a leaf in place, using {@link #tryInsertInLeaf(PageCursor, Object, Object, ValueMerger, long)} or
+     * {@link #tryRemoveFromLeaf(PageCursor, Object, Object, long, long)}.
+     *
+     * @param cursor {@link PageCursor} pinned to root of tree, as given to {@link #initialize(PageCursor, double)}.
+     * @param key key to find the leaf for.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @throws IOException on cursor failure
+     */
+    void moveToLeaf( PageCursor cursor, KEY key, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        moveToCorrectLeaf( cursor, key, stableGeneration, unstableGeneration );
+    }
+
+    /**
+     * Insert the key and value into the leaf the cursor is at, if that can be done without changing the structure of
+     * the tree. That is, only if the leaf is already of the unstable generation, so no successor is needed, and
+     * only if the key and value fit in the leaf without splitting it. The caller must make sure the leaf is not
+     * concurrently updated by anyone else, and that the tree structure does not change while this is going on.
+     * <p>
+     * If the key already exists, and the merged value cannot be written in place, then this returns
+     * {@link LeafUpdate#NEEDS_STRUCTURE_CHANGE} after having called the {@link ValueMerger}, so the merger may be
+     * called again for the same key when the caller falls back to {@link #insert(PageCursor, StructurePropagation,
+     * Object, Object, ValueMerger, long, long)}.
+     *
+     * @return {@link LeafUpdate#DONE} if the leaf was updated, otherwise {@link LeafUpdate#NEEDS_STRUCTURE_CHANGE}.
+     */
+    LeafUpdate tryInsertInLeaf( PageCursor cursor, KEY key, VALUE value, ValueMerger<KEY,VALUE> valueMerger,
+            long unstableGeneration )
+    {
+        bTreeNode.validateKeyValueSize( key, value );
+        if ( TreeNode.generation( cursor ) != unstableGeneration )
+        {
+            return LeafUpdate.NEEDS_STRUCTURE_CHANGE;
+        }
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount );
+        int pos = positionOf( search );
+        if ( isHit( search ) )
+        {
+            bTreeNode.valueAt( cursor, readValue, pos );
+            VALUE mergedValue = valueMerger.merge( readKey, key, readValue, value );
+            if ( mergedValue == null || bTreeNode.setValueAt( cursor, mergedValue, pos ) )
+            {
+                return LeafUpdate.DONE;
+            }
+            return LeafUpdate.NEEDS_STRUCTURE_CHANGE;
+        }
+
+        Overflow overflow = bTreeNode.leafOverflow( cursor, keyCount, key, value );
+        if ( overflow == YES )
+        {
+            return LeafUpdate.NEEDS_STRUCTURE_CHANGE;
+        }
+        if ( overflow == NO_NEED_DEFRAG )
+        {
+            bTreeNode.defragmentLeaf( cursor );
+        }
+        bTreeNode.insertKeyValueAt( cursor, key, value, pos, keyCount );
+        TreeNode.setKeyCount( cursor, keyCount + 1 );
+        return LeafUpdate.DONE;
+    }
+
+    /**
+     * Remove the key from the leaf the cursor is at, if that can be done without changing the structure of the tree.
+     * That is, only if the leaf is already of the unstable generation, so no successor is needed, and only if the
+     * leaf does not underflow as a result, so it needs neither rebalancing nor merging with a sibling. The caller must
+     * make sure the leaf is not concurrently updated by anyone else, and that the tree structure does not change
+     * while this is going on.
+     *
+     * @param into {@code VALUE} instance to write removed value to.
+     * @return {@link LeafUpdate#DONE} if the key was removed, {@link LeafUpdate#NOT_FOUND} if the key was not in the
+     * leaf, otherwise {@link LeafUpdate#NEEDS_STRUCTURE_CHANGE}.
+     */
+    LeafUpdate tryRemoveFromLeaf( PageCursor cursor, KEY key, VALUE into, long stableGeneration,
+            long unstableGeneration )
+    {
+        int keyCount = TreeNode.keyCount( cursor );
+        int search = search( cursor, LEAF, key, readKey, keyCount );
+        if ( !isHit( search ) )
+        {
+            return LeafUpdate.NOT_FOUND;
+        }
+        if ( TreeNode.generation( cursor ) != unstableGeneration )
+        {
+            return LeafUpdate.NEEDS_STRUCTURE_CHANGE;
+        }
+
+        int pos = positionOf( search );
+        if ( bTreeNode.leafUnderflowAfterRemove( cursor, keyCount, pos ) &&
+             hasSiblings( cursor, stableGeneration, unstableGeneration ) )
+        {
+            // The underflow must be dealt with together with the siblings.
+            return LeafUpdate.NEEDS_STRUCTURE_CHANGE;
+        }
+        simplyRemoveFromLeaf( cursor, into, keyCount, pos );
+        return LeafUpdate.DONE;
+    }
+
+    /**
+     * Read the lowest key in the tree, i.e. the first key in the leftmost leaf, into {@code into}.
+     * <p>
+     * Leaves cursor at the leftmost leaf, so {@link #initialize(PageCursor, double)} must be called before
+     * using this instance again.
+     *
+     * @param cursor {@link PageCursor} pinned to root of tree, as given to {@link #initialize(PageCursor, double)}.
+     * @param into {@code KEY} instance to read the lowest key into.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @return {@code true} if the lowest key was read, or {@code false} if the tree is empty.
+     * @throws IOException on cursor failure
+     */
+    boolean lowestKey( PageCursor cursor, KEY into, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        while ( TreeNode.isInternal( cursor ) )
+        {
+            long childId = bTreeNode.childAt( cursor, 0, stableGeneration, unstableGeneration );
+            PointerChecking.checkPointer( childId, false );
+            TreeNode.goTo( cursor, "child", childId );
+        }
+
+        if ( TreeNode.keyCount( cursor ) == 0 )
+        {
+            return false;
+        }
+        bTreeNode.keyAt( cursor, into, 0, LEAF );
+        return true;
+    }
+
+    /**
+     * Merge the leaf where the given key belongs into its right sibling, if the leaf is filled less than {@code maxFillRatio}
+     * and all of its keys and values fit in the right sibling. Used for online compaction of the tree, which visits leaves
+     * one after the other, from left to right, starting with the {@link #lowestKey(PageCursor, Object, long, long) lowest key}.
+     * <p>
+     * When this method returns {@code key} is where compaction should continue: it is left as it was if the leaf was merged,
+     * since the merged leaf may be merged again, and otherwise it is set to the first key in the right sibling.
+     *
+     * @param cursor {@link PageCursor} pinned to root of tree, as given to {@link #initialize(PageCursor, double)}.
+     * @param structurePropagation {@link StructurePropagation} used to report structure changes between tree levels.
+     * @param key key in the leaf to compact, updated to where compaction should continue.
+     * @param maxFillRatio leaves filled less than this are merged into their right sibling if possible.
+     * @param stableGeneration stable generation, i.e. generations <= this generation are considered stable.
+     * @param unstableGeneration unstable generation, i.e. generation which is under development right now.
+     * @return {@link LeafCompaction} telling whether the leaf was merged or not, or if it was the last leaf.
+     * @throws IOException on cursor failure
+     */
+    LeafCompaction compactLeaf( PageCursor cursor, StructurePropagation<KEY> structurePropagation, KEY key,
+            double maxFillRatio, long stableGeneration, long unstableGeneration ) throws IOException
+    {
+        assert cursorIsAtExpectedLocation( cursor );
+        moveToCorrectLeaf( cursor, key, stableGeneration, unstableGeneration );
+
+        long rightSibling = TreeNode.rightSibling( cursor, stableGeneration, unstableGeneration );
+        PointerChecking.checkPointer( rightSibling, true );
+        if ( !TreeNode.isNode( rightSibling ) )
+        {
+            return LeafCompaction.LAST_LEAF;
+        }
+
+        int keyCount = TreeNode.keyCount( cursor );
+        try ( PageCursor rightSiblingCursor = cursor.openLinkedCursor( GenerationSafePointerPair.pointer( rightSibling ) ) )
+        {
+            TreeNode.goTo( rightSiblingCursor, "right sibling", GenerationSafePointerPair.pointer( rightSibling ) );
+            int rightSiblingKeyCount = TreeNode.keyCount( rightSiblingCursor );
+            if ( bTreeNode.fillRatio( cursor, keyCount, LEAF ) >= maxFillRatio ||
+                    !bTreeNode.canMergeLeaves( cursor, keyCount, rightSiblingCursor, rightSiblingKeyCount ) )
+            {
+                bTreeNode.keyAt( rightSiblingCursor, key, 0, LEAF );
+                return LeafCompaction.NOT_MERGED;
+            }
+        }
+
+        // Same sequence of changes as when a leaf underflows on remove and is merged into its right sibling
+        createSuccessorIfNeeded( cursor, structurePropagation, UPDATE_MID_CHILD, stableGeneration, unstableGeneration );
+        rightSibling = TreeNode.rightSibling( cursor, stableGeneration, unstableGeneration );
+        PointerChecking.checkPointer( rightSibling, false );
+        try ( PageCursor rightSiblingCursor = cursor.openLinkedCursor( GenerationSafePointerPair.pointer( rightSibling ) ) )
+        {
+            rightSiblingCursor.next();
+            int rightSiblingKeyCount = TreeNode.keyCount( rightSiblingCursor );
+            createSuccessorIfNeeded( rightSiblingCursor, structurePropagation, UPDATE_RIGHT_CHILD,
+                    stableGeneration, unstableGeneration );
+            mergeToRightSiblingLeaf( cursor, rightSiblingCursor, structurePropagation, keyCount,
+                    rightSiblingKeyCount, stableGeneration, unstableGeneration );
+        }
+
+        handleStructureChanges( cursor, structurePropagation, stableGeneration, unstableGeneration );
+
+        if ( currentLevel <= 0 )
+        {
+            tryShrinkTree( cursor, structurePropagation, stableGeneration, unstableGeneration );
+        }
+        return LeafCompaction.MERGED;
+    }
+
+    private static boolean hasSiblings( PageCursor cursor, long stableGeneration, long unstableGeneration )
+    {
+        long leftSibling = TreeNode.leftSibling( cursor, stableGeneration, unstableGeneration );
+        long rightSibling = TreeNode.rightSibling( cursor, stableGeneration, unstableGeneration );
+        return TreeNode.isNode( leftSibling ) || TreeNode.isNode( rightSibling );
+    }
+
     private void handleStructureChanges( PageCursor cursor, StructurePropagation<KEY> structurePropagation,
             long stableGeneration, long unstableGeneration ) throws IOException
     {
@@ -1197,12 +1430,15 @@ class InternalTreeLogic<KEY,VALUE>
     private void rebalanceLeaf( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount,
             int numberOfKeysToMove, StructurePropagation<KEY> structurePropagation )
     {
-        bTreeNode.moveKeyValuesFromLeftToRight( leftCursor, leftKeyCount, rightCursor, rightKeyCount, leftKeyCount - numberOfKeysToMove );
+        int newLeftKeyCount = leftKeyCount - numberOfKeysToMove;
+        bTreeNode.moveKeyValuesFromLeftToRight( leftCursor, leftKeyCount, rightCursor, rightKeyCount, newLeftKeyCount );
 
-        // Propagate change
+        // Propagate change, using the shortest key separating left from right, just like on split
         structurePropagation.hasLeftKeyReplace = true;
         structurePropagation.keyReplaceStrategy = REPLACE;
-        bTreeNode.keyAt( rightCursor, structurePropagation.leftKey, 0, LEAF );
+        bTreeNode.keyAt( leftCursor, readKey, newLeftKeyCount - 1, LEAF );
+        bTreeNode.keyAt( rightCursor, newKeyPlaceHolder, 0, LEAF );
+        layout.minimalSplitter( readKey, newKeyPlaceHolder, structurePropagation.leftKey );
     }
 
     /**
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.index.internal.gbptree;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+
+import org.neo4j.cursor.RawCursor;
+
+/**
+ * Seeks multiple key ranges, in ascending order, using one {@link SeekCursor} which continues from one range
+ * to the next using {@link SeekCursor#nextRange(Object, Object, RootCatchup)}. Hits from all ranges are returned
+ * in ascending order, as if they came from one seek.
+ */
+class MultiRangeSeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>
+{
+    private final SeekCursor<KEY,VALUE> seekCursor;
+    private final Iterator<Pair<KEY,KEY>> remainingRanges;
+    private final Supplier<RootCatchup> rootCatchupSupplier;
+
+    /**
+     * @param seekCursor {@link SeekCursor} already initialized with the first range.
+     * @param remainingRanges ranges to seek after the first one.
+     * @param rootCatchupSupplier supplier of {@link RootCatchup} for each new range.
+     */
+    MultiRangeSeekCursor( SeekCursor<KEY,VALUE> seekCursor, Iterator<Pair<KEY,KEY>> remainingRanges,
+            Supplier<RootCatchup> rootCatchupSupplier )
+    {
+        this.seekCursor = seekCursor;
+        this.remainingRanges = remainingRanges;
+        this.rootCatchupSupplier = rootCatchupSupplier;
+    }
+
+    @Override
+    public boolean next() throws IOException
+    {
+        while ( !seekCursor.next() )
+        {
+            if ( !remainingRanges.hasNext() )
+            {
+                return false;
+            }
+            Pair<KEY,KEY> range = remainingRanges.next();
+            seekCursor.nextRange( range.getLeft(), range.getRight(), rootCatchupSupplier.get() );
+        }
+        return true;
+    }
+
+    @Override
+    public Hit<KEY,VALUE> get()
+    {
+        return seekCursor.get();
+    }
+
+    @Override
+    public void close()
+    {
+        seekCursor.close();
+    }
+}
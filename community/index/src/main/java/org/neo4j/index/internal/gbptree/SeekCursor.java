@@ -179,13 +179,15 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
     private boolean resultOnTrack;
 
     /**
-     * Provided when constructing the {@link SeekCursor}, marks the start (inclusive) of the key range to seek.
+     * Provided when constructing the {@link SeekCursor}, or in {@link #nextRange(Object, Object, RootCatchup)},
+     * marks the start (inclusive) of the key range to seek.
      * Comparison with {@link #toExclusive} decide if seeking forwards or backwards.
      */
     private final KEY fromInclusive;
 
     /**
-     * Provided when constructing the {@link SeekCursor}, marks the end (exclusive) of the key range to seek.
+     * Provided when constructing the {@link SeekCursor}, or in {@link #nextRange(Object, Object, RootCatchup)},
+     * marks the end (exclusive) of the key range to seek.
      * Comparison with {@link #fromInclusive} decide if seeking forwards or backwards.
      */
     private final KEY toExclusive;
@@ -193,7 +195,7 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
     /**
      * True if seeker is performing an exact match lookup, {@link #toExclusive} will then be treated as inclusive.
      */
-    private final boolean exactMatch;
+    private boolean exactMatch;
 
     /**
      * {@link Layout} instance used to perform some functions around keys, like copying and comparing.
@@ -220,7 +222,7 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
      * the root generation. This is used when a query is re-traversing from the root, due to e.g. ending up
      * on a reused tree node and not knowing how to proceed from there.
      */
-    private final RootCatchup rootCatchup;
+    private RootCatchup rootCatchup;
 
     /**
      * Whether or not some result has been found, i.e. if {@code true} if there have been no call to
@@ -520,6 +522,80 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
         cachedLength = 0;
     }
 
+    /**
+     * Continues this seek in a new key range, coming after the range seeked so far. Results from the new range will
+     * be returned from subsequent calls to {@link #next()}. If the new range starts within the leaf this seek is
+     * currently at then that leaf is searched directly, otherwise the seek traverses down from the root again.
+     * This makes seeking many nearby ranges, one after the other, much cheaper than seeking them one by one
+     * using separate seek cursors.
+     * <p>
+     * Only supported for seeks going forwards.
+     *
+     * @param fromInclusive start (inclusive) of the new range, must not be less than the end of the previous range.
+     * @param toExclusive end (exclusive) of the new range, or inclusive if same as {@code fromInclusive}.
+     * @param rootCatchup {@link RootCatchup} to use from now on, since the catch-ups for the new range are not related
+     * to the ones made for previous ranges.
+     * @throws IOException on {@link PageCursor} error.
+     */
+    void nextRange( KEY fromInclusive, KEY toExclusive, RootCatchup rootCatchup ) throws IOException
+    {
+        if ( !seekForward )
+        {
+            throw new UnsupportedOperationException( "Can only seek multiple ranges when seeking forwards" );
+        }
+
+        layout.copyKey( fromInclusive, this.fromInclusive );
+        layout.copyKey( toExclusive, this.toExclusive );
+        this.exactMatch = layout.compare( fromInclusive, toExclusive ) == 0;
+        this.rootCatchup = rootCatchup;
+        first = true;
+        resultOnTrack = false;
+        verifyExpectedFirstAfterGoToNext = false;
+        cachedIndex = 0;
+        cachedLength = 0;
+
+        try
+        {
+            if ( rangeStartsInCurrentLeaf() )
+            {
+                // Search for the start of the range in this leaf in the next read
+                concurrentWriteHappened = true;
+            }
+            else
+            {
+                prepareToStartFromRoot();
+                traverseDownToFirstLeaf();
+            }
+        }
+        catch ( Throwable e )
+        {
+            exceptionDecorator.accept( e );
+            throw e;
+        }
+    }
+
+    /**
+     * @return whether or not {@link #fromInclusive} is less than or equal to the last key in the leaf that the
+     * {@link PageCursor} is currently at.
+     */
+    private boolean rangeStartsInCurrentLeaf() throws IOException
+    {
+        boolean startsInCurrentLeaf;
+        do
+        {
+            startsInCurrentLeaf = false;
+            if ( readHeader() && !isInternal && keyCount > 0 )
+            {
+                bTreeNode.keyAt( cursor, firstKeyInNode, keyCount - 1, LEAF );
+                startsInCurrentLeaf = layout.compare( fromInclusive, firstKeyInNode ) <= 0;
+            }
+        }
+        while ( cursor.shouldRetry() );
+        checkOutOfBoundsAndClosed();
+        cursor.checkAndClearCursorException();
+        return startsInCurrentLeaf && endedUpOnExpectedNode();
+    }
+
     @Override
     public boolean next() throws IOException
     {
@@ -610,7 +686,7 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
             resultOnTrack = false;
 
             // Where we are
-            if ( concurrentWriteHappened || forceReadHeader || !seekForward )
+            if ( concurrentWriteHappened || forceReadHeader )
             {
                 if ( !readHeader() || isInternal )
                 {
@@ -971,6 +1047,9 @@ class SeekCursor<KEY,VALUE> implements RawCursor<Hit<KEY,VALUE>,IOException>, Hi
                 {
                     TreeNode.goTo( cursor, "sibling", pointerId );
                     verifyExpectedFirstAfterGoToNext = true;
+                    // Header of the new sibling is needed to know where its last key is, but after that the
+                    // remaining batches in it can be read without re-reading the header, just like when seeking forwards
+                    forceReadHeader = true;
                     lastFollowedPointerGeneration = pointerGeneration;
                 }
                 else
@@ -349,6 +349,18 @@ abstract class TreeNode<KEY,VALUE>
 
     abstract boolean leafUnderflow( PageCursor cursor, int keyCount );
 
+    /**
+     * Would the leaf underflow if the key and value at the given position were removed? The leaf is not changed.
+     */
+    abstract boolean leafUnderflowAfterRemove( PageCursor cursor, int keyCount, int pos );
+
+    /**
+     * How much of the space for entries in this node is in use? Used when bulk loading, where nodes are filled
+     * up to a fill factor instead of being split.
+     * @return ratio of used space, from 0 for an empty node to 1 for a completely full node.
+     */
+    abstract double fillRatio( PageCursor cursor, int keyCount, Type type );
+
     /**
      * How do we best rebalance left and right leaf?
      * Can we move keys from underflowing left to right so that none of them underflow?
@@ -594,6 +594,27 @@ public class TreeNodeDynamicSize<KEY, VALUE> extends TreeNode<KEY,VALUE>
         return availableSpace > halfSpace;
     }
 
+    @Override
+    boolean leafUnderflowAfterRemove( PageCursor cursor, int keyCount, int pos )
+    {
+        // Removing a key frees its slot in the offset array, and turns the key and value into dead space.
+        placeCursorAtActualKey( cursor, pos, LEAF );
+        long keyValueSize = readKeyValueSize( cursor );
+        int keySize = extractKeySize( keyValueSize );
+        int valueSize = extractValueSize( keyValueSize );
+        int allocSpace = getAllocSpace( cursor, keyCount - 1, LEAF );
+        int deadSpace = getDeadSpace( cursor ) + keySize + valueSize + getOverhead( keySize, valueSize );
+        int availableSpace = allocSpace + deadSpace;
+
+        return availableSpace > halfSpace;
+    }
+
+    @Override
+    double fillRatio( PageCursor cursor, int keyCount, Type type )
+    {
+        return (double) totalActiveSpace( cursor, keyCount, type ) / totalSpace;
+    }
+
     @Override
     int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
     {
@@ -220,6 +220,12 @@ class TreeNodeFixedSize<KEY,VALUE> extends TreeNode<KEY,VALUE>
         return BASE_HEADER_LENGTH + internalMaxKeyCount * keySize + pos * SIZE_PAGE_REFERENCE;
     }
 
+    @Override
+    double fillRatio( PageCursor cursor, int keyCount, Type type )
+    {
+        return (double) keyCount / (type == LEAF ? leafMaxKeyCount() : internalMaxKeyCount());
+    }
+
     private int internalMaxKeyCount()
     {
         return internalMaxKeyCount;
@@ -338,6 +344,12 @@ class TreeNodeFixedSize<KEY,VALUE> extends TreeNode<KEY,VALUE>
         return keyCount < (leafMaxKeyCount() + 1) / 2;
     }
 
+    @Override
+    boolean leafUnderflowAfterRemove( PageCursor cursor, int keyCount, int pos )
+    {
+        return leafUnderflow( cursor, keyCount - 1 );
+    }
+
     @Override
     int canRebalanceLeaves( PageCursor leftCursor, int leftKeyCount, PageCursor rightCursor, int rightKeyCount )
     {
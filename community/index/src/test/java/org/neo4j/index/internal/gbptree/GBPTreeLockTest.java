@@ -34,6 +34,7 @@ import org.neo4j.helpers.collection.Pair;
 import org.neo4j.test.Race;
 import org.neo4j.test.rule.concurrent.OtherThreadRule;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
@@ -53,6 +54,8 @@ public class GBPTreeLockTest
 
     @Rule
     public final OtherThreadRule<Void> executor = new OtherThreadRule<>();
+    @Rule
+    public final OtherThreadRule<Void> secondExecutor = new OtherThreadRule<>();
 
     @Test
     public void test_UU_UL_UU() throws Exception
@@ -164,6 +167,36 @@ public class GBPTreeLockTest
         assertOnlyOneSucceeds( lock::writerAndCleanerLock, lock::writerAndCleanerLock );
     }
 
+    @Test( timeout = 10_000 )
+    public void waitingWriterMustHoldOffNewConcurrentWriters() throws Exception
+    {
+        // given
+        lock.concurrentWriterLock();
+        Future<Object> writer = executor.execute( state ->
+        {
+            lock.writerLock();
+            return null;
+        } );
+        executor.get().waitUntilWaiting( details -> details.isAt( GBPTreeLock.class, "awaitLock" ) );
+
+        // when
+        Future<Object> concurrentWriter = secondExecutor.execute( state ->
+        {
+            lock.concurrentWriterLock();
+            return null;
+        } );
+        secondExecutor.get().waitUntilWaiting( details -> details.isAt( GBPTreeLock.class, "concurrentWriterLock" ) );
+        lock.concurrentWriterUnlock();
+
+        // then
+        writer.get();
+        assertFalse( concurrentWriter.isDone() );
+        lock.writerUnlock();
+        concurrentWriter.get();
+        lock.concurrentWriterUnlock();
+        assertUU();
+    }
+
     private void assertOnlyOneSucceeds( Runnable lockAction1, Runnable lockAction2 ) throws Throwable
     {
         assertUU();
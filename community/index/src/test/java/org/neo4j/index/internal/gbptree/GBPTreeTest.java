@@ -41,9 +41,13 @@ import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.Random;
+import java.util.TreeMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
@@ -866,6 +870,192 @@ public class GBPTreeTest
         }
     }
 
+    @Test( timeout = 5_000L )
+    public void checkPointShouldWaitForConcurrentWriter() throws Exception
+    {
+        // GIVEN
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            // WHEN
+            Barrier.Control barrier = new Barrier.Control();
+            Future<?> write = executor.submit( throwing( () ->
+            {
+                try ( Writer<MutableLong,MutableLong> writer = index.concurrentWriter() )
+                {
+                    writer.put( new MutableLong( 1 ), new MutableLong( 1 ) );
+                    barrier.reached();
+                }
+            } ) );
+            barrier.awaitUninterruptibly();
+            Future<?> checkpoint = executor.submit( throwing( () -> index.checkpoint( UNLIMITED ) ) );
+            Future<?> singleWriter = executor.submit( throwing( () -> index.writer().close() ) );
+            shouldWait( checkpoint );
+            shouldWait( singleWriter );
+
+            // THEN
+            barrier.release();
+            checkpoint.get();
+            singleWriter.get();
+            write.get();
+        }
+    }
+
+    @Test
+    public void concurrentWritersShouldApplyAllUpdates() throws Exception
+    {
+        // GIVEN
+        int threads = 4;
+        int keysPerThread = 5_000;
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            // WHEN
+            List<Future<?>> writes = new ArrayList<>();
+            for ( int t = 0; t < threads; t++ )
+            {
+                int thread = t;
+                writes.add( executor.submit( throwing( () ->
+                {
+                    try ( Writer<MutableLong,MutableLong> writer = index.concurrentWriter() )
+                    {
+                        // Interleave the keys of all threads, so that they compete for the same leaves
+                        for ( int i = 0; i < keysPerThread; i++ )
+                        {
+                            long key = (long) i * threads + thread;
+                            writer.put( new MutableLong( key ), new MutableLong( key ) );
+                        }
+                        for ( int i = 0; i < keysPerThread; i += 2 )
+                        {
+                            long key = (long) i * threads + thread;
+                            assertEquals( key, writer.remove( new MutableLong( key ) ).longValue() );
+                        }
+                    }
+                } ) ) );
+            }
+            for ( Future<?> write : writes )
+            {
+                write.get();
+            }
+
+            // THEN
+            try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = index.seek( new MutableLong( 0 ), new MutableLong( MAX_VALUE ) ) )
+            {
+                long expectedKey = threads;
+                while ( seek.next() )
+                {
+                    assertEquals( expectedKey, seek.get().key().longValue() );
+                    assertEquals( expectedKey, seek.get().value().longValue() );
+                    expectedKey += expectedKey % threads == threads - 1 ? threads + 1 : 1;
+                }
+                assertEquals( (long) keysPerThread * threads + threads, expectedKey );
+            }
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    @Test( timeout = 120_000L )
+    public void concurrentWritersShouldStayCorrectUnderRandomUpdatesReadsAndCheckpoints() throws Exception
+    {
+        // GIVEN
+        int threads = 4;
+        int rounds = 20;
+        int updatesPerRound = 500;
+        int keysPerThread = 2_000;
+        ExecutorService workers = Executors.newFixedThreadPool( threads + 2 );
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            List<Map<Long,Long>> expected = new ArrayList<>();
+            List<Future<?>> writes = new ArrayList<>();
+            AtomicBoolean done = new AtomicBoolean();
+
+            // WHEN
+            for ( int t = 0; t < threads; t++ )
+            {
+                int thread = t;
+                Map<Long,Long> model = new HashMap<>();
+                expected.add( model );
+                Random threadRandom = new Random( random.nextLong() );
+                writes.add( workers.submit( throwing( () ->
+                {
+                    // Each thread owns the keys where key % threads == thread, interleaved with the keys of the others
+                    for ( int round = 0; round < rounds; round++ )
+                    {
+                        try ( Writer<MutableLong,MutableLong> writer = index.concurrentWriter() )
+                        {
+                            for ( int i = 0; i < updatesPerRound; i++ )
+                            {
+                                long key = (long) threadRandom.nextInt( keysPerThread ) * threads + thread;
+                                if ( threadRandom.nextInt( 3 ) == 0 )
+                                {
+                                    MutableLong removed = writer.remove( new MutableLong( key ) );
+                                    Long expectedValue = model.remove( key );
+                                    assertEquals( expectedValue, removed == null ? null : removed.longValue() );
+                                }
+                                else
+                                {
+                                    long value = threadRandom.nextLong();
+                                    writer.put( new MutableLong( key ), new MutableLong( value ) );
+                                    model.put( key, value );
+                                }
+                            }
+                        }
+                    }
+                } ) ) );
+            }
+            Future<?> checkpoints = workers.submit( throwing( () ->
+            {
+                while ( !done.get() )
+                {
+                    index.checkpoint( UNLIMITED );
+                }
+            } ) );
+            Future<?> reads = workers.submit( throwing( () ->
+            {
+                while ( !done.get() )
+                {
+                    try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = index.seek( new MutableLong( 0 ), new MutableLong( MAX_VALUE ) ) )
+                    {
+                        long previousKey = -1;
+                        while ( seek.next() )
+                        {
+                            long key = seek.get().key().longValue();
+                            assertTrue( "Keys out of order " + previousKey + ", " + key, key > previousKey );
+                            previousKey = key;
+                        }
+                    }
+                }
+            } ) );
+            try
+            {
+                for ( Future<?> write : writes )
+                {
+                    write.get();
+                }
+            }
+            finally
+            {
+                done.set( true );
+                checkpoints.get();
+                reads.get();
+                workers.shutdown();
+            }
+
+            // THEN
+            Map<Long,Long> merged = new TreeMap<>();
+            expected.forEach( merged::putAll );
+            try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = index.seek( new MutableLong( 0 ), new MutableLong( MAX_VALUE ) ) )
+            {
+                for ( Map.Entry<Long,Long> entry : merged.entrySet() )
+                {
+                    assertTrue( "Missing key " + entry.getKey(), seek.next() );
+                    assertEquals( entry.getKey().longValue(), seek.get().key().longValue() );
+                    assertEquals( entry.getValue().longValue(), seek.get().value().longValue() );
+                }
+                assertFalse( seek.next() );
+            }
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
     @Test( timeout = 50_000L )
     public void closeShouldLockOutWriter() throws Exception
     {
@@ -1081,6 +1271,307 @@ public class GBPTreeTest
         }
     }
 
+    /* Compaction tests */
+
+    @Test
+    public void compactShouldMergeUnderfilledLeaves() throws Exception
+    {
+        // GIVEN
+        CompactionMonitor monitor = new CompactionMonitor();
+        int count = 10_000;
+        try ( GBPTree<MutableLong,MutableLong> index = index().with( monitor ).build() )
+        {
+            // full leaves which are then left half full
+            try ( Writer<MutableLong,MutableLong> writer = index.writer( 1 ) )
+            {
+                for ( long i = 0; i < count; i++ )
+                {
+                    writer.put( new MutableLong( i ), new MutableLong( i ) );
+                }
+            }
+            try ( Writer<MutableLong,MutableLong> writer = index.writer() )
+            {
+                for ( long i = 0; i < count; i += 2 )
+                {
+                    writer.remove( new MutableLong( i ) );
+                }
+            }
+
+            // WHEN
+            int calls = 0;
+            boolean completed;
+            do
+            {
+                completed = index.compact( 1, 10 );
+                calls++;
+            }
+            while ( !completed );
+
+            // THEN
+            assertTrue( calls > 1 );
+            assertEquals( 1, monitor.completedPasses );
+            assertTrue( monitor.leavesMerged > 0 );
+            assertEquals( monitor.leavesMerged * DEFAULT_PAGE_SIZE, monitor.reclaimedBytes );
+            assertTrue( index.consistencyCheck() );
+            try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek =
+                    index.seek( new MutableLong( 0 ), new MutableLong( count ) ) )
+            {
+                for ( long i = 1; i < count; i += 2 )
+                {
+                    assertTrue( seek.next() );
+                    assertEquals( i, seek.get().key().longValue() );
+                    assertEquals( i, seek.get().value().longValue() );
+                }
+                assertFalse( seek.next() );
+            }
+        }
+    }
+
+    @Test
+    public void compactShouldCompleteOnEmptyTree() throws Exception
+    {
+        CompactionMonitor monitor = new CompactionMonitor();
+        try ( GBPTree<MutableLong,MutableLong> index = index().with( monitor ).build() )
+        {
+            assertTrue( index.compact( 1, 10 ) );
+            assertEquals( 1, monitor.completedPasses );
+            assertEquals( 0, monitor.leavesMerged );
+        }
+    }
+
+    /* Bulk load tests */
+
+    @Test
+    public void bulkLoaderShouldBuildTreeFromSortedEntries() throws Exception
+    {
+        for ( double fillFactor : new double[]{0.5, 1} )
+        {
+            // GIVEN
+            int count = 20_000;
+            fs.get().deleteFile( indexFile );
+            try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+            {
+                // WHEN
+                try ( BulkLoader<MutableLong,MutableLong> bulkLoader = index.bulkLoader( fillFactor ) )
+                {
+                    for ( long i = 0; i < count; i++ )
+                    {
+                        bulkLoader.add( new MutableLong( i * 2 ), new MutableLong( i ) );
+                    }
+                }
+
+                // THEN
+                assertTrue( index.consistencyCheck() );
+                assertSeekAll( index, count );
+
+                // ... and the tree should be updatable as usual afterwards
+                try ( Writer<MutableLong,MutableLong> writer = index.writer() )
+                {
+                    writer.put( new MutableLong( 1 ), new MutableLong( 1 ) );
+                    writer.remove( new MutableLong( 0 ) );
+                }
+                assertTrue( index.consistencyCheck() );
+            }
+        }
+    }
+
+    @Test
+    public void bulkLoaderShouldRejectUnsortedKeys() throws Exception
+    {
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            try ( BulkLoader<MutableLong,MutableLong> bulkLoader = index.bulkLoader( 1 ) )
+            {
+                bulkLoader.add( new MutableLong( 10 ), new MutableLong( 10 ) );
+                try
+                {
+                    bulkLoader.add( new MutableLong( 10 ), new MutableLong( 10 ) );
+                    fail( "Should have failed" );
+                }
+                catch ( IllegalArgumentException e )
+                {
+                    assertThat( e.getMessage(), containsString( "ascending" ) );
+                }
+            }
+            assertTrue( index.consistencyCheck() );
+        }
+    }
+
+    @Test
+    public void bulkLoaderShouldRequireEmptyTree() throws Exception
+    {
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = index.writer() )
+            {
+                writer.put( new MutableLong( 0 ), new MutableLong( 0 ) );
+            }
+
+            try
+            {
+                index.bulkLoader( 1 ).close();
+                fail( "Should have failed" );
+            }
+            catch ( IllegalStateException e )
+            {
+                assertThat( e.getMessage(), containsString( "not empty" ) );
+            }
+
+            // ... and the writer should still be available
+            index.writer().close();
+        }
+    }
+
+    @Test
+    public void seekAllShouldFindHitsInAllRanges() throws Exception
+    {
+        // GIVEN
+        int count = 10_000;
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = index.writer() )
+            {
+                for ( long i = 0; i < count; i++ )
+                {
+                    writer.put( new MutableLong( i * 2 ), new MutableLong( i ) );
+                }
+            }
+
+            // WHEN
+            // ranges both near each other, i.e. in the same leaf, and far apart, exact matches as well as ranges
+            List<Pair<MutableLong,MutableLong>> ranges = new ArrayList<>();
+            List<Long> expected = new ArrayList<>();
+            long from = 0;
+            while ( from < count * 2 )
+            {
+                if ( random.nextBoolean() )
+                {
+                    ranges.add( Pair.of( new MutableLong( from ), new MutableLong( from ) ) );
+                    if ( from % 2 == 0 )
+                    {
+                        expected.add( from );
+                    }
+                    from++;
+                }
+                else
+                {
+                    long to = from + random.nextInt( 1, 10 );
+                    ranges.add( Pair.of( new MutableLong( from ), new MutableLong( to ) ) );
+                    for ( long key = from; key < to; key++ )
+                    {
+                        if ( key % 2 == 0 )
+                        {
+                            expected.add( key );
+                        }
+                    }
+                    from = to;
+                }
+                from += random.nextBoolean() ? random.nextInt( 5 ) : random.nextInt( 1_000 );
+            }
+
+            // THEN
+            List<Long> actual = new ArrayList<>();
+            try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = index.seekAll( ranges ) )
+            {
+                while ( seek.next() )
+                {
+                    long key = seek.get().key().longValue();
+                    assertEquals( key / 2, seek.get().value().longValue() );
+                    actual.add( key );
+                }
+            }
+            assertEquals( expected, actual );
+        }
+    }
+
+    @Test( expected = IllegalArgumentException.class )
+    public void seekAllShouldRejectOverlappingRanges() throws Exception
+    {
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            index.seekAll( Arrays.asList(
+                    Pair.of( new MutableLong( 0 ), new MutableLong( 10 ) ),
+                    Pair.of( new MutableLong( 5 ), new MutableLong( 15 ) ) ) );
+        }
+    }
+
+    @Test
+    public void partitionedSeekShouldFindAllHitsInRangeSplitIntoMultiplePartitions() throws Exception
+    {
+        // GIVEN
+        int count = 10_000;
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = index.writer() )
+            {
+                for ( long i = 0; i < count; i++ )
+                {
+                    writer.put( new MutableLong( i ), new MutableLong( i ) );
+                }
+            }
+
+            // WHEN
+            long from = random.nextInt( count / 10 );
+            long to = count - random.nextInt( count / 10 );
+            List<RawCursor<Hit<MutableLong,MutableLong>,IOException>> partitions =
+                    index.partitionedSeek( new MutableLong( from ), new MutableLong( to ), 4 );
+
+            // THEN
+            assertTrue( partitions.size() > 1 );
+            assertTrue( partitions.size() <= 4 );
+            long expected = from;
+            for ( RawCursor<Hit<MutableLong,MutableLong>,IOException> partition : partitions )
+            {
+                try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = partition )
+                {
+                    while ( seek.next() )
+                    {
+                        assertEquals( expected, seek.get().key().longValue() );
+                        expected++;
+                    }
+                }
+            }
+            assertEquals( to, expected );
+        }
+    }
+
+    @Test
+    public void partitionedSeekShouldGiveSinglePartitionForTreeWithOnlyRootLeaf() throws Exception
+    {
+        try ( GBPTree<MutableLong,MutableLong> index = index().build() )
+        {
+            try ( Writer<MutableLong,MutableLong> writer = index.writer() )
+            {
+                writer.put( new MutableLong( 1 ), new MutableLong( 1 ) );
+            }
+
+            List<RawCursor<Hit<MutableLong,MutableLong>,IOException>> partitions =
+                    index.partitionedSeek( new MutableLong( 0 ), new MutableLong( MAX_VALUE ), 4 );
+
+            assertEquals( 1, partitions.size() );
+            try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = partitions.get( 0 ) )
+            {
+                assertTrue( seek.next() );
+                assertEquals( 1, seek.get().key().longValue() );
+                assertFalse( seek.next() );
+            }
+        }
+    }
+
+    private static void assertSeekAll( GBPTree<MutableLong,MutableLong> index, int count ) throws IOException
+    {
+        try ( RawCursor<Hit<MutableLong,MutableLong>,IOException> seek = index.seek( new MutableLong( 0 ), new MutableLong( MAX_VALUE ) ) )
+        {
+            for ( long i = 0; i < count; i++ )
+            {
+                assertTrue( seek.next() );
+                assertEquals( i * 2, seek.get().key().longValue() );
+                assertEquals( i, seek.get().value().longValue() );
+            }
+            assertFalse( seek.next() );
+        }
+    }
+
     /* Cleaner test */
 
     @Test
@@ -2081,6 +2572,21 @@ public class GBPTreeTest
         }
     }
 
+    private static class CompactionMonitor extends Monitor.Adaptor
+    {
+        private int completedPasses;
+        private long leavesMerged;
+        private long reclaimedBytes;
+
+        @Override
+        public void compactionCompleted( long numberOfLeavesVisited, long numberOfLeavesMerged, long reclaimedBytes )
+        {
+            completedPasses++;
+            this.leavesMerged = numberOfLeavesMerged;
+            this.reclaimedBytes = reclaimedBytes;
+        }
+    }
+
     private static class MonitorDirty extends Monitor.Adaptor
     {
         private boolean called;
@@ -29,6 +29,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -39,13 +41,15 @@ import org.neo4j.scheduler.JobHandle;
 import org.neo4j.scheduler.JobSchedulerAdapter;
 
 import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 class GroupingRecoveryCleanupWorkCollectorTest
 {
-    private final SingleBackgroundThreadJobScheduler jobScheduler = new SingleBackgroundThreadJobScheduler();
+    private final BackgroundThreadsJobScheduler jobScheduler = new BackgroundThreadsJobScheduler();
     private final GroupingRecoveryCleanupWorkCollector collector = new GroupingRecoveryCleanupWorkCollector( jobScheduler );
 
     @Test
@@ -73,7 +77,7 @@ class GroupingRecoveryCleanupWorkCollectorTest
     void shouldRunAllJobsBeforeOrDuringShutdown() throws Exception
     {
         // given
-        List<DummyJob> allRuns = new ArrayList<>();
+        List<DummyJob> allRuns = new CopyOnWriteArrayList<>();
         List<DummyJob> expectedJobs = someJobs( allRuns );
         collector.init();
 
@@ -83,14 +87,14 @@ class GroupingRecoveryCleanupWorkCollectorTest
         collector.shutdown();
 
         // then
-        assertEquals( allRuns, expectedJobs );
+        assertSame( expectedJobs, allRuns );
     }
 
     @Test
     void mustThrowIfOldJobsDuringInit()
     {
         // given
-        List<DummyJob> allRuns = new ArrayList<>();
+        List<DummyJob> allRuns = new CopyOnWriteArrayList<>();
         List<DummyJob> someJobs = someJobs( allRuns );
 
         // when
@@ -103,7 +107,7 @@ class GroupingRecoveryCleanupWorkCollectorTest
     void mustCloseOldJobsOnShutdown() throws ExecutionException, InterruptedException
     {
         // given
-        List<DummyJob> allRuns = new ArrayList<>();
+        List<DummyJob> allRuns = new CopyOnWriteArrayList<>();
         List<DummyJob> someJobs = someJobs( allRuns );
 
         // when
@@ -122,7 +126,7 @@ class GroupingRecoveryCleanupWorkCollectorTest
     void mustNotScheduleOldJobsOnInitShutdownInit() throws Throwable
     {
         // given
-        List<DummyJob> allRuns = new ArrayList<>();
+        List<DummyJob> allRuns = new CopyOnWriteArrayList<>();
         List<DummyJob> expectedJobs = someJobs( allRuns );
 
         // when
@@ -140,7 +144,7 @@ class GroupingRecoveryCleanupWorkCollectorTest
     @Test
     void shouldExecuteAllTheJobsWhenSeparateJobFails() throws Exception
     {
-        List<DummyJob> allRuns = new ArrayList<>();
+        List<DummyJob> allRuns = new CopyOnWriteArrayList<>();
 
         DummyJob firstJob = new DummyJob( "first", allRuns );
         DummyJob thirdJob = new DummyJob( "third", allRuns );
@@ -159,6 +163,31 @@ class GroupingRecoveryCleanupWorkCollectorTest
         assertSame( expectedJobs, allRuns );
     }
 
+    @Test
+    void shouldRunSeparateJobsConcurrently() throws Exception
+    {
+        // The number of concurrent jobs defaults to the number of processors, up to a limit
+        assumeTrue( Runtime.getRuntime().availableProcessors() > 1 );
+
+        // given
+        List<DummyJob> allRuns = new CopyOnWriteArrayList<>();
+        List<Boolean> sawOtherJobRunning = new CopyOnWriteArrayList<>();
+        CountDownLatch bothRunning = new CountDownLatch( 2 );
+        List<DummyJob> expectedJobs = Arrays.asList(
+                new LatchedJob( "A", allRuns, bothRunning, sawOtherJobRunning ),
+                new LatchedJob( "B", allRuns, bothRunning, sawOtherJobRunning ) );
+        collector.init();
+
+        // when
+        addAll( expectedJobs );
+        collector.start();
+        collector.shutdown();
+
+        // then
+        assertSame( expectedJobs, allRuns );
+        assertEquals( Arrays.asList( true, true ), sawOtherJobRunning );
+    }
+
     @Test
     void throwOnAddingJobsAfterStart()
     {
@@ -188,9 +217,9 @@ class GroupingRecoveryCleanupWorkCollectorTest
         ) );
     }
 
-    private class SingleBackgroundThreadJobScheduler extends JobSchedulerAdapter
+    private class BackgroundThreadsJobScheduler extends JobSchedulerAdapter
     {
-        private final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        private final ExecutorService executorService = Executors.newCachedThreadPool();
 
         @Override
         public JobHandle schedule( Group group, Runnable job )
@@ -305,4 +334,33 @@ class GroupingRecoveryCleanupWorkCollectorTest
             return closed;
         }
     }
+
+    private class LatchedJob extends DummyJob
+    {
+        private final CountDownLatch bothRunning;
+        private final List<Boolean> sawOtherJobRunning;
+
+        LatchedJob( String name, List<DummyJob> allRuns, CountDownLatch bothRunning, List<Boolean> sawOtherJobRunning )
+        {
+            super( name, allRuns );
+            this.bothRunning = bothRunning;
+            this.sawOtherJobRunning = sawOtherJobRunning;
+        }
+
+        @Override
+        public void run( ExecutorService executor )
+        {
+            super.run( executor );
+            bothRunning.countDown();
+            try
+            {
+                sawOtherJobRunning.add( bothRunning.await( 10, SECONDS ) );
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                sawOtherJobRunning.add( false );
+            }
+        }
+    }
 }
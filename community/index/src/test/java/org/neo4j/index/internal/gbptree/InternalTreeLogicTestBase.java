@@ -788,15 +788,19 @@ public abstract class InternalTreeLogicTestBase<KEY,VALUE>
         while ( layout.compare( leftmostInRightChild, originalLeftmost ) >= 0 );
 
         // then
-        // ... primKey in root is updated
+        // ... primKey in root is updated to the minimal splitter between left and right child
         root.goTo( readCursor );
         KEY primKey = keyAt( 0, INTERNAL );
-        assertEqualsKey( primKey, leftmostInRightChild );
+        long newLeftChild = childAt( readCursor, 0, stableGeneration, unstableGeneration );
+        long newRightChild = childAt( readCursor, 1, stableGeneration, unstableGeneration );
+        goTo( readCursor, newLeftChild );
+        List<KEY> keysInLeftChild = allKeys( readCursor, LEAF );
+        KEY expectedPrimKey = layout.newKey();
+        layout.minimalSplitter( keysInLeftChild.get( keysInLeftChild.size() - 1 ), leftmostInRightChild, expectedPrimKey );
+        assertEqualsKey( primKey, expectedPrimKey );
         assertNotEqualsKey( primKey, oldPrimKey );
 
         // ... new versions of left and right child
-        long newLeftChild = childAt( readCursor, 0, stableGeneration, unstableGeneration );
-        long newRightChild = childAt( readCursor, 1, stableGeneration, unstableGeneration );
         assertThat( newLeftChild, is( not( originalLeftChild ) ) );
         assertThat( newRightChild, is( not( originalRightChild ) ) );
     }
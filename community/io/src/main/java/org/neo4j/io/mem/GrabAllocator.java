@@ -22,15 +22,26 @@
  */
 package org.neo4j.io.mem;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.lang.invoke.MethodHandle;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
 import java.util.Objects;
 
 import org.neo4j.memory.MemoryAllocationTracker;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
+import static org.neo4j.io.ByteUnit.gibiBytes;
 import static org.neo4j.io.ByteUnit.kibiBytes;
+import static org.neo4j.io.ByteUnit.mebiBytes;
 import static org.neo4j.util.FeatureToggles.getInteger;
 
 /**
@@ -40,6 +51,33 @@ import static org.neo4j.util.FeatureToggles.getInteger;
 public final class GrabAllocator implements MemoryAllocator
 {
     private static final Object globalCleanerInstance = globalCleaner();
+    /**
+     * The size of the huge pages of the system. Grabs that are backed by huge pages are aligned to this size.
+     */
+    private static final int HUGE_PAGE_SIZE = getInteger( GrabAllocator.class, "HUGE_PAGE_SIZE", (int) mebiBytes( 2 ) );
+    /**
+     * Grabs larger than this are never mapped from hugetlbfs, because a single mapping is limited to 2 GiB.
+     */
+    private static final long MAX_HUGE_PAGE_MAPPING_SIZE = gibiBytes( 1 );
+
+    /**
+     * Notified about grabs that could not be backed by huge pages the way the {@link HugePageMode} asked for.
+     */
+    public interface Monitor
+    {
+        Monitor NULL = ( grabSize, maxMappingSize ) ->
+        {
+        };
+
+        /**
+         * A grab was too large to be mapped from hugetlbfs, and was instead allocated as anonymous memory that is
+         * aligned for transparent huge pages. It is only backed by huge pages if transparent huge pages are enabled.
+         *
+         * @param grabSize the size of the grab, in bytes.
+         * @param maxMappingSize the size, in bytes, of the largest grab that can be mapped from hugetlbfs.
+         */
+        void hugeTlbFsGrabTooLarge( long grabSize, long maxMappingSize );
+    }
 
     private final Grabs grabs;
     @SuppressWarnings( {"unused", "FieldCanBeLocal"} )
@@ -55,7 +93,29 @@ public final class GrabAllocator implements MemoryAllocator
      */
     GrabAllocator( long expectedMaxMemory, MemoryAllocationTracker memoryTracker )
     {
-        this.grabs = new Grabs( expectedMaxMemory, memoryTracker );
+        this( expectedMaxMemory, memoryTracker, HugePageMode.DISABLED, null, Monitor.NULL );
+    }
+
+    /**
+     * Create a new GrabAllocator that will allocate the given amount of memory, and back its grabs with huge pages
+     * according to the given huge page mode.
+     * @param expectedMaxMemory The maximum amount of memory that this memory manager is expected to allocate.
+     * @param memoryTracker memory usage tracker
+     * @param hugePageMode how the grabs should be backed by huge pages.
+     * @param hugePageDirectory the hugetlbfs mount to map grabs from, when using {@link HugePageMode#HUGETLBFS}.
+     * @param monitor notified about grabs that could not be backed by huge pages as asked for.
+     */
+    GrabAllocator( long expectedMaxMemory, MemoryAllocationTracker memoryTracker, HugePageMode hugePageMode,
+            File hugePageDirectory, Monitor monitor )
+    {
+        this( expectedMaxMemory, memoryTracker, hugePageMode, hugePageDirectory, monitor, MAX_HUGE_PAGE_MAPPING_SIZE );
+    }
+
+    GrabAllocator( long expectedMaxMemory, MemoryAllocationTracker memoryTracker, HugePageMode hugePageMode,
+            File hugePageDirectory, Monitor monitor, long maxHugePageMappingSize )
+    {
+        this.grabs = new Grabs( expectedMaxMemory, memoryTracker, hugePageMode, hugePageDirectory, monitor,
+                maxHugePageMappingSize );
         try
         {
             CleanerHandles handles = findCleanerHandles();
@@ -86,6 +146,51 @@ public final class GrabAllocator implements MemoryAllocator
         return grabs.allocateAligned( bytes, alignment );
     }
 
+    @Override
+    public String describeLayout()
+    {
+        StringBuilder sb = new StringBuilder( "huge pages " ).append( grabs.hugePageMode );
+        if ( grabs.hugePageMode == HugePageMode.TRANSPARENT )
+        {
+            sb.append( " (transparent_hugepage=" ).append( transparentHugePagesSetting() ).append( ')' );
+        }
+        else if ( grabs.hugePageMode == HugePageMode.HUGETLBFS )
+        {
+            sb.append( " (" ).append( grabs.hugePageDirectory ).append( ')' );
+        }
+        sb.append( ", grab size " ).append( grabs.grabSize ).append( " bytes" );
+        sb.append( ", " ).append( NumaTopology.detect() );
+        return sb.toString();
+    }
+
+    /**
+     * @return the transparent huge page setting of the operating system, i.e. "always", "madvise" or "never", or
+     * "unavailable" if it cannot be determined.
+     */
+    public static String transparentHugePagesSetting()
+    {
+        try
+        {
+            // The file lists all the possible settings, with the active one in brackets, like "always [madvise] never".
+            List<String> lines = Files.readAllLines(
+                    new File( "/sys/kernel/mm/transparent_hugepage/enabled" ).toPath(), StandardCharsets.US_ASCII );
+            for ( String line : lines )
+            {
+                int begin = line.indexOf( '[' );
+                int end = line.indexOf( ']', begin );
+                if ( begin != -1 && end != -1 )
+                {
+                    return line.substring( begin + 1, end );
+                }
+            }
+        }
+        catch ( IOException | SecurityException ignore )
+        {
+            // Not Linux, or a kernel without transparent huge pages.
+        }
+        return "unavailable";
+    }
+
     @Override
     public void close()
     {
@@ -102,27 +207,23 @@ public final class GrabAllocator implements MemoryAllocator
     private static class Grab
     {
         public final Grab next;
+        private final Region region;
         private final long address;
         private final long limit;
-        private final MemoryAllocationTracker memoryTracker;
         private long nextPointer;
 
-        Grab( Grab next, long size, MemoryAllocationTracker memoryTracker )
+        Grab( Grab next, Region region )
         {
-            this.next = next;
-            this.address = UnsafeUtil.allocateMemory( size, memoryTracker );
-            this.limit = address + size;
-            this.memoryTracker = memoryTracker;
-            nextPointer = address;
+            this( next, region, region.start, region.limit, region.start );
         }
 
-        Grab( Grab next, long address, long limit, long nextPointer, MemoryAllocationTracker memoryTracker )
+        Grab( Grab next, Region region, long address, long limit, long nextPointer )
         {
             this.next = next;
+            this.region = region;
             this.address = address;
             this.limit = limit;
             this.nextPointer = nextPointer;
-            this.memoryTracker = memoryTracker;
         }
 
         private long nextAligned( long pointer, long alignment )
@@ -148,7 +249,7 @@ public final class GrabAllocator implements MemoryAllocator
 
         void free()
         {
-            UnsafeUtil.free( address, limit - address, memoryTracker );
+            region.free();
         }
 
         boolean canAllocate( long bytes, long alignment )
@@ -158,7 +259,7 @@ public final class GrabAllocator implements MemoryAllocator
 
         Grab setNext( Grab grab )
         {
-            return new Grab( grab, address, limit, nextPointer, memoryTracker );
+            return new Grab( grab, region, address, limit, nextPointer );
         }
 
         @Override
@@ -171,21 +272,163 @@ public final class GrabAllocator implements MemoryAllocator
         }
     }
 
+    /**
+     * The memory behind a grab. The usable part of a region, from {@code start} to {@code limit}, may be smaller than
+     * what was actually allocated, because of huge page alignment.
+     */
+    private static final class Region
+    {
+        private final long base;
+        private final long allocatedSize;
+        private final long start;
+        private final long limit;
+        private final MappedByteBuffer mapping;
+        private final MemoryAllocationTracker memoryTracker;
+
+        private Region( long base, long allocatedSize, long start, long limit, MappedByteBuffer mapping,
+                MemoryAllocationTracker memoryTracker )
+        {
+            this.base = base;
+            this.allocatedSize = allocatedSize;
+            this.start = start;
+            this.limit = limit;
+            this.mapping = mapping;
+            this.memoryTracker = memoryTracker;
+        }
+
+        static Region allocate( long size, MemoryAllocationTracker memoryTracker )
+        {
+            long address = UnsafeUtil.allocateMemory( size, memoryTracker );
+            return new Region( address, size, address, address + size, null, memoryTracker );
+        }
+
+        static Region allocateHugePageAligned( long size, MemoryAllocationTracker memoryTracker )
+        {
+            // Only the huge pages that are fully covered by the region can be backed by transparent huge pages, so we
+            // over-allocate a little, and start the region at the first huge page boundary. The padding is never
+            // touched, so it will not take up any physical memory.
+            long allocatedSize = size + HUGE_PAGE_SIZE - 1;
+            long base = UnsafeUtil.allocateMemory( allocatedSize, memoryTracker );
+            long start = UnsafeUtil.alignedMemory( base, HUGE_PAGE_SIZE );
+            return new Region( base, allocatedSize, start, start + size, null, memoryTracker );
+        }
+
+        static Region map( File hugePageDirectory, long size, MemoryAllocationTracker memoryTracker )
+        {
+            // Files in hugetlbfs can only be sized in whole huge pages.
+            long mappedSize = ((size + HUGE_PAGE_SIZE - 1) / HUGE_PAGE_SIZE) * HUGE_PAGE_SIZE;
+            File file = null;
+            try
+            {
+                file = File.createTempFile( "page-cache-", ".grab", hugePageDirectory );
+                try ( RandomAccessFile raf = new RandomAccessFile( file, "rw" );
+                      FileChannel channel = raf.getChannel() )
+                {
+                    MappedByteBuffer mapping = channel.map( FileChannel.MapMode.READ_WRITE, 0, mappedSize );
+                    long address = UnsafeUtil.getDirectByteBufferAddress( mapping );
+                    memoryTracker.allocated( mappedSize );
+                    return new Region( address, mappedSize, address, address + mappedSize, mapping, memoryTracker );
+                }
+            }
+            catch ( IOException e )
+            {
+                OutOfMemoryError error = new OutOfMemoryError(
+                        "Could not map " + mappedSize + " bytes of huge pages in " + hugePageDirectory +
+                        ". Make sure that the directory is a hugetlbfs mount, and that enough huge pages have been " +
+                        "reserved with vm.nr_hugepages." );
+                error.initCause( e );
+                throw error;
+            }
+            finally
+            {
+                if ( file != null )
+                {
+                    // The mapping keeps the memory alive, and we don't want to leave the file behind if we crash.
+                    //noinspection ResultOfMethodCallIgnored
+                    file.delete();
+                }
+            }
+        }
+
+        void free()
+        {
+            if ( mapping == null )
+            {
+                UnsafeUtil.free( base, allocatedSize, memoryTracker );
+            }
+            else
+            {
+                unmap( mapping );
+                memoryTracker.deallocated( allocatedSize );
+            }
+        }
+
+        private static void unmap( MappedByteBuffer mapping )
+        {
+            try
+            {
+                Method cleanerMethod = mapping.getClass().getMethod( "cleaner" );
+                cleanerMethod.setAccessible( true );
+                Object cleaner = cleanerMethod.invoke( mapping );
+                cleaner.getClass().getMethod( "clean" ).invoke( cleaner );
+            }
+            catch ( ReflectiveOperationException | RuntimeException ignore )
+            {
+                // The mapping will instead be released when the buffer is garbage collected.
+            }
+        }
+    }
+
     private static final class Grabs
     {
         /**
          * The amount of memory, in bytes, to grab in each Grab.
          */
         private static final long GRAB_SIZE = getInteger( GrabAllocator.class, "GRAB_SIZE", (int) kibiBytes( 512 ) );
+        /**
+         * The amount of memory, in bytes, to grab in each Grab, when the grabs are backed by huge pages.
+         */
+        private static final long HUGE_PAGE_GRAB_SIZE =
+                getInteger( GrabAllocator.class, "HUGE_PAGE_GRAB_SIZE", (int) mebiBytes( 32 ) );
 
         private final MemoryAllocationTracker memoryTracker;
+        private final HugePageMode hugePageMode;
+        private final File hugePageDirectory;
+        private final Monitor monitor;
+        private final long maxHugePageMappingSize;
+        private final long grabSize;
         private long expectedMaxMemory;
         private Grab head;
 
-        Grabs( long expectedMaxMemory, MemoryAllocationTracker memoryTracker )
+        Grabs( long expectedMaxMemory, MemoryAllocationTracker memoryTracker, HugePageMode hugePageMode,
+                File hugePageDirectory, Monitor monitor, long maxHugePageMappingSize )
         {
             this.expectedMaxMemory = expectedMaxMemory;
             this.memoryTracker = memoryTracker;
+            this.hugePageMode = hugePageMode;
+            this.hugePageDirectory = hugePageDirectory;
+            this.monitor = monitor;
+            this.maxHugePageMappingSize = maxHugePageMappingSize;
+            this.grabSize = hugePageMode == HugePageMode.DISABLED ? GRAB_SIZE : Math.max( GRAB_SIZE, HUGE_PAGE_GRAB_SIZE );
+        }
+
+        private Grab newGrab( Grab next, long size )
+        {
+            switch ( hugePageMode )
+            {
+            case TRANSPARENT:
+                return new Grab( next, Region.allocateHugePageAligned( size, memoryTracker ) );
+            case HUGETLBFS:
+                if ( size <= maxHugePageMappingSize )
+                {
+                    return new Grab( next, Region.map( hugePageDirectory, size, memoryTracker ) );
+                }
+                // Allocations must be contiguous, so the grab cannot be split over several mappings.
+                monitor.hugeTlbFsGrabTooLarge( size, maxHugePageMappingSize );
+                return new Grab( next, Region.allocateHugePageAligned( size, memoryTracker ) );
+            default:
+                return new Grab( next, Region.allocate( size, memoryTracker ) );
+            }
         }
 
         long usedMemory()
@@ -229,18 +472,18 @@ public final class GrabAllocator implements MemoryAllocator
             {
                 throw new IllegalArgumentException( "Invalid alignment: " + alignment + ". Alignment must be positive." );
             }
-            long grabSize = Math.min( GRAB_SIZE, expectedMaxMemory );
-            if ( bytes + alignment - 1 > GRAB_SIZE )
+            long grabSize = Math.min( this.grabSize, expectedMaxMemory );
+            if ( bytes + alignment - 1 > this.grabSize )
             {
                 // This is a huge allocation. Put it in its own grab and keep any existing grab at the head.
                 grabSize = bytes;
                 Grab nextGrab = head == null ? null : head.next;
-                Grab allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                Grab allocationGrab = newGrab( nextGrab, grabSize );
                 if ( !allocationGrab.canAllocate( bytes, alignment ) )
                 {
                     allocationGrab.free();
                     grabSize = bytes + alignment - 1;
-                    allocationGrab = new Grab( nextGrab, grabSize, memoryTracker );
+                    allocationGrab = newGrab( nextGrab, grabSize );
                 }
                 long allocation = allocationGrab.allocate( bytes, alignment );
                 head = head == null ? allocationGrab : head.setNext( allocationGrab );
@@ -253,7 +496,7 @@ public final class GrabAllocator implements MemoryAllocator
                 if ( grabSize < bytes )
                 {
                     grabSize = bytes;
-                    Grab grab = new Grab( head, grabSize, memoryTracker );
+                    Grab grab = newGrab( head, grabSize );
                     if ( grab.canAllocate( bytes, alignment ) )
                     {
                         expectedMaxMemory -= grabSize;
@@ -263,7 +506,7 @@ public final class GrabAllocator implements MemoryAllocator
                     grab.free();
                     grabSize = bytes + alignment - 1;
                 }
-                head = new Grab( head, grabSize, memoryTracker );
+                head = newGrab( head, grabSize );
                 expectedMaxMemory -= grabSize;
             }
             return head.allocate( bytes, alignment );
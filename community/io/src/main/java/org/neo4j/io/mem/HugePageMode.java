@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+/**
+ * The ways in which a {@link GrabAllocator} can arrange for its memory to be backed by huge pages.
+ * <p>
+ * Huge pages reduce the pressure on the TLB when the page cache is large, because a single TLB entry then covers
+ * 2 MiB of memory instead of 4 KiB.
+ */
+public enum HugePageMode
+{
+    /**
+     * Memory is allocated with {@code malloc}, and the operating system decides how it is backed.
+     */
+    DISABLED,
+    /**
+     * Memory is allocated in large grabs that are aligned to the huge page size, which makes them eligible for
+     * transparent huge pages, when the operating system has those enabled.
+     */
+    TRANSPARENT,
+    /**
+     * Memory is allocated by mapping files in a hugetlbfs mount, so it is always backed by explicitly reserved huge
+     * pages. The files are unlinked as soon as they have been mapped, so nothing is left behind in the mount.
+     */
+    HUGETLBFS
+}
@@ -22,6 +22,8 @@
  */
 package org.neo4j.io.mem;
 
+import java.io.File;
+
 import org.neo4j.io.ByteUnit;
 import org.neo4j.memory.MemoryAllocationTracker;
 
@@ -35,6 +37,19 @@ public interface MemoryAllocator
         return new GrabAllocator( ByteUnit.parse( expectedMemory ), memoryTracker );
     }
 
+    static MemoryAllocator createAllocator( String expectedMemory, MemoryAllocationTracker memoryTracker,
+            HugePageMode hugePageMode, File hugePageDirectory )
+    {
+        return createAllocator( expectedMemory, memoryTracker, hugePageMode, hugePageDirectory, GrabAllocator.Monitor.NULL );
+    }
+
+    static MemoryAllocator createAllocator( String expectedMemory, MemoryAllocationTracker memoryTracker,
+            HugePageMode hugePageMode, File hugePageDirectory, GrabAllocator.Monitor monitor )
+    {
+        return new GrabAllocator( ByteUnit.parse( expectedMemory ), memoryTracker, hugePageMode, hugePageDirectory,
+                monitor );
+    }
+
     /**
      * @return The sum, in bytes, of all the memory currently allocating through this allocator.
      */
@@ -54,6 +69,12 @@ public interface MemoryAllocator
      */
     long allocateAligned( long bytes, long alignment );
 
+    /**
+     * @return A human readable description of how the memory of this allocator is laid out, e.g. whether it is backed
+     * by huge pages and how it is spread across NUMA nodes.
+     */
+    String describeLayout();
+
     /**
      * Close all allocated resources and free all allocated memory.
      * Closing can happen by calling close explicitly or by GC as soon as allocator will become phantom reachable.
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * A best-effort description of the NUMA layout of the machine, and the NUMA memory policy of this process, as far
+ * as it can be observed through the Linux {@code sysfs} and {@code procfs} file systems.
+ * <p>
+ * The JVM gives us no way to bind or interleave memory ourselves, so this is only used for reporting how the page
+ * cache memory will end up being placed, and for recommending {@code numactl --interleave=all} when the page cache
+ * would otherwise pile up on whichever node happens to fault it in first.
+ */
+public final class NumaTopology
+{
+    private static final Pattern NODE_DIRECTORY = Pattern.compile( "node\\d+" );
+    private static final String DEFAULT_POLICY = "default";
+
+    private final int nodeCount;
+    private final String memoryPolicy;
+
+    NumaTopology( int nodeCount, String memoryPolicy )
+    {
+        this.nodeCount = nodeCount;
+        this.memoryPolicy = memoryPolicy;
+    }
+
+    /**
+     * Inspect the current machine and process.
+     * @return the observed NUMA topology. If nothing can be observed, then the machine is assumed to have a single
+     * node, and the process is assumed to use the default memory policy.
+     */
+    public static NumaTopology detect()
+    {
+        return new NumaTopology( countNodes( new File( "/sys/devices/system/node" ) ),
+                readMemoryPolicy( new File( "/proc/self/numa_maps" ) ) );
+    }
+
+    static int countNodes( File nodesDirectory )
+    {
+        String[] nodes = nodesDirectory.list( ( dir, name ) -> NODE_DIRECTORY.matcher( name ).matches() );
+        return nodes == null || nodes.length == 0 ? 1 : nodes.length;
+    }
+
+    static String readMemoryPolicy( File numaMaps )
+    {
+        try
+        {
+            // Every line is "<address> <policy> <details...>", and the policy of the process applies to all of them,
+            // unless a mapping has explicitly been given a different policy.
+            List<String> lines = Files.readAllLines( numaMaps.toPath(), StandardCharsets.US_ASCII );
+            if ( !lines.isEmpty() )
+            {
+                String[] fields = lines.get( 0 ).split( " " );
+                if ( fields.length > 1 )
+                {
+                    return fields[1];
+                }
+            }
+        }
+        catch ( IOException | SecurityException ignore )
+        {
+            // Not Linux, or not allowed to look. Either way, there is nothing we can report.
+        }
+        return DEFAULT_POLICY;
+    }
+
+    /**
+     * @return the number of NUMA nodes in the machine.
+     */
+    public int nodeCount()
+    {
+        return nodeCount;
+    }
+
+    /**
+     * @return the NUMA memory policy of this process, e.g. "default", "interleave:0-1" or "bind:0".
+     */
+    public String memoryPolicy()
+    {
+        return memoryPolicy;
+    }
+
+    /**
+     * @return {@code true} if the memory of this process is interleaved across the NUMA nodes.
+     */
+    public boolean isInterleaved()
+    {
+        return memoryPolicy.startsWith( "interleave" );
+    }
+
+    /**
+     * @return {@code true} if the machine has more than one NUMA node, and the memory of this process is placed by the
+     * default first-touch policy. The page cache memory will then mostly end up on the node of whichever threads
+     * happen to fault pages in, which makes access times uneven across the cores.
+     */
+    public boolean isUnbalanced()
+    {
+        return nodeCount > 1 && memoryPolicy.equals( DEFAULT_POLICY );
+    }
+
+    @Override
+    public String toString()
+    {
+        return nodeCount + (nodeCount == 1 ? " NUMA node" : " NUMA nodes") + ", memory policy " + memoryPolicy;
+    }
+}
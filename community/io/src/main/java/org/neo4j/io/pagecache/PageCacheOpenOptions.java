@@ -41,5 +41,29 @@ public enum PageCacheOpenOptions implements OpenOption
     /**
      * Mapped file will only use a single channel, overriding the otherwise configured striping amount, e.g. one channel per core.
      */
-    NO_CHANNEL_STRIPING
+    NO_CHANNEL_STRIPING,
+
+    /**
+     * Serve the cursors of the mapped file directly from a read-only memory mapping of the file, instead of copying
+     * its pages into the page cache memory. Such a {@link PagedFile} only supports
+     * {@link PagedFile#PF_SHARED_READ_LOCK read cursors}.
+     * <p>
+     * This is only a hint. The file is mapped through the page cache as usual, if it is already mapped that way, if
+     * it is mapped with options that imply writing to it, or if the page cache or the file system does not support
+     * memory mapping.
+     */
+    MEMORY_MAPPED_READ_ONLY,
+
+    /**
+     * Reserve a trailer at the end of every page of the mapped file for a checksum of the page contents. The checksum
+     * is computed when the page is written to the file, and verified when the page is read back in. A page that does
+     * not match its checksum fails the page fault with an
+     * {@link org.neo4j.io.pagecache.impl.PageChecksumMismatchException}, and is reported to the
+     * {@link org.neo4j.io.pagecache.tracing.PageCacheTracer}.
+     * <p>
+     * The {@link PagedFile#pageSize() page size} of the mapped file, which is the space available to page cursors, is
+     * then {@link org.neo4j.io.pagecache.impl.ChecksummingPageSwapper#CHECKSUM_SIZE} bytes smaller than the file page
+     * size given when mapping the file. All mappings of a file must agree on whether or not it has page checksums.
+     */
+    PAGE_CHECKSUMS
 }
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache;
+
+import java.io.File;
+import java.nio.file.OpenOption;
+import java.util.Objects;
+
+/**
+ * An {@link OpenOption} for {@link PageCache#map(File, int, OpenOption...)}, that attaches the mapped file to a named
+ * partition of the page cache.
+ * <p>
+ * All files in a partition share a quota of the pages in the page cache. The page cache will not evict pages from a
+ * partition that holds no more than its reserved share of the pages, and once a partition holds its maximum share of
+ * the pages, page faults for files in that partition will evict pages from the same partition, instead of from the
+ * cache at large. This way, a large file that is mostly scanned cannot crowd out smaller and hotter files that live in
+ * other partitions.
+ * <p>
+ * Several files can be mapped into the same partition, by giving them equal partition options. It is an error to map
+ * files into partitions that have the same name, but different quotas.
+ */
+public final class PageCachePartition implements OpenOption
+{
+    private final String name;
+    private final double reservedShare;
+    private final double maxShare;
+
+    private PageCachePartition( String name, double reservedShare, double maxShare )
+    {
+        this.name = name;
+        this.reservedShare = reservedShare;
+        this.maxShare = maxShare;
+    }
+
+    /**
+     * Create an option for mapping files into the given page cache partition.
+     *
+     * @param name the name of the partition, for instance "schema_indexes" or "label_scan_store".
+     * @param reservedShare the fraction of the pages in the page cache, between 0 and 1, that the partition is allowed
+     * to keep in memory, regardless of how other files are accessed.
+     * @param maxShare the largest fraction of the pages in the page cache, between the reserved share and 1, that the
+     * partition is allowed to use.
+     * @return the partition option.
+     */
+    public static PageCachePartition partition( String name, double reservedShare, double maxShare )
+    {
+        if ( name == null || name.isEmpty() )
+        {
+            throw new IllegalArgumentException( "Page cache partitions must have a name." );
+        }
+        if ( !(reservedShare >= 0 && reservedShare <= maxShare && maxShare <= 1) )
+        {
+            throw new IllegalArgumentException( "Page cache partition '" + name + "' must have 0 <= reservedShare (" +
+                    reservedShare + ") <= maxShare (" + maxShare + ") <= 1." );
+        }
+        return new PageCachePartition( name, reservedShare, maxShare );
+    }
+
+    public String name()
+    {
+        return name;
+    }
+
+    public double reservedShare()
+    {
+        return reservedShare;
+    }
+
+    public double maxShare()
+    {
+        return maxShare;
+    }
+
+    @Override
+    public boolean equals( Object o )
+    {
+        if ( this == o )
+        {
+            return true;
+        }
+        if ( o == null || getClass() != o.getClass() )
+        {
+            return false;
+        }
+        PageCachePartition that = (PageCachePartition) o;
+        return Double.compare( that.reservedShare, reservedShare ) == 0 &&
+               Double.compare( that.maxShare, maxShare ) == 0 &&
+               name.equals( that.name );
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash( name, reservedShare, maxShare );
+    }
+
+    @Override
+    public String toString()
+    {
+        return "PageCachePartition[" + name + ", reservedShare=" + reservedShare + ", maxShare=" + maxShare + "]";
+    }
+}
@@ -24,9 +24,11 @@ package org.neo4j.io.pagecache;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 
 import org.neo4j.graphdb.config.Configuration;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.scheduler.JobScheduler;
 
 /**
  * Creates PageSwappers for the given files.
@@ -48,6 +50,18 @@ public interface PageSwapperFactory
      */
     void open( FileSystemAbstraction fs, Configuration config );
 
+    /**
+     * Open page swapper factory with provided filesystem and config, and a job scheduler for any background threads
+     * the page swappers need for their IO. By default the scheduler is not used.
+     * @param fs file system to use in page swappers
+     * @param config custom page swapper configuration
+     * @param scheduler job scheduler to get IO threads from
+     */
+    default void open( FileSystemAbstraction fs, Configuration config, JobScheduler scheduler )
+    {
+        open( fs, config );
+    }
+
     /**
      * Get the name of this PageSwapperFactory implementation, for configuration purpose.
      */
@@ -87,6 +101,21 @@ public interface PageSwapperFactory
             boolean createIfNotExist,
             boolean noChannelStriping ) throws IOException;
 
+    /**
+     * Open the given file for reading through a read-only memory mapping, bypassing the page cache memory.
+     *
+     * @param file The file to open.
+     * @return A channel that can be {@link FileChannel#map(FileChannel.MapMode, long, long) memory mapped}, or
+     * {@code null} if this factory or its file system does not support memory mapping the given file, or the file does
+     * not exist. The caller is responsible for closing the returned channel.
+     * @throws IOException If the file could not be opened.
+     * @see PageCacheOpenOptions#MEMORY_MAPPED_READ_ONLY
+     */
+    default FileChannel openMemoryMappableChannel( File file ) throws IOException
+    {
+        return null;
+    }
+
     /**
      * Forces all prior writes made through all non-closed PageSwappers that this factory has created, to all the
      * relevant devices, such that the writes are durable when this call returns.
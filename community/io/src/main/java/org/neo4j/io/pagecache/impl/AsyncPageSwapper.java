@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A {@link SingleFilePageSwapper} that splits vectored reads and writes into parts, and submits those parts to a
+ * shared pool of IO submitter threads. This way a single page fault batch, or a single vectored flush, can keep
+ * several IO requests in flight against the underlying device at the same time, instead of being serialised on the
+ * position lock of a single channel.
+ * <p>
+ * Vectored reads and writes that span more than one channel stripe are split along the stripe boundaries, and every
+ * part is done as a vectored operation on its own channel. Smaller vectored reads and writes, like the batches of a
+ * read-ahead page fault, are split into parts of {@code pagesPerSubmission} pages, and every part is done with
+ * positional single page operations, which do not take the position lock of the channel.
+ * <p>
+ * Single page reads and writes, and all IO of a swapper that has no submitters, are performed directly by the
+ * calling thread.
+ *
+ * @see AsyncPageSwapperFactory
+ */
+public class AsyncPageSwapper extends SingleFilePageSwapper
+{
+    private static final int pagesPerSubmission = getInteger( AsyncPageSwapper.class, "pagesPerSubmission", 2 );
+
+    private final ExecutorService submitters;
+    private final int pagesPerStripe;
+
+    AsyncPageSwapper( File file, FileSystemAbstraction fs, int filePageSize, PageEvictionCallback onEviction,
+            boolean noChannelStriping, ExecutorService submitters ) throws IOException
+    {
+        super( file, fs, filePageSize, onEviction, noChannelStriping );
+        this.submitters = submitters;
+        this.pagesPerStripe = pagesPerChannelStripe();
+    }
+
+    @Override
+    public long read( long startFilePageId, long[] bufferAddresses, int bufferSize, int arrayOffset, int length )
+            throws IOException
+    {
+        if ( submitters == null || length <= pagesPerSubmission )
+        {
+            return super.read( startFilePageId, bufferAddresses, bufferSize, arrayOffset, length );
+        }
+        return submitAndAwait( startFilePageId, bufferAddresses, bufferSize, arrayOffset, length, true );
+    }
+
+    @Override
+    public long write( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException
+    {
+        if ( submitters == null || length <= pagesPerSubmission )
+        {
+            return super.write( startFilePageId, bufferAddresses, arrayOffset, length );
+        }
+        return submitAndAwait( startFilePageId, bufferAddresses, 0, arrayOffset, length, false );
+    }
+
+    private long submitAndAwait( long startFilePageId, long[] bufferAddresses, int bufferSize, int arrayOffset,
+            int length, boolean read ) throws IOException
+    {
+        // Parts are aligned to the channel stripes if we span more than one, such that every part is served by a
+        // different channel. Otherwise, the parts are too small to be worth a vectored operation each.
+        boolean vectored = length > pagesPerStripe;
+        int maxPartLength = vectored ? pagesPerStripe : pagesPerSubmission;
+        int firstPartLength = Math.min( length, maxPartLength - (int) (startFilePageId % maxPartLength) );
+        int partCount = 1 + (length - firstPartLength + maxPartLength - 1) / maxPartLength;
+        @SuppressWarnings( "unchecked" )
+        Future<Long>[] parts = new Future[partCount - 1];
+
+        // Hand off all but the first part, which we do ourselves while the submitters are busy with the rest.
+        int offset = firstPartLength;
+        for ( int i = 0; i < parts.length; i++ )
+        {
+            int partLength = Math.min( maxPartLength, length - offset );
+            long partStartFilePageId = startFilePageId + offset;
+            int partArrayOffset = arrayOffset + offset;
+            parts[i] = submitters.submit(
+                    () -> doPart( partStartFilePageId, bufferAddresses, bufferSize, partArrayOffset, partLength, read, vectored ) );
+            offset += partLength;
+        }
+
+        IOException failure = null;
+        long bytes = 0;
+        try
+        {
+            bytes += doPart( startFilePageId, bufferAddresses, bufferSize, arrayOffset, firstPartLength, read, vectored );
+        }
+        catch ( IOException e )
+        {
+            failure = e;
+        }
+
+        // We have to wait for every part to finish, even if we fail or get interrupted, because the submitters are
+        // accessing the memory of pages that the caller will otherwise consider to be free for reuse.
+        boolean interrupted = false;
+        for ( Future<Long> part : parts )
+        {
+            for (;;)
+            {
+                try
+                {
+                    bytes += part.get();
+                    break;
+                }
+                catch ( InterruptedException e )
+                {
+                    interrupted = true;
+                }
+                catch ( ExecutionException e )
+                {
+                    failure = addFailure( failure, e.getCause() );
+                    break;
+                }
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+        if ( failure != null )
+        {
+            throw failure;
+        }
+        return bytes;
+    }
+
+    private long doPart( long startFilePageId, long[] bufferAddresses, int bufferSize, int arrayOffset, int length,
+            boolean read, boolean vectored ) throws IOException
+    {
+        if ( vectored )
+        {
+            return read
+                   ? super.read( startFilePageId, bufferAddresses, bufferSize, arrayOffset, length )
+                   : super.write( startFilePageId, bufferAddresses, arrayOffset, length );
+        }
+        long bytes = 0;
+        for ( int i = 0; i < length; i++ )
+        {
+            long filePageId = startFilePageId + i;
+            long bufferAddress = bufferAddresses[arrayOffset + i];
+            bytes += read ? super.read( filePageId, bufferAddress, bufferSize ) : super.write( filePageId, bufferAddress );
+        }
+        return bytes;
+    }
+
+    private static IOException addFailure( IOException failure, Throwable cause )
+    {
+        IOException exception = cause instanceof IOException ? (IOException) cause : new IOException( cause );
+        if ( failure == null )
+        {
+            return exception;
+        }
+        failure.addSuppressed( exception );
+        return failure;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "AsyncPageSwapper{" +
+                "file=" + file() +
+                ", pagesPerStripe=" + pagesPerStripe +
+                ", pagesPerSubmission=" + pagesPerSubmission +
+                '}';
+    }
+}
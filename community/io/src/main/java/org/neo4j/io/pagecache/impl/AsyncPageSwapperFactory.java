@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.util.concurrent.ExecutorService;
+
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.PageEvictionCallback;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobScheduler;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A factory for {@link AsyncPageSwapper} instances, selected with {@code dbms.memory.pagecache.swapper=async}.
+ * <p>
+ * All swappers created by this factory share a single pool of IO submitter threads, which is used for keeping several
+ * parts of vectored reads and writes in flight concurrently. The pool is the {@link Group#PAGE_CACHE_IO} executor of
+ * the job scheduler given when {@link #open(FileSystemAbstraction, Configuration, JobScheduler) opening} the factory.
+ * Its parallelism is the number of available processors by default, but can be configured with the
+ * {@code org.neo4j.io.pagecache.impl.AsyncPageSwapperFactory.submitters} system property. If the factory is opened
+ * without a job scheduler, then the swappers do all their IO in the calling thread.
+ *
+ * @see AsyncPageSwapper
+ */
+public class AsyncPageSwapperFactory implements PageSwapperFactory
+{
+    private static final int submitterCount = getInteger(
+            AsyncPageSwapperFactory.class, "submitters", Runtime.getRuntime().availableProcessors() );
+
+    private FileSystemAbstraction fs;
+    private ExecutorService submitters;
+
+    @Override
+    public void open( FileSystemAbstraction fs, Configuration config )
+    {
+        this.fs = fs;
+        this.submitters = null;
+    }
+
+    @Override
+    public void open( FileSystemAbstraction fs, Configuration config, JobScheduler scheduler )
+    {
+        this.fs = fs;
+        this.submitters = scheduler.workStealingExecutor( Group.PAGE_CACHE_IO, Math.max( 1, submitterCount ) );
+    }
+
+    @Override
+    public PageSwapper createPageSwapper(
+            File file,
+            int filePageSize,
+            PageEvictionCallback onEviction,
+            boolean createIfNotExist,
+            boolean noChannelStriping ) throws IOException
+    {
+        if ( !fs.fileExists( file ) )
+        {
+            if ( createIfNotExist )
+            {
+                fs.create( file ).close();
+            }
+            else
+            {
+                throw new NoSuchFileException( file.getPath(), null, "Cannot map non-existing file" );
+            }
+        }
+        return new AsyncPageSwapper( file, fs, filePageSize, onEviction, noChannelStriping, submitters );
+    }
+
+    @Override
+    public FileChannel openMemoryMappableChannel( File file ) throws IOException
+    {
+        return SingleFilePageSwapperFactory.openMemoryMappableChannel( fs, file );
+    }
+
+    @Override
+    public void syncDevice()
+    {
+        // Nothing do to, since we `fsync` files individually in `force()`.
+    }
+
+    @Override
+    public void close()
+    {
+        // The submitters belong to the job scheduler, which shuts them down.
+    }
+
+    @Override
+    public String implementationName()
+    {
+        return "async";
+    }
+
+    @Override
+    public long getRequiredBufferAlignment()
+    {
+        return 1;
+    }
+}
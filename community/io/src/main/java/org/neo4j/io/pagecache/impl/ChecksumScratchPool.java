@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.InterruptedIOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.neo4j.memory.MemoryAllocationTracker;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+/**
+ * A fixed set of native scratch buffers that {@link ChecksummingPageSwapper checksumming swappers} copy pages into
+ * before they sum and write them.
+ * <p>
+ * The pool is shared by all the files that a page cache maps with page checksums, so the scratch memory is bounded
+ * by {@code slots * pagesPerSlot * pageSize} bytes no matter how many files are mapped, or how many threads flush
+ * them. The memory is allocated up front, reported to the given {@link MemoryAllocationTracker}, and freed when the
+ * pool is {@link #close() closed}. Threads that find all slots taken wait for one to be released.
+ */
+public final class ChecksumScratchPool implements AutoCloseable
+{
+    private final int pagesPerSlot;
+    private final int pageSize;
+    private final MemoryAllocationTracker memoryTracker;
+    private final Slot[] slots;
+    private final BlockingQueue<Slot> available;
+
+    public ChecksumScratchPool( int slotCount, int pagesPerSlot, int pageSize, MemoryAllocationTracker memoryTracker )
+    {
+        if ( slotCount < 1 || pagesPerSlot < 1 )
+        {
+            throw new IllegalArgumentException(
+                    "Must have at least one slot of at least one page, but got " + slotCount + " slots of " +
+                    pagesPerSlot + " pages." );
+        }
+        this.pagesPerSlot = pagesPerSlot;
+        this.pageSize = pageSize;
+        this.memoryTracker = memoryTracker;
+        this.slots = new Slot[slotCount];
+        this.available = new ArrayBlockingQueue<>( slotCount );
+        long slotSize = (long) pagesPerSlot * pageSize;
+        for ( int i = 0; i < slotCount; i++ )
+        {
+            slots[i] = new Slot( UnsafeUtil.allocateMemory( slotSize, memoryTracker ), pagesPerSlot );
+            available.add( slots[i] );
+        }
+    }
+
+    /**
+     * @return the number of pages of {@link #pageSize()} bytes that fit in each slot.
+     */
+    public int pagesPerSlot()
+    {
+        return pagesPerSlot;
+    }
+
+    /**
+     * @return the largest page size that the slots are laid out for.
+     */
+    public int pageSize()
+    {
+        return pageSize;
+    }
+
+    /**
+     * @return the total number of bytes of native memory held by this pool.
+     */
+    public long memoryUsage()
+    {
+        return (long) slots.length * pagesPerSlot * pageSize;
+    }
+
+    Slot acquire() throws InterruptedIOException
+    {
+        try
+        {
+            return available.take();
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException( "Interrupted while waiting for a page checksum scratch buffer" );
+        }
+    }
+
+    void release( Slot slot )
+    {
+        available.add( slot );
+    }
+
+    /**
+     * Free the memory of all slots. The pool must not be used after this, and no slots may be in use when it is
+     * closed.
+     */
+    @Override
+    public synchronized void close()
+    {
+        long slotSize = (long) pagesPerSlot * pageSize;
+        for ( int i = 0; i < slots.length; i++ )
+        {
+            if ( slots[i] != null )
+            {
+                UnsafeUtil.free( slots[i].address, slotSize, memoryTracker );
+                slots[i] = null;
+            }
+        }
+        available.clear();
+    }
+
+    static final class Slot
+    {
+        final long address;
+        // Reused for the page addresses of vectored writes, so writes do not allocate.
+        final long[] pageAddresses;
+
+        Slot( long address, int pages )
+        {
+            this.address = address;
+            this.pageAddresses = new long[pages];
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+/**
+ * A {@link PageSwapper} that keeps a checksum of every page in a trailer at the end of the page, and verifies the
+ * checksum when the page is read back in.
+ * <p>
+ * The last {@link #CHECKSUM_SIZE} bytes of every file page hold a CRC32 of the rest of the page. Page cursors must
+ * therefore not touch the trailer. Pages are copied into a scratch buffer from the shared {@link ChecksumScratchPool}
+ * before they are summed and written, so the checksum always matches the bytes that end up in the file, even if the
+ * page is being modified concurrently. Vectored writes longer than a scratch slot are written in several parts.
+ * <p>
+ * Pages that are all zeros are always considered valid, since that is how pages beyond the end of the file, and pages
+ * in sparse regions of the file, are read.
+ * <p>
+ * A page that was torn by a crash in the middle of writing it does not match its checksum. While the given
+ * {@code recovering} supplier returns {@code true}, such pages are only reported to the tracer, and are let through so
+ * that recovery can rewrite them. Otherwise they fail the page fault with a {@link PageChecksumMismatchException}.
+ */
+public class ChecksummingPageSwapper implements PageSwapper
+{
+    public static final int CHECKSUM_SIZE = Integer.BYTES;
+
+    private final PageSwapper delegate;
+    private final int filePageSize;
+    private final int payloadSize;
+    private final PageCacheTracer tracer;
+    private final ChecksumScratchPool scratchPool;
+    private final BooleanSupplier recovering;
+    private final ThreadLocal<CRC32> checksums = ThreadLocal.withInitial( CRC32::new );
+
+    public ChecksummingPageSwapper( PageSwapper delegate, int filePageSize, PageCacheTracer tracer,
+            ChecksumScratchPool scratchPool, BooleanSupplier recovering )
+    {
+        if ( filePageSize <= CHECKSUM_SIZE )
+        {
+            throw new IllegalArgumentException( "The file page size must be greater than the " + CHECKSUM_SIZE +
+                                                " byte checksum trailer, but was " + filePageSize );
+        }
+        if ( filePageSize > scratchPool.pageSize() )
+        {
+            throw new IllegalArgumentException( "The file page size " + filePageSize +
+                                                " is greater than the scratch page size " + scratchPool.pageSize() );
+        }
+        this.delegate = delegate;
+        this.scratchPool = scratchPool;
+        this.filePageSize = filePageSize;
+        this.payloadSize = filePageSize - CHECKSUM_SIZE;
+        this.tracer = tracer;
+        this.recovering = recovering;
+    }
+
+    @Override
+    public long read( long filePageId, long bufferAddress, int bufferSize ) throws IOException
+    {
+        long bytesRead = delegate.read( filePageId, bufferAddress, bufferSize );
+        verify( filePageId, bufferAddress );
+        return bytesRead;
+    }
+
+    @Override
+    public long read( long startFilePageId, long[] bufferAddresses, int bufferSize, int arrayOffset, int length )
+            throws IOException
+    {
+        long bytesRead = delegate.read( startFilePageId, bufferAddresses, bufferSize, arrayOffset, length );
+        for ( int i = 0; i < length; i++ )
+        {
+            verify( startFilePageId + i, bufferAddresses[arrayOffset + i] );
+        }
+        return bytesRead;
+    }
+
+    @Override
+    public long write( long filePageId, long bufferAddress ) throws IOException
+    {
+        ChecksumScratchPool.Slot slot = scratchPool.acquire();
+        try
+        {
+            copyAndSum( bufferAddress, slot.address );
+            return delegate.write( filePageId, slot.address );
+        }
+        finally
+        {
+            scratchPool.release( slot );
+        }
+    }
+
+    @Override
+    public long write( long startFilePageId, long[] bufferAddresses, int arrayOffset, int length ) throws IOException
+    {
+        ChecksumScratchPool.Slot slot = scratchPool.acquire();
+        try
+        {
+            long[] scratchAddresses = slot.pageAddresses;
+            long bytesWritten = 0;
+            for ( int written = 0; written < length; )
+            {
+                int batch = Math.min( length - written, scratchAddresses.length );
+                for ( int i = 0; i < batch; i++ )
+                {
+                    scratchAddresses[i] = slot.address + (long) i * filePageSize;
+                    copyAndSum( bufferAddresses[arrayOffset + written + i], scratchAddresses[i] );
+                }
+                bytesWritten += delegate.write( startFilePageId + written, scratchAddresses, 0, batch );
+                written += batch;
+            }
+            return bytesWritten;
+        }
+        finally
+        {
+            scratchPool.release( slot );
+        }
+    }
+
+    private void copyAndSum( long pageAddress, long scratchAddress ) throws IOException
+    {
+        UnsafeUtil.copyMemory( pageAddress, scratchAddress, payloadSize );
+        int checksum = checksum( scratchAddress );
+        view( scratchAddress ).putInt( payloadSize, checksum );
+    }
+
+    private void verify( long filePageId, long pageAddress ) throws IOException
+    {
+        ByteBuffer page = view( pageAddress );
+        int expected = page.getInt( payloadSize );
+        int actual = checksum( pageAddress );
+        if ( expected != actual && !isAllZeros( page ) )
+        {
+            tracer.checksumMismatch( delegate.file(), filePageId );
+            if ( recovering.getAsBoolean() )
+            {
+                return;
+            }
+            throw new PageChecksumMismatchException( delegate.file(), filePageId, expected, actual );
+        }
+    }
+
+    private int checksum( long pageAddress ) throws IOException
+    {
+        ByteBuffer payload = view( pageAddress );
+        payload.limit( payloadSize );
+        CRC32 crc = checksums.get();
+        crc.reset();
+        crc.update( payload );
+        return (int) crc.getValue();
+    }
+
+    private boolean isAllZeros( ByteBuffer page )
+    {
+        int i = 0;
+        for ( ; i + Long.BYTES <= filePageSize; i += Long.BYTES )
+        {
+            if ( page.getLong( i ) != 0 )
+            {
+                return false;
+            }
+        }
+        for ( ; i < filePageSize; i++ )
+        {
+            if ( page.get( i ) != 0 )
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ByteBuffer view( long pageAddress ) throws IOException
+    {
+        try
+        {
+            return UnsafeUtil.newDirectByteBuffer( pageAddress, filePageSize );
+        }
+        catch ( Exception e )
+        {
+            throw new IOException( e );
+        }
+    }
+
+    @Override
+    public void evicted( long pageId )
+    {
+        delegate.evicted( pageId );
+    }
+
+    @Override
+    public File file()
+    {
+        return delegate.file();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        delegate.close();
+    }
+
+    @Override
+    public void closeAndDelete() throws IOException
+    {
+        delegate.closeAndDelete();
+    }
+
+    @Override
+    public void force() throws IOException
+    {
+        delegate.force();
+    }
+
+    @Override
+    public long getLastPageId() throws IOException
+    {
+        return delegate.getLastPageId();
+    }
+
+    @Override
+    public void truncate() throws IOException
+    {
+        delegate.truncate();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ChecksummingPageSwapper[" + delegate + "]";
+    }
+}
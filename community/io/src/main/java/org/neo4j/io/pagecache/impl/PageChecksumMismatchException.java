@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Thrown when a page that is read from a file mapped with
+ * {@link org.neo4j.io.pagecache.PageCacheOpenOptions#PAGE_CHECKSUMS}, does not match the checksum in its trailer.
+ */
+public class PageChecksumMismatchException extends IOException
+{
+    public PageChecksumMismatchException( File file, long filePageId, int expectedChecksum, int actualChecksum )
+    {
+        super( String.format( "Checksum mismatch in page %s of %s: expected %08x but the page contents sum to %08x",
+                filePageId, file, expectedChecksum, actualChecksum ) );
+    }
+}
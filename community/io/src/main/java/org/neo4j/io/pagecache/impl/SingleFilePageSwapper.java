@@ -89,6 +89,14 @@ public class SingleFilePageSwapper implements PageSwapper
     private static final ThreadLocal<ByteBuffer> proxyCache = new ThreadLocal<>();
     private static final MethodHandle positionLockGetter = getPositionLockGetter();
 
+    /**
+     * @return the number of consecutive file pages that are directed to the same channel stripe.
+     */
+    static int pagesPerChannelStripe()
+    {
+        return 1 << channelStripeShift;
+    }
+
     private static int stripeMask( int count )
     {
         assert Integer.bitCount( count ) == 1;
@@ -374,9 +382,9 @@ public class SingleFilePageSwapper implements PageSwapper
         long bytesRead = lockPositionReadVectorAndRetryIfInterrupted( startFilePageId, channel, fileOffset, srcs, MAX_INTERRUPTED_CHANNEL_REOPEN_ATTEMPTS );
         if ( bytesRead == -1 )
         {
-            for ( long address : bufferAddresses )
+            for ( int i = 0; i < length; i++ )
             {
-                UnsafeUtil.setMemory( address, filePageSize, MuninnPageCache.ZERO_BYTE );
+                UnsafeUtil.setMemory( bufferAddresses[arrayOffset + i], filePageSize, MuninnPageCache.ZERO_BYTE );
             }
             return 0;
         }
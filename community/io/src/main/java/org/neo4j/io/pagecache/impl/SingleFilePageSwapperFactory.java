@@ -24,10 +24,15 @@ package org.neo4j.io.pagecache.impl;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.NoSuchFileException;
 
 import org.neo4j.graphdb.config.Configuration;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.fs.OpenMode;
+import org.neo4j.io.fs.StoreChannel;
+import org.neo4j.io.fs.StoreFileChannel;
+import org.neo4j.io.fs.StoreFileChannelUnwrapper;
 import org.neo4j.io.pagecache.PageEvictionCallback;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
@@ -69,6 +74,35 @@ public class SingleFilePageSwapperFactory implements PageSwapperFactory
         return new SingleFilePageSwapper( file, fs, filePageSize, onEviction, noChannelStriping );
     }
 
+    @Override
+    public FileChannel openMemoryMappableChannel( File file ) throws IOException
+    {
+        return openMemoryMappableChannel( fs, file );
+    }
+
+    /**
+     * Open the given file through the given file system, and unwrap its {@link FileChannel}, if it is a real file
+     * channel that supports memory mapping.
+     */
+    static FileChannel openMemoryMappableChannel( FileSystemAbstraction fs, File file ) throws IOException
+    {
+        if ( !fs.fileExists( file ) )
+        {
+            return null;
+        }
+        StoreChannel channel = fs.open( file, OpenMode.READ );
+        if ( channel.getClass() == StoreFileChannel.class )
+        {
+            FileChannel fileChannel = StoreFileChannelUnwrapper.unwrap( channel );
+            if ( fileChannel.getClass() == sun.nio.ch.FileChannelImpl.class )
+            {
+                return fileChannel;
+            }
+        }
+        channel.close();
+        return null;
+    }
+
     @Override
     public void syncDevice()
     {
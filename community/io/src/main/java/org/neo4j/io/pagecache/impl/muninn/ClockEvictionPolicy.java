@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * The classic CLOCK eviction policy, which is what the {@link MuninnPageCache} has always been using.
+ * <p>
+ * Every pin increments the usage counter of the page, up to a small maximum, and every visit by the clock hand
+ * decrements it. Pages are evicted once their usage counter has dropped to zero.
+ */
+final class ClockEvictionPolicy implements EvictionPolicy
+{
+    private final PageList pages;
+
+    ClockEvictionPolicy( PageList pages )
+    {
+        this.pages = pages;
+    }
+
+    @Override
+    public String name()
+    {
+        return CLOCK;
+    }
+
+    @Override
+    public void pinned( long pageRef )
+    {
+        pages.incrementUsage( pageRef );
+    }
+
+    @Override
+    public boolean shouldEvict( long pageRef )
+    {
+        return pages.decrementUsage( pageRef );
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A compact, concurrent set of the file page ids of the pages in a {@link MuninnPagedFile}, that have been modified
+ * since they were last flushed.
+ * <p>
+ * Write cursors {@link #mark(long) mark} a page as dirty both <em>before</em> they take the write lock that makes the
+ * page dirty, and <em>after</em> they have released it again. Flushers {@link #drain(long, long[], int) drain} the
+ * dirty page ids <em>before</em> they look at the pages, and mark them again if they fail to write them out. This way,
+ * a page that is dirty is always in the set, unless a write cursor is still writing to it, and will mark it again
+ * when it is done. A checkpoint therefore only has to drain this set, to write out every modification that happened
+ * before it started. The set may still contain pages that are no longer dirty, e.g. because they were flushed by
+ * eviction, so flushers must always check the modified flag of the page itself.
+ * <p>
+ * The bitmap is stored in chunks of 4096 pages, and only grows. Marking a page that is already marked is only a
+ * volatile read.
+ */
+final class DirtyPageBitmap
+{
+    private static final int WORDS_PER_CHUNK_POWER = 6;
+    private static final int WORDS_PER_CHUNK = 1 << WORDS_PER_CHUNK_POWER;
+    private static final int WORDS_PER_CHUNK_MASK = WORDS_PER_CHUNK - 1;
+
+    private final AtomicLong dirtyPages = new AtomicLong();
+    private volatile AtomicLongArray[] chunks = new AtomicLongArray[0];
+
+    /**
+     * Mark the given file page as dirty.
+     */
+    void mark( long filePageId )
+    {
+        long wordIndex = filePageId >>> 6;
+        int chunkId = (int) (wordIndex >>> WORDS_PER_CHUNK_POWER);
+        AtomicLongArray[] chunks = this.chunks;
+        if ( chunkId >= chunks.length )
+        {
+            chunks = expandCapacity( chunkId );
+        }
+        AtomicLongArray chunk = chunks[chunkId];
+        int index = (int) (wordIndex & WORDS_PER_CHUNK_MASK);
+        long bit = 1L << filePageId;
+        if ( (chunk.get( index ) & bit) == 0 && (chunk.getAndAccumulate( index, bit, ( w, b ) -> w | b ) & bit) == 0 )
+        {
+            dirtyPages.incrementAndGet();
+        }
+    }
+
+    /**
+     * Remove up to {@code max} dirty file page ids, that are greater than or equal to {@code fromFilePageId}, from
+     * this set, and put them into the given array in ascending order.
+     *
+     * @return the number of file page ids put into the array. If this is less than {@code max}, then there are no
+     * more dirty pages after the last one returned.
+     */
+    int drain( long fromFilePageId, long[] filePageIds, int max )
+    {
+        AtomicLongArray[] chunks = this.chunks;
+        int count = 0;
+        long wordIndex = fromFilePageId >>> 6;
+        long firstBit = fromFilePageId & 63;
+        for ( int chunkId = (int) (wordIndex >>> WORDS_PER_CHUNK_POWER); chunkId < chunks.length && count < max; chunkId++ )
+        {
+            AtomicLongArray chunk = chunks[chunkId];
+            int index = (int) (wordIndex & WORDS_PER_CHUNK_MASK);
+            for ( ; index < WORDS_PER_CHUNK && count < max; index++, wordIndex++, firstBit = 0 )
+            {
+                long word = chunk.get( index ) & (-1L << firstBit);
+                if ( word == 0 )
+                {
+                    continue;
+                }
+                long taken = 0;
+                for ( int bits = Long.bitCount( word ); bits > 0 && count + Long.bitCount( taken ) < max; bits-- )
+                {
+                    taken |= Long.lowestOneBit( word & ~taken );
+                }
+                // Only report the pages we actually cleared, in case we are racing with another drain.
+                long cleared = chunk.getAndAccumulate( index, taken, ( w, t ) -> w & ~t ) & taken;
+                dirtyPages.addAndGet( -Long.bitCount( cleared ) );
+                long pageIdBase = wordIndex << 6;
+                while ( cleared != 0 )
+                {
+                    filePageIds[count++] = pageIdBase + Long.numberOfTrailingZeros( cleared );
+                    cleared &= cleared - 1;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the approximate number of dirty pages in this set.
+     */
+    long size()
+    {
+        return dirtyPages.get();
+    }
+
+    private synchronized AtomicLongArray[] expandCapacity( int maxChunkId )
+    {
+        AtomicLongArray[] chunks = this.chunks;
+        if ( chunks.length <= maxChunkId )
+        {
+            // Grow by approx. 10% but always by at least one full chunk, like the translation table.
+            AtomicLongArray[] newChunks = new AtomicLongArray[1 + (int) (maxChunkId * 1.1)];
+            System.arraycopy( chunks, 0, newChunks, 0, chunks.length );
+            for ( int i = chunks.length; i < newChunks.length; i++ )
+            {
+                newChunks[i] = new AtomicLongArray( WORDS_PER_CHUNK );
+            }
+            chunks = newChunks;
+            this.chunks = chunks;
+        }
+        return chunks;
+    }
+}
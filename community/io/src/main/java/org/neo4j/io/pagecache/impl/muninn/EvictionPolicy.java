@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * An eviction policy decides which of the loaded pages the {@link MuninnPageCache} evicts, when it needs to free
+ * up memory for page faults.
+ * <p>
+ * The page cache itself owns the clock hand, and visits every page in turn. The eviction policy is told whenever a
+ * page is pinned by a cursor, and is asked whether the page the clock hand currently points at should be evicted.
+ * Both calls happen without holding any lock on the page, so implementations must be benignly racy: the worst that
+ * may happen is that a less than ideal page gets evicted.
+ */
+interface EvictionPolicy
+{
+    /**
+     * The classic CLOCK algorithm, where every pin increments the usage counter of the page, and every visit by the
+     * clock hand decrements it.
+     */
+    String CLOCK = "clock";
+
+    /**
+     * The adaptive, scan-resistant variant of CLOCK. See {@link ScanResistantEvictionPolicy}.
+     */
+    String SCAN_RESISTANT = "scan_resistant";
+
+    /**
+     * Create the eviction policy with the given name, for the given page list.
+     *
+     * @param name the name of the eviction policy, either {@link #CLOCK} or {@link #SCAN_RESISTANT}.
+     * @param pages the pages the eviction policy will be making decisions about.
+     * @return the new eviction policy.
+     * @throws IllegalArgumentException if there is no eviction policy with the given name.
+     */
+    static EvictionPolicy create( String name, PageList pages )
+    {
+        switch ( name )
+        {
+        case CLOCK:
+            return new ClockEvictionPolicy( pages );
+        case SCAN_RESISTANT:
+            return new ScanResistantEvictionPolicy( pages );
+        default:
+            throw new IllegalArgumentException( "Unknown page cache eviction policy: '" + name + "'. " +
+                    "Valid policies are '" + CLOCK + "' and '" + SCAN_RESISTANT + "'." );
+        }
+    }
+
+    /**
+     * @return the name of this eviction policy.
+     */
+    String name();
+
+    /**
+     * Called every time a cursor pins the given page, regardless of whether the pin was a hit or a page fault.
+     *
+     * @param pageRef the page that was pinned.
+     */
+    void pinned( long pageRef );
+
+    /**
+     * Called when the clock hand visits the given loaded page, to decide if the page should be evicted.
+     *
+     * @param pageRef the page the clock hand is pointing at.
+     * @return {@code true} if the page cache should try to evict the page, {@code false} if the clock hand should
+     * move on.
+     */
+    boolean shouldEvict( long pageRef );
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.neo4j.io.pagecache.IOLimiter;
+
+/**
+ * This Runnable writes out dirty pages in the background, so that checkpoints and evictions find fewer dirty pages.
+ * Any number of these can run for each page cache.
+ *
+ * @see MuninnPageCache#continuouslyFlushDirtyPages(FlushTask)
+ */
+final class FlushTask extends BackgroundTask
+{
+    private final long intervalNanos;
+    private final IOLimiter limiter;
+    private final MuninnPagedFile.FlushBuffers flushBuffers = new MuninnPagedFile.FlushBuffers();
+    private volatile Thread thread;
+    private volatile boolean stopped;
+
+    FlushTask( MuninnPageCache pageCache, long intervalMillis, IOLimiter limiter )
+    {
+        super( pageCache );
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos( intervalMillis );
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected void run( MuninnPageCache pageCache )
+    {
+        thread = Thread.currentThread();
+        pageCache.continuouslyFlushDirtyPages( this );
+    }
+
+    IOLimiter limiter()
+    {
+        return limiter;
+    }
+
+    MuninnPagedFile.FlushBuffers flushBuffers()
+    {
+        return flushBuffers;
+    }
+
+    boolean isStopped()
+    {
+        return stopped;
+    }
+
+    void stop()
+    {
+        stopped = true;
+        Thread thread = this.thread;
+        if ( thread != null )
+        {
+            LockSupport.unpark( thread );
+        }
+    }
+
+    /**
+     * Wait for the flush interval to elapse, or for this task to be stopped.
+     */
+    void awaitNextRound()
+    {
+        if ( !stopped )
+        {
+            LockSupport.parkNanos( this, intervalNanos );
+        }
+    }
+}
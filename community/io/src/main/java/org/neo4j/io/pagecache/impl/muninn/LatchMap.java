@@ -47,21 +47,28 @@ final class LatchMap
         }
     }
 
-    private static final int faultLockStriping = FeatureToggles.getInteger( LatchMap.class, "faultLockStriping", 128 );
+    // The number of latch slots. By default, this grows with the number of processors, so that the chance of
+    // unrelated page faults colliding on the same slot stays low when many threads are faulting at the same time.
+    private static final int faultLockStriping = Integer.highestOneBit( FeatureToggles.getInteger(
+            LatchMap.class, "faultLockStriping", Math.max( 128, Runtime.getRuntime().availableProcessors() * 8 ) ) );
     private static final long faultLockMask = faultLockStriping - 1;
     private static final int latchesArrayBase = UnsafeUtil.arrayBaseOffset( Latch[].class );
     private static final int latchesArrayScale = UnsafeUtil.arrayIndexScale( Latch[].class );
+    // Latches are installed and removed with CAS and volatile writes, so neighbouring slots on the same cache line
+    // would ping-pong between the faulting processors. Each slot therefore gets a cache line to itself.
+    private static final int latchSpacing = FeatureToggles.flag( LatchMap.class, "padLatches", true ) ?
+                                            Math.max( 1, 64 / latchesArrayScale ) : 1;
 
     private final Latch[] latches;
 
     LatchMap()
     {
-        latches = new Latch[faultLockStriping];
+        latches = new Latch[faultLockStriping * latchSpacing];
     }
 
     private long offset( int index )
     {
-        return UnsafeUtil.arrayOffset( index, latchesArrayBase, latchesArrayScale );
+        return UnsafeUtil.arrayOffset( index * latchSpacing, latchesArrayBase, latchesArrayScale );
     }
 
     private void setLatch( int index, BinaryLatch newValue )
@@ -107,6 +114,30 @@ final class LatchMap
         return null;
     }
 
+    /**
+     * Like {@link #takeOrAwaitLatch(long)}, except this method never waits. If a latch is already installed for the
+     * given (or any colliding) identifier, then {@code null} is returned immediately.
+     * <p>
+     * This is used when a thread that already holds a latch wants to take more latches, since waiting on other latches
+     * in that situation could otherwise lead to deadlocks.
+     */
+    Latch tryTakeLatch( long identifier )
+    {
+        int index = index( identifier );
+        if ( getLatch( index ) != null )
+        {
+            return null;
+        }
+        Latch latch = new Latch();
+        if ( compareAndSetLatch( index, null, latch ) )
+        {
+            latch.latchMap = this;
+            latch.index = index;
+            return latch;
+        }
+        return null;
+    }
+
     private int index( long identifier )
     {
         return (int) (mix( identifier ) & faultLockMask);
@@ -0,0 +1,481 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import org.neo4j.io.pagecache.CursorException;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
+
+/**
+ * A read cursor for a {@link MemoryMappedPagedFile}. Pages are read straight out of the memory mapped segments of the
+ * file, so there is no locking, and {@link #shouldRetry()} never asks for a retry.
+ * <p>
+ * Like the {@link MuninnPageCursor}, accesses outside of the current page raise the bounds flag, rather than throw.
+ */
+final class MemoryMappedPageCursor extends PageCursor
+{
+    private static final String READ_ONLY_MESSAGE = "Cannot write to a memory mapped read-only file";
+
+    private MemoryMappedPagedFile pagedFile;
+    // Per-cursor duplicates of the segment buffers, so that relative bulk reads do not disturb other cursors.
+    private final ByteBuffer[] views;
+    private ByteBuffer buffer;
+    private int base;
+    private int pageSize;
+    private long currentPageId = UNBOUND_PAGE_ID;
+    private long nextPageId;
+    private int offset;
+    private int mark;
+    private boolean outOfBounds;
+    private String cursorException;
+    private MemoryMappedPageCursor linkedCursor;
+
+    MemoryMappedPageCursor( MemoryMappedPagedFile pagedFile, long pageId )
+    {
+        this.pagedFile = pagedFile;
+        this.views = new ByteBuffer[pagedFile.segmentCount()];
+        this.nextPageId = pageId;
+    }
+
+    @Override
+    public boolean next() throws FileIsNotMappedException
+    {
+        unbind();
+        if ( pagedFile == null )
+        {
+            return false;
+        }
+        long lastPageId = pagedFile.getLastPageId();
+        if ( nextPageId > lastPageId | nextPageId < 0 )
+        {
+            return false;
+        }
+        currentPageId = nextPageId;
+        nextPageId++;
+        int segmentIndex = pagedFile.segmentIndexOf( currentPageId );
+        ByteBuffer view = views[segmentIndex];
+        if ( view == null )
+        {
+            view = pagedFile.segment( segmentIndex ).duplicate();
+            views[segmentIndex] = view;
+        }
+        buffer = view;
+        base = pagedFile.offsetInSegment( currentPageId );
+        pageSize = pagedFile.pageSize();
+        return true;
+    }
+
+    @Override
+    public boolean next( long pageId ) throws FileIsNotMappedException
+    {
+        if ( currentPageId == pageId )
+        {
+            return true;
+        }
+        nextPageId = pageId;
+        return next();
+    }
+
+    private void unbind()
+    {
+        currentPageId = UNBOUND_PAGE_ID;
+        buffer = null;
+        pageSize = 0;
+        offset = 0;
+        mark = 0;
+    }
+
+    @Override
+    public void close()
+    {
+        MemoryMappedPageCursor cursor = this;
+        while ( cursor != null && cursor.pagedFile != null )
+        {
+            cursor.unbind();
+            cursor.pagedFile = null;
+            cursor = cursor.linkedCursor;
+        }
+    }
+
+    @Override
+    public boolean shouldRetry()
+    {
+        return false;
+    }
+
+    /**
+     * @return the index into the current segment of the given page offset, or -1 if the access is out of bounds.
+     */
+    private int index( int offset, int size )
+    {
+        if ( offset < 0 | offset + size > pageSize )
+        {
+            outOfBounds = true;
+            return -1;
+        }
+        return base + offset;
+    }
+
+    private int nextIndex( int size )
+    {
+        int index = index( offset, size );
+        offset += size;
+        return index;
+    }
+
+    @Override
+    public byte getByte()
+    {
+        int index = nextIndex( Byte.BYTES );
+        return index == -1 ? 0 : buffer.get( index );
+    }
+
+    @Override
+    public byte getByte( int offset )
+    {
+        int index = index( offset, Byte.BYTES );
+        return index == -1 ? 0 : buffer.get( index );
+    }
+
+    @Override
+    public short getShort()
+    {
+        int index = nextIndex( Short.BYTES );
+        return index == -1 ? 0 : buffer.getShort( index );
+    }
+
+    @Override
+    public short getShort( int offset )
+    {
+        int index = index( offset, Short.BYTES );
+        return index == -1 ? 0 : buffer.getShort( index );
+    }
+
+    @Override
+    public int getInt()
+    {
+        int index = nextIndex( Integer.BYTES );
+        return index == -1 ? 0 : buffer.getInt( index );
+    }
+
+    @Override
+    public int getInt( int offset )
+    {
+        int index = index( offset, Integer.BYTES );
+        return index == -1 ? 0 : buffer.getInt( index );
+    }
+
+    @Override
+    public long getLong()
+    {
+        int index = nextIndex( Long.BYTES );
+        return index == -1 ? 0 : buffer.getLong( index );
+    }
+
+    @Override
+    public long getLong( int offset )
+    {
+        int index = index( offset, Long.BYTES );
+        return index == -1 ? 0 : buffer.getLong( index );
+    }
+
+    @Override
+    public void getBytes( byte[] data )
+    {
+        getBytes( data, 0, data.length );
+    }
+
+    @Override
+    public void getBytes( byte[] data, int arrayOffset, int length )
+    {
+        if ( arrayOffset + length > data.length )
+        {
+            throw new ArrayIndexOutOfBoundsException();
+        }
+        int index = nextIndex( length );
+        if ( index != -1 )
+        {
+            buffer.position( index );
+            buffer.get( data, arrayOffset, length );
+        }
+    }
+
+    @Override
+    public void putByte( byte value )
+    {
+        throw new UnsupportedOperationException( READ_ONLY_MESSAGE );
+    }
+
+    @Override
+    public void putByte( int offset, byte value )
+    {
+        throw new UnsupportedOperationException( READ_ONLY_MESSAGE );
+    }
+
+    @Override
+    public void putShort( short value )
+    {
+        throw new UnsupportedOperationException( READ_ONLY_MESSAGE );
+    }
+
+    @Override
+    public void putShort( int offset, short value )
+    {
+        throw new UnsupportedOperationException( READ_ONLY_MESSAGE );
+    }
+
+    @Override
+    public void putInt( int value )
+    {
+        throw new UnsupportedOperationException( READ_ONLY_MESSAGE );
+    }
+
+    @Override
+    public void putInt( int offset, int value )
+    {
+        throw new UnsupportedOperationException( READ_ONLY_MESSAGE );
+    }
+
+    @Override
+    public void putLong( long value )
+    {
+        throw new UnsupportedOperationException( READ_ONLY_MESSAGE );
+    }
+
+    @Override
+    public void putLong( int offset, long value )
+    {
+        throw new UnsupportedOperationException( READ_ONLY_MESSAGE );
+    }
+
+    @Override
+    public void putBytes( byte[] data )
+    {
+        throw new UnsupportedOperationException( READ_ONLY_MESSAGE );
+    }
+
+    @Override
+    public void putBytes( byte[] data, int arrayOffset, int length )
+    {
+        throw new UnsupportedOperationException( READ_ONLY_MESSAGE );
+    }
+
+    @Override
+    public void putBytes( int bytes, byte value )
+    {
+        throw new UnsupportedOperationException( READ_ONLY_MESSAGE );
+    }
+
+    @Override
+    public void shiftBytes( int sourceOffset, int length, int shift )
+    {
+        throw new UnsupportedOperationException( READ_ONLY_MESSAGE );
+    }
+
+    @Override
+    public void zapPage()
+    {
+        throw new UnsupportedOperationException( READ_ONLY_MESSAGE );
+    }
+
+    @Override
+    public int copyTo( int sourceOffset, PageCursor targetCursor, int targetOffset, int lengthInBytes )
+    {
+        int targetPageSize = targetCursor.getCurrentPageSize();
+        if ( sourceOffset >= 0
+             & targetOffset >= 0
+             & sourceOffset < pageSize
+             & targetOffset < targetPageSize
+             & lengthInBytes >= 0 )
+        {
+            int bytes = Math.min( lengthInBytes, Math.min( pageSize - sourceOffset, targetPageSize - targetOffset ) );
+            for ( int i = 0; i < bytes; i++ )
+            {
+                targetCursor.putByte( targetOffset + i, buffer.get( base + sourceOffset + i ) );
+            }
+            return bytes;
+        }
+        outOfBounds = true;
+        return 0;
+    }
+
+    @Override
+    public int copyTo( int sourceOffset, ByteBuffer targetBuffer )
+    {
+        if ( sourceOffset < 0 | sourceOffset >= pageSize )
+        {
+            outOfBounds = true;
+            return 0;
+        }
+        int bytesToCopy = Math.min( targetBuffer.remaining(), pageSize - sourceOffset );
+        ByteBuffer source = buffer.duplicate();
+        source.position( base + sourceOffset );
+        source.limit( base + sourceOffset + bytesToCopy );
+        targetBuffer.put( source );
+        return bytesToCopy;
+    }
+
+    @Override
+    public void setOffset( int offset )
+    {
+        this.offset = offset;
+        if ( offset < 0 )
+        {
+            outOfBounds = true;
+            this.offset = 0;
+        }
+    }
+
+    @Override
+    public int getOffset()
+    {
+        return offset;
+    }
+
+    @Override
+    public void mark()
+    {
+        mark = offset;
+    }
+
+    @Override
+    public void setOffsetToMark()
+    {
+        offset = mark;
+    }
+
+    @Override
+    public void rewind()
+    {
+        offset = 0;
+        mark = 0;
+    }
+
+    @Override
+    public long getCurrentPageId()
+    {
+        return currentPageId;
+    }
+
+    @Override
+    public int getCurrentPageSize()
+    {
+        return currentPageId == UNBOUND_PAGE_ID ? UNBOUND_PAGE_SIZE : pageSize;
+    }
+
+    @Override
+    public File getCurrentFile()
+    {
+        return currentPageId == UNBOUND_PAGE_ID ? null : pagedFile.file();
+    }
+
+    @Override
+    public boolean checkAndClearBoundsFlag()
+    {
+        MemoryMappedPageCursor cursor = this;
+        boolean result = false;
+        do
+        {
+            result |= cursor.outOfBounds;
+            cursor.outOfBounds = false;
+            cursor = cursor.linkedCursor;
+        }
+        while ( cursor != null );
+        return result;
+    }
+
+    @Override
+    public void checkAndClearCursorException() throws CursorException
+    {
+        MemoryMappedPageCursor cursor = this;
+        do
+        {
+            String message = cursor.cursorException;
+            if ( message != null )
+            {
+                cursor.clearCursorException();
+                throw new CursorException( message );
+            }
+            cursor = cursor.linkedCursor;
+        }
+        while ( cursor != null );
+    }
+
+    @Override
+    public void raiseOutOfBounds()
+    {
+        outOfBounds = true;
+    }
+
+    @Override
+    public void setCursorException( String message )
+    {
+        cursorException = Objects.requireNonNull( message );
+    }
+
+    @Override
+    public void clearCursorException()
+    {
+        MemoryMappedPageCursor cursor = this;
+        do
+        {
+            cursor.cursorException = null;
+            cursor = cursor.linkedCursor;
+        }
+        while ( cursor != null );
+    }
+
+    @Override
+    public PageCursor openLinkedCursor( long pageId )
+    {
+        MemoryMappedPagedFile pf = pagedFile;
+        if ( pf == null )
+        {
+            // This cursor has been closed
+            throw new IllegalStateException( "Cannot open linked cursor on closed page cursor" );
+        }
+        if ( linkedCursor != null )
+        {
+            linkedCursor.close();
+        }
+        linkedCursor = new MemoryMappedPageCursor( pf, pageId );
+        return linkedCursor;
+    }
+
+    @Override
+    public boolean isWriteLocked()
+    {
+        return false;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "MemoryMappedPageCursor{currentPageId=" + currentPageId + ", offset=" + offset + ", file=" +
+               (pagedFile == null ? null : pagedFile.file()) + "}";
+    }
+}
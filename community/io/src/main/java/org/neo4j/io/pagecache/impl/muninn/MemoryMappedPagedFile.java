@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
+
+import static org.neo4j.util.FeatureToggles.getInteger;
+
+/**
+ * A read-only {@link PagedFile} that serves its cursors directly from a memory mapping of the file, rather than from
+ * the page cache memory. This avoids copying the pages from the OS page cache into the page cache, and lets read-only
+ * workloads use all the memory of the host without double buffering.
+ * <p>
+ * The file is mapped in segments of whole file pages, because a single mapping cannot be larger than 2 GiB.
+ * A trailing partial page, if any, is read into a zero-padded buffer of its own, since reading past the end of a
+ * memory mapped file is not allowed. The size of the file is fixed at the time the file is mapped.
+ *
+ * @see org.neo4j.io.pagecache.PageCacheOpenOptions#MEMORY_MAPPED_READ_ONLY
+ */
+final class MemoryMappedPagedFile implements PagedFile
+{
+    // The maximum size of a single memory mapped segment. Segments always hold a whole number of file pages.
+    private static final int maxSegmentSize = getInteger( MemoryMappedPagedFile.class, "maxSegmentSize", 1 << 30 );
+    private static final int PF_LOCK_MASK = PF_SHARED_WRITE_LOCK | PF_SHARED_READ_LOCK;
+
+    private final File file;
+    private final MuninnPageCache pageCache;
+    private final int filePageSize;
+    private final FileChannel channel;
+    private final ByteBuffer[] segments;
+    private final int pagesPerSegment;
+    private final long lastPageId;
+    // Guarded by synchronized(pageCache), but can be read without synchronisation.
+    private volatile int refCount;
+
+    MemoryMappedPagedFile( File file, MuninnPageCache pageCache, int filePageSize, FileChannel channel )
+            throws IOException
+    {
+        this.file = file;
+        this.pageCache = pageCache;
+        this.filePageSize = filePageSize;
+        this.channel = channel;
+        this.pagesPerSegment = Math.max( 1, maxSegmentSize / filePageSize );
+
+        long fileSize = channel.size();
+        long wholePages = fileSize / filePageSize;
+        int tailBytes = (int) (fileSize % filePageSize);
+        long pageCount = wholePages + (tailBytes == 0 ? 0 : 1);
+        this.lastPageId = pageCount - 1;
+
+        long segmentSize = (long) pagesPerSegment * filePageSize;
+        int segmentCount = Math.toIntExact( (pageCount + pagesPerSegment - 1) / pagesPerSegment );
+        segments = new ByteBuffer[segmentCount];
+        int mappedSegments = tailBytes == 0 ? segmentCount : segmentCount - 1;
+        for ( int i = 0; i < mappedSegments; i++ )
+        {
+            long position = i * segmentSize;
+            long size = Math.min( segmentSize, fileSize - position );
+            segments[i] = channel.map( FileChannel.MapMode.READ_ONLY, position, size );
+        }
+        if ( tailBytes != 0 )
+        {
+            // The last segment is read into a heap buffer instead, that holds both its whole pages, and the
+            // zero-padded tail page.
+            int lastSegment = segmentCount - 1;
+            long position = lastSegment * segmentSize;
+            ByteBuffer buffer = ByteBuffer.allocate( Math.toIntExact( fileSize - position + filePageSize - tailBytes ) );
+            while ( position + buffer.position() < fileSize )
+            {
+                if ( channel.read( buffer, position + buffer.position() ) == -1 )
+                {
+                    break;
+                }
+            }
+            buffer.clear();
+            segments[lastSegment] = buffer;
+        }
+    }
+
+    @Override
+    public PageCursor io( long pageId, int pf_flags )
+    {
+        int lockFlags = pf_flags & PF_LOCK_MASK;
+        if ( lockFlags == PF_SHARED_WRITE_LOCK )
+        {
+            throw new UnsupportedOperationException( "Cannot write to " + file + ", because it is memory mapped " +
+                                                     "read-only" );
+        }
+        if ( lockFlags != PF_SHARED_READ_LOCK )
+        {
+            throw new IllegalArgumentException( lockFlags == 0 ?
+                    "Must specify either PF_SHARED_WRITE_LOCK or PF_SHARED_READ_LOCK" :
+                    "Cannot specify both PF_SHARED_WRITE_LOCK and PF_SHARED_READ_LOCK" );
+        }
+        return new MemoryMappedPageCursor( this, pageId );
+    }
+
+    @Override
+    public int pageSize()
+    {
+        return filePageSize;
+    }
+
+    @Override
+    public long fileSize() throws FileIsNotMappedException
+    {
+        return (getLastPageId() + 1) * filePageSize;
+    }
+
+    @Override
+    public File file()
+    {
+        return file;
+    }
+
+    @Override
+    public void flushAndForce()
+    {
+        // Nothing to flush, since we never write.
+    }
+
+    @Override
+    public void flushAndForce( IOLimiter limiter )
+    {
+        if ( limiter == null )
+        {
+            throw new IllegalArgumentException( "IOPSLimiter cannot be null" );
+        }
+    }
+
+    @Override
+    public long getLastPageId() throws FileIsNotMappedException
+    {
+        if ( refCount == 0 )
+        {
+            throw new FileIsNotMappedException( file );
+        }
+        return lastPageId;
+    }
+
+    @Override
+    public void close()
+    {
+        pageCache.unmap( this );
+    }
+
+    /**
+     * @return the buffer of the given segment. Cursors must only use absolute accessors on it, or a duplicate of it.
+     */
+    ByteBuffer segment( int segmentIndex )
+    {
+        return segments[segmentIndex];
+    }
+
+    int segmentIndexOf( long filePageId )
+    {
+        return (int) (filePageId / pagesPerSegment);
+    }
+
+    int segmentCount()
+    {
+        return segments.length;
+    }
+
+    int offsetInSegment( long filePageId )
+    {
+        return (int) (filePageId % pagesPerSegment) * filePageSize;
+    }
+
+    /**
+     * Note: Must be called while synchronizing on the MuninnPageCache instance.
+     */
+    void incrementRefCount()
+    {
+        refCount++;
+    }
+
+    /**
+     * Note: Must be called while synchronizing on the MuninnPageCache instance.
+     * @return {@code true} if this was the last reference, and the file has been closed.
+     */
+    boolean decrementRefCount() throws IOException
+    {
+        if ( refCount <= 0 )
+        {
+            throw new IllegalStateException( "File has already been closed and unmapped. " +
+                                             "It cannot be closed any further." );
+        }
+        if ( --refCount == 0 )
+        {
+            // The mapped segments stay valid until they are garbage collected, so cursors that are still open will
+            // not crash, but they will fail on their next call to next().
+            channel.close();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public String toString()
+    {
+        return getClass().getSimpleName() + "[" + file + "]";
+    }
+}
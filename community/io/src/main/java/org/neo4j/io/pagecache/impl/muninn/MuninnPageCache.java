@@ -26,12 +26,16 @@ import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.file.OpenOption;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
@@ -42,8 +46,11 @@ import org.neo4j.io.mem.MemoryAllocator;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCacheOpenOptions;
+import org.neo4j.io.pagecache.PageCachePartition;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.ChecksumScratchPool;
+import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
@@ -61,6 +68,7 @@ import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 import static java.lang.String.format;
 import static org.neo4j.util.FeatureToggles.flag;
 import static org.neo4j.util.FeatureToggles.getInteger;
+import static org.neo4j.util.FeatureToggles.getString;
 
 /**
  * The Muninn {@link org.neo4j.io.pagecache.PageCache page cache} implementation.
@@ -130,6 +138,34 @@ public class MuninnPageCache implements PageCache
     private static final int cooperativeEvictionLiveLockThreshold = getInteger(
             MuninnPageCache.class, "cooperativeEvictionLiveLockThreshold", 100 );
 
+    // This is how many pages a page fault into a full partition will look at, when looking for a page from the same
+    // partition to evict, before it gives up and takes a page from the cache at large instead. The clock hand of the
+    // partition keeps its position between page faults, so the search continues where the previous one stopped.
+    private static final int partitionEvictionMaxVisits = Math.max( 1, getInteger(
+            MuninnPageCache.class, "partitionEvictionMaxVisits", 1024 ) );
+
+    // This is the maximum number of dirty pages that a background flusher will write out of a file in one go, before
+    // it moves on to the next file.
+    private static final int backgroundFlushBatchSize = getInteger(
+            MuninnPageCache.class, "backgroundFlushBatchSize", 4096 );
+
+    // The number of stripes of the freelist. Page faulting threads take free pages from their own stripe, and steal from
+    // the other stripes when their own is empty, so they do not all contend on the same freelist head.
+    private static final int freelistStripes = Integer.highestOneBit( Math.max( 1, getInteger(
+            MuninnPageCache.class, "freelistStripes", Runtime.getRuntime().availableProcessors() ) ) * 2 - 1 );
+    private static final int freelistStripeMask = freelistStripes - 1;
+    // The stripe heads are spread out so that each of them has a cache line to itself.
+    private static final int freelistStripesBase = UnsafeUtil.arrayBaseOffset( Object[].class );
+    private static final int freelistStripesScale = UnsafeUtil.arrayIndexScale( Object[].class );
+    private static final int freelistStripeSpacing = Math.max( 1, 64 / freelistStripesScale );
+
+    // The number of scratch buffers shared by the files that are mapped with page checksums, and how many pages each of
+    // them holds. This bounds both the memory used for checksumming, and the number of concurrent checksummed writes.
+    private static final int checksumScratchSlots = Math.max( 1, getInteger(
+            MuninnPageCache.class, "checksumScratchSlots", Runtime.getRuntime().availableProcessors() ) );
+    private static final int checksumScratchPagesPerSlot = Math.max( 1, getInteger(
+            MuninnPageCache.class, "checksumScratchPagesPerSlot", 16 ) );
+
     // This is a pre-allocated constant, so we can throw it without allocating any objects:
     @SuppressWarnings( "ThrowableInstanceNeverThrown" )
     private static final IOException oomException = new IOException(
@@ -157,6 +193,10 @@ public class MuninnPageCache implements PageCache
     // Used when trying to figure out number of available pages in a page cache. Could be returned from tryGetNumberOfAvailablePages.
     private static final int UNKNOWN_AVAILABLE_PAGES = -1;
 
+    // The partitions can together reserve at most this share of the pages in the cache. The remaining pages can
+    // always be evicted, which ensures that page faults can make progress.
+    private static final double MAX_TOTAL_RESERVED_PARTITION_SHARE = 0.9;
+
     private final int pageCacheId;
     private final PageSwapperFactory swapperFactory;
     private final int cachePageSize;
@@ -165,23 +205,37 @@ public class MuninnPageCache implements PageCache
     private final PageCursorTracerSupplier pageCursorTracerSupplier;
     private final VersionContextSupplier versionContextSupplier;
     final PageList pages;
+    // Decides which pages to evict, when we need to free up memory. See EvictionPolicy for the available policies.
+    final EvictionPolicy evictionPolicy;
     // All PageCursors are initialised with their pointers pointing to the victim page. This way, we don't have to throw
     // exceptions on bounds checking failures; we can instead return the victim page pointer, and permit the page
     // accesses to take place without fear of segfaulting newly allocated cursors.
     final long victimPage;
 
-    // The freelist is a thread-safe linked-list of FreePage objects, or an AtomicInteger, or null.
+    // The freelist is an AtomicInteger, or null, or the shutdownSignal.
     // Initially, the field is an AtomicInteger that counts from zero to the max page count, at which point all of the
     // pages have been put in use. Once this happens, the field is set to null to allow the background eviction thread
-    // to start its work. From that point on, the field will operate as a concurrent stack of FreePage objects. The
-    // eviction thread pushes newly freed FreePage objects onto the stack, and page faulting threads pops FreePage
-    // objects from the stack. The FreePage objects are single-use, to avoid running into the ABA-problem.
+    // to start its work. From that point on, the free pages are kept in the freelistStripeHeads, and the field is only
+    // set again to signal that the page cache has been shut down.
     @SuppressWarnings( "unused" ) // This field is accessed via Unsafe.
     private volatile Object freelist;
+    // Each stripe is a concurrent stack of FreePage objects, or null if it is empty. The eviction thread pushes newly
+    // freed FreePage objects onto random stripes, and page faulting threads pop FreePage objects from their own stripe
+    // first. The FreePage objects are single-use, to avoid running into the ABA-problem.
+    private final Object[] freelistStripeHeads = new Object[freelistStripes * freelistStripeSpacing];
 
     // Linked list of mappings - guarded by synchronized(this)
     private volatile FileMapping mappedFiles;
 
+    // The page cache partitions, by name - guarded by synchronized(this)
+    private final Map<String,PagePartition> partitions = new HashMap<>();
+    // The files that are mapped with PageCacheOpenOptions.MEMORY_MAPPED_READ_ONLY, and served from memory mappings
+    // instead of from the page cache memory. Guarded by synchronized(this).
+    private final Map<File,MemoryMappedPagedFile> memoryMappedFiles = new HashMap<>();
+    // The partition of every mapped file that is in a partition, indexed by the swapper id of the file.
+    // Writes are guarded by synchronized(this), and always replace the array, so the eviction sweeps can read it freely.
+    private volatile PagePartition[] partitionsBySwapperId = new PagePartition[0];
+
     // The thread that runs the eviction algorithm. We unpark this when we've run out of
     // free pages to grab.
     private volatile Thread evictionThread;
@@ -196,6 +250,19 @@ public class MuninnPageCache implements PageCache
     // Flag for when page cache is closed - writes guarded by synchronized(this), reads can be unsynchronized
     private volatile boolean closed;
 
+    // The background flushers and their jobs, or null if background flushing is not running.
+    // Guarded by synchronized(this).
+    private List<FlushTask> flushTasks;
+    private List<JobHandle> flushJobs;
+
+    // The scratch buffers of the files mapped with page checksums. Created when the first such file is mapped, and
+    // freed when the page cache is closed. Guarded by synchronized(this).
+    private ChecksumScratchPool checksumScratchPool;
+
+    // 'true' while the owner of the files mapped with page checksums is recovering them, and page checksum
+    // mismatches are only reported, rather than failing the page faults.
+    private volatile boolean recoveringPageChecksums;
+
     // Only used by ensureThreadsInitialised while holding the monitor lock on this MuninnPageCache instance.
     private boolean threadsInitialised;
 
@@ -295,6 +362,9 @@ public class MuninnPageCache implements PageCache
         long alignment = swapperFactory.getRequiredBufferAlignment();
         this.victimPage = VictimPageReference.getVictimPage( cachePageSize, memoryTracker );
         this.pages = new PageList( maxPages, cachePageSize, memoryAllocator, new SwapperSet(), victimPage, alignment );
+        this.evictionPolicy = EvictionPolicy.create(
+                getString( MuninnPageCache.class, "evictionPolicy", EvictionPolicy.CLOCK ), pages );
+        pageCacheTracer.evictionPolicy( evictionPolicy.name() );
         this.scheduler = jobScheduler;
 
         setFreelistHead( new AtomicInteger() );
@@ -348,6 +418,9 @@ public class MuninnPageCache implements PageCache
         boolean deleteOnClose = false;
         boolean anyPageSize = false;
         boolean noChannelStriping = false;
+        boolean memoryMappedReadOnly = false;
+        boolean pageChecksums = false;
+        PageCachePartition partitionOption = null;
         for ( OpenOption option : openOptions )
         {
             if ( option.equals( StandardOpenOption.CREATE ) )
@@ -370,6 +443,18 @@ public class MuninnPageCache implements PageCache
             {
                 noChannelStriping = true;
             }
+            else if ( option.equals( PageCacheOpenOptions.MEMORY_MAPPED_READ_ONLY ) )
+            {
+                memoryMappedReadOnly = true;
+            }
+            else if ( option.equals( PageCacheOpenOptions.PAGE_CHECKSUMS ) )
+            {
+                pageChecksums = true;
+            }
+            else if ( option instanceof PageCachePartition )
+            {
+                partitionOption = (PageCachePartition) option;
+            }
             else if ( !ignoredOpenOptions.contains( option ) )
             {
                 throw new UnsupportedOperationException( "Unsupported OpenOption: " + option );
@@ -384,19 +469,32 @@ public class MuninnPageCache implements PageCache
             if ( current.file.equals( file ) )
             {
                 MuninnPagedFile pagedFile = current.pagedFile;
-                if ( pagedFile.pageSize() != filePageSize && !anyPageSize )
+                if ( pagedFile.filePageSize != filePageSize && !anyPageSize )
                 {
                     String msg = "Cannot map file " + file + " with " +
                             "filePageSize " + filePageSize + " bytes, " +
                             "because it has already been mapped with a " +
-                            "filePageSize of " + pagedFile.pageSize() +
+                            "filePageSize of " + pagedFile.filePageSize +
                             " bytes.";
                     throw new IllegalArgumentException( msg );
                 }
+                if ( pagedFile.hasPageChecksums() != pageChecksums )
+                {
+                    throw new IllegalArgumentException( "Cannot map file " + file + (pageChecksums ? " with" :
+                            " without") + " page checksums, because it has already been mapped" +
+                            (pageChecksums ? " without" : " with") + " page checksums." );
+                }
                 if ( truncateExisting )
                 {
                     throw new UnsupportedOperationException( "Cannot truncate a file that is already mapped" );
                 }
+                if ( partitionOption != null &&
+                     (pagedFile.partition == null || !pagedFile.partition.option().equals( partitionOption )) )
+                {
+                    throw new IllegalArgumentException( "Cannot map file " + file + " into " + partitionOption +
+                            ", because it has already been mapped " + (pagedFile.partition == null ?
+                            "without a partition." : "into " + pagedFile.partition.option() + ".") );
+                }
                 pagedFile.incrementRefCount();
                 pagedFile.markDeleteOnClose( deleteOnClose );
                 return pagedFile;
@@ -411,18 +509,82 @@ public class MuninnPageCache implements PageCache
                     Long.BYTES + " bytes" );
         }
 
+        MemoryMappedPagedFile memoryMappedFile = memoryMappedFiles.get( file );
+        if ( memoryMappedFile != null )
+        {
+            if ( !memoryMappedReadOnly )
+            {
+                throw new UnsupportedOperationException( "Cannot map file " + file + " without the " +
+                        PageCacheOpenOptions.MEMORY_MAPPED_READ_ONLY + " option, because it has already been " +
+                        "memory mapped read-only" );
+            }
+            if ( memoryMappedFile.pageSize() != filePageSize && !anyPageSize )
+            {
+                throw new IllegalArgumentException( "Cannot map file " + file + " with filePageSize " + filePageSize +
+                        " bytes, because it has already been mapped with a filePageSize of " +
+                        memoryMappedFile.pageSize() + " bytes." );
+            }
+            memoryMappedFile.incrementRefCount();
+            return memoryMappedFile;
+        }
+
+        // Files that we might write to, or that are to be partitioned or checksummed, are always mapped through the
+        // page cache.
+        if ( memoryMappedReadOnly && !createIfNotExists && !truncateExisting && !deleteOnClose &&
+             partitionOption == null && !pageChecksums )
+        {
+            FileChannel channel = swapperFactory.openMemoryMappableChannel( file );
+            if ( channel != null )
+            {
+                try
+                {
+                    memoryMappedFile = new MemoryMappedPagedFile( file, this, filePageSize, channel );
+                }
+                catch ( IOException | RuntimeException e )
+                {
+                    channel.close();
+                    throw e;
+                }
+                memoryMappedFile.incrementRefCount();
+                memoryMappedFiles.put( file, memoryMappedFile );
+                pageCacheTracer.mappedFile( file );
+                return memoryMappedFile;
+            }
+        }
+
         // there was no existing mapping
-        MuninnPagedFile pagedFile = new MuninnPagedFile(
-                file,
-                this,
-                filePageSize,
-                swapperFactory,
-                pageCacheTracer,
-                pageCursorTracerSupplier,
-                versionContextSupplier,
-                createIfNotExists,
-                truncateExisting,
-                noChannelStriping );
+        if ( pageChecksums && checksumScratchPool == null )
+        {
+            checksumScratchPool = new ChecksumScratchPool(
+                    checksumScratchSlots, checksumScratchPagesPerSlot, cachePageSize, GlobalMemoryTracker.INSTANCE );
+        }
+        PagePartition partition = partitionOption == null ? null : getOrCreatePartition( partitionOption );
+        MuninnPagedFile pagedFile;
+        try
+        {
+            pagedFile = new MuninnPagedFile(
+                    file,
+                    this,
+                    filePageSize,
+                    swapperFactory,
+                    pageCacheTracer,
+                    pageCursorTracerSupplier,
+                    versionContextSupplier,
+                    createIfNotExists,
+                    truncateExisting,
+                    noChannelStriping,
+                    pageChecksums,
+                    partition );
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            releasePartition( partition );
+            throw e;
+        }
+        if ( partition != null )
+        {
+            setPartitionOfSwapper( pagedFile.swapperId, partition );
+        }
         pagedFile.incrementRefCount();
         pagedFile.markDeleteOnClose( deleteOnClose );
         current = new FileMapping( file, pagedFile );
@@ -432,6 +594,101 @@ public class MuninnPageCache implements PageCache
         return pagedFile;
     }
 
+    /**
+     * Get the partition for the given option, creating it if no mapped file is in it yet, and count one more file as
+     * being mapped into it. Every call must be matched by a call to {@link #releasePartition(PagePartition)}.
+     * <p>
+     * Note: Must be called while synchronizing on the MuninnPageCache instance.
+     */
+    private PagePartition getOrCreatePartition( PageCachePartition option )
+    {
+        PagePartition partition = partitions.get( option.name() );
+        if ( partition != null )
+        {
+            if ( !partition.option().equals( option ) )
+            {
+                throw new IllegalArgumentException( "Cannot map files into " + option + ", because the partition " +
+                        "already exists with different quotas: " + partition.option() );
+            }
+            partition.mappedFiles++;
+            return partition;
+        }
+
+        double reservedShare = option.reservedShare();
+        for ( PagePartition existing : partitions.values() )
+        {
+            reservedShare += existing.option().reservedShare();
+        }
+        if ( reservedShare > MAX_TOTAL_RESERVED_PARTITION_SHARE )
+        {
+            throw new IllegalArgumentException( "Cannot create " + option + ", because the page cache partitions " +
+                    "would then reserve " + reservedShare + " of the page cache, but at most " +
+                    MAX_TOTAL_RESERVED_PARTITION_SHARE + " can be reserved." );
+        }
+        partition = new PagePartition( option, pages.getPageCount() );
+        partition.mappedFiles++;
+        partitions.put( option.name(), partition );
+        pageCacheTracer.partitionCreated( partition );
+        return partition;
+    }
+
+    /**
+     * Count one less file as being mapped into the given partition, and remove the partition if that was the last one.
+     * <p>
+     * Note: Must be called while synchronizing on the MuninnPageCache instance.
+     */
+    private void releasePartition( PagePartition partition )
+    {
+        if ( partition != null && --partition.mappedFiles == 0 )
+        {
+            partitions.remove( partition.name() );
+            pageCacheTracer.partitionRemoved( partition );
+        }
+    }
+
+    /**
+     * Note: Must be called while synchronizing on the MuninnPageCache instance.
+     */
+    private void setPartitionOfSwapper( int swapperId, PagePartition partition )
+    {
+        PagePartition[] array = partitionsBySwapperId;
+        if ( array.length <= swapperId )
+        {
+            array = Arrays.copyOf( array, swapperId + 1 );
+        }
+        else
+        {
+            array = array.clone();
+        }
+        array[swapperId] = partition;
+        partitionsBySwapperId = array;
+    }
+
+    private PagePartition partitionOf( long pageRef )
+    {
+        PagePartition[] array = partitionsBySwapperId;
+        if ( array.length == 0 )
+        {
+            return null;
+        }
+        int swapperId = pages.getSwapperId( pageRef );
+        return swapperId < array.length ? array[swapperId] : null;
+    }
+
+    /**
+     * Check if the given loaded page is a candidate for eviction, taking both the partition quotas and the eviction
+     * policy into account.
+     */
+    private boolean isEvictionCandidate( long pageRef )
+    {
+        PagePartition partition = partitionOf( pageRef );
+        if ( partition != null && !partition.isAboveReservation() )
+        {
+            return false;
+        }
+        return evictionPolicy.shouldEvict( pageRef );
+    }
+
     @Override
     public synchronized Optional<PagedFile> getExistingMapping( File file ) throws IOException
     {
@@ -445,6 +702,12 @@ public class MuninnPageCache implements PageCache
             pagedFile.incrementRefCount();
             return Optional.of( pagedFile );
         }
+        MemoryMappedPagedFile memoryMappedFile = memoryMappedFiles.get( file );
+        if ( memoryMappedFile != null )
+        {
+            memoryMappedFile.incrementRefCount();
+            return Optional.of( memoryMappedFile );
+        }
         return Optional.empty();
     }
 
@@ -516,6 +779,177 @@ public class MuninnPageCache implements PageCache
         }
     }
 
+    /**
+     * Schedule the given prefetch to run in the background.
+     *
+     * @return {@code false} if the page cache is closed, or the prefetch could not be scheduled.
+     */
+    boolean schedulePrefetch( PrefetchTask task )
+    {
+        if ( closed )
+        {
+            return false;
+        }
+        try
+        {
+            scheduler.schedule( Group.PAGE_CACHE, task );
+            return true;
+        }
+        catch ( Exception e )
+        {
+            // The scheduler is probably shutting down. The cursor will just fault in the pages itself.
+            return false;
+        }
+    }
+
+    /**
+     * Start writing out dirty pages in the background, with the given number of threads. Every round, the background
+     * flushers write out the dirty pages of the files with the most dirty pages first, in file order, and then wait
+     * for the given interval before starting the next round. This way, a checkpoint only has to write out the pages
+     * that have been dirtied since the last round.
+     *
+     * @param threads the number of background flusher threads. The flushers work on different files in parallel.
+     * @param intervalMillis how long, in milliseconds, the flushers wait between rounds.
+     * @param limiter the {@link IOLimiter} used to limit the rate at which the background flushers write.
+     * @throws IllegalStateException if background flushing has already been started, or the page cache is closed.
+     */
+    public synchronized void startBackgroundFlushing( int threads, long intervalMillis, IOLimiter limiter )
+    {
+        assertNotClosed();
+        if ( threads < 1 )
+        {
+            throw new IllegalArgumentException( "Background flushing needs at least one thread, but got " + threads );
+        }
+        if ( flushTasks != null )
+        {
+            throw new IllegalStateException( "Background flushing has already been started" );
+        }
+        List<FlushTask> tasks = new ArrayList<>( threads );
+        List<JobHandle> jobs = new ArrayList<>( threads );
+        for ( int i = 0; i < threads; i++ )
+        {
+            FlushTask task = new FlushTask( this, intervalMillis, limiter );
+            tasks.add( task );
+            jobs.add( scheduler.schedule( Group.PAGE_CACHE, task ) );
+        }
+        flushTasks = tasks;
+        flushJobs = jobs;
+    }
+
+    /**
+     * Stop the background flushers, if any, and wait for them to finish writing out their current batch of pages.
+     */
+    public void stopBackgroundFlushing() throws IOException
+    {
+        List<FlushTask> tasks;
+        List<JobHandle> jobs;
+        synchronized ( this )
+        {
+            tasks = flushTasks;
+            jobs = flushJobs;
+            flushTasks = null;
+            flushJobs = null;
+        }
+        if ( tasks == null )
+        {
+            return;
+        }
+        tasks.forEach( FlushTask::stop );
+        Throwable failure = awaitFlushJobs( jobs );
+        if ( failure != null )
+        {
+            throw new IOException( failure );
+        }
+    }
+
+    /**
+     * Write out dirty pages, round by round, until the page cache is closed, or the given flush task is stopped.
+     */
+    void continuouslyFlushDirtyPages( FlushTask task )
+    {
+        while ( !closed && !task.isStopped() )
+        {
+            if ( !flushDirtiestFiles( task ) )
+            {
+                task.awaitNextRound();
+            }
+        }
+    }
+
+    /**
+     * @return {@code true} if there is a backlog of dirty pages, such that the next round should start right away.
+     */
+    private boolean flushDirtiestFiles( FlushTask task )
+    {
+        List<DirtyFile> files = new ArrayList<>();
+        synchronized ( this )
+        {
+            for ( FileMapping current = mappedFiles; current != null; current = current.next )
+            {
+                long dirtyPages = current.pagedFile.dirtyPages.size();
+                if ( dirtyPages > 0 )
+                {
+                    files.add( new DirtyFile( current.pagedFile, dirtyPages ) );
+                }
+            }
+        }
+        files.sort( ( a, b ) -> Long.compare( b.dirtyPages, a.dirtyPages ) );
+
+        boolean backlog = false;
+        for ( DirtyFile dirtyFile : files )
+        {
+            if ( closed || task.isStopped() )
+            {
+                return false;
+            }
+            try
+            {
+                int flushed = dirtyFile.pagedFile.flushDirtyPagesInBackground(
+                        task.limiter(), backgroundFlushBatchSize, task.flushBuffers() );
+                backlog |= flushed == backgroundFlushBatchSize;
+            }
+            catch ( ClosedChannelException | FileIsNotMappedException ignore )
+            {
+                // The file was unmapped under our feet, so there is nothing left for us to write out.
+            }
+            catch ( IOException e )
+            {
+                // The pages are still dirty, and the next checkpoint of the file will write them out again. It will
+                // also rethrow this failure, since there is nobody else to report it to.
+                dirtyFile.pagedFile.backgroundFlushFailed( e );
+            }
+        }
+        return backlog;
+    }
+
+    private static final class DirtyFile
+    {
+        private final MuninnPagedFile pagedFile;
+        private final long dirtyPages;
+
+        DirtyFile( MuninnPagedFile pagedFile, long dirtyPages )
+        {
+            this.pagedFile = pagedFile;
+            this.dirtyPages = dirtyPages;
+        }
+    }
+
+    synchronized void unmap( MemoryMappedPagedFile file )
+    {
+        try
+        {
+            if ( file.decrementRefCount() )
+            {
+                memoryMappedFiles.remove( file.file() );
+                pageCacheTracer.unmappedFile( file.file() );
+            }
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
     synchronized void unmap( MuninnPagedFile file )
     {
         if ( file.decrementRefCount() )
@@ -539,6 +973,11 @@ public class MuninnPageCache implements PageCache
                     }
                     pageCacheTracer.unmappedFile( current.file );
                     flushAndCloseWithoutFail( file );
+                    if ( file.partition != null )
+                    {
+                        setPartitionOfSwapper( file.swapperId, null );
+                        releasePartition( file.partition );
+                    }
                     break;
                 }
                 prev = current;
@@ -582,6 +1021,27 @@ public class MuninnPageCache implements PageCache
         this.printExceptionsOnClose = enabled;
     }
 
+    /**
+     * Set whether or not the files mapped with {@link org.neo4j.io.pagecache.PageCacheOpenOptions#PAGE_CHECKSUMS} are
+     * being recovered. A crash in the middle of writing a page can leave the page torn, and such a page will not
+     * match its checksum until it has been written again. While recovering, page checksum mismatches are still
+     * reported to the {@link PageCacheTracer}, but the pages are let through to the cursors, so that recovery can
+     * rewrite them. Whoever recovers the files must turn this off again when recovery has completed, and should
+     * flush the page cache before doing so.
+     *
+     * @param recovering {@code true} to let pages that do not match their checksums through, {@code false} to fail
+     * their page faults.
+     */
+    public void setRecoveringPageChecksums( boolean recovering )
+    {
+        this.recoveringPageChecksums = recovering;
+    }
+
+    boolean isRecoveringPageChecksums()
+    {
+        return recoveringPageChecksums;
+    }
+
     @Override
     public void flushAndForce() throws IOException
     {
@@ -676,19 +1136,64 @@ public class MuninnPageCache implements PageCache
         }
     }
 
+    synchronized ChecksumScratchPool checksumScratchPool()
+    {
+        return checksumScratchPool;
+    }
+
     void syncDevice()
     {
         swapperFactory.syncDevice();
     }
 
     @Override
-    public synchronized void close()
+    public void close()
     {
-        if ( closed )
+        List<JobHandle> jobs;
+        synchronized ( this )
         {
-            return;
+            if ( closed )
+            {
+                return;
+            }
+            assertNothingMapped();
+            closed = true;
+
+            jobs = flushJobs;
+            if ( flushTasks != null )
+            {
+                flushTasks.forEach( FlushTask::stop );
+                flushTasks = null;
+                flushJobs = null;
+            }
+            interrupt( evictionThread );
+            evictionThread = null;
         }
 
+        // The background flushers might be in the middle of writing out a batch of pages. They have to finish before
+        // the memory they are using can be freed. They need the monitor of the page cache, so we cannot wait for them
+        // while holding it. That only happens when starting the page cache threads failed, and then no file has ever
+        // been mapped, so the flushers have nothing to write.
+        if ( jobs != null && !Thread.holdsLock( this ) )
+        {
+            awaitFlushJobs( jobs );
+        }
+
+        synchronized ( this )
+        {
+            if ( checksumScratchPool != null )
+            {
+                checksumScratchPool.close();
+                checksumScratchPool = null;
+            }
+
+            // Close the page swapper factory last. If this fails then we will still consider ourselves closed.
+            swapperFactory.close();
+        }
+    }
+
+    private void assertNothingMapped()
+    {
         FileMapping files = mappedFiles;
         if ( files != null )
         {
@@ -705,14 +1210,51 @@ public class MuninnPageCache implements PageCache
             }
             throw new IllegalStateException( msg.toString() );
         }
+        if ( !memoryMappedFiles.isEmpty() )
+        {
+            throw new IllegalStateException( "Cannot close the PageCache while files are still memory mapped: " +
+                    memoryMappedFiles.keySet() );
+        }
+    }
 
-        closed = true;
-
-        interrupt( evictionThread );
-        evictionThread = null;
-
-        // Close the page swapper factory last. If this fails then we will still consider ourselves closed.
-        swapperFactory.close();
+    /**
+     * Wait for the given background flush jobs to terminate, even if the waiting thread is interrupted.
+     *
+     * @return the first failure of any of the jobs, or {@code null} if they all terminated normally.
+     */
+    private static Throwable awaitFlushJobs( List<JobHandle> jobs )
+    {
+        Throwable failure = null;
+        boolean interrupted = false;
+        for ( JobHandle job : jobs )
+        {
+            for (;;)
+            {
+                try
+                {
+                    job.waitTermination();
+                    break;
+                }
+                catch ( InterruptedException e )
+                {
+                    interrupted = true;
+                }
+                catch ( ExecutionException e )
+                {
+                    failure = failure == null ? e.getCause() : failure;
+                    break;
+                }
+                catch ( CancellationException e )
+                {
+                    break;
+                }
+            }
+        }
+        if ( interrupted )
+        {
+            Thread.currentThread().interrupt();
+        }
+        return failure;
     }
 
     private static void interrupt( Thread thread )
@@ -773,26 +1315,20 @@ public class MuninnPageCache implements PageCache
 
     long grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
     {
-        // Review the comment on the freelist field before making changes to
-        // this part of the code.
-        // Whatever the case, we're going to the head-pointer of the freelist,
-        // and in doing so, we can discover a number of things.
-        // We can discover a MuninnPage object, in which case we can try to
-        // CAS the freelist pointer to the value of the MuninnPage.nextFree
-        // pointer, and if this succeeds then we've grabbed that page.
-        // We can discover a FreePage object, in which case we'll do a similar
-        // dance by attempting to CAS the freelist to the FreePage objects next
-        // pointer, and again, if we succeed then we've grabbed the MuninnPage
-        // given by the FreePage object.
-        // We can discover a null-pointer, in which case the freelist has just
-        // been emptied for whatever it contained before. New FreePage objects
-        // are eventually going to be added to the freelist, but we are not
-        // going to wait around for that to happen. If the freelist is empty,
-        // then we do our own eviction to get a free page.
-        // If we find a FreePage object on the freelist, then it is important
-        // to check and see if it is the shutdownSignal instance. If that's the
-        // case, then the page cache has been shut down, and we should throw an
+        // Review the comments on the freelist and freelistStripeHeads fields before making changes to this part of
+        // the code. Whatever the case, we look at the freelist field first, and in doing so, we can discover a number
+        // of things.
+        // We can discover an AtomicInteger, in which case not all pages have been put in use yet. We try to CAS the
+        // counter to the next page id, and if this succeeds then we've grabbed the page with the id we saw. If the
+        // counter has reached the page count, then we set the freelist field to null, which lets the eviction thread
+        // start its work.
+        // We can discover the shutdownSignal, in which case the page cache has been shut down, and we throw an
         // exception from our page fault routine.
+        // We can discover a null-pointer, in which case all pages have been put in use, and the free pages are found
+        // on the freelist stripes. We try to pop a FreePage object off the stripe of our own thread first, and steal
+        // from the other stripes if it is empty. New FreePage objects are eventually going to be pushed onto the
+        // stripes by the eviction thread, but we are not going to wait around for that to happen. If all stripes are
+        // empty, then we do our own eviction to get a free page.
         Object current;
         for (;;)
         {
@@ -800,8 +1336,13 @@ public class MuninnPageCache implements PageCache
             current = getFreelistHead();
             if ( current == null )
             {
+                long pageRef = pollFreelistStripes();
+                if ( pageRef != 0 )
+                {
+                    return pageRef;
+                }
                 unparkEvictor();
-                long pageRef = cooperativelyEvict( faultEvent );
+                pageRef = cooperativelyEvict( faultEvent );
                 if ( pageRef != 0 )
                 {
                     return pageRef;
@@ -821,20 +1362,98 @@ public class MuninnPageCache implements PageCache
                     compareAndSetFreelistHead( current, null );
                 }
             }
-            else if ( current instanceof FreePage )
+            else if ( current == shutdownSignal )
+            {
+                throw new IllegalStateException( "The PageCache has been shut down." );
+            }
+        }
+    }
+
+    /**
+     * Grab a free page from the freelist, if one is immediately available. Unlike
+     * {@link #grabFreeAndExclusivelyLockedPage(PageFaultEvent)}, this method never evicts any pages, and never waits.
+     * This is used for speculative page faults, such as read-ahead, that should not compete with regular page faults
+     * for memory.
+     *
+     * @return the page reference of the grabbed page, or zero if no free page was available.
+     */
+    long tryGrabFreeAndExclusivelyLockedPage()
+    {
+        for (;;)
+        {
+            Object current = getFreelistHead();
+            if ( current instanceof AtomicInteger )
             {
-                FreePage freePage = (FreePage) current;
-                if ( freePage == shutdownSignal )
+                int pageCount = pages.getPageCount();
+                AtomicInteger counter = (AtomicInteger) current;
+                int pageId = counter.get();
+                if ( pageId < pageCount && counter.compareAndSet( pageId, pageId + 1 ) )
                 {
-                    throw new IllegalStateException( "The PageCache has been shut down." );
+                    return pages.deref( pageId );
+                }
+                if ( pageId >= pageCount )
+                {
+                    compareAndSetFreelistHead( current, null );
                 }
+            }
+            else if ( current == null )
+            {
+                return pollFreelistStripes();
+            }
+            else
+            {
+                return 0;
+            }
+        }
+    }
 
-                if ( compareAndSetFreelistHead( freePage, freePage.next ) )
+    /**
+     * Pop a free page off the freelist stripe of the current thread, or steal one from the other stripes.
+     *
+     * @return the page reference of the free page, or zero if all the stripes were empty.
+     */
+    private long pollFreelistStripes()
+    {
+        int home = (int) Thread.currentThread().getId();
+        for ( int i = 0; i < freelistStripes; i++ )
+        {
+            int stripe = (home + i) & freelistStripeMask;
+            FreePage freePage;
+            while ( (freePage = getFreelistStripeHead( stripe )) != null )
+            {
+                if ( compareAndSetFreelistStripeHead( stripe, freePage, freePage.next ) )
                 {
                     return freePage.pageRef;
                 }
             }
         }
+        return 0;
+    }
+
+    private boolean hasFreePagesInFreelistStripes()
+    {
+        for ( int stripe = 0; stripe < freelistStripes; stripe++ )
+        {
+            if ( getFreelistStripeHead( stripe ) != null )
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int countFreePagesInFreelistStripes()
+    {
+        int count = 0;
+        for ( int stripe = 0; stripe < freelistStripes; stripe++ )
+        {
+            FreePage head = getFreelistStripeHead( stripe );
+            if ( head != null )
+            {
+                count += head.count;
+            }
+        }
+        return count;
     }
 
     private long cooperativelyEvict( PageFaultEvent faultEvent ) throws IOException
@@ -847,7 +1466,8 @@ public class MuninnPageCache implements PageCache
         do
         {
             assertHealthy();
-            if ( getFreelistHead() != null )
+            // Scanning the stripes is not free, so we only check for pages freed by the eviction thread now and then.
+            if ( (clockArm & 15) == 0 && hasFreePagesInFreelistStripes() )
             {
                 return 0;
             }
@@ -863,7 +1483,7 @@ public class MuninnPageCache implements PageCache
             }
 
             pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && isEvictionCandidate( pageRef ) )
             {
                 evicted = pages.tryEvict( pageRef, faultEvent );
             }
@@ -873,6 +1493,41 @@ public class MuninnPageCache implements PageCache
         return pageRef;
     }
 
+    /**
+     * Evict a page that belongs to the given partition, to make room for a page fault into the same partition.
+     * The clock hand of the partition visits a bounded number of pages, so the cost of a page fault does not grow with
+     * the size of the page cache. This gives up and returns zero if none of the visited pages could be evicted.
+     *
+     * @return the page reference of the evicted page, exclusively locked, or zero if no page could be evicted.
+     */
+    long evictWithinPartition( PagePartition partition, PageFaultEvent faultEvent ) throws IOException
+    {
+        int pageCount = pages.getPageCount();
+        int clockArm = partition.clockArm;
+        try
+        {
+            for ( int i = 0; i < partitionEvictionMaxVisits; i++ )
+            {
+                if ( clockArm >= pageCount )
+                {
+                    clockArm = 0;
+                }
+                long pageRef = pages.deref( clockArm );
+                clockArm++;
+                if ( pages.isLoaded( pageRef ) && partitionOf( pageRef ) == partition &&
+                     evictionPolicy.shouldEvict( pageRef ) && pages.tryEvict( pageRef, faultEvent ) )
+                {
+                    return pageRef;
+                }
+            }
+            return 0;
+        }
+        finally
+        {
+            partition.clockArm = clockArm;
+        }
+    }
+
     private CacheLiveLockException cooperativeEvictionLiveLock()
     {
         return new CacheLiveLockException(
@@ -921,6 +1576,21 @@ public class MuninnPageCache implements PageCache
         UnsafeUtil.putObjectVolatile( this, freelistOffset, newFreelistHead );
     }
 
+    private static long freelistStripeOffset( int stripe )
+    {
+        return UnsafeUtil.arrayOffset( stripe * freelistStripeSpacing, freelistStripesBase, freelistStripesScale );
+    }
+
+    private FreePage getFreelistStripeHead( int stripe )
+    {
+        return (FreePage) UnsafeUtil.getObjectVolatile( freelistStripeHeads, freelistStripeOffset( stripe ) );
+    }
+
+    private boolean compareAndSetFreelistStripeHead( int stripe, FreePage expected, FreePage update )
+    {
+        return UnsafeUtil.compareAndSwapObject( freelistStripeHeads, freelistStripeOffset( stripe ), expected, update );
+    }
+
     /**
      * Scan through all the pages, one by one, and decrement their usage stamps.
      * If a usage reaches zero, we try-write-locking it, and if we get that lock,
@@ -974,16 +1644,16 @@ public class MuninnPageCache implements PageCache
 
         if ( freelistHead == null )
         {
-            return keepFree;
-        }
-        else if ( freelistHead.getClass() == FreePage.class )
-        {
-            int availablePages = ((FreePage) freelistHead).count;
+            int availablePages = countFreePagesInFreelistStripes();
             if ( availablePages < keepFree )
             {
                 return keepFree - availablePages;
             }
         }
+        else if ( freelistHead == shutdownSignal )
+        {
+            return keepFree;
+        }
         else if ( freelistHead.getClass() == AtomicInteger.class )
         {
             AtomicInteger counter = (AtomicInteger) freelistHead;
@@ -1012,7 +1682,7 @@ public class MuninnPageCache implements PageCache
             }
 
             long pageRef = pages.deref( clockArm );
-            if ( pages.isLoaded( pageRef ) && pages.decrementUsage( pageRef ) )
+            if ( pages.isLoaded( pageRef ) && isEvictionCandidate( pageRef ) )
             {
                 try
                 {
@@ -1046,18 +1716,17 @@ public class MuninnPageCache implements PageCache
 
     void addFreePageToFreelist( long pageRef )
     {
-        Object current;
+        // The pages are spread randomly over the stripes, so the pages freed by the eviction thread are evenly
+        // available to all the page faulting threads.
+        int stripe = ThreadLocalRandom.current().nextInt() & freelistStripeMask;
+        FreePage current;
         FreePage freePage = new FreePage( pageRef );
         do
         {
-            current = getFreelistHead();
-            if ( current instanceof AtomicInteger && ((AtomicInteger) current).get() > pages.getPageCount() )
-            {
-                current = null;
-            }
+            current = getFreelistStripeHead( stripe );
             freePage.setNext( current );
         }
-        while ( !compareAndSetFreelistHead( current, freePage ) );
+        while ( !compareAndSetFreelistStripeHead( stripe, current, freePage ) );
     }
 
     void clearEvictorException()
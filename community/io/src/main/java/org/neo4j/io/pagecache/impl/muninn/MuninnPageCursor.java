@@ -41,9 +41,11 @@ import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import static org.neo4j.io.pagecache.PagedFile.PF_EAGER_FLUSH;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_FAULT;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.io.pagecache.impl.muninn.MuninnPagedFile.UNMAPPED_TTE;
 import static org.neo4j.util.FeatureToggles.flag;
+import static org.neo4j.util.FeatureToggles.getInteger;
 
 abstract class MuninnPageCursor extends PageCursor
 {
@@ -52,6 +54,18 @@ abstract class MuninnPageCursor extends PageCursor
 
     private static final boolean boundsCheck = flag( MuninnPageCursor.class, "boundsCheck", true );
 
+    // The maximum number of consecutive file pages that a PF_READ_AHEAD cursor will fault in with a single read.
+    private static final int readAheadBatchSize = getInteger( MuninnPageCursor.class, "readAheadBatchSize", 8 );
+
+    // Whether read cursors should detect sequential scans, and prefetch the pages ahead of them in the background.
+    private static final boolean sequentialPrefetch = flag( MuninnPageCursor.class, "sequentialPrefetch", false );
+    // The number of consecutive file pages a cursor must pin, before it is considered to be scanning sequentially.
+    private static final int sequentialPrefetchThreshold =
+            getInteger( MuninnPageCursor.class, "sequentialPrefetchThreshold", 4 );
+    // The bounds on how many pages ahead of a sequentially scanning cursor we try to keep in memory.
+    private static final int minPrefetchDepth = getInteger( MuninnPageCursor.class, "minPrefetchDepth", 4 );
+    private static final int maxPrefetchDepth = getInteger( MuninnPageCursor.class, "maxPrefetchDepth", 64 );
+
     // Size of the respective primitive types in bytes.
     private static final int SIZE_OF_BYTE = Byte.BYTES;
     private static final int SIZE_OF_SHORT = Short.BYTES;
@@ -70,11 +84,13 @@ abstract class MuninnPageCursor extends PageCursor
     protected boolean eagerFlush;
     protected boolean noFault;
     protected boolean noGrow;
+    protected boolean readAhead;
     protected long currentPageId;
     protected long nextPageId;
     protected MuninnPageCursor linkedCursor;
     private long pointer;
     private int pageSize;
+    // The part of the file pages that is available to cursors. This excludes the checksum trailer, if any.
     private int filePageSize;
     protected final VersionContextSupplier versionContextSupplier;
     private int offset;
@@ -85,6 +101,17 @@ abstract class MuninnPageCursor extends PageCursor
     // CursorExceptionWithPreciseStackTrace with the message and stack trace pointing more or less directly at the
     // offending code.
     private Object cursorException;
+    // Lazily allocated scratch space for batched read-ahead page faults.
+    private long[] readAheadPageRefs;
+    private long[] readAheadBufferAddresses;
+    private LatchMap.Latch[] readAheadLatches;
+    // Sequential access detection for prefetching.
+    private long lastPinnedPageId;
+    private long lastPinNanos;
+    private long averagePinIntervalNanos;
+    private int sequentialPins;
+    private long prefetchedUntilPageId;
+    private PrefetchTask prefetchTask;
 
     MuninnPageCursor( long victimPage, PageCursorTracer tracer, VersionContextSupplier versionContextSupplier )
     {
@@ -98,13 +125,18 @@ abstract class MuninnPageCursor extends PageCursor
     {
         this.swapper = pagedFile.swapper;
         this.swapperId = pagedFile.swapperId;
-        this.filePageSize = pagedFile.filePageSize;
+        this.filePageSize = pagedFile.pageSize();
         this.pagedFile = pagedFile;
         this.pageId = pageId;
         this.pf_flags = pf_flags;
         this.eagerFlush = isFlagRaised( pf_flags, PF_EAGER_FLUSH );
         this.noFault = isFlagRaised( pf_flags, PF_NO_FAULT );
         this.noGrow = noFault | isFlagRaised( pf_flags, PagedFile.PF_NO_GROW );
+        this.readAhead = readAheadBatchSize > 1 && isFlagRaised( pf_flags, PF_READ_AHEAD );
+        this.lastPinnedPageId = UNBOUND_PAGE_ID;
+        this.averagePinIntervalNanos = 0;
+        this.sequentialPins = 0;
+        this.prefetchedUntilPageId = 0;
     }
 
     private boolean isFlagRaised( int flagSet, int flag )
@@ -317,6 +349,69 @@ abstract class MuninnPageCursor extends PageCursor
         }
     }
 
+    /**
+     * Called by cursors before they pin the next page in their iteration. If the cursor has been pinning consecutive
+     * file pages, then we prefetch the pages ahead of it in the background, so they are in memory by the time the
+     * cursor gets to them.
+     * <p>
+     * How far ahead we prefetch depends on how long a page fault takes, compared to how fast the cursor moves through
+     * the pages. A new prefetch is started when the cursor has consumed half of the pages that were prefetched for it,
+     * so we aim to have twice as many pages ahead of the cursor as it can get through in the time of one page fault.
+     */
+    protected final void prefetchIfSequential( long filePageId, long lastPageId )
+    {
+        if ( !sequentialPrefetch | noFault )
+        {
+            return;
+        }
+        long now = System.nanoTime();
+        if ( filePageId == lastPinnedPageId + 1 && lastPinnedPageId != UNBOUND_PAGE_ID )
+        {
+            long interval = now - lastPinNanos;
+            long average = averagePinIntervalNanos;
+            averagePinIntervalNanos = average == 0 ? interval : average + ((interval - average) >> 3);
+            sequentialPins++;
+        }
+        else
+        {
+            sequentialPins = 0;
+            prefetchedUntilPageId = 0;
+        }
+        lastPinnedPageId = filePageId;
+        lastPinNanos = now;
+
+        if ( sequentialPins < sequentialPrefetchThreshold || filePageId >= lastPageId )
+        {
+            return;
+        }
+        long depth = prefetchDepth();
+        if ( prefetchedUntilPageId - filePageId > depth / 2 )
+        {
+            return;
+        }
+        long start = Math.max( filePageId + 1, prefetchedUntilPageId );
+        long end = Math.min( filePageId + 1 + depth, lastPageId + 1 );
+        if ( start >= end )
+        {
+            return;
+        }
+        if ( prefetchTask == null )
+        {
+            prefetchTask = new PrefetchTask( maxPrefetchDepth );
+        }
+        if ( prefetchTask.tryStart( pagedFile, start, end ) )
+        {
+            prefetchedUntilPageId = end;
+        }
+    }
+
+    private long prefetchDepth()
+    {
+        long pinInterval = Math.max( 1, averagePinIntervalNanos );
+        long depth = 2 * pagedFile.averageFaultNanos() / pinInterval;
+        return Math.min( maxPrefetchDepth, Math.max( minPrefetchDepth, depth ) );
+    }
+
     private int[][] expandTranslationTableCapacity( int chunkId )
     {
         return pagedFile.expandCapacity( chunkId );
@@ -390,9 +485,24 @@ abstract class MuninnPageCursor extends PageCursor
             // here, so the unmapping would have already happened. We do this
             // check before page.fault(), because that would otherwise reopen
             // the file channel.
-            assertPagedFileStillMappedAndGetIdOfLastPage();
+            long lastPageId = assertPagedFileStillMappedAndGetIdOfLastPage();
             pagedFile.initBuffer( pageRef );
-            pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
+            long startNanos = sequentialPrefetch ? System.nanoTime() : 0;
+            int faulted;
+            if ( readAhead && filePageId < lastPageId )
+            {
+                faulted = faultWithReadAhead( pageRef, filePageId, lastPageId, faultEvent );
+            }
+            else
+            {
+                pagedFile.fault( pageRef, swapper, pagedFile.swapperId, filePageId, faultEvent );
+                faulted = 1;
+            }
+            pagedFile.pagesFaulted( faulted );
+            if ( sequentialPrefetch )
+            {
+                pagedFile.recordFaultLatency( (System.nanoTime() - startNanos) / faulted );
+            }
         }
         catch ( Throwable throwable )
         {
@@ -413,6 +523,52 @@ abstract class MuninnPageCursor extends PageCursor
         return pageRef;
     }
 
+    /**
+     * Fault in the given file page, together with as many of the immediately following file pages as we can, up to
+     * {@link #readAheadBatchSize} pages in total and never beyond the given last page id, with a single vectored read.
+     * <p>
+     * A following page is only included in the batch if it is not already in memory, if nobody else is faulting it,
+     * and if a free page is immediately available to hold it. The read-ahead pages are published to the translation
+     * table and unlocked once the read completes, but they are not pinned by this cursor. The exclusively locked
+     * {@code pageRef} of the requested file page, and its latch, remain the responsibility of the caller.
+     *
+     * @return the number of pages that were faulted in, including the requested file page.
+     */
+    private int faultWithReadAhead( long pageRef, long filePageId, long lastPageId, PageFaultEvent faultEvent )
+            throws IOException
+    {
+        if ( readAheadPageRefs == null )
+        {
+            readAheadPageRefs = new long[readAheadBatchSize];
+            readAheadBufferAddresses = new long[readAheadBatchSize];
+            readAheadLatches = new LatchMap.Latch[readAheadBatchSize];
+        }
+        long[] pageRefs = readAheadPageRefs;
+        pageRefs[0] = pageRef;
+        int maxLength = (int) Math.min( readAheadBatchSize, lastPageId - filePageId + 1 );
+        int length = 1;
+        boolean success = false;
+        try
+        {
+            while ( length < maxLength &&
+                    pagedFile.reserveReadAheadPage( filePageId + length, pageRefs, readAheadLatches, length ) )
+            {
+                length++;
+            }
+            pagedFile.fault( pageRefs, readAheadBufferAddresses, length, swapper, pagedFile.swapperId, filePageId,
+                    faultEvent );
+            success = true;
+            return length;
+        }
+        finally
+        {
+            for ( int i = 1; i < length; i++ )
+            {
+                pagedFile.releaseReadAheadPage( filePageId + i, pageRefs, readAheadLatches, i, success );
+            }
+        }
+    }
+
     private void abortPageFault( Throwable throwable, int[] chunk, long chunkOffset,
                                  LatchMap.Latch latch,
                                  PageFaultEvent faultEvent )
@@ -27,6 +27,9 @@ import java.io.Flushable;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCursor;
@@ -34,6 +37,7 @@ import org.neo4j.io.pagecache.PageEvictionCallback;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PageSwapperFactory;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.ChecksummingPageSwapper;
 import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
 import org.neo4j.io.pagecache.tracing.FlushEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
@@ -63,9 +67,27 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     private static final int PF_LOCK_MASK = PF_SHARED_WRITE_LOCK | PF_SHARED_READ_LOCK;
 
     final MuninnPageCache pageCache;
+    // The size of the pages in the file. This includes the checksum trailer, if the file has page checksums.
     final int filePageSize;
+    private final boolean pageChecksums;
     private final PageCacheTracer pageCacheTracer;
     final LatchMap pageFaultLatches;
+    final EvictionPolicy evictionPolicy;
+    // The page cache partition this file is mapped into, or null if the file is not in any partition.
+    final PagePartition partition;
+    // The number of pages bound to this file, counted on behalf of the partition. Only maintained if partition != null.
+    private final LongAdder partitionPages = new LongAdder();
+    // The file page ids of the pages that have been modified since they were last flushed.
+    final DirtyPageBitmap dirtyPages = new DirtyPageBitmap();
+    // Held while draining and writing out dirty pages, so that a flush cannot return, and force the file, while
+    // pages it needs to be durable are still being written by another flusher that drained them first.
+    private final ReentrantLock dirtyPagesDrainLock = new ReentrantLock();
+    // The first failure of a background flush of this file since its last checkpoint, which the next checkpoint throws.
+    private final AtomicReference<IOException> backgroundFlushFailure = new AtomicReference<>();
+
+    // Moving average of how long it takes to fault in a page of this file, in nanoseconds. Only maintained when
+    // sequential prefetching is enabled. Updated racily by the cursors, since it is only an estimate anyway.
+    private long averageFaultNanos;
 
     // This is the table where we translate file-page-ids to cache-page-ids. Only one thread can perform a resize at
     // a time, and we ensure this mutual exclusion using the monitor lock on this MuninnPagedFile object.
@@ -118,12 +140,16 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
      * @param truncateExisting should truncate file if it exists
      * @param noChannelStriping when true, overrides channel striping behaviour,
      * setting it to a single channel per mapped file.
+     * @param pageChecksums when true, the last bytes of every page are reserved for a checksum of the page, that is
+     * verified when the page is read in.
+     * @param partition the page cache partition the file is mapped into, or {@code null} if the file is not in any
+     * partition.
      * @throws IOException If the {@link PageSwapper} could not be created.
      */
     MuninnPagedFile( File file, MuninnPageCache pageCache, int filePageSize, PageSwapperFactory swapperFactory,
             PageCacheTracer pageCacheTracer, PageCursorTracerSupplier pageCursorTracerSupplier,
             VersionContextSupplier versionContextSupplier, boolean createIfNotExists, boolean truncateExisting,
-            boolean noChannelStriping ) throws IOException
+            boolean noChannelStriping, boolean pageChecksums, PagePartition partition ) throws IOException
     {
         super( pageCache.pages );
         this.pageCache = pageCache;
@@ -131,6 +157,8 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         this.cursorFactory = new CursorFactory( this, pageCursorTracerSupplier, pageCacheTracer, versionContextSupplier );
         this.pageCacheTracer = pageCacheTracer;
         this.pageFaultLatches = new LatchMap();
+        this.evictionPolicy = pageCache.evictionPolicy;
+        this.partition = partition;
 
         // The translation table is an array of arrays of integers that are either UNMAPPED_TTE, or the id of a page in
         // the page list. The table only grows the outer array, and all the inner "chunks" all stay the same size. This
@@ -149,7 +177,12 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         // filled with UNMAPPED_TTE values, and then finally assigns the new outer array to the translationTable field
         // and releases the resize lock.
         PageEvictionCallback onEviction = this::evictPage;
-        swapper = swapperFactory.createPageSwapper( file, filePageSize, onEviction, createIfNotExists, noChannelStriping );
+        PageSwapper fileSwapper =
+                swapperFactory.createPageSwapper( file, filePageSize, onEviction, createIfNotExists, noChannelStriping );
+        swapper = pageChecksums ? new ChecksummingPageSwapper(
+                fileSwapper, filePageSize, pageCacheTracer, pageCache.checksumScratchPool(),
+                pageCache::isRecoveringPageChecksums ) : fileSwapper;
+        this.pageChecksums = pageChecksums;
         if ( truncateExisting )
         {
             swapper.truncate();
@@ -213,7 +246,12 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     @Override
     public int pageSize()
     {
-        return filePageSize;
+        return pageChecksums ? filePageSize - ChecksummingPageSwapper.CHECKSUM_SIZE : filePageSize;
+    }
+
+    boolean hasPageChecksums()
+    {
+        return pageChecksums;
     }
 
     @Override
@@ -224,7 +262,7 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         {
             return 0L;
         }
-        return (lastPageId + 1) * pageSize();
+        return (lastPageId + 1) * filePageSize;
     }
 
     @Override
@@ -259,6 +297,11 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             // We cannot reuse those swapper ids until there are no more pages using them.
             pageCache.vacuum( getSwappers() );
         }
+        if ( partition != null )
+        {
+            // Pages that are still bound to the freed swapper id no longer count towards the quota of the partition.
+            partition.pagesReleased( partitionPages.sumThenReset() );
+        }
         long filePageId = -1; // Start at -1 because we increment at the *start* of the chunk-loop iteration.
         int[][] tt = this.translationTable;
         for ( int[] chunk : tt )
@@ -303,11 +346,16 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
             markAllDirtyPagesAsClean();
             return;
         }
+        dirtyPagesDrainLock.lock();
         try ( MajorFlushEvent flushEvent = pageCacheTracer.beginFileFlush( swapper ) )
         {
             flushAndForceInternal( flushEvent.flushEventOpportunity(), true, IOLimiter.UNLIMITED );
             syncDevice();
         }
+        finally
+        {
+            dirtyPagesDrainLock.unlock();
+        }
         pageCache.clearEvictorException();
     }
 
@@ -363,7 +411,14 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
     {
         try
         {
-            doFlushAndForceInternal( flushes, forClosing, limiter );
+            if ( forClosing )
+            {
+                doFlushAndForceInternal( flushes, true, limiter );
+            }
+            else
+            {
+                flushDirtyPagesAndForce( flushes, limiter );
+            }
         }
         catch ( ClosedChannelException e )
         {
@@ -372,6 +427,192 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         }
     }
 
+    private void flushDirtyPagesAndForce( FlushEventOpportunity flushes, IOLimiter limiter ) throws IOException
+    {
+        // Only the pages in the dirty page set are written out, in long vectors of consecutive pages, and anything the
+        // background flushers have already written out is not written again. Every dirty page is in the set, unless
+        // it is being written to right now, so there is no need to sweep the translation table. See DirtyPageBitmap.
+        IOException backgroundFailure = backgroundFlushFailure.getAndSet( null );
+        dirtyPagesDrainLock.lock();
+        try
+        {
+            flushDirtyPages( flushes, limiter, Integer.MAX_VALUE, new FlushBuffers() );
+            swapper.force();
+        }
+        catch ( IOException e )
+        {
+            if ( backgroundFailure != null )
+            {
+                e.addSuppressed( backgroundFailure );
+            }
+            throw e;
+        }
+        finally
+        {
+            dirtyPagesDrainLock.unlock();
+        }
+        if ( backgroundFailure != null )
+        {
+            throw new IOException( "Failed to write out dirty pages of " + file() + " in the background",
+                    backgroundFailure );
+        }
+    }
+
+    /**
+     * Record that a background flush of this file failed, so the next checkpoint of the file can report it.
+     */
+    void backgroundFlushFailed( IOException failure )
+    {
+        backgroundFlushFailure.compareAndSet( null, failure );
+    }
+
+    /**
+     * Write out a batch of the dirty pages of this file, on behalf of a background flusher. This gives way to any
+     * other flush that is already in progress on this file.
+     *
+     * @param limiter the {@link IOLimiter} to limit the rate of writes with.
+     * @param maxPages the maximum number of dirty pages to write out.
+     * @param buffers the scratch buffers of the background flusher.
+     * @return the number of pages written.
+     * @throws IOException if a page could not be written. The pages in question will still be dirty.
+     */
+    int flushDirtyPagesInBackground( IOLimiter limiter, int maxPages, FlushBuffers buffers ) throws IOException
+    {
+        if ( !dirtyPagesDrainLock.tryLock() )
+        {
+            return 0;
+        }
+        try ( MajorFlushEvent flushEvent = pageCacheTracer.beginFileFlush( swapper ) )
+        {
+            return flushDirtyPages( flushEvent.flushEventOpportunity(), limiter, maxPages, buffers );
+        }
+        finally
+        {
+            dirtyPagesDrainLock.unlock();
+        }
+    }
+
+    /**
+     * Drain the dirty page set in ascending file page id order, and write the pages out in vectored writes of
+     * consecutive pages. Note: Must be called while holding the {@link #dirtyPagesDrainLock}.
+     */
+    private int flushDirtyPages( FlushEventOpportunity flushes, IOLimiter limiter, int maxPages, FlushBuffers buffers )
+            throws IOException
+    {
+        long[] filePageIds = buffers.filePageIds;
+        long[] pages = buffers.pages;
+        long[] flushStamps = buffers.flushStamps;
+        long[] bufferAddresses = buffers.bufferAddresses;
+        long limiterStamp = IOLimiter.INITIAL_STAMP;
+        long fromFilePageId = 0;
+        int pagesDrained = 0;
+        int pagesFlushed = 0;
+        for (;;)
+        {
+            int batchSize = Math.min( filePageIds.length, maxPages - pagesDrained );
+            int drained = dirtyPages.drain( fromFilePageId, filePageIds, batchSize );
+            pagesDrained += drained;
+            int pagesGrabbed = 0;
+            try
+            {
+                for ( int i = 0; i < drained; i++ )
+                {
+                    long filePageId = filePageIds[i];
+                    if ( pagesGrabbed > 0 && filePageId != filePageIds[i - 1] + 1 )
+                    {
+                        // There is a gap in the dirty pages, so the vector has to end here.
+                        vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, false );
+                        limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+                        pagesFlushed += pagesGrabbed;
+                        pagesGrabbed = 0;
+                    }
+                    long pageRef = tryFlushLockDirtyPage( filePageId, flushStamps, pagesGrabbed );
+                    if ( pageRef != 0 )
+                    {
+                        pages[pagesGrabbed] = pageRef;
+                        bufferAddresses[pagesGrabbed] = getAddress( pageRef );
+                        pagesGrabbed++;
+                    }
+                    else if ( pagesGrabbed > 0 )
+                    {
+                        vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, false );
+                        limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+                        pagesFlushed += pagesGrabbed;
+                        pagesGrabbed = 0;
+                    }
+                }
+                if ( pagesGrabbed > 0 )
+                {
+                    vectoredFlush( pages, bufferAddresses, flushStamps, pagesGrabbed, flushes, false );
+                    limiterStamp = limiter.maybeLimitIO( limiterStamp, pagesGrabbed, this );
+                    pagesFlushed += pagesGrabbed;
+                }
+            }
+            catch ( Throwable e )
+            {
+                // We did not manage to write out everything we drained, so we put it all back. Marking a page that
+                // has been flushed in the meantime is harmless.
+                for ( int i = 0; i < drained; i++ )
+                {
+                    dirtyPages.mark( filePageIds[i] );
+                }
+                throw e;
+            }
+            if ( drained == 0 || drained < batchSize )
+            {
+                return pagesFlushed;
+            }
+            fromFilePageId = filePageIds[drained - 1] + 1;
+        }
+    }
+
+    /**
+     * Take the flush lock on the page that is bound to the given file page id, if it is dirty.
+     *
+     * @return the page reference of the flush locked page, with its flush stamp put into the given array at the given
+     * index, or {@code 0} if the page is not in memory or not dirty.
+     */
+    private long tryFlushLockDirtyPage( long filePageId, long[] flushStamps, int index )
+    {
+        int[][] tt = this.translationTable;
+        int chunkId = computeChunkId( filePageId );
+        if ( chunkId >= tt.length )
+        {
+            return 0;
+        }
+        int[] chunk = tt[chunkId];
+        long offset = computeChunkOffset( filePageId );
+
+        // We might race with eviction, but we also mustn't miss a dirty page, so we loop until we succeed
+        // in getting a flush lock on it, or find that it is no longer there.
+        for (;;)
+        {
+            int pageId = UnsafeUtil.getIntVolatile( chunk, offset );
+            if ( pageId == UNMAPPED_TTE )
+            {
+                return 0;
+            }
+            long pageRef = deref( pageId );
+            long stamp = tryOptimisticReadLock( pageRef );
+            if ( (!isModified( pageRef )) && validateReadLock( pageRef, stamp ) )
+            {
+                return 0;
+            }
+            long flushStamp = tryFlushLock( pageRef );
+            if ( flushStamp == 0 )
+            {
+                continue;
+            }
+            if ( isBoundTo( pageRef, swapperId, filePageId ) && isModified( pageRef ) )
+            {
+                flushStamps[index] = flushStamp;
+                return pageRef;
+            }
+            unlockFlush( pageRef, flushStamp, false );
+            return 0;
+        }
+    }
+
     private void doFlushAndForceInternal( FlushEventOpportunity flushes, boolean forClosing, IOLimiter limiter )
             throws IOException
     {
@@ -674,9 +915,128 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
      */
     long grabFreeAndExclusivelyLockedPage( PageFaultEvent faultEvent ) throws IOException
     {
+        if ( partition != null && partition.isAtMaximum() )
+        {
+            // The partition is full, so we make room by evicting one of its own pages, if we can.
+            long pageRef = pageCache.evictWithinPartition( partition, faultEvent );
+            if ( pageRef != 0 )
+            {
+                return pageRef;
+            }
+        }
         return pageCache.grabFreeAndExclusivelyLockedPage( faultEvent );
     }
 
+    /**
+     * Grab a free page for the purpose of speculative page faulting, such as read-ahead, but only if one is
+     * immediately available.
+     * @return the page reference, or zero if there were no free pages.
+     */
+    long tryGrabFreeAndExclusivelyLockedPage()
+    {
+        if ( partition != null && partition.isAtMaximum() )
+        {
+            return 0;
+        }
+        return pageCache.tryGrabFreeAndExclusivelyLockedPage();
+    }
+
+    /**
+     * Reserve a page for speculatively faulting in the given file page, if the file page is not already in memory,
+     * nobody else is faulting it, and a free page is immediately available. This never waits for anything, so it is
+     * safe to call while holding other page fault latches.
+     * <p>
+     * On success, the exclusively locked and initialised page is put into {@code pageRefs[index]}, and the page fault
+     * latch for the file page into {@code latches[index]}. The reservation must then be released with
+     * {@link #releaseReadAheadPage(long, long[], LatchMap.Latch[], int, boolean)}, whether the fault succeeds or not.
+     *
+     * @return {@code true} if the page was reserved.
+     */
+    boolean reserveReadAheadPage( long filePageId, long[] pageRefs, LatchMap.Latch[] latches, int index )
+    {
+        int chunkId = computeChunkId( filePageId );
+        int[][] tt = translationTable;
+        if ( tt.length <= chunkId )
+        {
+            return false;
+        }
+        int[] chunk = tt[chunkId];
+        long chunkOffset = computeChunkOffset( filePageId );
+        if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) != UNMAPPED_TTE )
+        {
+            return false;
+        }
+        // The caller might already hold the latch for another page, so we must not wait for any latches here.
+        LatchMap.Latch latch = pageFaultLatches.tryTakeLatch( filePageId );
+        if ( latch == null )
+        {
+            return false;
+        }
+        if ( UnsafeUtil.getIntVolatile( chunk, chunkOffset ) == UNMAPPED_TTE )
+        {
+            long pageRef = tryGrabFreeAndExclusivelyLockedPage();
+            if ( pageRef != 0 )
+            {
+                initBuffer( pageRef );
+                pageRefs[index] = pageRef;
+                latches[index] = latch;
+                return true;
+            }
+        }
+        latch.release();
+        return false;
+    }
+
+    /**
+     * Release a page reserved with {@link #reserveReadAheadPage(long, long[], LatchMap.Latch[], int)}. If the page
+     * was faulted in, it is published in the translation table, otherwise it is given back.
+     */
+    void releaseReadAheadPage( long filePageId, long[] pageRefs, LatchMap.Latch[] latches, int index, boolean faulted )
+    {
+        long pageRef = pageRefs[index];
+        if ( faulted )
+        {
+            int[] chunk = translationTable[computeChunkId( filePageId )];
+            UnsafeUtil.putIntVolatile( chunk, computeChunkOffset( filePageId ), toId( pageRef ) );
+            unlockExclusive( pageRef );
+        }
+        else if ( isLoaded( pageRef ) )
+        {
+            // The page got a file page id assigned before the read failed, so eviction will pick it up from here.
+            unlockExclusive( pageRef );
+        }
+        else
+        {
+            // The page was never touched, so we can give it straight back to the freelist.
+            pageCache.addFreePageToFreelist( pageRef );
+        }
+        latches[index].release();
+        latches[index] = null;
+    }
+
+    void recordFaultLatency( long nanos )
+    {
+        long average = averageFaultNanos;
+        averageFaultNanos = average == 0 ? nanos : average + ((nanos - average) >> 3);
+    }
+
+    long averageFaultNanos()
+    {
+        return averageFaultNanos;
+    }
+
+    /**
+     * Account for the given number of pages having been faulted into this file.
+     */
+    void pagesFaulted( int count )
+    {
+        if ( partition != null )
+        {
+            partitionPages.add( count );
+            partition.pagesFaulted( count );
+        }
+    }
+
     /**
      * Remove the mapping of the given filePageId from the translation table, and return the evicted page object.
      * @param filePageId The id of the file page to evict.
@@ -691,6 +1051,11 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         long pageRef = deref( mappedPageId );
         setHighestEvictedTransactionId( getAndResetLastModifiedTransactionId( pageRef ) );
         UnsafeUtil.putIntVolatile( chunk, chunkOffset, UNMAPPED_TTE );
+        if ( partition != null )
+        {
+            partitionPages.decrement();
+            partition.pageEvicted();
+        }
     }
 
     private void setHighestEvictedTransactionId( long modifiedTransactionId )
@@ -749,4 +1114,16 @@ final class MuninnPagedFile extends PageList implements PagedFile, Flushable
         int index = (int) (filePageId & translationTableChunkSizeMask);
         return UnsafeUtil.arrayOffset( index, translationTableChunkArrayBase, translationTableChunkArrayScale );
     }
+
+    /**
+     * The scratch arrays used for writing out a batch of dirty pages. Every background flusher keeps its own, so they
+     * are not allocated again for every batch.
+     */
+    static final class FlushBuffers
+    {
+        final long[] filePageIds = new long[translationTableChunkSize];
+        final long[] pages = new long[translationTableChunkSize];
+        final long[] flushStamps = new long[translationTableChunkSize];
+        final long[] bufferAddresses = new long[translationTableChunkSize];
+    }
 }
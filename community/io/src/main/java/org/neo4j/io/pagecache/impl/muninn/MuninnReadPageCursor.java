@@ -60,6 +60,7 @@ final class MuninnReadPageCursor extends MuninnPageCursor
         }
         currentPageId = nextPageId;
         nextPageId++;
+        prefetchIfSequential( currentPageId, lastPageId );
         pin( currentPageId, false );
         verifyContext();
         return true;
@@ -81,7 +82,7 @@ final class MuninnReadPageCursor extends MuninnPageCursor
     protected void pinCursorToPage( long pageRef, long filePageId, PageSwapper swapper )
     {
         reset( pageRef );
-        pagedFile.incrementUsage( pageRef );
+        pagedFile.evictionPolicy.pinned( pageRef );
     }
 
     @Override
@@ -53,6 +53,9 @@ final class MuninnWritePageCursor extends MuninnPageCursor
             {
                 pagedFile.unlockWrite( pinnedPageRef );
             }
+            // Record the page in the dirty page set again, now that our writes are visible, in case a flush drained
+            // the set while we were writing, and wrote out the page before our writes. See DirtyPageBitmap.
+            pagedFile.dirtyPages.mark( currentPageId );
         }
         clearPageCursorState();
     }
@@ -96,6 +99,9 @@ final class MuninnWritePageCursor extends MuninnPageCursor
         }
         currentPageId = nextPageId;
         nextPageId++;
+        // Record the page in the dirty page set before our write lock makes it dirty, so that a flush that drains
+        // the set can never miss a page that is dirty. See DirtyPageBitmap.
+        pagedFile.dirtyPages.mark( currentPageId );
         pin( currentPageId, true );
         return true;
     }
@@ -124,7 +130,7 @@ final class MuninnWritePageCursor extends MuninnPageCursor
         // after the reset() call, which means that if we throw, the cursor will
         // be closed and the page lock will be released.
         assertPagedFileStillMappedAndGetIdOfLastPage();
-        pagedFile.incrementUsage( pageRef );
+        pagedFile.evictionPolicy.pinned( pageRef );
         pagedFile.setLastModifiedTxId( pageRef, versionContextSupplier.getVersionContext().committingTransactionId() );
     }
 
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.neo4j.io.pagecache.PageCachePartition;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
+
+/**
+ * The state of a {@link PageCachePartition} in the {@link MuninnPageCache}.
+ * <p>
+ * The partition keeps count of how many pages are currently bound to files in the partition. This count is updated
+ * by the {@link MuninnPagedFile}s in the partition, as their pages are faulted in and evicted, and is used by the page
+ * cache to decide whether pages may be evicted from the partition, and where page faults should take their pages from.
+ * The count is only approximate while page faults and evictions are in flight, which is fine for enforcing quotas.
+ */
+final class PagePartition implements PageCachePartitionCounters
+{
+    private final PageCachePartition option;
+    private final long reservedPages;
+    private final long maxPages;
+    private final AtomicLong pages = new AtomicLong();
+    private final LongAdder faults = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // The position of the clock hand used for evicting pages within this partition.
+    // This is intentionally left benignly racy, as it is only a starting point for the search.
+    int clockArm;
+    // The number of files mapped into this partition. Guarded by synchronized(MuninnPageCache).
+    int mappedFiles;
+
+    PagePartition( PageCachePartition option, int pageCount )
+    {
+        this.option = option;
+        this.reservedPages = (long) (option.reservedShare() * pageCount);
+        this.maxPages = Math.max( 1, (long) (option.maxShare() * pageCount) );
+    }
+
+    PageCachePartition option()
+    {
+        return option;
+    }
+
+    /**
+     * @return {@code true} if the partition holds more than its reserved number of pages, so pages from the partition
+     * may be evicted to make room for other pages.
+     */
+    boolean isAboveReservation()
+    {
+        return pages.get() > reservedPages;
+    }
+
+    /**
+     * @return {@code true} if the partition holds its maximum number of pages, so page faults into the partition
+     * should evict pages from the partition itself.
+     */
+    boolean isAtMaximum()
+    {
+        return pages.get() >= maxPages;
+    }
+
+    void pagesFaulted( int count )
+    {
+        pages.addAndGet( count );
+        faults.add( count );
+    }
+
+    void pageEvicted()
+    {
+        pages.decrementAndGet();
+        evictions.increment();
+    }
+
+    void pagesReleased( long count )
+    {
+        pages.addAndGet( -count );
+    }
+
+    @Override
+    public String name()
+    {
+        return option.name();
+    }
+
+    @Override
+    public long reservedPages()
+    {
+        return reservedPages;
+    }
+
+    @Override
+    public long maxPages()
+    {
+        return maxPages;
+    }
+
+    @Override
+    public long pages()
+    {
+        return Math.max( 0, pages.get() );
+    }
+
+    @Override
+    public long faults()
+    {
+        return faults.sum();
+    }
+
+    @Override
+    public long evictions()
+    {
+        return evictions.sum();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.neo4j.io.pagecache.tracing.PageFaultEvent;
+
+/**
+ * This Runnable faults in a range of file pages ahead of a cursor that has been found to be scanning its file
+ * sequentially, so the cursor finds the pages in memory when it gets to them. Each sequentially scanning cursor has at
+ * most one of these in flight at a time.
+ * <p>
+ * The pages are reserved with the same protocol as the {@link org.neo4j.io.pagecache.PagedFile#PF_READ_AHEAD} page
+ * faults: only pages that are not in memory, that nobody else is faulting, and for which a free page is immediately
+ * available are faulted in. Prefetching never evicts anything, and never waits for other page faults.
+ * <p>
+ * The task holds a reference to the paged file while it is in flight, so the file cannot be closed under it.
+ *
+ * @see MuninnPageCursor#prefetchIfSequential(long, long)
+ */
+final class PrefetchTask implements Runnable
+{
+    private final long[] pageRefs;
+    private final long[] bufferAddresses;
+    private final LatchMap.Latch[] latches;
+    private final AtomicBoolean inFlight = new AtomicBoolean();
+    private MuninnPagedFile pagedFile;
+    private long startPageId;
+    private long endPageId;
+
+    PrefetchTask( int maxPages )
+    {
+        pageRefs = new long[maxPages];
+        bufferAddresses = new long[maxPages];
+        latches = new LatchMap.Latch[maxPages];
+    }
+
+    /**
+     * Start prefetching the file pages from {@code startPageId}, inclusive, to {@code endPageId}, exclusive, unless
+     * this task is already in flight. The caller must hold a reference to the given paged file.
+     *
+     * @return {@code true} if the prefetch was scheduled.
+     */
+    boolean tryStart( MuninnPagedFile pagedFile, long startPageId, long endPageId )
+    {
+        if ( !inFlight.compareAndSet( false, true ) )
+        {
+            return false;
+        }
+        this.pagedFile = pagedFile;
+        this.startPageId = startPageId;
+        this.endPageId = Math.min( endPageId, startPageId + pageRefs.length );
+        pagedFile.incrementRefCount();
+        if ( pagedFile.pageCache.schedulePrefetch( this ) )
+        {
+            return true;
+        }
+        finish();
+        return false;
+    }
+
+    boolean isInFlight()
+    {
+        return inFlight.get();
+    }
+
+    @Override
+    public void run()
+    {
+        try
+        {
+            prefetch( pagedFile, startPageId, Math.min( endPageId, pagedFile.getLastPageId() + 1 ) );
+        }
+        catch ( Throwable ignore )
+        {
+            // Prefetching is only an optimisation. The cursor will fault in the pages itself, and report any errors.
+        }
+        finally
+        {
+            finish();
+        }
+    }
+
+    private void prefetch( MuninnPagedFile pagedFile, long filePageId, long endPageId ) throws Exception
+    {
+        while ( filePageId < endPageId )
+        {
+            int length = 0;
+            try
+            {
+                while ( filePageId + length < endPageId &&
+                        pagedFile.reserveReadAheadPage( filePageId + length, pageRefs, latches, length ) )
+                {
+                    length++;
+                }
+                if ( length == 0 )
+                {
+                    // This page is already in memory, or being faulted, or there were no free pages right now.
+                    filePageId++;
+                    continue;
+                }
+                pagedFile.fault( pageRefs, bufferAddresses, length, pagedFile.swapper, pagedFile.swapperId,
+                        filePageId, PageFaultEvent.NULL );
+                for ( int i = 0; i < length; i++ )
+                {
+                    pagedFile.releaseReadAheadPage( filePageId + i, pageRefs, latches, i, true );
+                }
+                pagedFile.pagesFaulted( length );
+                filePageId += length;
+            }
+            catch ( Throwable throwable )
+            {
+                for ( int i = 0; i < length; i++ )
+                {
+                    pagedFile.releaseReadAheadPage( filePageId + i, pageRefs, latches, i, false );
+                }
+                throw throwable;
+            }
+        }
+    }
+
+    private void finish()
+    {
+        MuninnPagedFile file = pagedFile;
+        pagedFile = null;
+        inFlight.set( false );
+        file.pageCache.unmap( file );
+    }
+}
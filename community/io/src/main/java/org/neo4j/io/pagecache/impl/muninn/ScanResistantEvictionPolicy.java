@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+/**
+ * An adaptive, scan-resistant variant of the CLOCK eviction policy.
+ * <p>
+ * Like {@link ClockEvictionPolicy}, this policy uses the usage counter that the {@link PageList} keeps in the
+ * off-heap meta-data of every page, and every pin increments that counter. The difference is in how the clock hand
+ * treats the pages it visits. Pages that have only been pinned once since they were faulted in are considered
+ * <em>cold</em>, and are evicted the first time the clock hand sees them. Pages that have been pinned more than once
+ * are considered <em>hot</em>, and are only aged, that is, have their usage counter decremented, when cold pages are
+ * scarce.
+ * <p>
+ * A large scan, like a label scan or a consistency check, touches every page exactly once, so it only ever produces
+ * cold pages. While such a scan is running, the clock hand keeps finding cold pages to evict, and the hot working set
+ * is only aged on one in every {@value #BACKGROUND_AGING_INTERVAL} revolutions of the clock hand. When the cache is
+ * mostly full of hot pages, the clock hand will go a long way without seeing any cold pages, and this policy then
+ * degrades gracefully into plain CLOCK, aging every hot page it visits. This way, the eviction pressure adapts to how
+ * many cold pages are available, and we never live-lock because of pages that can never be evicted.
+ */
+final class ScanResistantEvictionPolicy implements EvictionPolicy
+{
+    // Pages with a usage counter of at least this value have been pinned more than once since they were faulted in.
+    private static final int HOT_USAGE_COUNT = 2;
+    // While cold pages are plentiful, hot pages are only aged on one in every this many revolutions of the clock hand.
+    private static final int BACKGROUND_AGING_INTERVAL = 4;
+
+    private final PageList pages;
+    private final int pageCount;
+    // The number of consecutive hot pages the clock hand may visit, before we consider cold pages to be scarce.
+    private final int coldPageScarcityThreshold;
+
+    // Both of these counters are intentionally left benignly racy. They are only used to approximate how densely
+    // cold pages are distributed in the cache, and how far the clock hand has come.
+    private int hotPagesSinceColdPage;
+    private long visits;
+
+    ScanResistantEvictionPolicy( PageList pages )
+    {
+        this.pages = pages;
+        this.pageCount = pages.getPageCount();
+        this.coldPageScarcityThreshold = Math.max( 1, pageCount / 8 );
+    }
+
+    @Override
+    public String name()
+    {
+        return SCAN_RESISTANT;
+    }
+
+    @Override
+    public void pinned( long pageRef )
+    {
+        pages.incrementUsage( pageRef );
+    }
+
+    @Override
+    public boolean shouldEvict( long pageRef )
+    {
+        long revolution = visits++ / pageCount;
+        if ( pages.getUsageCounter( pageRef ) < HOT_USAGE_COUNT )
+        {
+            hotPagesSinceColdPage = 0;
+            return pages.decrementUsage( pageRef );
+        }
+
+        int hotPagesSeen = ++hotPagesSinceColdPage;
+        if ( hotPagesSeen > coldPageScarcityThreshold ||
+             revolution % BACKGROUND_AGING_INTERVAL == BACKGROUND_AGING_INTERVAL - 1 )
+        {
+            return pages.decrementUsage( pageRef );
+        }
+        return false;
+    }
+}
@@ -22,6 +22,8 @@
  */
 package org.neo4j.io.pagecache.monitoring;
 
+import java.util.List;
+
 /**
  * The PageCacheCounters exposes internal counters from the page cache.
  * The data for these counters is sourced through the PageCacheTracer API.
@@ -93,4 +95,51 @@ public interface PageCacheCounters
      * be determined.
      */
     double usageRatio();
+
+    /**
+     * @return The name of the eviction policy used by the page cache, or an empty string if it is not known.
+     * The {@link #hitRatio() hit ratio} is only comparable between page caches that use the same eviction policy.
+     */
+    String evictionPolicy();
+
+    /**
+     * @return The number of pages read from files mapped with page checksums, that did not match their checksum.
+     */
+    long checksumMismatches();
+
+    /**
+     * @return The counters of the page cache partitions that currently exist.
+     */
+    List<PageCachePartitionCounters> partitions();
+
+    /**
+     * Start telling the given listener about page cache partitions as they are created and removed. The listener is
+     * first told about all the partitions that already exist.
+     * @param listener the listener to add.
+     */
+    void addPartitionListener( PartitionListener listener );
+
+    /**
+     * Stop telling the given listener about page cache partitions.
+     * @param listener the listener to remove.
+     */
+    void removePartitionListener( PartitionListener listener );
+
+    /**
+     * Listens for page cache partitions being created and removed.
+     */
+    interface PartitionListener
+    {
+        /**
+         * A partition was created, because a file was mapped into it.
+         * @param partition the counters of the new partition.
+         */
+        void partitionCreated( PageCachePartitionCounters partition );
+
+        /**
+         * A partition was removed, because the last file in it was unmapped.
+         * @param partition the counters of the removed partition.
+         */
+        void partitionRemoved( PageCachePartitionCounters partition );
+    }
 }
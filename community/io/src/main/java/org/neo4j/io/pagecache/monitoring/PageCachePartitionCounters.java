@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.monitoring;
+
+import org.neo4j.io.pagecache.PageCachePartition;
+
+/**
+ * The PageCachePartitionCounters exposes the internal counters of a single {@link PageCachePartition}.
+ */
+public interface PageCachePartitionCounters
+{
+    /**
+     * @return The name of the partition.
+     */
+    String name();
+
+    /**
+     * @return The number of pages the partition is guaranteed to be able to keep in memory.
+     */
+    long reservedPages();
+
+    /**
+     * @return The maximum number of pages the partition is allowed to use.
+     */
+    long maxPages();
+
+    /**
+     * @return The number of pages currently holding data from files in the partition.
+     */
+    long pages();
+
+    /**
+     * @return The number of page faults for files in the partition observed thus far.
+     */
+    long faults();
+
+    /**
+     * @return The number of evictions of pages from files in the partition observed thus far.
+     */
+    long evictions();
+}
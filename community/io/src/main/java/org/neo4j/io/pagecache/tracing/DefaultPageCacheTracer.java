@@ -24,11 +24,15 @@ package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
 import org.neo4j.helpers.MathUtil;
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
 
 /**
  * The default PageCacheTracer implementation, that just increments counters.
@@ -46,7 +50,13 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     protected final LongAdder filesMapped = new LongAdder();
     protected final LongAdder filesUnmapped = new LongAdder();
     protected final LongAdder evictionExceptions = new LongAdder();
+    protected final LongAdder checksumMismatches = new LongAdder();
     protected final AtomicLong maxPages = new AtomicLong();
+    protected volatile String evictionPolicy = "";
+    protected final List<PageCachePartitionCounters> partitions = new CopyOnWriteArrayList<>();
+    // Guarded by synchronized(partitionListeners), along with changes to the partitions list, so listeners are told
+    // about every partition exactly once.
+    private final List<PartitionListener> partitionListeners = new ArrayList<>();
 
     private final FlushEvent flushEvent = new FlushEvent()
     {
@@ -312,4 +322,75 @@ public class DefaultPageCacheTracer implements PageCacheTracer
     {
         this.maxPages.set( maxPages );
     }
+
+    @Override
+    public void evictionPolicy( String evictionPolicy )
+    {
+        this.evictionPolicy = evictionPolicy;
+    }
+
+    @Override
+    public String evictionPolicy()
+    {
+        return evictionPolicy;
+    }
+
+    @Override
+    public void partitionCreated( PageCachePartitionCounters partition )
+    {
+        synchronized ( partitionListeners )
+        {
+            partitions.add( partition );
+            partitionListeners.forEach( listener -> listener.partitionCreated( partition ) );
+        }
+    }
+
+    @Override
+    public void partitionRemoved( PageCachePartitionCounters partition )
+    {
+        synchronized ( partitionListeners )
+        {
+            if ( partitions.remove( partition ) )
+            {
+                partitionListeners.forEach( listener -> listener.partitionRemoved( partition ) );
+            }
+        }
+    }
+
+    @Override
+    public List<PageCachePartitionCounters> partitions()
+    {
+        return partitions;
+    }
+
+    @Override
+    public void addPartitionListener( PartitionListener listener )
+    {
+        synchronized ( partitionListeners )
+        {
+            partitionListeners.add( listener );
+            partitions.forEach( listener::partitionCreated );
+        }
+    }
+
+    @Override
+    public void removePartitionListener( PartitionListener listener )
+    {
+        synchronized ( partitionListeners )
+        {
+            partitionListeners.remove( listener );
+        }
+    }
+
+    @Override
+    public void checksumMismatch( File file, long filePageId )
+    {
+        checksumMismatches.increment();
+    }
+
+    @Override
+    public long checksumMismatches()
+    {
+        return checksumMismatches.sum();
+    }
 }
@@ -23,9 +23,12 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
 
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
 
 /**
  * A PageCacheTracer receives a steady stream of events and data about what
@@ -195,6 +198,54 @@ public interface PageCacheTracer extends PageCacheCounters
         {
         }
 
+        @Override
+        public void evictionPolicy( String evictionPolicy )
+        {
+        }
+
+        @Override
+        public String evictionPolicy()
+        {
+            return "";
+        }
+
+        @Override
+        public void partitionCreated( PageCachePartitionCounters partition )
+        {
+        }
+
+        @Override
+        public void partitionRemoved( PageCachePartitionCounters partition )
+        {
+        }
+
+        @Override
+        public List<PageCachePartitionCounters> partitions()
+        {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public void addPartitionListener( PartitionListener listener )
+        {
+        }
+
+        @Override
+        public void removePartitionListener( PartitionListener listener )
+        {
+        }
+
+        @Override
+        public void checksumMismatch( File file, long filePageId )
+        {
+        }
+
+        @Override
+        public long checksumMismatches()
+        {
+            return 0;
+        }
+
         @Override
         public String toString()
         {
@@ -290,4 +341,29 @@ public interface PageCacheTracer extends PageCacheCounters
      * @param maxPages the total number of available pages.
      */
     void maxPages( long maxPages );
+
+    /**
+     * Sets the name of the eviction policy that the page cache uses.
+     * @param evictionPolicy the name of the eviction policy.
+     */
+    void evictionPolicy( String evictionPolicy );
+
+    /**
+     * A page cache partition was created, because a file was mapped into it for the first time.
+     * @param partition the counters of the new partition.
+     */
+    void partitionCreated( PageCachePartitionCounters partition );
+
+    /**
+     * A page cache partition was removed, because the last file mapped into it was unmapped.
+     * @param partition the counters of the removed partition.
+     */
+    void partitionRemoved( PageCachePartitionCounters partition );
+
+    /**
+     * A page was read from a file mapped with page checksums, and its contents did not match its checksum.
+     * @param file the file the page was read from.
+     * @param filePageId the id of the corrupted page in the file.
+     */
+    void checksumMismatch( File file, long filePageId );
 }
@@ -24,13 +24,25 @@ package org.neo4j.io.mem;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.memory.LocalMemoryTracker;
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
 import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.emptyArray;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
@@ -38,11 +50,15 @@ import static org.hamcrest.Matchers.not;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+@ExtendWith( TestDirectoryExtension.class )
 class MemoryAllocatorTest
 {
     private static final String ONE_PAGE = PageCache.PAGE_SIZE + "";
     private static final String EIGHT_PAGES = (8 * PageCache.PAGE_SIZE) + "";
 
+    @Inject
+    private TestDirectory testDirectory;
+
     private MemoryAllocator allocator;
 
     @AfterEach
@@ -208,6 +224,101 @@ class MemoryAllocatorTest
         }
     }
 
+    @Test
+    void transparentHugePageGrabsMustBeAlignedToHugePages()
+    {
+        allocator = MemoryAllocator.createAllocator( "64 MiB", new LocalMemoryTracker(), HugePageMode.TRANSPARENT, null );
+        long address = allocator.allocateAligned( PageCache.PAGE_SIZE, 1 );
+        assertThat( address % ByteUnit.mebiBytes( 2 ), is( 0L ) );
+
+        // The grab must be large enough to cover whole huge pages, and all of it must be accessible.
+        long lastAddress = 0;
+        for ( int i = 1; i < ByteUnit.mebiBytes( 2 ) / PageCache.PAGE_SIZE; i++ )
+        {
+            lastAddress = allocator.allocateAligned( PageCache.PAGE_SIZE, PageCache.PAGE_SIZE );
+            UnsafeUtil.putLong( lastAddress, i );
+        }
+        assertThat( lastAddress, is( address + ByteUnit.mebiBytes( 2 ) - PageCache.PAGE_SIZE ) );
+    }
+
+    @Test
+    void hugeTlbFsGrabsMustBeMappedFromHugePageDirectoryWithoutLeavingFilesBehind()
+    {
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        File hugePageDirectory = testDirectory.directory( "hugepages" );
+        allocator = MemoryAllocator.createAllocator( "4 MiB", memoryTracker, HugePageMode.HUGETLBFS, hugePageDirectory );
+
+        long address = allocator.allocateAligned( PageCache.PAGE_SIZE, PageCache.PAGE_SIZE );
+        assertThat( address, is( not( 0L ) ) );
+        assertThat( hugePageDirectory.list(), is( emptyArray() ) );
+        // Mappings are sized in whole huge pages.
+        assertEquals( ByteUnit.mebiBytes( 4 ), memoryTracker.usedDirectMemory() );
+
+        boolean checkAccess = UnsafeUtil.exchangeNativeAccessCheckEnabled( false );
+        try
+        {
+            UnsafeUtil.putLong( address, 42 );
+            assertEquals( 42, UnsafeUtil.getLong( address ) );
+        }
+        finally
+        {
+            UnsafeUtil.exchangeNativeAccessCheckEnabled( checkAccess );
+        }
+
+        closeAllocator();
+        assertEquals( 0, memoryTracker.usedDirectMemory() );
+    }
+
+    @Test
+    void hugeTlbFsGrabsTooLargeToMapMustBeAllocatedAlignedAndReportedToTheMonitor()
+    {
+        LocalMemoryTracker memoryTracker = new LocalMemoryTracker();
+        File hugePageDirectory = testDirectory.directory( "hugepages" );
+        long maxMappingSize = ByteUnit.mebiBytes( 4 );
+        List<Long> tooLargeGrabs = new ArrayList<>();
+        allocator = new GrabAllocator( maxMappingSize, memoryTracker, HugePageMode.HUGETLBFS, hugePageDirectory,
+                ( grabSize, maxSize ) ->
+                {
+                    assertEquals( maxMappingSize, maxSize );
+                    tooLargeGrabs.add( grabSize );
+                }, maxMappingSize );
+
+        // A grab that fits in a mapping is mapped from the huge page directory.
+        allocator.allocateAligned( PageCache.PAGE_SIZE, PageCache.PAGE_SIZE );
+        assertThat( tooLargeGrabs, is( empty() ) );
+
+        // A huge allocation gets a grab of its own, which is too large to map.
+        long size = ByteUnit.mebiBytes( 40 );
+        long address = allocator.allocateAligned( size, PageCache.PAGE_SIZE );
+        assertThat( tooLargeGrabs, contains( size ) );
+        assertThat( hugePageDirectory.list(), is( emptyArray() ) );
+
+        boolean checkAccess = UnsafeUtil.exchangeNativeAccessCheckEnabled( false );
+        try
+        {
+            UnsafeUtil.putLong( address, 42 );
+            UnsafeUtil.putLong( address + size - Long.BYTES, 43 );
+            assertEquals( 42, UnsafeUtil.getLong( address ) );
+            assertEquals( 43, UnsafeUtil.getLong( address + size - Long.BYTES ) );
+        }
+        finally
+        {
+            UnsafeUtil.exchangeNativeAccessCheckEnabled( checkAccess );
+        }
+
+        closeAllocator();
+        assertEquals( 0, memoryTracker.usedDirectMemory() );
+    }
+
+    @Test
+    void mustDescribeMemoryLayout()
+    {
+        allocator = MemoryAllocator.createAllocator( "8 MiB", new LocalMemoryTracker(), HugePageMode.TRANSPARENT, null );
+        String layout = allocator.describeLayout();
+        assertThat( layout, containsString( "huge pages TRANSPARENT" ) );
+        assertThat( layout, containsString( "NUMA node" ) );
+    }
+
     private void closeAllocator()
     {
         if ( allocator != null )
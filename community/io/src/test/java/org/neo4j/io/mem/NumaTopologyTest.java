@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.mem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.neo4j.test.extension.Inject;
+import org.neo4j.test.extension.TestDirectoryExtension;
+import org.neo4j.test.rule.TestDirectory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith( TestDirectoryExtension.class )
+class NumaTopologyTest
+{
+    @Inject
+    private TestDirectory testDirectory;
+
+    @Test
+    void mustCountNodeDirectories()
+    {
+        File nodes = testDirectory.directory( "node" );
+        for ( String name : Arrays.asList( "node0", "node1", "online", "has_cpu" ) )
+        {
+            assertTrue( new File( nodes, name ).mkdir() );
+        }
+        assertEquals( 2, NumaTopology.countNodes( nodes ) );
+    }
+
+    @Test
+    void mustAssumeSingleNodeWhenTopologyIsUnavailable()
+    {
+        assertEquals( 1, NumaTopology.countNodes( testDirectory.file( "does-not-exist" ) ) );
+        assertEquals( 1, NumaTopology.countNodes( testDirectory.directory( "empty" ) ) );
+    }
+
+    @Test
+    void mustReadMemoryPolicyOfProcess() throws IOException
+    {
+        File numaMaps = testDirectory.file( "numa_maps" );
+        Files.write( numaMaps.toPath(), Arrays.asList(
+                "00400000 interleave:0-1 file=/usr/bin/java mapped=1 N0=1 kernelpagesize_kB=4",
+                "00600000 interleave:0-1 anon=2 dirty=2 N0=1 N1=1 kernelpagesize_kB=4" ), StandardCharsets.US_ASCII );
+        assertEquals( "interleave:0-1", NumaTopology.readMemoryPolicy( numaMaps ) );
+        assertEquals( "default", NumaTopology.readMemoryPolicy( testDirectory.file( "does-not-exist" ) ) );
+    }
+
+    @Test
+    void onlyMultipleNodesWithDefaultPolicyAreUnbalanced()
+    {
+        assertFalse( new NumaTopology( 1, "default" ).isUnbalanced() );
+        assertTrue( new NumaTopology( 2, "default" ).isUnbalanced() );
+        assertFalse( new NumaTopology( 2, "interleave:0-1" ).isUnbalanced() );
+        assertTrue( new NumaTopology( 2, "interleave:0-1" ).isInterleaved() );
+        assertFalse( new NumaTopology( 2, "bind:0" ).isInterleaved() );
+    }
+}
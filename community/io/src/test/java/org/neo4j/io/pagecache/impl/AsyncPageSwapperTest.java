@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.neo4j.graphdb.config.Configuration;
+import org.neo4j.graphdb.mockfs.EphemeralFileSystemAbstraction;
+import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.PageSwapperFactory;
+import org.neo4j.io.pagecache.PageSwapperTest;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class AsyncPageSwapperTest extends PageSwapperTest
+{
+    private EphemeralFileSystemAbstraction fs;
+    private ThreadPoolJobScheduler scheduler;
+
+    @BeforeEach
+    void setUp()
+    {
+        fs = new EphemeralFileSystemAbstraction();
+        scheduler = new ThreadPoolJobScheduler();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        scheduler.close();
+        fs.close();
+    }
+
+    @Override
+    protected PageSwapperFactory swapperFactory()
+    {
+        AsyncPageSwapperFactory factory = new AsyncPageSwapperFactory();
+        factory.open( fs, Configuration.EMPTY, scheduler );
+        return factory;
+    }
+
+    @Override
+    protected void mkdirs( File dir ) throws IOException
+    {
+        fs.mkdirs( dir );
+    }
+
+    @Test
+    void vectoredReadsAndWritesSpanningManyStripesMustPreserveOrder() throws Exception
+    {
+        File file = new File( "file" ).getCanonicalFile();
+        PageSwapperFactory factory = createSwapperFactory();
+        PageSwapper swapper = createSwapper( factory, file, 4, NO_CALLBACK, true, false );
+
+        int pageCount = SingleFilePageSwapper.pagesPerChannelStripe() * 5 + 3;
+        long[] pages = new long[pageCount];
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            pages[i] = createPage( 4 );
+            putInt( pages[i], 0, i + 1 );
+        }
+
+        // Start at an unaligned file page id, so the first part is shorter than a stripe.
+        assertThat( swapper.write( 7, pages, 0, pageCount ), is( 4L * pageCount ) );
+
+        for ( long page : pages )
+        {
+            putInt( page, 0, 0 );
+        }
+        assertThat( swapper.read( 7, pages, 4, 0, pageCount ), is( 4L * pageCount ) );
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            assertThat( getInt( pages[i], 0 ), is( i + 1 ) );
+        }
+    }
+
+    @Test
+    void vectoredReadBeyondEndOfFileMustOnlyZeroTheGivenPages() throws Exception
+    {
+        File file = new File( "file" ).getCanonicalFile();
+        PageSwapperFactory factory = createSwapperFactory();
+        PageSwapper swapper = createSwapper( factory, file, 4, NO_CALLBACK, true, false );
+
+        int stripe = SingleFilePageSwapper.pagesPerChannelStripe();
+        int pageCount = stripe * 3;
+        long[] pages = new long[pageCount];
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            pages[i] = createPage( 4 );
+            putInt( pages[i], 0, i + 1 );
+        }
+        swapper.write( 0, pages, 0, stripe );
+
+        assertThat( swapper.read( 0, pages, 4, 0, pageCount ), is( 4L * stripe ) );
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            assertThat( getInt( pages[i], 0 ), is( i < stripe ? i + 1 : 0 ) );
+        }
+    }
+
+    @Test
+    void vectoredReadsAndWritesWithinOneStripeMustPreserveOrder() throws Exception
+    {
+        File file = new File( "file" ).getCanonicalFile();
+        PageSwapperFactory factory = createSwapperFactory();
+        PageSwapper swapper = createSwapper( factory, file, 4, NO_CALLBACK, true, false );
+
+        // The size of a read-ahead batch, which is split into parts that are smaller than a stripe.
+        int pageCount = 8;
+        long[] pages = new long[pageCount];
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            pages[i] = createPage( 4 );
+            putInt( pages[i], 0, i + 1 );
+        }
+
+        // Start at an unaligned file page id, so the first part is shorter than the others.
+        assertThat( swapper.write( 3, pages, 0, pageCount ), is( 4L * pageCount ) );
+
+        for ( long page : pages )
+        {
+            putInt( page, 0, 0 );
+        }
+        assertThat( swapper.read( 3, pages, 4, 0, pageCount ), is( 4L * pageCount ) );
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            assertThat( getInt( pages[i], 0 ), is( i + 1 ) );
+        }
+
+        // Reading past the end of the file must zero the pages beyond it.
+        for ( long page : pages )
+        {
+            putInt( page, 0, -1 );
+        }
+        assertThat( swapper.read( 7, pages, 4, 0, pageCount ), is( 4L * 4 ) );
+        for ( int i = 0; i < pageCount; i++ )
+        {
+            assertThat( getInt( pages[i], 0 ), is( i < 4 ? i + 5 : 0 ) );
+        }
+    }
+}
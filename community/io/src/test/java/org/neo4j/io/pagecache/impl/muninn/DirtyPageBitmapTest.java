@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DirtyPageBitmapTest
+{
+    @Test
+    void mustDrainMarkedPagesInAscendingOrder()
+    {
+        DirtyPageBitmap bitmap = new DirtyPageBitmap();
+        long[] marked = {100_000, 7, 63, 64, 0, 4095, 4096};
+        for ( long filePageId : marked )
+        {
+            bitmap.mark( filePageId );
+        }
+        bitmap.mark( 7 );
+        assertEquals( marked.length, bitmap.size() );
+
+        long[] drained = new long[16];
+        assertEquals( marked.length, bitmap.drain( 0, drained, drained.length ) );
+        assertArrayEquals( new long[]{0, 7, 63, 64, 4095, 4096, 100_000}, copyOf( drained, marked.length ) );
+        assertEquals( 0, bitmap.size() );
+        assertEquals( 0, bitmap.drain( 0, drained, drained.length ) );
+    }
+
+    @Test
+    void mustDrainFromGivenFilePageIdAndNoMoreThanMax()
+    {
+        DirtyPageBitmap bitmap = new DirtyPageBitmap();
+        for ( long filePageId = 0; filePageId < 200; filePageId++ )
+        {
+            bitmap.mark( filePageId );
+        }
+
+        long[] drained = new long[10];
+        assertEquals( 10, bitmap.drain( 65, drained, 10 ) );
+        assertArrayEquals( new long[]{65, 66, 67, 68, 69, 70, 71, 72, 73, 74}, drained );
+        assertEquals( 3, bitmap.drain( 197, drained, 10 ) );
+        assertArrayEquals( new long[]{197, 198, 199}, copyOf( drained, 3 ) );
+        assertEquals( 200 - 13, bitmap.size() );
+
+        // The pages we did not drain must still be there.
+        assertEquals( 10, bitmap.drain( 0, drained, 10 ) );
+        assertArrayEquals( new long[]{0, 1, 2, 3, 4, 5, 6, 7, 8, 9}, drained );
+        assertEquals( 6, bitmap.drain( 60, drained, 6 ) );
+        assertArrayEquals( new long[]{60, 61, 62, 63, 64, 75}, copyOf( drained, 6 ) );
+    }
+
+    @Test
+    void drainedPagesCanBeMarkedAgain()
+    {
+        DirtyPageBitmap bitmap = new DirtyPageBitmap();
+        bitmap.mark( 42 );
+        long[] drained = new long[1];
+        assertEquals( 1, bitmap.drain( 0, drained, 1 ) );
+        bitmap.mark( 42 );
+        assertEquals( 1, bitmap.size() );
+        assertEquals( 1, bitmap.drain( 42, drained, 1 ) );
+        assertEquals( 42, drained[0] );
+    }
+
+    private static long[] copyOf( long[] array, int length )
+    {
+        long[] copy = new long[length];
+        System.arraycopy( array, 0, copy, 0, length );
+        return copy;
+    }
+}
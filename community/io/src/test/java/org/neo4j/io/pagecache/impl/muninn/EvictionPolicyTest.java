@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.io.pagecache.impl.muninn;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.memory.GlobalMemoryTracker;
+import org.neo4j.unsafe.impl.internal.dragons.UnsafeUtil;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EvictionPolicyTest
+{
+    private static final int PAGE_COUNT = 64;
+
+    private MemoryAllocator mman;
+    private PageList pages;
+
+    @BeforeEach
+    void setUp()
+    {
+        int pageSize = UnsafeUtil.pageSize();
+        mman = MemoryAllocator.createAllocator( "1 MiB", GlobalMemoryTracker.INSTANCE );
+        long victimPage = VictimPageReference.getVictimPage( pageSize, GlobalMemoryTracker.INSTANCE );
+        pages = new PageList( PAGE_COUNT, pageSize, mman, new SwapperSet(), victimPage, 8 );
+    }
+
+    @AfterEach
+    void tearDown()
+    {
+        mman.close();
+    }
+
+    @Test
+    void mustCreatePoliciesByName()
+    {
+        assertEquals( EvictionPolicy.CLOCK, EvictionPolicy.create( EvictionPolicy.CLOCK, pages ).name() );
+        assertEquals( EvictionPolicy.SCAN_RESISTANT,
+                EvictionPolicy.create( EvictionPolicy.SCAN_RESISTANT, pages ).name() );
+    }
+
+    @Test
+    void mustThrowOnUnknownPolicyName()
+    {
+        assertThrows( IllegalArgumentException.class, () -> EvictionPolicy.create( "lru", pages ) );
+    }
+
+    @Test
+    void clockMustEvictPagesOnceTheirUsageCounterReachesZero()
+    {
+        EvictionPolicy policy = EvictionPolicy.create( EvictionPolicy.CLOCK, pages );
+        long pageRef = pages.deref( 0 );
+        policy.pinned( pageRef );
+        policy.pinned( pageRef );
+        policy.pinned( pageRef );
+        assertFalse( policy.shouldEvict( pageRef ) );
+        assertFalse( policy.shouldEvict( pageRef ) );
+        assertTrue( policy.shouldEvict( pageRef ) );
+    }
+
+    @Test
+    void scanResistantMustEvictColdPagesOnFirstVisit()
+    {
+        EvictionPolicy policy = EvictionPolicy.create( EvictionPolicy.SCAN_RESISTANT, pages );
+        long pageRef = pages.deref( 0 );
+        assertTrue( policy.shouldEvict( pageRef ) );
+        policy.pinned( pageRef );
+        assertTrue( policy.shouldEvict( pageRef ) );
+    }
+
+    @Test
+    void scanResistantMustNotAgeHotPagesWhileColdPagesArePlentiful()
+    {
+        EvictionPolicy policy = EvictionPolicy.create( EvictionPolicy.SCAN_RESISTANT, pages );
+        long hotPage = pages.deref( 0 );
+        for ( int i = 0; i < 4; i++ )
+        {
+            policy.pinned( hotPage );
+        }
+
+        // Simulate a scan: the clock hand keeps finding pages that have only been pinned once.
+        for ( int i = 1; i < 16; i++ )
+        {
+            long coldPage = pages.deref( i );
+            policy.pinned( coldPage );
+            assertTrue( policy.shouldEvict( coldPage ) );
+            assertFalse( policy.shouldEvict( hotPage ) );
+        }
+        assertEquals( 4, pages.getUsageCounter( hotPage ) );
+    }
+
+    @Test
+    void scanResistantMustEventuallyEvictWhenAllPagesAreHot()
+    {
+        EvictionPolicy policy = EvictionPolicy.create( EvictionPolicy.SCAN_RESISTANT, pages );
+        for ( int i = 0; i < PAGE_COUNT; i++ )
+        {
+            long pageRef = pages.deref( i );
+            for ( int j = 0; j < 4; j++ )
+            {
+                policy.pinned( pageRef );
+            }
+        }
+
+        int visits = 0;
+        boolean evicted = false;
+        while ( !evicted && visits < PAGE_COUNT * 10 )
+        {
+            evicted = policy.shouldEvict( pages.deref( visits % PAGE_COUNT ) );
+            visits++;
+        }
+        assertTrue( evicted, "clock hand must find a page to evict within a bounded number of revolutions" );
+    }
+}
@@ -28,13 +28,23 @@ import org.junit.jupiter.api.Test;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeoutException;
 import java.util.function.IntSupplier;
 import java.util.function.LongSupplier;
 
+import org.neo4j.graphdb.config.Configuration;
 import org.neo4j.graphdb.mockfs.DelegatingFileSystemAbstraction;
 import org.neo4j.graphdb.mockfs.DelegatingStoreChannel;
 import org.neo4j.io.IOUtils;
@@ -42,34 +52,56 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.fs.OpenMode;
 import org.neo4j.io.fs.StoreChannel;
 import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCacheOpenOptions;
+import org.neo4j.io.pagecache.PageCachePartition;
 import org.neo4j.io.pagecache.PageCacheTest;
 import org.neo4j.io.pagecache.PageCursor;
 import org.neo4j.io.pagecache.PageSwapper;
 import org.neo4j.io.pagecache.PagedFile;
+import org.neo4j.io.pagecache.impl.AsyncPageSwapperFactory;
+import org.neo4j.io.pagecache.impl.ChecksumScratchPool;
+import org.neo4j.io.pagecache.impl.ChecksummingPageSwapper;
+import org.neo4j.io.pagecache.impl.PageChecksumMismatchException;
+import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
 import org.neo4j.io.pagecache.tracing.ConfigurablePageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.DelegatingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
+import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.cursor.DefaultPageCursorTracerSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.PageCursorTracerSupplier;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContext;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer;
 import org.neo4j.io.pagecache.tracing.recording.RecordingPageCursorTracer.Fault;
+import org.neo4j.memory.GlobalMemoryTracker;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.util.FeatureToggles;
 
 import static java.time.Duration.ofMillis;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTimeout;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.neo4j.io.pagecache.PagedFile.PF_NO_GROW;
+import static org.neo4j.io.pagecache.PagedFile.PF_READ_AHEAD;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
 import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_WRITE_LOCK;
 import static org.neo4j.io.pagecache.tracing.recording.RecordingPageCacheTracer.Evict;
@@ -714,6 +746,804 @@ public class MuninnPageCacheTest extends PageCacheTest<MuninnPageCache>
         } );
     }
 
+    @Test
+    void freePagesMustBeAvailableFromAnyFreelistStripe()
+    {
+        try ( MuninnPageCache pageCache = createPageCache( fs, 8, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL ) )
+        {
+            List<Long> pageRefs = new ArrayList<>();
+            long pageRef;
+            while ( (pageRef = pageCache.tryGrabFreeAndExclusivelyLockedPage()) != 0 )
+            {
+                pageRefs.add( pageRef );
+            }
+            assertEquals( 8, pageRefs.size() );
+
+            // The freed pages are spread over the stripes, but this thread must still be able to take all of them.
+            pageRefs.forEach( pageCache::addFreePageToFreelist );
+            Set<Long> freedPageRefs = new HashSet<>();
+            while ( (pageRef = pageCache.tryGrabFreeAndExclusivelyLockedPage()) != 0 )
+            {
+                assertTrue( freedPageRefs.add( pageRef ) );
+            }
+            assertEquals( new HashSet<>( pageRefs ), freedPageRefs );
+        }
+    }
+
+    @Test
+    void concurrentPopsFromFreelistStripesMustNeverHandOutTheSamePageTwice() throws Exception
+    {
+        int maxPages = 1024;
+        int threads = 8;
+        try ( MuninnPageCache pageCache = createPageCache( fs, maxPages, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL ) )
+        {
+            List<Long> pageRefs = new ArrayList<>();
+            long pageRef;
+            while ( (pageRef = pageCache.tryGrabFreeAndExclusivelyLockedPage()) != 0 )
+            {
+                pageRefs.add( pageRef );
+            }
+            assertEquals( maxPages, pageRefs.size() );
+            pageRefs.forEach( pageCache::addFreePageToFreelist );
+
+            // Threads pop pages off their own stripes, and steal from each other, while pushing them back onto
+            // random stripes. No page may be held by two threads at the same time.
+            Set<Long> heldPageRefs = ConcurrentHashMap.newKeySet();
+            CountDownLatch start = new CountDownLatch( 1 );
+            List<Future<?>> futures = new ArrayList<>();
+            for ( int i = 0; i < threads; i++ )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    start.await();
+                    for ( int j = 0; j < 10_000; j++ )
+                    {
+                        long ref = pageCache.tryGrabFreeAndExclusivelyLockedPage();
+                        if ( ref != 0 )
+                        {
+                            assertTrue( heldPageRefs.add( ref ) );
+                            assertTrue( heldPageRefs.remove( ref ) );
+                            pageCache.addFreePageToFreelist( ref );
+                        }
+                    }
+                    return null;
+                } ) );
+            }
+            start.countDown();
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+
+            // Then drain all the stripes concurrently. Every page must be popped exactly once.
+            Set<Long> drainedPageRefs = ConcurrentHashMap.newKeySet();
+            futures.clear();
+            for ( int i = 0; i < threads; i++ )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    long ref;
+                    while ( (ref = pageCache.tryGrabFreeAndExclusivelyLockedPage()) != 0 )
+                    {
+                        assertTrue( drainedPageRefs.add( ref ) );
+                    }
+                    return null;
+                } ) );
+            }
+            for ( Future<?> future : futures )
+            {
+                future.get();
+            }
+            assertEquals( new HashSet<>( pageRefs ), drainedPageRefs );
+        }
+    }
+
+    @Test
+    void readAheadMustFaultConsecutivePagesInBatches() throws IOException
+    {
+        DefaultPageCursorTracer cursorTracer = new DefaultPageCursorTracer();
+        ConfigurablePageCursorTracerSupplier<DefaultPageCursorTracer> cursorTracerSupplier =
+                new ConfigurablePageCursorTracerSupplier<>( cursorTracer );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 40, PageCacheTracer.NULL, cursorTracerSupplier ) )
+        {
+            generateFileWithRecords( file( "a" ), recordsPerFilePage * 16, recordSize );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+            {
+                int pages = 0;
+                while ( cursor.next() )
+                {
+                    verifyRecordsMatchExpected( cursor );
+                    pages++;
+                }
+                assertEquals( 16, pages );
+            }
+            assertEquals( 16, cursorTracer.pins() );
+            assertEquals( 2, cursorTracer.faults() );
+        }
+    }
+
+    @Test
+    void readAheadFaultMustSplitTheBatchIntoSubmittedParts() throws IOException
+    {
+        ThreadPoolExecutor submitters = (ThreadPoolExecutor) Executors.newCachedThreadPool();
+        ThreadPoolJobScheduler scheduler = new ThreadPoolJobScheduler()
+        {
+            @Override
+            public ExecutorService workStealingExecutor( Group group, int parallelism )
+            {
+                assertEquals( Group.PAGE_CACHE_IO, group );
+                return submitters;
+            }
+        };
+        try
+        {
+            AsyncPageSwapperFactory swapperFactory = new AsyncPageSwapperFactory();
+            swapperFactory.open( fs, Configuration.EMPTY, scheduler );
+            try ( MuninnPageCache pageCache = createPageCache( swapperFactory, 40, PageCacheTracer.NULL,
+                    PageCursorTracerSupplier.NULL, EmptyVersionContextSupplier.EMPTY ) )
+            {
+                generateFileWithRecords( file( "a" ), recordsPerFilePage * 8, recordSize );
+                try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize );
+                      PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+                {
+                    int pages = 0;
+                    while ( cursor.next() )
+                    {
+                        verifyRecordsMatchExpected( cursor );
+                        pages++;
+                    }
+                    assertEquals( 8, pages );
+                }
+            }
+            // The whole file is a single read-ahead batch, which is smaller than a channel stripe, but must still be
+            // handed off to the submitters in parts.
+            assertThat( submitters.getTaskCount(), greaterThan( 0L ) );
+        }
+        finally
+        {
+            submitters.shutdown();
+            scheduler.close();
+        }
+    }
+
+    @Test
+    void readAheadMustStopAtPagesThatAreAlreadyInMemory() throws IOException
+    {
+        DefaultPageCursorTracer cursorTracer = new DefaultPageCursorTracer();
+        ConfigurablePageCursorTracerSupplier<DefaultPageCursorTracer> cursorTracerSupplier =
+                new ConfigurablePageCursorTracerSupplier<>( cursorTracer );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 40, PageCacheTracer.NULL, cursorTracerSupplier ) )
+        {
+            generateFileWithRecords( file( "a" ), recordsPerFilePage * 8, recordSize );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 3, PF_SHARED_READ_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                }
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK | PF_READ_AHEAD ) )
+                {
+                    while ( cursor.next() )
+                    {
+                        verifyRecordsMatchExpected( cursor );
+                    }
+                }
+            }
+            // One fault for page 3, one batch for pages 0 to 2, and one batch for pages 4 to 7.
+            assertEquals( 3, cursorTracer.faults() );
+        }
+    }
+
+    @Test
+    void prefetchMustFaultInPagesAheadOfTheCursor()
+    {
+        assertTimeout( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            DefaultPageCursorTracer cursorTracer = new DefaultPageCursorTracer();
+            ConfigurablePageCursorTracerSupplier<DefaultPageCursorTracer> cursorTracerSupplier =
+                    new ConfigurablePageCursorTracerSupplier<>( cursorTracer );
+            try ( MuninnPageCache pageCache = createPageCache( fs, 40, PageCacheTracer.NULL, cursorTracerSupplier ) )
+            {
+                generateFileWithRecords( file( "a" ), recordsPerFilePage * 8, recordSize );
+                try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+                {
+                    try ( PageCursor cursor = pagedFile.io( 2, PF_SHARED_READ_LOCK ) )
+                    {
+                        assertTrue( cursor.next() );
+                    }
+                    PrefetchTask prefetch = new PrefetchTask( 16 );
+                    assertTrue( prefetch.tryStart( (MuninnPagedFile) pagedFile, 1, 16 ) );
+                    while ( prefetch.isInFlight() )
+                    {
+                        Thread.sleep( 1 );
+                    }
+                    try ( PageCursor cursor = pagedFile.io( 1, PF_SHARED_READ_LOCK ) )
+                    {
+                        while ( cursor.next() )
+                        {
+                            verifyRecordsMatchExpected( cursor );
+                        }
+                    }
+                }
+                // Only the explicit fault of page 2. Pages 1 and 3 to 7 were prefetched, and the prefetch must not
+                // have gone beyond the end of the file.
+                assertEquals( 8, cursorTracer.pins() );
+                assertEquals( 1, cursorTracer.faults() );
+            }
+        } );
+    }
+
+    @Test
+    void mustReportEvictionPolicyToPageCacheTracer()
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache ignore = createPageCache( fs, 8, tracer, PageCursorTracerSupplier.NULL ) )
+        {
+            assertEquals( EvictionPolicy.CLOCK, tracer.evictionPolicy() );
+        }
+    }
+
+    @Test
+    void scanResistantEvictionPolicyMustKeepHotPagesThroughLargeScans() throws IOException
+    {
+        FeatureToggles.set( MuninnPageCache.class, "evictionPolicy", EvictionPolicy.SCAN_RESISTANT );
+        DefaultPageCursorTracer cursorTracer = new DefaultPageCursorTracer();
+        ConfigurablePageCursorTracerSupplier<DefaultPageCursorTracer> cursorTracerSupplier =
+                new ConfigurablePageCursorTracerSupplier<>( cursorTracer );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 64, PageCacheTracer.NULL, cursorTracerSupplier ) )
+        {
+            assertEquals( EvictionPolicy.SCAN_RESISTANT, pageCache.evictionPolicy.name() );
+            int hotPages = 4;
+            generateFileWithRecords( file( "a" ), recordsPerFilePage * 256, recordSize );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+            {
+                for ( int i = 0; i < 4; i++ )
+                {
+                    for ( int pageId = 0; pageId < hotPages; pageId++ )
+                    {
+                        try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK ) )
+                        {
+                            assertTrue( cursor.next() );
+                        }
+                    }
+                }
+
+                try ( PageCursor cursor = pagedFile.io( hotPages, PF_SHARED_READ_LOCK ) )
+                {
+                    while ( cursor.next() )
+                    {
+                        verifyRecordsMatchExpected( cursor );
+                    }
+                }
+
+                long faultsBefore = cursorTracer.faults();
+                for ( int pageId = 0; pageId < hotPages; pageId++ )
+                {
+                    try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_READ_LOCK ) )
+                    {
+                        assertTrue( cursor.next() );
+                    }
+                }
+                assertEquals( faultsBefore, cursorTracer.faults() );
+            }
+        }
+        finally
+        {
+            FeatureToggles.clear( MuninnPageCache.class, "evictionPolicy" );
+        }
+    }
+
+    @Test
+    void pageFaultsIntoFullPartitionMustEvictFromSamePartition() throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 40, tracer, PageCursorTracerSupplier.NULL ) )
+        {
+            generateFileWithRecords( file( "a" ), recordsPerFilePage * 30, recordSize );
+            PageCachePartition partition = PageCachePartition.partition( "small", 0, 0.25 );
+            PageCachePartitionCounters counters;
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize, partition );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                while ( cursor.next() )
+                {
+                    verifyRecordsMatchExpected( cursor );
+                }
+                assertEquals( 1, tracer.partitions().size() );
+                counters = tracer.partitions().get( 0 );
+                assertEquals( "small", counters.name() );
+                assertEquals( 10, counters.maxPages() );
+                assertEquals( 30, counters.faults() );
+                assertThat( counters.pages(), lessThanOrEqualTo( 10L ) );
+                assertThat( counters.evictions(), greaterThanOrEqualTo( 20L ) );
+            }
+            assertEquals( 0, counters.pages() );
+        }
+    }
+
+    @Test
+    void partitionsMustBeRemovedWhenTheirLastFileIsUnmapped() throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        List<String> events = new ArrayList<>();
+        tracer.addPartitionListener( new PageCacheCounters.PartitionListener()
+        {
+            @Override
+            public void partitionCreated( PageCachePartitionCounters partition )
+            {
+                events.add( "created " + partition.name() );
+            }
+
+            @Override
+            public void partitionRemoved( PageCachePartitionCounters partition )
+            {
+                events.add( "removed " + partition.name() );
+            }
+        } );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 40, tracer, PageCursorTracerSupplier.NULL ) )
+        {
+            PageCachePartition partition = PageCachePartition.partition( "p", 0.5, 1 );
+            try ( PagedFile ignoreA = map( pageCache, file( "a" ), filePageSize, StandardOpenOption.CREATE, partition ) )
+            {
+                try ( PagedFile ignoreB = map( pageCache, file( "b" ), filePageSize, StandardOpenOption.CREATE,
+                        partition ) )
+                {
+                    assertEquals( 1, tracer.partitions().size() );
+                }
+                assertEquals( 1, tracer.partitions().size() );
+            }
+            assertEquals( 0, tracer.partitions().size() );
+
+            // The reservation of a removed partition is given back, so a partition with other quotas can take its name.
+            try ( PagedFile ignore = map( pageCache, file( "a" ), filePageSize,
+                    PageCachePartition.partition( "p", 0.9, 1 ) ) )
+            {
+                assertEquals( 1, tracer.partitions().size() );
+            }
+        }
+        assertEquals( Arrays.asList( "created p", "removed p", "created p", "removed p" ), events );
+    }
+
+    @Test
+    void pagesInPartitionWithinReservationMustNotBeEvictedByOtherFiles() throws IOException
+    {
+        DefaultPageCursorTracer cursorTracer = new DefaultPageCursorTracer();
+        ConfigurablePageCursorTracerSupplier<DefaultPageCursorTracer> cursorTracerSupplier =
+                new ConfigurablePageCursorTracerSupplier<>( cursorTracer );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 40, PageCacheTracer.NULL, cursorTracerSupplier ) )
+        {
+            int hotPages = 10;
+            generateFileWithRecords( file( "hot" ), recordsPerFilePage * hotPages, recordSize );
+            generateFileWithRecords( file( "cold" ), recordsPerFilePage * 200, recordSize );
+            PageCachePartition partition = PageCachePartition.partition( "hot", 0.25, 1 );
+            try ( PagedFile hot = map( pageCache, file( "hot" ), filePageSize, partition );
+                  PagedFile cold = map( pageCache, file( "cold" ), filePageSize ) )
+            {
+                readAllPages( hot );
+                readAllPages( cold );
+
+                long faultsBefore = cursorTracer.faults();
+                readAllPages( hot );
+                assertEquals( faultsBefore, cursorTracer.faults() );
+            }
+        }
+    }
+
+    @Test
+    void mustNotMapFilesIntoPartitionsWithConflictingQuotas() throws IOException
+    {
+        try ( MuninnPageCache pageCache = createPageCache( fs, 40, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL ) )
+        {
+            try ( PagedFile ignore = map( pageCache, file( "a" ), filePageSize,
+                    PageCachePartition.partition( "p", 0.5, 1 ) ) )
+            {
+                assertThrows( IllegalArgumentException.class, () -> map( pageCache, file( "b" ), filePageSize,
+                        PageCachePartition.partition( "p", 0.1, 1 ) ) );
+                assertThrows( IllegalArgumentException.class, () -> map( pageCache, file( "b" ), filePageSize,
+                        PageCachePartition.partition( "q", 0.5, 1 ) ) );
+                assertThrows( IllegalArgumentException.class, () -> map( pageCache, file( "a" ), filePageSize,
+                        PageCachePartition.partition( "r", 0, 1 ) ) );
+            }
+        }
+    }
+
+    @Test
+    void flushAndForceMustOnlyWriteOutDirtyPagesInConsecutiveVectors() throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 40, tracer, PageCursorTracerSupplier.NULL ) )
+        {
+            generateFileWithRecords( file( "a" ), recordsPerFilePage * 8, recordSize );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize ) )
+            {
+                readAllPages( pagedFile );
+                for ( long pageId : new long[]{2, 3, 6} )
+                {
+                    try ( PageCursor cursor = pagedFile.io( pageId, PF_SHARED_WRITE_LOCK ) )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( pageId );
+                    }
+                }
+                long flushesBefore = tracer.flushes();
+                long bytesWrittenBefore = tracer.bytesWritten();
+
+                pagedFile.flushAndForce();
+
+                assertEquals( 2, tracer.flushes() - flushesBefore );
+                assertEquals( 3 * filePageSize, tracer.bytesWritten() - bytesWrittenBefore );
+                assertEquals( 0, ((MuninnPagedFile) pagedFile).dirtyPages.size() );
+            }
+        }
+    }
+
+    @Test
+    void backgroundFlushingMustWriteOutDirtyPages()
+    {
+        assertTimeout( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            writeInitialDataTo( file( "a" ) );
+            try ( MuninnPageCache pageCache = createPageCache( fs, 4, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+                  PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( 0L );
+                }
+                assertEquals( 1, ((MuninnPagedFile) pagedFile).dirtyPages.size() );
+
+                pageCache.startBackgroundFlushing( 2, 1, IOLimiter.UNLIMITED );
+                try
+                {
+                    while ( readIntoBuffer( "a" ).getLong() != 0L )
+                    {
+                        Thread.sleep( 1 );
+                    }
+                }
+                finally
+                {
+                    pageCache.stopBackgroundFlushing();
+                }
+                assertThrows( IllegalStateException.class, () ->
+                {
+                    pageCache.startBackgroundFlushing( 1, 1, IOLimiter.UNLIMITED );
+                    pageCache.startBackgroundFlushing( 1, 1, IOLimiter.UNLIMITED );
+                } );
+                pageCache.stopBackgroundFlushing();
+            }
+        } );
+    }
+
+    @Test
+    void closeMustWaitForBackgroundFlushersToFinish()
+    {
+        assertTimeout( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            writeInitialDataTo( file( "a" ) );
+            CountDownLatch flusherLimited = new CountDownLatch( 1 );
+            CountDownLatch releaseFlusher = new CountDownLatch( 1 );
+            IOLimiter limiter = ( previousStamp, recentlyCompletedIOs, flushable ) ->
+            {
+                flusherLimited.countDown();
+                try
+                {
+                    releaseFlusher.await();
+                }
+                catch ( InterruptedException e )
+                {
+                    Thread.currentThread().interrupt();
+                }
+                return previousStamp;
+            };
+            MuninnPageCache pageCache = createPageCache( fs, 4, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+            // The file is deleted on close, so unmapping it does not wait for the flusher to let go of the file.
+            PagedFile pagedFile = map( pageCache, file( "a" ), 8, StandardOpenOption.DELETE_ON_CLOSE );
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 0L );
+            }
+            pageCache.startBackgroundFlushing( 1, 1, limiter );
+            flusherLimited.await();
+            pagedFile.close();
+
+            Future<?> closing = executor.submit( pageCache::close );
+            assertThrows( TimeoutException.class, () -> closing.get( 100, MILLISECONDS ) );
+            releaseFlusher.countDown();
+            closing.get();
+        } );
+    }
+
+    @Test
+    void writeCursorsMustMarkTheirPagesInTheDirtyPageSetBeforeAndAfterWriting() throws IOException
+    {
+        writeInitialDataTo( file( "a" ) );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+        {
+            DirtyPageBitmap dirtyPages = ((MuninnPagedFile) pagedFile).dirtyPages;
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                // The page is in the set before anyone can see that it is dirty. Drain it, like a flush that runs
+                // while the cursor is still writing would.
+                assertEquals( 1, dirtyPages.drain( 0, new long[1], 1 ) );
+                cursor.putLong( 0L );
+            }
+            // The cursor must mark the page again once it is done, so the next flush does not miss its writes.
+            assertEquals( 1, dirtyPages.size() );
+
+            pagedFile.flushAndForce();
+            assertEquals( 0L, readIntoBuffer( "a" ).getLong() );
+            assertEquals( 0, dirtyPages.size() );
+        }
+    }
+
+    @Test
+    void flushAndForceMustThrowTheFailuresOfBackgroundFlushes()
+    {
+        assertTimeout( ofMillis( SEMI_LONG_TIMEOUT_MILLIS ), () ->
+        {
+            writeInitialDataTo( file( "a" ) );
+            MutableBoolean throwException = new MutableBoolean( true );
+            CountDownLatch writeFailed = new CountDownLatch( 1 );
+            FileSystemAbstraction fs = new DelegatingFileSystemAbstraction( this.fs )
+            {
+                @Override
+                public StoreChannel open( File fileName, OpenMode openMode ) throws IOException
+                {
+                    return new DelegatingStoreChannel( super.open( fileName, openMode ) )
+                    {
+                        @Override
+                        public void writeAll( ByteBuffer src, long position ) throws IOException
+                        {
+                            if ( throwException.booleanValue() )
+                            {
+                                writeFailed.countDown();
+                                throw new IOException( "uh-oh..." );
+                            }
+                            super.writeAll( src, position );
+                        }
+                    };
+                }
+            };
+
+            try ( MuninnPageCache pageCache = createPageCache( fs, 4, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+                  PagedFile pagedFile = map( pageCache, file( "a" ), 8 ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    assertTrue( cursor.next() );
+                    cursor.putLong( 0L );
+                }
+                pageCache.startBackgroundFlushing( 1, 1, IOLimiter.UNLIMITED );
+                try
+                {
+                    writeFailed.await();
+                }
+                finally
+                {
+                    pageCache.stopBackgroundFlushing();
+                }
+                throwException.setFalse();
+
+                // The checkpoint writes out the page, but must still report that the background flush failed.
+                IOException exception = assertThrows( IOException.class, pagedFile::flushAndForce );
+                assertEquals( "uh-oh...", exception.getCause().getMessage() );
+                assertEquals( 0L, readIntoBuffer( "a" ).getLong() );
+
+                // The failure is only reported once.
+                pagedFile.flushAndForce();
+            }
+        } );
+    }
+
+    @Test
+    void memoryMappedReadOnlyFilesMustReadTheRecordsInTheFile() throws IOException
+    {
+        int pageCount = 5;
+        generateFileWithRecords( file( "a" ), recordsPerFilePage * pageCount + 1, recordSize );
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+              PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize,
+                      PageCacheOpenOptions.MEMORY_MAPPED_READ_ONLY ) )
+        {
+            // The trailing partial page counts as a page, just like it does when the file is mapped the regular way.
+            assertEquals( pageCount, pagedFile.getLastPageId() );
+            try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                for ( int pageId = 0; pageId < pageCount; pageId++ )
+                {
+                    assertTrue( cursor.next() );
+                    verifyRecordsMatchExpected( cursor );
+                }
+                assertTrue( cursor.next() );
+                assertEquals( 0, cursor.getByte( recordSize ) );
+                assertFalse( cursor.checkAndClearBoundsFlag() );
+                assertEquals( 0, cursor.getLong( filePageSize ) );
+                assertTrue( cursor.checkAndClearBoundsFlag() );
+                assertFalse( cursor.next() );
+            }
+
+            if ( pagedFile instanceof MemoryMappedPagedFile )
+            {
+                assertThrows( UnsupportedOperationException.class, () -> pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) );
+                assertThrows( UnsupportedOperationException.class, () -> map( pageCache, file( "a" ), filePageSize ) );
+            }
+            else
+            {
+                // The file system does not support memory mapping, so the file must have been mapped the regular way.
+                assertTrue( pagedFile instanceof MuninnPagedFile );
+            }
+        }
+    }
+
+    @Test
+    void pageChecksumsMustDetectCorruptedPages() throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, tracer, PageCursorTracerSupplier.NULL ) )
+        {
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize, StandardOpenOption.CREATE,
+                    PageCacheOpenOptions.PAGE_CHECKSUMS ) )
+            {
+                int payloadSize = filePageSize - ChecksummingPageSwapper.CHECKSUM_SIZE;
+                assertEquals( payloadSize, pagedFile.pageSize() );
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    for ( long pageId = 0; pageId < 2; pageId++ )
+                    {
+                        assertTrue( cursor.next() );
+                        cursor.putLong( 0, pageId + 1 );
+                        cursor.putLong( payloadSize, 0L );
+                        assertTrue( cursor.checkAndClearBoundsFlag() );
+                    }
+                }
+                assertThrows( IllegalArgumentException.class, () -> map( pageCache, file( "a" ), filePageSize ) );
+            }
+
+            try ( StoreChannel channel = fs.open( file( "a" ), OpenMode.READ_WRITE ) )
+            {
+                ByteBuffer buf = ByteBuffer.allocate( 1 );
+                buf.put( (byte) 0xFF ).flip();
+                channel.writeAll( buf, filePageSize + 42 );
+            }
+
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize,
+                    PageCacheOpenOptions.PAGE_CHECKSUMS );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( 1L, cursor.getLong( 0 ) );
+                assertEquals( 0, tracer.checksumMismatches() );
+                assertThrows( PageChecksumMismatchException.class, cursor::next );
+                assertEquals( 1, tracer.checksumMismatches() );
+            }
+        }
+    }
+
+    @Test
+    void pageChecksumsMustLetTornPagesThroughWhileRecovering() throws IOException
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        try ( MuninnPageCache pageCache = createPageCache( fs, 4, tracer, PageCursorTracerSupplier.NULL ) )
+        {
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize, StandardOpenOption.CREATE,
+                    PageCacheOpenOptions.PAGE_CHECKSUMS );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                cursor.putLong( 0, 1L );
+            }
+
+            // Tear the page, as if a crash happened after only the first half of a newer version had been written.
+            try ( StoreChannel channel = fs.open( file( "a" ), OpenMode.READ_WRITE ) )
+            {
+                ByteBuffer buf = ByteBuffer.allocate( filePageSize / 2 );
+                buf.putLong( 0, 2L );
+                channel.writeAll( buf, 0 );
+            }
+
+            pageCache.setRecoveringPageChecksums( true );
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize,
+                    PageCacheOpenOptions.PAGE_CHECKSUMS );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( 1, tracer.checksumMismatches() );
+                assertEquals( 2L, cursor.getLong( 0 ) );
+                cursor.putLong( 0, 3L );
+            }
+            pageCache.setRecoveringPageChecksums( false );
+
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize,
+                    PageCacheOpenOptions.PAGE_CHECKSUMS );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                assertTrue( cursor.next() );
+                assertEquals( 3L, cursor.getLong( 0 ) );
+                assertEquals( 1, tracer.checksumMismatches() );
+            }
+        }
+    }
+
+    @Test
+    void pageChecksumFilesMustShareOneScratchPoolThatIsFreedOnClose() throws IOException
+    {
+        int pageCount = 100;
+        long usedMemory;
+        MuninnPageCache pageCache =
+                createPageCache( fs, pageCount + 10, PageCacheTracer.NULL, PageCursorTracerSupplier.NULL );
+        try
+        {
+            assertNull( pageCache.checksumScratchPool() );
+            try ( PagedFile a = map( pageCache, file( "a" ), filePageSize, StandardOpenOption.CREATE,
+                    PageCacheOpenOptions.PAGE_CHECKSUMS );
+                  PagedFile b = map( pageCache, file( "b" ), filePageSize, StandardOpenOption.CREATE,
+                          PageCacheOpenOptions.PAGE_CHECKSUMS ) )
+            {
+                ChecksumScratchPool pool = pageCache.checksumScratchPool();
+                assertNotNull( pool );
+                // The dirty pages are flushed in vectored writes that are longer than a scratch slot.
+                assertThat( pageCount, greaterThan( pool.pagesPerSlot() ) );
+                for ( PagedFile pagedFile : new PagedFile[]{a, b} )
+                {
+                    try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+                    {
+                        for ( long pageId = 0; pageId < pageCount; pageId++ )
+                        {
+                            assertTrue( cursor.next() );
+                            cursor.putLong( 0, pageId + 1 );
+                        }
+                    }
+                    pagedFile.flushAndForce();
+                }
+                assertSame( pool, pageCache.checksumScratchPool() );
+                usedMemory = GlobalMemoryTracker.INSTANCE.usedDirectMemory() - pool.memoryUsage();
+            }
+
+            // Evict everything, so the pages are read back in, and their checksums verified.
+            try ( PagedFile pagedFile = map( pageCache, file( "c" ), filePageSize, StandardOpenOption.CREATE ) )
+            {
+                try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_WRITE_LOCK ) )
+                {
+                    for ( long pageId = 0; pageId < pageCount + 10; pageId++ )
+                    {
+                        assertTrue( cursor.next() );
+                    }
+                }
+            }
+            try ( PagedFile pagedFile = map( pageCache, file( "a" ), filePageSize,
+                    PageCacheOpenOptions.PAGE_CHECKSUMS );
+                  PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+            {
+                for ( long pageId = 0; pageId < pageCount; pageId++ )
+                {
+                    assertTrue( cursor.next() );
+                    assertEquals( pageId + 1, cursor.getLong( 0 ) );
+                }
+            }
+        }
+        finally
+        {
+            pageCache.close();
+        }
+        assertNull( pageCache.checksumScratchPool() );
+        assertEquals( usedMemory, GlobalMemoryTracker.INSTANCE.usedDirectMemory() );
+    }
+
+    private static void readAllPages( PagedFile pagedFile ) throws IOException
+    {
+        try ( PageCursor cursor = pagedFile.io( 0, PF_SHARED_READ_LOCK ) )
+        {
+            while ( cursor.next() )
+            {
+                // Just touch every page.
+            }
+        }
+    }
+
     private static class FlushRendezvousTracer extends DefaultPageCacheTracer
     {
         private final CountDownLatch latch;
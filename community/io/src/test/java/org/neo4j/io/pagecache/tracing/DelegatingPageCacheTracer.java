@@ -23,8 +23,10 @@
 package org.neo4j.io.pagecache.tracing;
 
 import java.io.File;
+import java.util.List;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
 
 /**
  * A PageCacheTracer that delegates all calls to a wrapped instance.
@@ -184,6 +186,60 @@ public class DelegatingPageCacheTracer implements PageCacheTracer
         delegate.maxPages( maxPages );
     }
 
+    @Override
+    public void evictionPolicy( String evictionPolicy )
+    {
+        delegate.evictionPolicy( evictionPolicy );
+    }
+
+    @Override
+    public String evictionPolicy()
+    {
+        return delegate.evictionPolicy();
+    }
+
+    @Override
+    public void partitionCreated( PageCachePartitionCounters partition )
+    {
+        delegate.partitionCreated( partition );
+    }
+
+    @Override
+    public void partitionRemoved( PageCachePartitionCounters partition )
+    {
+        delegate.partitionRemoved( partition );
+    }
+
+    @Override
+    public List<PageCachePartitionCounters> partitions()
+    {
+        return delegate.partitions();
+    }
+
+    @Override
+    public void addPartitionListener( PartitionListener listener )
+    {
+        delegate.addPartitionListener( listener );
+    }
+
+    @Override
+    public void removePartitionListener( PartitionListener listener )
+    {
+        delegate.removePartitionListener( listener );
+    }
+
+    @Override
+    public void checksumMismatch( File file, long filePageId )
+    {
+        delegate.checksumMismatch( file, filePageId );
+    }
+
+    @Override
+    public long checksumMismatches()
+    {
+        return delegate.checksumMismatches();
+    }
+
     @Override
     public long filesMapped()
     {
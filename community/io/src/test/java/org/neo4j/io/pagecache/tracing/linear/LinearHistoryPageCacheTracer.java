@@ -23,8 +23,11 @@
 package org.neo4j.io.pagecache.tracing.linear;
 
 import java.io.File;
+import java.util.Collections;
+import java.util.List;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.MajorFlushEvent;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
@@ -208,4 +211,52 @@ public final class LinearHistoryPageCacheTracer implements PageCacheTracer
     public void maxPages( long maxPages )
     {
     }
+
+    @Override
+    public void evictionPolicy( String evictionPolicy )
+    {
+    }
+
+    @Override
+    public String evictionPolicy()
+    {
+        return "";
+    }
+
+    @Override
+    public void partitionCreated( PageCachePartitionCounters partition )
+    {
+    }
+
+    @Override
+    public void partitionRemoved( PageCachePartitionCounters partition )
+    {
+    }
+
+    @Override
+    public List<PageCachePartitionCounters> partitions()
+    {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void addPartitionListener( PartitionListener listener )
+    {
+    }
+
+    @Override
+    public void removePartitionListener( PartitionListener listener )
+    {
+    }
+
+    @Override
+    public void checksumMismatch( File file, long filePageId )
+    {
+    }
+
+    @Override
+    public long checksumMismatches()
+    {
+        return 0;
+    }
 }
@@ -24,9 +24,12 @@ package org.neo4j.io.pagecache.tracing.recording;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 
 import org.neo4j.io.pagecache.PageSwapper;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
 import org.neo4j.io.pagecache.tracing.EvictionEvent;
 import org.neo4j.io.pagecache.tracing.EvictionRunEvent;
 import org.neo4j.io.pagecache.tracing.FlushEventOpportunity;
@@ -217,6 +220,54 @@ public class RecordingPageCacheTracer extends RecordingTracer implements PageCac
     {
     }
 
+    @Override
+    public void evictionPolicy( String evictionPolicy )
+    {
+    }
+
+    @Override
+    public String evictionPolicy()
+    {
+        return "";
+    }
+
+    @Override
+    public void partitionCreated( PageCachePartitionCounters partition )
+    {
+    }
+
+    @Override
+    public void partitionRemoved( PageCachePartitionCounters partition )
+    {
+    }
+
+    @Override
+    public List<PageCachePartitionCounters> partitions()
+    {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void addPartitionListener( PartitionListener listener )
+    {
+    }
+
+    @Override
+    public void removePartitionListener( PartitionListener listener )
+    {
+    }
+
+    @Override
+    public void checksumMismatch( File file, long filePageId )
+    {
+    }
+
+    @Override
+    public long checksumMismatches()
+    {
+        return 0;
+    }
+
     private void evicted( long filePageId, PageSwapper swapper )
     {
         record( new Evict( swapper, filePageId ) );
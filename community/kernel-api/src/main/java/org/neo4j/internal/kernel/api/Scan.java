@@ -24,11 +24,23 @@ package org.neo4j.internal.kernel.api;
 
 /**
  * Initializer for spreading a scan operator over multiple cursors for use from different threads in parallel.
+ * <p>
+ * Every thread uses its own cursor and repeatedly reserves batches of the scan into it, until there are no more batches.
+ * The batches handed out are disjoint, and together they cover the same entities as a single threaded scan would. Changes
+ * made in the transaction before the scan was created are included, changes made after it was created are not, and the
+ * transaction must not be changed while the scan is in progress.
  *
  * @param <Cursor>
  *         the type of cursor this object initializes.
  */
 public interface Scan<Cursor extends org.neo4j.internal.kernel.api.Cursor>
 {
-    void initialize( Cursor cursor );
+    /**
+     * Initializes the given cursor with the next batch of this scan.
+     *
+     * @param cursor the cursor to initialize, only to be used by the calling thread.
+     * @param sizeHint number of entities to reserve. Entities which are not in use are skipped, so a batch may have fewer.
+     * @return {@code true} if the cursor was initialized with a batch, {@code false} if the whole scan has been reserved.
+     */
+    boolean reserveBatch( Cursor cursor, int sizeHint );
 }
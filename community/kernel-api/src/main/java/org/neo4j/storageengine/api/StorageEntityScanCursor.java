@@ -30,6 +30,17 @@ public interface StorageEntityScanCursor extends StorageEntityCursor
      */
     void scan();
 
+    /**
+     * Initializes this cursor so that it will scan over the existing entities with references in the range {@code [start, stop)}.
+     * Cursors given disjoint ranges can scan the store from multiple threads.
+     *
+     * @param start first entity reference of the range, inclusive.
+     * @param stop last entity reference of the range, exclusive.
+     * @return {@code false} if the range starts after the highest entity reference in use, i.e. there is nothing more to scan
+     * from there on.
+     */
+    boolean scanRange( long start, long stop );
+
     /**
      * Initializes this cursor so that the next call to {@link #next()} will place this cursor at that entity.
      * @param reference entity to place this cursor at the next call to {@link #next()}.
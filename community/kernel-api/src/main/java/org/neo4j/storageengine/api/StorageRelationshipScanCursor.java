@@ -34,4 +34,15 @@ public interface StorageRelationshipScanCursor extends StorageRelationshipCursor
      * @param type relationship type to scan over, or -1 for all relationships regardless of type.
      */
     void scan( int type );
+
+    /**
+     * Initializes this cursor so that it will scan over existing relationships with references in the range {@code [start, stop)}.
+     *
+     * @param type relationship type to scan over, or -1 for all relationships regardless of type.
+     * @param start first relationship reference of the range, inclusive.
+     * @param stop last relationship reference of the range, exclusive.
+     * @return {@code false} if the range starts after the highest relationship reference in use.
+     * @see StorageEntityScanCursor#scanRange(long, long)
+     */
+    boolean scanRange( int type, long start, long stop );
 }
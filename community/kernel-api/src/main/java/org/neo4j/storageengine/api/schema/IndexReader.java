@@ -22,6 +22,9 @@
  */
 package org.neo4j.storageengine.api.schema;
 
+import java.util.Collections;
+import java.util.List;
+
 import org.neo4j.collection.PrimitiveLongResourceCollections;
 import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.graphdb.Resource;
@@ -86,6 +89,33 @@ public interface IndexReader extends Resource
      */
     void distinctValues( IndexProgressor.NodeValueClient client, NodePropertyAccessor propertyAccessor, boolean needsValues );
 
+    /**
+     * Splits the result of querying this index into partitions which can be progressed through independently of each other,
+     * e.g. by different threads. Results within each partition come in no particular order. Readers which can't partition
+     * their results return a single partition, doing a regular
+     * {@link #query(IndexProgressor.NodeValueClient, IndexOrder, boolean, IndexQuery...) query}.
+     *
+     * @param desiredNumberOfPartitions number of partitions to split the result into, if possible.
+     * @param needsValues whether or not the clients need values of the results.
+     * @param query the query to serve.
+     * @return the partitions, each of which is to initialize its own client.
+     */
+    default List<Partition> partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+    {
+        return Collections.singletonList( client -> query( client, IndexOrder.NONE, needsValues, query ) );
+    }
+
+    /**
+     * One part of the result of a {@link #partitionedQuery(int, boolean, IndexQuery...) partitioned query}.
+     */
+    interface Partition
+    {
+        /**
+         * @param client the client which will control the progression though the results of this partition.
+         */
+        void query( IndexProgressor.NodeValueClient client ) throws IndexNotApplicableKernelException;
+    }
+
     IndexReader EMPTY = new IndexReader()
     {
         // Used for checking index correctness
@@ -25,7 +25,12 @@ package org.neo4j.internal.kernel.api;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
@@ -95,6 +100,119 @@ public abstract class NodeCursorTestBase<G extends KernelAPIReadTestSupport> ext
         assertEquals( NODE_IDS, ids );
     }
 
+    @Test
+    public void shouldScanNodesInBatches()
+    {
+        // given
+        List<Long> ids = new ArrayList<>();
+        Scan<NodeCursor> scan = read.allNodesScan();
+        try ( NodeCursor nodes = cursors.allocateNodeCursor() )
+        {
+            // when
+            while ( scan.reserveBatch( nodes, 2 ) )
+            {
+                while ( nodes.next() )
+                {
+                    ids.add( nodes.nodeReference() );
+                }
+            }
+        }
+
+        // then
+        assertEquals( NODE_IDS, ids );
+    }
+
+    @Test
+    public void shouldHandOutDisjointBatchesToDifferentCursors()
+    {
+        // given
+        List<Long> ids = new ArrayList<>();
+        Scan<NodeCursor> scan = read.allNodesScan();
+        try ( NodeCursor first = cursors.allocateNodeCursor();
+              NodeCursor second = cursors.allocateNodeCursor() )
+        {
+            // when
+            boolean firstHasBatch;
+            boolean secondHasBatch;
+            do
+            {
+                firstHasBatch = scan.reserveBatch( first, 1 );
+                secondHasBatch = scan.reserveBatch( second, 1 );
+                while ( first.next() )
+                {
+                    ids.add( first.nodeReference() );
+                }
+                while ( second.next() )
+                {
+                    ids.add( second.nodeReference() );
+                }
+            }
+            while ( firstHasBatch || secondHasBatch );
+        }
+
+        // then
+        assertEquals( NODE_IDS, ids );
+    }
+
+    @Test
+    public void shouldDrainOneScanFromSeveralThreadsWithTransactionState() throws Exception
+    {
+        int threads = 4;
+        try ( org.neo4j.internal.kernel.api.Transaction tx = beginTransaction() )
+        {
+            // given
+            List<Long> expected = new ArrayList<>( NODE_IDS );
+            for ( int i = 0; i < 100; i++ )
+            {
+                expected.add( tx.dataWrite().nodeCreate() );
+            }
+            tx.dataWrite().nodeDelete( foo );
+            tx.dataWrite().nodeDelete( barbaz );
+            expected.remove( foo );
+            expected.remove( barbaz );
+            Collections.sort( expected );
+
+            List<Long> ids = new CopyOnWriteArrayList<>();
+            Scan<NodeCursor> scan = tx.dataRead().allNodesScan();
+            List<NodeCursor> nodeCursors = new ArrayList<>();
+            ExecutorService executor = Executors.newFixedThreadPool( threads );
+            try
+            {
+                // when
+                List<Future<?>> futures = new ArrayList<>();
+                for ( int i = 0; i < threads; i++ )
+                {
+                    NodeCursor nodes = tx.cursors().allocateNodeCursor();
+                    nodeCursors.add( nodes );
+                    futures.add( executor.submit( () ->
+                    {
+                        while ( scan.reserveBatch( nodes, 3 ) )
+                        {
+                            while ( nodes.next() )
+                            {
+                                ids.add( nodes.nodeReference() );
+                            }
+                        }
+                    } ) );
+                }
+                for ( Future<?> future : futures )
+                {
+                    future.get();
+                }
+            }
+            finally
+            {
+                executor.shutdown();
+                nodeCursors.forEach( NodeCursor::close );
+            }
+
+            // then
+            List<Long> sorted = new ArrayList<>( ids );
+            Collections.sort( sorted );
+            assertEquals( expected, sorted );
+        }
+    }
+
     @Test
     public void shouldAccessNodesByReference()
     {
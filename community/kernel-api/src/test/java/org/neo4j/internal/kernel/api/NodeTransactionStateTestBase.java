@@ -25,7 +25,9 @@ package org.neo4j.internal.kernel.api;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import org.neo4j.helpers.collection.Iterables;
 import org.neo4j.values.storable.ValueGroup;
@@ -67,6 +69,41 @@ public abstract class NodeTransactionStateTestBase<G extends KernelAPIWriteTestS
         }
     }
 
+    @Test
+    public void shouldSeeTransactionStateInBatchedNodeScan() throws Exception
+    {
+        long kept;
+        long deleted;
+        try ( org.neo4j.graphdb.Transaction tx = graphDb.beginTx() )
+        {
+            kept = graphDb.createNode().getId();
+            deleted = graphDb.createNode().getId();
+            tx.success();
+        }
+
+        try ( Transaction tx = beginTransaction() )
+        {
+            long first = tx.dataWrite().nodeCreate();
+            long second = tx.dataWrite().nodeCreate();
+            long third = tx.dataWrite().nodeCreate();
+            tx.dataWrite().nodeDelete( deleted );
+
+            List<Long> ids = new ArrayList<>();
+            Scan<NodeCursor> scan = tx.dataRead().allNodesScan();
+            try ( NodeCursor nodes = tx.cursors().allocateNodeCursor() )
+            {
+                while ( scan.reserveBatch( nodes, 2 ) )
+                {
+                    while ( nodes.next() )
+                    {
+                        ids.add( nodes.nodeReference() );
+                    }
+                }
+            }
+            assertThat( ids, containsInAnyOrder( kept, first, second, third ) );
+        }
+    }
+
     @Test
     public void shouldSeeNewLabeledNodeInTransaction() throws Exception
     {
@@ -26,9 +26,14 @@ import org.junit.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Node;
@@ -108,6 +113,87 @@ public abstract class RelationshipScanCursorTestBase<G extends KernelAPIReadTest
         assertEquals( RELATIONSHIP_IDS, ids );
     }
 
+    @Test
+    public void shouldScanRelationshipsInBatches()
+    {
+        // given
+        List<Long> ids = new ArrayList<>();
+        Scan<RelationshipScanCursor> scan = read.allRelationshipsScan();
+        try ( RelationshipScanCursor relationships = cursors.allocateRelationshipScanCursor() )
+        {
+            // when
+            while ( scan.reserveBatch( relationships, 3 ) )
+            {
+                while ( relationships.next() )
+                {
+                    ids.add( relationships.relationshipReference() );
+                }
+            }
+        }
+
+        assertEquals( RELATIONSHIP_IDS, ids );
+    }
+
+    @Test
+    public void shouldDrainOneScanFromSeveralThreadsWithTransactionState() throws Exception
+    {
+        int threads = 4;
+        try ( org.neo4j.internal.kernel.api.Transaction tx = beginTransaction() )
+        {
+            // given
+            List<Long> expected = new ArrayList<>( RELATIONSHIP_IDS );
+            int type = tx.tokenWrite().relationshipTypeGetOrCreateForName( "PARALLEL" );
+            for ( int i = 0; i < 100; i++ )
+            {
+                expected.add( tx.dataWrite().relationshipCreate( c, type, d ) );
+            }
+            tx.dataWrite().relationshipDelete( one );
+            tx.dataWrite().relationshipDelete( loop );
+            expected.remove( one );
+            expected.remove( loop );
+            Collections.sort( expected );
+
+            List<Long> ids = new CopyOnWriteArrayList<>();
+            Scan<RelationshipScanCursor> scan = tx.dataRead().allRelationshipsScan();
+            List<RelationshipScanCursor> relationshipCursors = new ArrayList<>();
+            ExecutorService executor = Executors.newFixedThreadPool( threads );
+            try
+            {
+                // when
+                List<Future<?>> futures = new ArrayList<>();
+                for ( int i = 0; i < threads; i++ )
+                {
+                    RelationshipScanCursor relationships = tx.cursors().allocateRelationshipScanCursor();
+                    relationshipCursors.add( relationships );
+                    futures.add( executor.submit( () ->
+                    {
+                        while ( scan.reserveBatch( relationships, 3 ) )
+                        {
+                            while ( relationships.next() )
+                            {
+                                ids.add( relationships.relationshipReference() );
+                            }
+                        }
+                    } ) );
+                }
+                for ( Future<?> future : futures )
+                {
+                    future.get();
+                }
+            }
+            finally
+            {
+                executor.shutdown();
+                relationshipCursors.forEach( RelationshipScanCursor::close );
+            }
+
+            // then
+            List<Long> sorted = new ArrayList<>( ids );
+            Collections.sort( sorted );
+            assertEquals( expected, sorted );
+        }
+    }
+
     @Test
     public void shouldAccessRelationshipByReference()
     {
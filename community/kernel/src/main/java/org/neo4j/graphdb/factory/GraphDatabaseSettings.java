@@ -38,6 +38,7 @@ import org.neo4j.graphdb.config.Setting;
 import org.neo4j.helpers.AdvertisedSocketAddress;
 import org.neo4j.helpers.ListenSocketAddress;
 import org.neo4j.io.ByteUnit;
+import org.neo4j.io.mem.HugePageMode;
 import org.neo4j.kernel.configuration.BoltConnectorValidator;
 import org.neo4j.kernel.configuration.ConfigurationMigrator;
 import org.neo4j.kernel.configuration.GraphDatabaseConfigurationMigrator;
@@ -188,7 +189,8 @@ public class GraphDatabaseSettings implements LoadableConfig
     @Description( "Whether to allow an upgrade in case the current version of the database starts against an older version." )
     public static final Setting<Boolean> allow_upgrade = setting( "dbms.allow_upgrade", BOOLEAN, FALSE );
 
-    @Description( "Database record format. Valid values: `standard`, `high_limit`. " +
+    @Description( "Database record format. Valid values: `standard`, `compressed`, `high_limit`. " +
+            "The `compressed` format has the same limits as `standard`, but compresses long string and array property values. " +
             "The `high_limit` format is available for Enterprise Edition only. " +
             "It is required if you have a graph that is larger than 34 billion nodes, 34 billion relationships, or 68 billion properties. " +
             "A change of the record format is irreversible. " +
@@ -773,11 +775,54 @@ public class GraphDatabaseSettings implements LoadableConfig
     public static final Setting<String> pagecache_memory =
             buildSetting( "dbms.memory.pagecache.size", STRING, null ).build();
 
+    @Description( "Specify how the page cache memory should be backed by huge pages. 'DISABLED' leaves it to the " +
+                  "operating system. 'TRANSPARENT' allocates the page cache memory in large, huge page aligned " +
+                  "regions, which lets the operating system back them with transparent huge pages when these are " +
+                  "enabled. 'HUGETLBFS' maps the page cache memory from the hugetlbfs mount given by " +
+                  "dbms.memory.pagecache.huge_pages.directory, which requires huge pages to have been reserved " +
+                  "with the vm.nr_hugepages kernel parameter." )
+    public static final Setting<HugePageMode> pagecache_huge_pages = setting( "dbms.memory.pagecache.huge_pages",
+            optionsIgnoreCase( HugePageMode.class ), HugePageMode.DISABLED.name() );
+
+    @Description( "The hugetlbfs mount that the page cache memory is mapped from, when " +
+                  "dbms.memory.pagecache.huge_pages is set to 'HUGETLBFS'." )
+    public static final Setting<File> pagecache_huge_pages_directory =
+            setting( "dbms.memory.pagecache.huge_pages.directory", PATH, "/dev/hugepages" );
+
+    @Description( "The number of threads that write out dirty pages from the page cache in the background, so that " +
+                  "checkpoints only have to write out the pages that have been modified since the last background " +
+                  "flush. The background flushers are limited by dbms.checkpoint.iops.limit, just like checkpoints. " +
+                  "Zero disables background flushing." )
+    public static final Setting<Integer> pagecache_flush_background_threads = buildSetting(
+            "dbms.memory.pagecache.flush.background_threads", INTEGER, "0" ).constraint( min( 0 ) ).build();
+
+    @Description( "How long the background page cache flushers wait between writing out dirty pages. Pages that are " +
+                  "modified again within this interval are only written out once." )
+    public static final Setting<Duration> pagecache_flush_background_interval =
+            setting( "dbms.memory.pagecache.flush.background_interval", DURATION, "1s" );
+
     @Description( "Specify which page swapper to use for doing paged IO. " +
                   "This is only used when integrating with proprietary storage technology." )
     public static final Setting<String> pagecache_swapper =
             setting( "dbms.memory.pagecache.swapper", STRING, null );
 
+    @Description( "The share of the page cache, between 0 and 0.9, that is reserved for the relationship group store. " +
+                  "Pages of the relationship group store are not evicted to make room for pages of other files, " +
+                  "while the store holds no more than this share of the page cache. Together with " +
+                  "dbms.memory.pagecache.relationship_groups.max_share, this keeps large and mostly scanned stores " +
+                  "from crowding the smaller but hotter relationship group store out of the page cache. " +
+                  "The store is only mapped into a partition of the page cache, if either share is changed from " +
+                  "its default." )
+    public static final Setting<Double> pagecache_relationship_groups_reserved_share =
+            buildSetting( "dbms.memory.pagecache.relationship_groups.reserved_share", DOUBLE, "0" )
+                    .constraint( range( 0.0, 0.9 ) ).build();
+
+    @Description( "The largest share of the page cache, between 0 and 1, that the relationship group store can use. " +
+                  "Must be at least dbms.memory.pagecache.relationship_groups.reserved_share." )
+    public static final Setting<Double> pagecache_relationship_groups_max_share =
+            buildSetting( "dbms.memory.pagecache.relationship_groups.max_share", DOUBLE, "1" )
+                    .constraint( range( 0.0, 1.0 ) ).build();
+
     @Internal
     @Description( "The profiling frequency for the page cache. Accurate profiles allow the page cache to do active " +
                   "warmup after a restart, reducing the mean time to performance. " +
@@ -792,6 +837,16 @@ public class GraphDatabaseSettings implements LoadableConfig
             "This feature available in ONgDB Enterprise Edition." )
     public static final Setting<Boolean> pagecache_warmup_enabled = setting( "unsupported.dbms.memory.pagecache.warmup.enable", BOOLEAN, TRUE );
 
+    @Internal
+    @Description( "The maximum number of pages per second that the page cache warmup will load, once the database " +
+            "is available. The hottest pages are loaded first, so limiting the rate mostly slows down the loading of " +
+            "the long tail of less frequently used pages, leaving more IO for the database workload. " +
+            "The default, 0, means no limit. " +
+            "This feature available in ONgDB Enterprise Edition." )
+    public static final Setting<Integer> pagecache_warmup_max_pages_per_second =
+            buildSetting( "unsupported.dbms.memory.pagecache.warmup.max_pages_per_second", INTEGER, "0" )
+                    .constraint( min( 0 ) ).build();
+
     @Description( "Allows the enabling or disabling of the file watcher service." +
             " This is an auxiliary service but should be left enabled in almost all cases." )
     public static final Setting<Boolean> filewatcher_enabled = setting( "dbms.filewatcher.enabled", BOOLEAN, TRUE );
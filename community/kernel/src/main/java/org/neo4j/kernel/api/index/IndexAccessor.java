@@ -78,6 +78,18 @@ public interface IndexAccessor extends Closeable, IndexConfigProvider, Consisten
      */
     void force( IOLimiter ioLimiter );
 
+    /**
+     * Compacts this index a little, reclaiming space left behind by removed entries. Called periodically from a background job,
+     * where each call does a limited amount of work, continuing where the previous call stopped. Compaction must not block
+     * readers and must be safe to run concurrently with updates to this index.
+     *
+     * @param maxWork limit on the amount of work to do in this call, for example number of tree nodes to visit.
+     * @throws UncheckedIOException if there was a problem compacting the index.
+     */
+    default void compact( int maxWork )
+    {   // Not all indexes need compaction
+    }
+
     /**
      * Refreshes this index, so that {@link #newReader() readers} created after completion of this call
      * will see the latest updates. This happens automatically on closing {@link #newUpdater(IndexUpdateMode)}
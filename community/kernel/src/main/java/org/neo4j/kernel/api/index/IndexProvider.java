@@ -135,6 +135,16 @@ public abstract class IndexProvider extends LifecycleAdapter
             public void recoveryCleanupFailed( File indexFile, IndexDescriptor indexDescriptor, Throwable throwable )
             {   // no-op
             }
+
+            @Override
+            public void uniquenessFilterOpened( File indexFile, IndexDescriptor indexDescriptor, UniquenessFilterStatistics statistics )
+            {   // no-op
+            }
+
+            @Override
+            public void uniquenessFilterClosed( File indexFile, IndexDescriptor indexDescriptor, UniquenessFilterStatistics statistics )
+            {   // no-op
+            }
         }
 
         void failedToOpenIndex( StoreIndexDescriptor schemaIndexDescriptor, String action, Exception cause );
@@ -149,6 +159,18 @@ public abstract class IndexProvider extends LifecycleAdapter
         void recoveryCleanupClosed( File indexFile, IndexDescriptor indexDescriptor );
 
         void recoveryCleanupFailed( File indexFile, IndexDescriptor indexDescriptor, Throwable throwable );
+
+        /**
+         * Called when the uniqueness filter of a unique index starts being used for lookups, either after having been read
+         * from its file or having been built from the index. The given statistics are live and can be read until
+         * {@link #uniquenessFilterClosed(File, IndexDescriptor, UniquenessFilterStatistics)} is called for the same index.
+         */
+        void uniquenessFilterOpened( File indexFile, IndexDescriptor indexDescriptor, UniquenessFilterStatistics statistics );
+
+        /**
+         * Called when an index with a uniqueness filter is closed or dropped, with the final statistics of the filter.
+         */
+        void uniquenessFilterClosed( File indexFile, IndexDescriptor indexDescriptor, UniquenessFilterStatistics statistics );
     }
 
     public static final IndexProvider EMPTY =
@@ -31,6 +31,7 @@ import org.neo4j.logging.Log;
 import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 
+import static org.neo4j.helpers.Format.bytes;
 import static org.neo4j.helpers.Format.duration;
 
 public class LoggingMonitor implements IndexProvider.Monitor
@@ -85,6 +86,25 @@ public class LoggingMonitor implements IndexProvider.Monitor
                 indexDescription( indexFile, indexDescriptor ), ExceptionUtils.getStackTrace( throwable ) ) );
     }
 
+    @Override
+    public void uniquenessFilterOpened( File indexFile, IndexDescriptor indexDescriptor, UniquenessFilterStatistics statistics )
+    {
+        log.info( "Schema index uniqueness filter opened: " + indexDescription( indexFile, indexDescriptor ) +
+                ", Memory usage: " + bytes( statistics.memoryUsage() ) );
+    }
+
+    @Override
+    public void uniquenessFilterClosed( File indexFile, IndexDescriptor indexDescriptor, UniquenessFilterStatistics statistics )
+    {
+        StringJoiner joiner =
+                new StringJoiner( ", ", "Schema index uniqueness filter closed: " + indexDescription( indexFile, indexDescriptor ) + " ", "" );
+        joiner.add( "Lookups: " + statistics.lookups() );
+        joiner.add( "Skipped lookups: " + statistics.skippedLookups() );
+        joiner.add( "False positives: " + statistics.falsePositives() );
+        joiner.add( String.format( "Estimated false positive rate: %.4f", statistics.estimatedFalsePositiveRate() ) );
+        log.info( joiner.toString() );
+    }
+
     private String indexDescription( File indexFile, IndexDescriptor indexDescriptor )
     {
         return "descriptor=" + indexDescriptor.toString() + ", indexFile=" + indexFile.getAbsolutePath();
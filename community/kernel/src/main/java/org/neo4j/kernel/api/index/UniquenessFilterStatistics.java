@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.api.index;
+
+/**
+ * Live statistics of the uniqueness filter of a unique index, counted since the index was opened.
+ *
+ * @see IndexProvider.Monitor#uniquenessFilterOpened
+ */
+public interface UniquenessFilterStatistics
+{
+    /**
+     * @return number of exact lookups which consulted the filter.
+     */
+    long lookups();
+
+    /**
+     * @return number of those lookups which the filter answered without seeking the index.
+     */
+    long skippedLookups();
+
+    /**
+     * @return number of lookups which the filter let through, but which didn't find anything in the index.
+     */
+    long falsePositives();
+
+    /**
+     * @return false positive rate of the filter, estimated from its size and number of added values.
+     */
+    double estimatedFalsePositiveRate();
+
+    /**
+     * @return number of bytes of heap the filter occupies.
+     */
+    long memoryUsage();
+}
@@ -82,6 +82,12 @@ public abstract class AbstractDelegatingIndexProxy implements IndexProxy
         getDelegate().force( ioLimiter );
     }
 
+    @Override
+    public void compact( int maxWork )
+    {
+        getDelegate().compact( maxWork );
+    }
+
     @Override
     public void refresh() throws IOException
     {
@@ -143,6 +143,20 @@ public class FlippableIndexProxy implements IndexProxy
         }
     }
 
+    @Override
+    public void compact( int maxWork )
+    {
+        lock.readLock().lock();
+        try
+        {
+            delegate.compact( maxWork );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
     @Override
     public void refresh() throws IOException
     {
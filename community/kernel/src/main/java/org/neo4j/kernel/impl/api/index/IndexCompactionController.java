@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.api.index;
+
+import org.neo4j.internal.kernel.api.InternalIndexState;
+import org.neo4j.logging.Log;
+import org.neo4j.logging.LogProvider;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.util.FeatureToggles;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Periodically compacts online indexes in the background, see {@link IndexProxy#compact(int)}. Each run does a limited amount of work
+ * per index, which together with the period between runs limits the rate at which compaction competes with other work.
+ */
+class IndexCompactionController
+{
+    private static final boolean ENABLED = FeatureToggles.flag( IndexCompactionController.class, "enabled", false );
+    private static final long PERIOD_MILLIS = FeatureToggles.getLong( IndexCompactionController.class, "periodMillis", 10_000 );
+    private static final int MAX_WORK_PER_RUN = FeatureToggles.getInteger( IndexCompactionController.class, "maxWorkPerRun", 1_000 );
+
+    private final JobScheduler scheduler;
+    private final IndexMapSnapshotProvider indexMapSnapshotProvider;
+    private final Log log;
+    private JobHandle compactionHandle;
+
+    IndexCompactionController( JobScheduler scheduler, IndexMapSnapshotProvider indexMapSnapshotProvider, LogProvider logProvider )
+    {
+        this.scheduler = scheduler;
+        this.indexMapSnapshotProvider = indexMapSnapshotProvider;
+        this.log = logProvider.getLog( getClass() );
+    }
+
+    void start()
+    {
+        if ( ENABLED )
+        {
+            compactionHandle = scheduler.scheduleRecurring( Group.INDEX_COMPACTION, this::compactIndexes, PERIOD_MILLIS, MILLISECONDS );
+        }
+    }
+
+    void stop()
+    {
+        if ( compactionHandle != null )
+        {
+            // Don't interrupt, a compacting index would see that as its store file channel being closed
+            compactionHandle.cancel( false );
+            compactionHandle = null;
+        }
+    }
+
+    private void compactIndexes()
+    {
+        indexMapSnapshotProvider.indexMapSnapshot().forEachIndexProxy( ( indexId, proxy ) ->
+        {
+            if ( proxy.getState() == InternalIndexState.ONLINE )
+            {
+                try
+                {
+                    proxy.compact( MAX_WORK_PER_RUN );
+                }
+                catch ( RuntimeException e )
+                {
+                    // The index may have been dropped or closed while compacting it, but this may just as well be a corrupt tree,
+                    // so make it visible. Compaction is only an optimization and will be tried again in the next run.
+                    log.warn( "Failed to compact index " + proxy.getDescriptor(), e );
+                }
+            }
+        } );
+    }
+}
@@ -92,6 +92,15 @@ public interface IndexProxy extends IndexConfigProvider
 
     void force( IOLimiter ioLimiter ) throws IOException;
 
+    /**
+     * Compacts the index a little, if it's online.
+     *
+     * @see IndexAccessor#compact(int)
+     */
+    default void compact( int maxWork )
+    {   // Only online indexes can be compacted
+    }
+
     void refresh() throws IOException;
 
     /**
@@ -127,6 +127,7 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
     private final Monitor monitor;
     private final SchemaState schemaState;
     private final IndexPopulationJobController populationJobController;
+    private final IndexCompactionController compactionController;
     private final Map<Long,IndexProxy> indexesToDropAfterCompletedRecovery = new HashMap<>();
 
     enum State
@@ -222,6 +223,7 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
         this.internalLogProvider = internalLogProvider;
         this.monitor = monitor;
         this.populationJobController = new IndexPopulationJobController( scheduler );
+        this.compactionController = new IndexCompactionController( scheduler, indexMapRef, internalLogProvider );
         this.internalLog = internalLogProvider.getLog( getClass() );
         this.userLog = userLogProvider.getLog( getClass() );
         this.readOnly = readOnly;
@@ -358,6 +360,10 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
 
         samplingController.recoverIndexSamples();
         samplingController.start();
+        if ( !readOnly )
+        {
+            compactionController.start();
+        }
 
         // So at this point we've started population of indexes that needs to be rebuilt in the background.
         // Indexes backing uniqueness constraints are normally built within the transaction creating the constraint
@@ -506,6 +512,7 @@ public class IndexingService extends LifecycleAdapter implements IndexingUpdateS
     {
         state = State.STOPPED;
         samplingController.stop();
+        compactionController.stop();
         populationJobController.stop();
         closeAllIndexes();
     }
@@ -144,6 +144,12 @@ public class OnlineIndexProxy implements IndexProxy
         accessor.force( ioLimiter );
     }
 
+    @Override
+    public void compact( int maxWork )
+    {
+        accessor.compact( maxWork );
+    }
+
     @Override
     public void refresh()
     {
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.labelscan;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+
+import org.neo4j.collection.PrimitiveLongCollections.PrimitiveLongBaseIterator;
+import org.neo4j.collection.PrimitiveLongResourceIterator;
+import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.GBPTree;
+import org.neo4j.index.internal.gbptree.Hit;
+
+import static org.neo4j.kernel.impl.index.labelscan.LabelScanValue.RANGE_SIZE;
+
+/**
+ * Iterates over ids of nodes having all of a number of labels. Instead of merging node ids from one iterator per label,
+ * as {@link CompositeLabelScanValueIterator} does, the seekers of all labels are moved in lock-step over their
+ * {@link LabelScanKey#idRange id ranges}, always forwarding the ones behind to the range of the one furthest ahead.
+ * Ranges which all labels have are intersected directly on their {@link LabelScanValue bit sets}.
+ * <p>
+ * A seeker which is far behind, which is typical when intersecting a sparse label with a dense one,
+ * is re-seeked from the target range instead of stepping through all ranges in between.
+ */
+class LabelScanIntersectionIterator extends PrimitiveLongBaseIterator implements PrimitiveLongResourceIterator
+{
+    /**
+     * Number of ranges to step through on a seeker before giving up and re-seeking it from the target range instead.
+     */
+    static final int STEPS_BEFORE_RESEEK = 32;
+
+    private final GBPTree<LabelScanKey,LabelScanValue> index;
+    private final Collection<RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException>> openCursors;
+    private final int[] labelIds;
+    private final RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException>[] cursors;
+    private final long[] ranges;
+    private final long[] words;
+    private long currentRange = -1;
+    private long baseNodeId;
+    private long bits;
+    private boolean closed;
+
+    @SuppressWarnings( "unchecked" )
+    LabelScanIntersectionIterator( GBPTree<LabelScanKey,LabelScanValue> index,
+            Collection<RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException>> openCursors, int... labelIds )
+    {
+        this.index = index;
+        this.openCursors = openCursors;
+        this.labelIds = labelIds;
+        this.cursors = new RawCursor[labelIds.length];
+        this.ranges = new long[labelIds.length];
+        this.words = new long[labelIds.length];
+        try
+        {
+            for ( int i = 0; i < labelIds.length; i++ )
+            {
+                seek( i, 0 );
+            }
+        }
+        catch ( IOException e )
+        {
+            close();
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    @Override
+    protected boolean fetchNext()
+    {
+        while ( true )
+        {
+            if ( bits != 0 )
+            {
+                int delta = Long.numberOfTrailingZeros( bits );
+                bits &= bits - 1;
+                return next( baseNodeId + delta );
+            }
+
+            try
+            {
+                if ( closed || !nextCommonRange() )
+                {
+                    close();
+                    return false;
+                }
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+    }
+
+    /**
+     * Moves all seekers to the next range which all of them have, intersecting their bit sets into {@link #bits}.
+     *
+     * @return {@code true} if there was such a range, or {@code false} if any seeker was exhausted.
+     */
+    private boolean nextCommonRange() throws IOException
+    {
+        if ( labelIds.length == 0 )
+        {
+            return false;
+        }
+
+        long target = currentRange + 1;
+        boolean aligned;
+        do
+        {
+            aligned = true;
+            for ( int i = 0; i < cursors.length; i++ )
+            {
+                if ( !forwardTo( i, target ) )
+                {
+                    return false;
+                }
+                if ( ranges[i] > target )
+                {
+                    target = ranges[i];
+                    aligned = false;
+                }
+            }
+        }
+        while ( !aligned );
+
+        long intersection = -1;
+        for ( long word : words )
+        {
+            intersection &= word;
+        }
+        currentRange = target;
+        baseNodeId = target * RANGE_SIZE;
+        bits = intersection;
+        return true;
+    }
+
+    /**
+     * Moves seeker {@code i} to the first range at or after {@code target}.
+     *
+     * @return {@code true} if seeker has such a range, otherwise {@code false}.
+     */
+    private boolean forwardTo( int i, long target ) throws IOException
+    {
+        int steps = 0;
+        while ( ranges[i] < target )
+        {
+            if ( steps++ == STEPS_BEFORE_RESEEK )
+            {
+                seek( i, target );
+            }
+            else if ( !cursors[i].next() )
+            {
+                return false;
+            }
+            else
+            {
+                Hit<LabelScanKey,LabelScanValue> hit = cursors[i].get();
+                ranges[i] = hit.key().idRange;
+                words[i] = hit.value().bits;
+            }
+        }
+        return true;
+    }
+
+    private void seek( int i, long fromRange ) throws IOException
+    {
+        if ( cursors[i] != null )
+        {
+            cursors[i].close();
+            openCursors.remove( cursors[i] );
+        }
+        cursors[i] = index.seek( new LabelScanKey( labelIds[i], fromRange ), new LabelScanKey( labelIds[i], Long.MAX_VALUE ) );
+        openCursors.add( cursors[i] );
+        // Not read yet, will be moved to fromRange by next forward
+        ranges[i] = -1;
+    }
+
+    @Override
+    public void close()
+    {
+        if ( !closed )
+        {
+            closed = true;
+            try
+            {
+                for ( RawCursor<Hit<LabelScanKey,LabelScanValue>,IOException> cursor : cursors )
+                {
+                    if ( cursor != null )
+                    {
+                        cursor.close();
+                        openCursors.remove( cursor );
+                    }
+                }
+            }
+            catch ( IOException e )
+            {
+                throw new UncheckedIOException( e );
+            }
+        }
+    }
+}
@@ -111,8 +111,7 @@ class NativeLabelScanReader implements LabelScanReader
     @Override
     public PrimitiveLongResourceIterator nodesWithAllLabels( int... labelIds )
     {
-        List<PrimitiveLongResourceIterator> iterators = iteratorsForLabels( NO_ID, labelIds );
-        return new CompositeLabelScanValueIterator( iterators, true );
+        return new LabelScanIntersectionIterator( index, openCursors, labelIds );
     }
 
     @Override
@@ -58,7 +58,7 @@ public abstract class AbstractIndexProviderFactory<DEPENDENCIES extends Abstract
         Config config = dependencies.getConfig();
         OperationalMode operationalMode = context.databaseInfo().operationalMode;
         RecoveryCleanupWorkCollector recoveryCleanupWorkCollector = dependencies.recoveryCleanupWorkCollector();
-        return internalCreate( pageCache, databaseDir, fs, monitor, config, operationalMode, recoveryCleanupWorkCollector );
+        return internalCreate( pageCache, databaseDir, fs, monitor, config, operationalMode, recoveryCleanupWorkCollector, dependencies );
     }
 
     protected abstract Class loggingClass();
@@ -69,6 +69,18 @@ public abstract class AbstractIndexProviderFactory<DEPENDENCIES extends Abstract
             IndexProvider.Monitor monitor, Config config, OperationalMode operationalMode,
             RecoveryCleanupWorkCollector recoveryCleanupWorkCollector );
 
+    /**
+     * Creates the provider given all dependencies of this factory, for providers needing more than the common ones.
+     * By default ignores the dependencies and creates the provider using
+     * {@link #internalCreate(PageCache, File, FileSystemAbstraction, IndexProvider.Monitor, Config, OperationalMode, RecoveryCleanupWorkCollector)}.
+     */
+    protected IndexProvider internalCreate( PageCache pageCache, File storeDir, FileSystemAbstraction fs,
+            IndexProvider.Monitor monitor, Config config, OperationalMode operationalMode,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, DEPENDENCIES dependencies )
+    {
+        return internalCreate( pageCache, storeDir, fs, monitor, config, operationalMode, recoveryCleanupWorkCollector );
+    }
+
     public interface Dependencies
     {
         PageCache pageCache();
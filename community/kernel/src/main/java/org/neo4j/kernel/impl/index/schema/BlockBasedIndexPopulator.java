@@ -40,6 +40,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.neo4j.cursor.RawCursor;
+import org.neo4j.index.internal.gbptree.BulkLoader;
 import org.neo4j.index.internal.gbptree.Hit;
 import org.neo4j.index.internal.gbptree.Writer;
 import org.neo4j.io.ByteUnit;
@@ -87,6 +88,15 @@ import static org.neo4j.util.concurrent.Runnables.runAll;
 public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,VALUE extends NativeIndexValue> extends NativeIndexPopulator<KEY,VALUE>
 {
     public static final String BLOCK_SIZE_NAME = "blockSize";
+    /**
+     * Whether or not to build the tree bottom-up from the sorted scan updates, instead of inserting them one by one.
+     */
+    private static final boolean BULK_LOAD = FeatureToggles.flag( BlockBasedIndexPopulator.class, "bulkLoad", true );
+    /**
+     * How much of each tree node to fill when bulk loading. Filling nodes completely gives the smallest index,
+     * leaving some room gives fewer splits when updates starts coming in after population.
+     */
+    private static final double BULK_LOAD_FILL_FACTOR = FeatureToggles.getDouble( BlockBasedIndexPopulator.class, "bulkLoadFillFactor", 1 );
 
     private final IndexDirectoryStructure directoryStructure;
     private final IndexDropAction dropAction;
@@ -431,6 +441,12 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
                 }
             }
 
+            if ( BULK_LOAD )
+            {
+                bulkLoadToTree( allEntries, recordingConflictDetector );
+                return;
+            }
+
             int asMuchAsPossibleToTheLeft = 1;
             try ( Writer<KEY,VALUE> writer = tree.writer( asMuchAsPossibleToTheLeft ) )
             {
@@ -443,6 +459,47 @@ public abstract class BlockBasedIndexPopulator<KEY extends NativeIndexKey<KEY>,V
         }
     }
 
+    /**
+     * The merged scan updates are sorted and the tree is still empty at this point, so the tree can be built bottom-up from them.
+     * Since equal keys are next to each other, conflicts are detected by comparing each key with the previous one.
+     */
+    private void bulkLoadToTree( MergingBlockEntryReader<KEY,VALUE> allEntries, RecordingConflictDetector<KEY,VALUE> recordingConflictDetector )
+            throws IOException, IndexEntryConflictException
+    {
+        try ( BulkLoader<KEY,VALUE> bulkLoader = tree.bulkLoader( BULK_LOAD_FILL_FACTOR ) )
+        {
+            KEY previousKey = layout.newKey();
+            boolean hasPreviousKey = false;
+            while ( allEntries.next() && !cancellation.cancelled() )
+            {
+                KEY key = allEntries.key();
+                if ( hasPreviousKey )
+                {
+                    if ( layout.compare( previousKey, key ) == 0 )
+                    {
+                        // Same value for the same entity, already added
+                        numberOfAppliedScanUpdates++;
+                        continue;
+                    }
+                    if ( descriptor.isUnique() && layout.compareValue( previousKey, key ) == 0 )
+                    {
+                        recordingConflictDetector.merge( previousKey, key, null, null );
+                        if ( recordingConflictDetector.wasConflicting() )
+                        {
+                            KEY copy = layout.newKey();
+                            layout.copyKey( key, copy );
+                            recordingConflictDetector.reportConflict( copy );
+                        }
+                    }
+                }
+                bulkLoader.add( key, allEntries.value() );
+                layout.copyKey( key, previousKey );
+                hasPreviousKey = true;
+                numberOfAppliedScanUpdates++;
+            }
+        }
+    }
+
     @Override
     public IndexUpdater newPopulatingUpdater()
     {
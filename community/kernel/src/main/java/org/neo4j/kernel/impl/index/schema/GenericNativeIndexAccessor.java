@@ -36,26 +36,46 @@ import org.neo4j.kernel.api.index.IndexProvider;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
 import org.neo4j.kernel.impl.index.schema.config.SpaceFillingCurveSettingsWriter;
 import org.neo4j.kernel.impl.util.Validator;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 import org.neo4j.values.storable.Value;
 
+import static org.neo4j.storageengine.api.schema.IndexDescriptor.Type.UNIQUE;
+
 class GenericNativeIndexAccessor extends NativeIndexAccessor<GenericKey,NativeIndexValue>
 {
     private final IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings;
     private final SpaceFillingCurveConfiguration configuration;
     private final IndexDropAction dropAction;
+    private final boolean uniquenessFilterEnabled;
+    private final JobScheduler jobScheduler;
     private Validator<Value[]> validator;
 
     GenericNativeIndexAccessor( PageCache pageCache, FileSystemAbstraction fs, File storeFile, IndexLayout<GenericKey,NativeIndexValue> layout,
             RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, IndexProvider.Monitor monitor, StoreIndexDescriptor descriptor,
             IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings, SpaceFillingCurveConfiguration configuration, IndexDropAction dropAction,
             boolean readOnly )
+    {
+        this( pageCache, fs, storeFile, layout, recoveryCleanupWorkCollector, monitor, descriptor, spaceFillingCurveSettings, configuration, dropAction,
+                readOnly, false, null );
+    }
+
+    /**
+     * @param uniquenessFilterEnabled whether or not to keep a {@link UniquenessBloomFilter uniqueness filter}, if this is a unique index.
+     * @param jobScheduler scheduler of building the uniqueness filter in the background, or {@code null} for building it when opening the index.
+     */
+    GenericNativeIndexAccessor( PageCache pageCache, FileSystemAbstraction fs, File storeFile, IndexLayout<GenericKey,NativeIndexValue> layout,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, IndexProvider.Monitor monitor, StoreIndexDescriptor descriptor,
+            IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings, SpaceFillingCurveConfiguration configuration, IndexDropAction dropAction,
+            boolean readOnly, boolean uniquenessFilterEnabled, JobScheduler jobScheduler )
     {
         super( pageCache, fs, storeFile, layout, monitor, descriptor, new SpaceFillingCurveSettingsWriter( spaceFillingCurveSettings ), readOnly );
         this.spaceFillingCurveSettings = spaceFillingCurveSettings;
         this.configuration = configuration;
         this.dropAction = dropAction;
+        this.uniquenessFilterEnabled = uniquenessFilterEnabled;
+        this.jobScheduler = jobScheduler;
         instantiateTree( recoveryCleanupWorkCollector, headerWriter );
     }
 
@@ -70,13 +90,17 @@ class GenericNativeIndexAccessor extends NativeIndexAccessor<GenericKey,NativeIn
     protected void afterTreeInstantiation( GBPTree<GenericKey,NativeIndexValue> tree )
     {
         validator = new GenericIndexKeyValidator( tree.keyValueSizeCap(), layout );
+        if ( uniquenessFilterEnabled && descriptor.type() == UNIQUE )
+        {
+            openUniquenessFilter( jobScheduler );
+        }
     }
 
     @Override
     public IndexReader newReader()
     {
         assertOpen();
-        return new GenericNativeIndexReader( tree, layout, descriptor, spaceFillingCurveSettings, configuration );
+        return new GenericNativeIndexReader( tree, layout, descriptor, spaceFillingCurveSettings, configuration, uniquenessFilter );
     }
 
     @Override
@@ -90,6 +114,7 @@ class GenericNativeIndexAccessor extends NativeIndexAccessor<GenericKey,NativeIn
     {
         // This accessor needs to use the header writer here because coordinate reference systems may have changed since last checkpoint.
         tree.checkpoint( ioLimiter, headerWriter );
+        forceUniquenessFilter();
     }
 
     @Override
@@ -47,6 +47,7 @@ import org.neo4j.kernel.impl.index.schema.config.ConfiguredSpaceFillingCurveSett
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
 import org.neo4j.kernel.impl.index.schema.config.SpaceFillingCurveSettings;
 import org.neo4j.kernel.impl.index.schema.config.SpaceFillingCurveSettingsReader;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 import org.neo4j.util.FeatureToggles;
 import org.neo4j.values.storable.CoordinateReferenceSystem;
@@ -128,8 +129,19 @@ public class GenericNativeIndexProvider extends NativeIndexProvider<GenericKey,N
     private final boolean archiveFailedIndex;
     private final IndexDropAction dropAction;
 
+    /**
+     * Scheduler of building uniqueness filters of unique indexes in the background, or {@code null} for building them when opening the index.
+     */
+    private final JobScheduler jobScheduler;
+
     GenericNativeIndexProvider( IndexDirectoryStructure.Factory directoryStructureFactory, PageCache pageCache, FileSystemAbstraction fs, Monitor monitor,
             RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, boolean readOnly, Config config )
+    {
+        this( directoryStructureFactory, pageCache, fs, monitor, recoveryCleanupWorkCollector, readOnly, config, null );
+    }
+
+    GenericNativeIndexProvider( IndexDirectoryStructure.Factory directoryStructureFactory, PageCache pageCache, FileSystemAbstraction fs, Monitor monitor,
+            RecoveryCleanupWorkCollector recoveryCleanupWorkCollector, boolean readOnly, Config config, JobScheduler jobScheduler )
     {
         super( DESCRIPTOR, directoryStructureFactory, pageCache, fs, monitor, recoveryCleanupWorkCollector, readOnly );
 
@@ -137,6 +149,7 @@ public class GenericNativeIndexProvider extends NativeIndexProvider<GenericKey,N
         this.configuration = getConfiguredSpaceFillingCurveConfiguration( config );
         this.archiveFailedIndex = config.get( GraphDatabaseSettings.archive_failed_index );
         this.dropAction = new FileSystemIndexDropAction( fs, directoryStructure() );
+        this.jobScheduler = jobScheduler;
     }
 
     @Override
@@ -176,7 +189,7 @@ public class GenericNativeIndexProvider extends NativeIndexProvider<GenericKey,N
     protected IndexAccessor newIndexAccessor( File storeFile, GenericLayout layout, StoreIndexDescriptor descriptor, boolean readOnly )
     {
         return new GenericNativeIndexAccessor( pageCache, fs, storeFile, layout, recoveryCleanupWorkCollector, monitor, descriptor,
-                layout.getSpaceFillingCurveSettings(), configuration, dropAction, readOnly );
+                layout.getSpaceFillingCurveSettings(), configuration, dropAction, readOnly, UniquenessBloomFilter.ENABLED, jobScheduler );
     }
 
     @Override
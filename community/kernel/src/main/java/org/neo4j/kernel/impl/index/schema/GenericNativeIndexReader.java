@@ -22,6 +22,7 @@
  */
 package org.neo4j.kernel.impl.index.schema;
 
+import java.util.Collections;
 import java.util.List;
 
 import org.neo4j.gis.spatial.index.curves.SpaceFillingCurve;
@@ -52,9 +53,9 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
 
     GenericNativeIndexReader( GBPTree<GenericKey,NativeIndexValue> tree, IndexLayout<GenericKey,NativeIndexValue> layout,
             IndexDescriptor descriptor, IndexSpecificSpaceFillingCurveSettingsCache spaceFillingCurveSettings,
-            SpaceFillingCurveConfiguration configuration )
+            SpaceFillingCurveConfiguration configuration, UniquenessBloomFilter uniquenessFilter )
     {
-        super( tree, layout, descriptor );
+        super( tree, layout, descriptor, uniquenessFilter );
         this.spaceFillingCurveSettings = spaceFillingCurveSettings;
         this.configuration = configuration;
     }
@@ -120,6 +121,17 @@ class GenericNativeIndexReader extends NativeIndexReader<GenericKey,NativeIndexV
         }
     }
 
+    @Override
+    public List<Partition> partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+    {
+        if ( getGeometryRangePredicateIfAny( query ) != null )
+        {
+            // Geometry range queries are already split into multiple sub-range seeks, which are not partitioned further
+            return Collections.singletonList( client -> query( client, IndexOrder.NONE, needsValues, query ) );
+        }
+        return super.partitionedQuery( desiredNumberOfPartitions, needsValues, query );
+    }
+
     /**
      * Initializes {@code treeKeyFrom} and {@code treeKeyTo} from the {@link IndexQuery query}.
      * Geometry range queries makes an otherwise straight-forward key construction complex in that a geometry range internally is performed
@@ -47,8 +47,8 @@ abstract class NativeIndex<KEY extends NativeIndexKey<KEY>, VALUE extends Native
     final IndexLayout<KEY,VALUE> layout;
     final FileSystemAbstraction fileSystem;
     final StoreIndexDescriptor descriptor;
-    private final IndexProvider.Monitor monitor;
-    private final boolean readOnly;
+    final IndexProvider.Monitor monitor;
+    final boolean readOnly;
 
     protected GBPTree<KEY,VALUE> tree;
 
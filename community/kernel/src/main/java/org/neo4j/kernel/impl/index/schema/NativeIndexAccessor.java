@@ -25,10 +25,14 @@ package org.neo4j.kernel.impl.index.schema;
 import java.io.File;
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
 
+import org.neo4j.cursor.RawCursor;
 import org.neo4j.graphdb.ResourceIterator;
 import org.neo4j.helpers.collection.BoundedIterable;
+import org.neo4j.index.internal.gbptree.Hit;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
@@ -37,9 +41,13 @@ import org.neo4j.kernel.api.exceptions.index.IndexEntryConflictException;
 import org.neo4j.kernel.api.index.IndexAccessor;
 import org.neo4j.kernel.api.index.IndexProvider;
 import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
+import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
+import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.NodePropertyAccessor;
 import org.neo4j.storageengine.api.schema.IndexReader;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
+import org.neo4j.util.FeatureToggles;
 
 import static org.neo4j.helpers.collection.Iterators.asResourceIterator;
 import static org.neo4j.helpers.collection.Iterators.iterator;
@@ -48,8 +56,18 @@ import static org.neo4j.kernel.impl.index.schema.NativeIndexPopulator.BYTE_ONLIN
 public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue> extends NativeIndex<KEY,VALUE>
         implements IndexAccessor
 {
+    /**
+     * Leaves filled less than this are merged into their right sibling when compacting the index, if they fit.
+     * Removals already merge leaves which underflow, i.e. are less than half full, so compaction is set to merge fuller leaves than that.
+     */
+    private static final double COMPACTION_FILL_RATIO = FeatureToggles.getDouble( NativeIndexAccessor.class, "compactionFillRatio", 0.75 );
+
     private final NativeIndexUpdater<KEY,VALUE> singleUpdater;
     final NativeIndexHeaderWriter headerWriter;
+    volatile UniquenessBloomFilter uniquenessFilter;
+    private final Object uniquenessFilterLock = new Object();
+    private volatile boolean uniquenessFilterBuildCancelled;
+    private JobHandle uniquenessFilterBuild;
 
     NativeIndexAccessor( PageCache pageCache, FileSystemAbstraction fs, File storeFile, IndexLayout<KEY,VALUE> layout,
             IndexProvider.Monitor monitor, StoreIndexDescriptor descriptor, Consumer<PageCursor> additionalHeaderWriter, boolean readOnly )
@@ -62,7 +80,9 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
     @Override
     public void drop()
     {
+        closeUniquenessFilter();
         closeTree();
+        UniquenessBloomFilter.delete( fileSystem, storeFile );
         try
         {
             fileSystem.deleteFileOrThrow( storeFile );
@@ -79,7 +99,11 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
         assertOpen();
         try
         {
-            return singleUpdater.initialize( tree.writer() );
+            // Synchronized with publishing a filter being built, see buildUniquenessFilter
+            synchronized ( uniquenessFilterLock )
+            {
+                return singleUpdater.initialize( tree.writer(), uniquenessFilter );
+            }
         }
         catch ( IOException e )
         {
@@ -91,6 +115,206 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
     public void force( IOLimiter ioLimiter )
     {
         tree.checkpoint( ioLimiter );
+        forceUniquenessFilter();
+    }
+
+    /**
+     * Loads the {@link UniquenessBloomFilter uniqueness filter} of this index, or rebuilds it from the tree if it's missing or outgrown.
+     * Must be called after the tree has been instantiated and before any updater or reader is created.
+     *
+     * @param jobScheduler scheduler of rebuilding the filter in the background, or {@code null} for rebuilding it before returning.
+     */
+    void openUniquenessFilter( JobScheduler jobScheduler )
+    {
+        UniquenessBloomFilter filter;
+        try
+        {
+            filter = UniquenessBloomFilter.read( fileSystem, UniquenessBloomFilter.filterFile( storeFile ) );
+        }
+        catch ( IOException e )
+        {
+            // Rebuilt just like a filter which is missing
+            filter = null;
+        }
+        if ( filter != null && filter.isOversubscribed() )
+        {
+            filter.close();
+            filter = null;
+        }
+
+        if ( filter != null )
+        {
+            uniquenessFilter = filter;
+            monitor.uniquenessFilterOpened( storeFile, descriptor, filter );
+        }
+        else if ( jobScheduler == null )
+        {
+            buildUniquenessFilter();
+        }
+        else
+        {
+            uniquenessFilterBuild = jobScheduler.schedule( Group.INDEX_POPULATION, this::buildUniquenessFilter );
+        }
+    }
+
+    /**
+     * Builds a uniqueness filter from the tree while the index is in use. The filter is published before the tree is scanned, so that
+     * values written concurrently with the scan are added to it by the updater, but it doesn't answer lookups until the scan has completed.
+     * Without a filter large enough to fit within the memory limit of all filters, this index stays without one.
+     */
+    private void buildUniquenessFilter()
+    {
+        UniquenessBloomFilter filter = null;
+        boolean success = false;
+        try
+        {
+            long entries = scanEntries( null );
+            if ( entries == -1 || (filter = UniquenessBloomFilter.create( entries )) == null )
+            {
+                return;
+            }
+            synchronized ( uniquenessFilterLock )
+            {
+                uniquenessFilter = filter;
+            }
+            // An updater opened before the filter was published doesn't add to it. Wait for it to be closed, so that
+            // everything it wrote is in the tree when the scan starts.
+            while ( !singleUpdater.addsTo( filter ) )
+            {
+                if ( uniquenessFilterBuildCancelled )
+                {
+                    return;
+                }
+                Thread.sleep( 10 );
+            }
+            if ( scanEntries( filter ) == -1 )
+            {
+                return;
+            }
+            filter.ready();
+            success = true;
+            monitor.uniquenessFilterOpened( storeFile, descriptor, filter );
+        }
+        catch ( InterruptedException e )
+        {
+            Thread.currentThread().interrupt();
+        }
+        catch ( IOException | RuntimeException e )
+        {
+            monitor.failedToOpenIndex( descriptor, "Failed to build uniqueness filter, continuing without it.", e );
+        }
+        finally
+        {
+            if ( !success && filter != null )
+            {
+                synchronized ( uniquenessFilterLock )
+                {
+                    uniquenessFilter = null;
+                }
+                filter.close();
+            }
+        }
+    }
+
+    /**
+     * Stops any ongoing build of the uniqueness filter and releases the filter.
+     */
+    private void closeUniquenessFilter()
+    {
+        uniquenessFilterBuildCancelled = true;
+        if ( uniquenessFilterBuild != null )
+        {
+            try
+            {
+                uniquenessFilterBuild.waitTermination();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch ( ExecutionException | CancellationException e )
+            {
+                // The build reports its own failures
+            }
+            uniquenessFilterBuild = null;
+        }
+        UniquenessBloomFilter filter = uniquenessFilter;
+        if ( filter != null )
+        {
+            uniquenessFilter = null;
+            if ( filter.isReady() )
+            {
+                monitor.uniquenessFilterClosed( storeFile, descriptor, filter );
+            }
+            filter.close();
+        }
+    }
+
+    /**
+     * Writes the uniqueness filter next to the index file, if this index has one which is ready. Since the filter is add-only,
+     * a filter written after the tree has been checkpointed contains at least everything in that checkpoint.
+     */
+    void forceUniquenessFilter()
+    {
+        UniquenessBloomFilter filter = uniquenessFilter;
+        if ( filter == null || !filter.isReady() || readOnly )
+        {
+            return;
+        }
+        try
+        {
+            filter.write( fileSystem, UniquenessBloomFilter.filterFile( storeFile ) );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * Visits all entries in the tree, adding their values to the given filter, if any.
+     *
+     * @return number of entries, or {@code -1} if the build of the uniqueness filter was cancelled during the scan.
+     */
+    private long scanEntries( UniquenessBloomFilter filter ) throws IOException
+    {
+        KEY lowest = layout.newKey();
+        lowest.initialize( Long.MIN_VALUE );
+        lowest.initValuesAsLowest();
+        KEY highest = layout.newKey();
+        highest.initialize( Long.MAX_VALUE );
+        highest.initValuesAsHighest();
+        long count = 0;
+        try ( RawCursor<Hit<KEY,VALUE>,IOException> seeker = tree.seek( lowest, highest ) )
+        {
+            while ( seeker.next() )
+            {
+                if ( uniquenessFilterBuildCancelled )
+                {
+                    return -1;
+                }
+                if ( filter != null )
+                {
+                    filter.add( seeker.get().key().asValues() );
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public void compact( int maxWork )
+    {
+        assertOpen();
+        try
+        {
+            tree.compact( COMPACTION_FILL_RATIO, maxWork );
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
     }
 
     @Override
@@ -102,6 +326,7 @@ public abstract class NativeIndexAccessor<KEY extends NativeIndexKey<KEY>, VALUE
     @Override
     public void close()
     {
+        closeUniquenessFilter();
         closeTree();
     }
 
@@ -328,6 +328,8 @@ public abstract class NativeIndexPopulator<KEY extends NativeIndexKey<KEY>, VALU
 
     private static void deleteFileIfPresent( FileSystemAbstraction fs, File storeFile )
     {
+        // A uniqueness filter left from a previous incarnation of this index would not match what is populated now
+        UniquenessBloomFilter.delete( fs, storeFile );
         try
         {
             fs.deleteFileOrThrow( storeFile );
@@ -24,8 +24,12 @@ package org.neo4j.kernel.impl.index.schema;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.neo4j.collection.PrimitiveLongResourceIterator;
 import org.neo4j.cursor.RawCursor;
@@ -50,13 +54,24 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
     final IndexLayout<KEY,VALUE> layout;
     final Set<RawCursor<Hit<KEY,VALUE>,IOException>> openSeekers;
     final GBPTree<KEY,VALUE> tree;
+    private final UniquenessBloomFilter uniquenessFilter;
 
     NativeIndexReader( GBPTree<KEY,VALUE> tree, IndexLayout<KEY,VALUE> layout, IndexDescriptor descriptor )
+    {
+        this( tree, layout, descriptor, null );
+    }
+
+    /**
+     * @param uniquenessFilter filter to consult before seeking exact lookups of all properties, or {@code null} if none.
+     */
+    NativeIndexReader( GBPTree<KEY,VALUE> tree, IndexLayout<KEY,VALUE> layout, IndexDescriptor descriptor, UniquenessBloomFilter uniquenessFilter )
     {
         this.tree = tree;
         this.layout = layout;
         this.descriptor = descriptor;
-        this.openSeekers = new HashSet<>();
+        this.uniquenessFilter = uniquenessFilter;
+        // Partitions of a partitioned query may be progressed through, and closed, concurrently
+        this.openSeekers = ConcurrentHashMap.newKeySet();
     }
 
     @Override
@@ -123,6 +138,16 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
     {
         validateQuery( indexOrder, predicates );
 
+        if ( uniquenessFilter != null && uniquenessFilter.isReady() && isExactLookup( predicates ) )
+        {
+            if ( !uniquenessFilter.mightContain( exactValues( predicates ) ) )
+            {
+                cursor.initialize( descriptor, IndexProgressor.EMPTY, predicates, indexOrder, needsValues );
+                return;
+            }
+            cursor = uniquenessFilter.countingFalsePositives( cursor );
+        }
+
         KEY treeKeyFrom = layout.newKey();
         KEY treeKeyTo = layout.newKey();
         initializeFromToKeys( treeKeyFrom, treeKeyTo );
@@ -131,6 +156,57 @@ abstract class NativeIndexReader<KEY extends NativeIndexKey<KEY>, VALUE extends
         startSeekForInitializedRange( cursor, treeKeyFrom, treeKeyTo, predicates, indexOrder, needFilter, needsValues );
     }
 
+    @Override
+    public List<Partition> partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+    {
+        validateQuery( IndexOrder.NONE, query );
+
+        KEY treeKeyFrom = layout.newKey();
+        KEY treeKeyTo = layout.newKey();
+        initializeFromToKeys( treeKeyFrom, treeKeyTo );
+
+        boolean needFilter = initializeRangeForQuery( treeKeyFrom, treeKeyTo, query );
+        if ( isEmptyRange( treeKeyFrom, treeKeyTo ) )
+        {
+            return Collections.singletonList( client -> client.initialize( descriptor, IndexProgressor.EMPTY, query, IndexOrder.NONE, needsValues ) );
+        }
+        try
+        {
+            // Only the boundaries are decided here, each partition opens its seeker when, and if, it's queried
+            List<KEY> boundaries = tree.partitionBoundaries( treeKeyFrom, treeKeyTo, desiredNumberOfPartitions );
+            List<Partition> partitions = new ArrayList<>( boundaries.size() - 1 );
+            for ( int i = 0; i < boundaries.size() - 1; i++ )
+            {
+                KEY partitionFrom = boundaries.get( i );
+                KEY partitionTo = boundaries.get( i + 1 );
+                partitions.add( client -> startSeekForInitializedRange( client, layout.copyKey( partitionFrom, layout.newKey() ),
+                        layout.copyKey( partitionTo, layout.newKey() ), query, IndexOrder.NONE, needFilter, needsValues ) );
+            }
+            return partitions;
+        }
+        catch ( IOException e )
+        {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private boolean isExactLookup( IndexQuery[] predicates )
+    {
+        return predicates.length == descriptor.schema().getPropertyIds().length &&
+               Arrays.stream( predicates ).allMatch( predicate -> predicate.type() == IndexQuery.IndexQueryType.exact ) &&
+               hasFullValuePrecision( predicates );
+    }
+
+    private static Value[] exactValues( IndexQuery[] predicates )
+    {
+        Value[] values = new Value[predicates.length];
+        for ( int i = 0; i < predicates.length; i++ )
+        {
+            values[i] = ((IndexQuery.ExactPredicate) predicates[i]).value();
+        }
+        return values;
+    }
+
     void initializeFromToKeys( KEY treeKeyFrom, KEY treeKeyTo )
     {
         treeKeyFrom.initialize( Long.MIN_VALUE );
@@ -29,6 +29,7 @@ import org.neo4j.kernel.api.index.IndexEntryUpdate;
 import org.neo4j.kernel.api.index.IndexUpdater;
 import org.neo4j.values.storable.Value;
 
+import static org.neo4j.kernel.impl.api.index.UpdateMode.REMOVED;
 import static org.neo4j.kernel.impl.index.schema.NativeIndexKey.Inclusion.NEUTRAL;
 
 class NativeIndexUpdater<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIndexValue>
@@ -38,8 +39,9 @@ class NativeIndexUpdater<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIn
     private final VALUE treeValue;
     private final ConflictDetectingValueMerger<KEY,VALUE,Value[]> conflictDetectingValueMerger = new ThrowingConflictDetector<>( true );
     private Writer<KEY,VALUE> writer;
+    private volatile UniquenessBloomFilter uniquenessFilter;
 
-    private boolean closed = true;
+    private volatile boolean closed = true;
 
     NativeIndexUpdater( KEY treeKey, VALUE treeValue )
     {
@@ -48,6 +50,14 @@ class NativeIndexUpdater<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIn
     }
 
     NativeIndexUpdater<KEY,VALUE> initialize( Writer<KEY,VALUE> writer )
+    {
+        return initialize( writer, null );
+    }
+
+    /**
+     * @param uniquenessFilter filter to add all added and changed values to before writing them to the tree, or {@code null} if none.
+     */
+    NativeIndexUpdater<KEY,VALUE> initialize( Writer<KEY,VALUE> writer, UniquenessBloomFilter uniquenessFilter )
     {
         if ( !closed )
         {
@@ -55,6 +65,7 @@ class NativeIndexUpdater<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIn
         }
 
         this.writer = writer;
+        this.uniquenessFilter = uniquenessFilter;
         closed = false;
         return this;
     }
@@ -63,9 +74,23 @@ class NativeIndexUpdater<KEY extends NativeIndexKey<KEY>, VALUE extends NativeIn
     public void process( IndexEntryUpdate<?> update ) throws IndexEntryConflictException
     {
         assertOpen();
+        if ( uniquenessFilter != null && update.updateMode() != REMOVED )
+        {
+            // Added to the filter before the tree so that concurrent lookups never miss a value which is in the tree
+            uniquenessFilter.add( update.values() );
+        }
         processUpdate( treeKey, treeValue, update, writer, conflictDetectingValueMerger );
     }
 
+    /**
+     * @return whether or not everything processed by this updater from now on is added to the given filter,
+     * i.e. if this updater is closed or was initialized with the given filter.
+     */
+    boolean addsTo( UniquenessBloomFilter filter )
+    {
+        return closed || uniquenessFilter == filter;
+    }
+
     @Override
     public void close()
     {
@@ -24,6 +24,7 @@ package org.neo4j.kernel.impl.index.schema;
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 
@@ -74,6 +75,13 @@ public class SpatialIndexPartReader<VALUE extends NativeIndexValue> extends Nati
         throw new UnsupportedOperationException( "Cannot initialize 1D range in multidimensional spatial index reader" );
     }
 
+    @Override
+    public List<Partition> partitionedQuery( int desiredNumberOfPartitions, boolean needsValues, IndexQuery... query )
+    {
+        // Spatial queries don't map to a single key range, so they can't be partitioned by key range either
+        return Collections.singletonList( client -> query( client, IndexOrder.NONE, needsValues, query ) );
+    }
+
     @Override
     public void query( IndexProgressor.NodeValueClient cursor, IndexOrder indexOrder, boolean needsValues, IndexQuery... predicates )
     {
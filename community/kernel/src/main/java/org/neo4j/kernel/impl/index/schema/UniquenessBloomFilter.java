@@ -0,0 +1,473 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.index.schema;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.neo4j.internal.kernel.api.IndexOrder;
+import org.neo4j.internal.kernel.api.IndexQuery;
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.kernel.api.index.UniquenessFilterStatistics;
+import org.neo4j.storageengine.api.schema.IndexDescriptor;
+import org.neo4j.storageengine.api.schema.IndexProgressor;
+import org.neo4j.util.FeatureToggles;
+import org.neo4j.values.storable.FloatingPointValue;
+import org.neo4j.values.storable.NumberValue;
+import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.ValueGroup;
+
+/**
+ * Bloom filter over the values in a unique native index, used for answering exact lookups of values which are
+ * not in the index without seeking the tree. Such lookups are very common for unique indexes, since every
+ * insert of a node with a constrained property will first look the value up to verify uniqueness.
+ * <p>
+ * The filter is add-only: values are added before they are written to the tree, but never removed. A filter
+ * therefore never gives false negatives for values in the index, but the rate of false positives grows with
+ * removed and changed values. The filter is persisted next to the index file, in a file suffixed
+ * {@value #FILE_SUFFIX}, when the index is forced and is rebuilt from the tree when opening the index if the file
+ * is missing, can't be read, or has had more values added to it than it was sized for. A filter being rebuilt
+ * gets values added to it, but doesn't answer lookups until it has been {@link #ready() marked ready}.
+ * <p>
+ * Filters live on the heap and are limited in size, each one to {@code maxMemory} bytes and all of them together to
+ * {@code maxTotalMemory} bytes. An index which would take a filter over the total limit doesn't get one.
+ * Memory is reserved when a filter is created or read and released when it is {@link #close() closed}.
+ * <p>
+ * Numbers are hashed from their numeric value, not their representation, so that e.g. {@code 5} and {@code 5.0}
+ * hash the same, just like they are the same value in the index. Values in number arrays are not normalized in this way
+ * and so lookups of number arrays always answer that the value might exist.
+ */
+class UniquenessBloomFilter implements UniquenessFilterStatistics
+{
+    /**
+     * Whether or not unique native indexes should keep a uniqueness filter at all. Off by default, since the filter costs heap
+     * and a scan of the index when it needs to be built, in exchange for faster uniqueness checks of inserted values.
+     */
+    static final boolean ENABLED = FeatureToggles.flag( UniquenessBloomFilter.class, "enabled", false );
+
+    /**
+     * Number of bits to size the filter with per expected value, 10 bits per value gives roughly 1% false positives.
+     */
+    private static final int BITS_PER_ENTRY = FeatureToggles.getInteger( UniquenessBloomFilter.class, "bitsPerEntry", 10 );
+
+    /**
+     * Max number of bytes of a single filter. Larger indexes get filters with higher false positive rates.
+     */
+    private static final long MAX_MEMORY = FeatureToggles.getLong( UniquenessBloomFilter.class, "maxMemory", 64L << 20 );
+
+    /**
+     * Max number of bytes of all filters together, by default 2% of the max heap size.
+     */
+    private static final long MAX_TOTAL_MEMORY =
+            FeatureToggles.getLong( UniquenessBloomFilter.class, "maxTotalMemory", Runtime.getRuntime().maxMemory() / 50 );
+
+    private static final AtomicLong reservedMemory = new AtomicLong();
+
+    static final String FILE_SUFFIX = ".filter";
+    private static final long MAGIC = 0x42_4C_4F_4F_4D_46_31_00L;
+    private static final long MIN_BITS = 1 << 16;
+    private static final long MAX_BITS = Math.max( MIN_BITS, Long.highestOneBit( MAX_MEMORY ) * Byte.SIZE );
+    private static final int HEADER_SIZE = Long.BYTES * 3 + Integer.BYTES;
+
+    private final AtomicLongArray words;
+    private final long bitMask;
+    private final int hashCount;
+    private final AtomicLong entries;
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong skippedLookups = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile boolean ready;
+
+    private UniquenessBloomFilter( long numberOfBits, int hashCount, long entries )
+    {
+        this.words = new AtomicLongArray( Math.toIntExact( numberOfBits / Long.SIZE ) );
+        this.bitMask = numberOfBits - 1;
+        this.hashCount = hashCount;
+        this.entries = new AtomicLong( entries );
+    }
+
+    /**
+     * Creates an empty filter with room for twice the number of expected values, leaving headroom for values added after creation.
+     *
+     * @param expectedEntries number of values the index currently has.
+     * @return an empty filter which isn't {@link #ready() ready}, or {@code null} if its memory would exceed the total limit of all filters.
+     */
+    static UniquenessBloomFilter create( long expectedEntries )
+    {
+        long wantedBits = Math.max( MIN_BITS, Math.min( MAX_BITS, expectedEntries * 2 * BITS_PER_ENTRY ) );
+        long numberOfBits = Long.highestOneBit( wantedBits - 1 ) << 1;
+        int hashCount = Math.max( 1, (int) Math.round( BITS_PER_ENTRY * Math.log( 2 ) ) );
+        if ( !reserveMemory( numberOfBits / Byte.SIZE ) )
+        {
+            return null;
+        }
+        return new UniquenessBloomFilter( numberOfBits, hashCount, 0 );
+    }
+
+    static File filterFile( File storeFile )
+    {
+        return new File( storeFile.getParentFile(), storeFile.getName() + FILE_SUFFIX );
+    }
+
+    /**
+     * Reads a filter previously {@link #write(FileSystemAbstraction, File) written} to the given file.
+     *
+     * @return the read filter, which is {@link #ready() ready}, or {@code null} if there was no such file, if the file was not
+     * a complete filter, if it was larger than the max size of a filter or if its memory would exceed the total limit of all filters.
+     * @throws IOException on I/O error.
+     */
+    static UniquenessBloomFilter read( FileSystemAbstraction fs, File file ) throws IOException
+    {
+        if ( !fs.fileExists( file ) )
+        {
+            return null;
+        }
+        try ( DataInputStream in = new DataInputStream( new BufferedInputStream( fs.openAsInputStream( file ) ) ) )
+        {
+            long magic = in.readLong();
+            long numberOfBits = in.readLong();
+            int hashCount = in.readInt();
+            long entries = in.readLong();
+            if ( magic != MAGIC || Long.bitCount( numberOfBits ) != 1 || numberOfBits < MIN_BITS || numberOfBits > MAX_BITS || hashCount <= 0 ||
+                 fs.getFileSize( file ) != HEADER_SIZE + numberOfBits / Byte.SIZE )
+            {
+                return null;
+            }
+            if ( !reserveMemory( numberOfBits / Byte.SIZE ) )
+            {
+                return null;
+            }
+            UniquenessBloomFilter filter = new UniquenessBloomFilter( numberOfBits, hashCount, entries );
+            boolean success = false;
+            try
+            {
+                for ( int i = 0; i < filter.words.length(); i++ )
+                {
+                    filter.words.set( i, in.readLong() );
+                }
+                filter.ready();
+                success = true;
+                return filter;
+            }
+            finally
+            {
+                if ( !success )
+                {
+                    filter.close();
+                }
+            }
+        }
+        catch ( EOFException e )
+        {
+            return null;
+        }
+    }
+
+    private static boolean reserveMemory( long bytes )
+    {
+        long current;
+        do
+        {
+            current = reservedMemory.get();
+            if ( current + bytes > MAX_TOTAL_MEMORY )
+            {
+                return false;
+            }
+        }
+        while ( !reservedMemory.compareAndSet( current, current + bytes ) );
+        return true;
+    }
+
+    /**
+     * @return number of bytes reserved by all filters which haven't been closed.
+     */
+    static long reservedMemory()
+    {
+        return reservedMemory.get();
+    }
+
+    /**
+     * Makes this filter answer lookups, which it must only do once all values in the index have been added to it.
+     */
+    void ready()
+    {
+        ready = true;
+    }
+
+    boolean isReady()
+    {
+        return ready;
+    }
+
+    /**
+     * Releases the memory reserved by this filter. The filter must not be used after this.
+     */
+    void close()
+    {
+        if ( closed.compareAndSet( false, true ) )
+        {
+            reservedMemory.addAndGet( -memoryUsage() );
+        }
+    }
+
+    /**
+     * Writes this filter to the given file, by first writing it to a temporary file and then moving that into place.
+     * Values may be added concurrently with writing, such values may or may not be included in the written filter.
+     *
+     * @throws IOException on I/O error.
+     */
+    void write( FileSystemAbstraction fs, File file ) throws IOException
+    {
+        File tempFile = new File( file.getParentFile(), file.getName() + ".tmp" );
+        try ( DataOutputStream out = new DataOutputStream( new BufferedOutputStream( fs.openAsOutputStream( tempFile, false ) ) ) )
+        {
+            out.writeLong( MAGIC );
+            out.writeLong( bitMask + 1 );
+            out.writeInt( hashCount );
+            out.writeLong( entries.get() );
+            for ( int i = 0; i < words.length(); i++ )
+            {
+                out.writeLong( words.get( i ) );
+            }
+        }
+        fs.renameFile( tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+    }
+
+    static void delete( FileSystemAbstraction fs, File storeFile )
+    {
+        fs.deleteFile( filterFile( storeFile ) );
+    }
+
+    void add( Value[] values )
+    {
+        long hash = hash( values );
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for ( int i = 0; i < hashCount; i++ )
+        {
+            long bit = (h1 + (long) i * h2) & bitMask;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get( word );
+            while ( (current & mask) == 0 && !words.compareAndSet( word, current, current | mask ) )
+            {
+                current = words.get( word );
+            }
+        }
+        entries.incrementAndGet();
+    }
+
+    /**
+     * @return {@code false} if the given values have definitely not been added to this filter, otherwise {@code true}.
+     * Always {@code true} if this filter isn't {@link #ready() ready}.
+     */
+    boolean mightContain( Value[] values )
+    {
+        if ( !ready )
+        {
+            return true;
+        }
+        for ( Value value : values )
+        {
+            if ( value.valueGroup() == ValueGroup.NUMBER_ARRAY )
+            {
+                return true;
+            }
+        }
+
+        lookups.incrementAndGet();
+        long hash = hash( values );
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for ( int i = 0; i < hashCount; i++ )
+        {
+            long bit = (h1 + (long) i * h2) & bitMask;
+            if ( (words.get( (int) (bit >>> 6) ) & (1L << bit)) == 0 )
+            {
+                skippedLookups.incrementAndGet();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return whether or not more values have been added to this filter than it was sized for, in which case it should be rebuilt.
+     */
+    boolean isOversubscribed()
+    {
+        return bitMask + 1 < MAX_BITS && entries.get() * BITS_PER_ENTRY > bitMask + 1;
+    }
+
+    /**
+     * @return the theoretical false positive rate of this filter, given the number of values added to it.
+     */
+    @Override
+    public double estimatedFalsePositiveRate()
+    {
+        double numberOfBits = bitMask + 1;
+        return Math.pow( 1 - Math.exp( -hashCount * entries.get() / numberOfBits ), hashCount );
+    }
+
+    @Override
+    public long lookups()
+    {
+        return lookups.get();
+    }
+
+    @Override
+    public long skippedLookups()
+    {
+        return skippedLookups.get();
+    }
+
+    @Override
+    public long falsePositives()
+    {
+        return falsePositives.get();
+    }
+
+    @Override
+    public long memoryUsage()
+    {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    /**
+     * Wraps the given client so that a lookup which this filter let through, but which didn't find anything in the index,
+     * is counted as a false positive.
+     */
+    IndexProgressor.NodeValueClient countingFalsePositives( IndexProgressor.NodeValueClient client )
+    {
+        return new FalsePositiveCountingClient( client );
+    }
+
+    private static long hash( Value[] values )
+    {
+        long hash = 1;
+        for ( Value value : values )
+        {
+            hash = hash * 31 + hash( value );
+        }
+        return mix( hash );
+    }
+
+    private static long hash( Value value )
+    {
+        if ( value instanceof NumberValue )
+        {
+            // Equal numbers of different types must hash the same, e.g. 5 and 5.0
+            if ( value instanceof FloatingPointValue )
+            {
+                double doubleValue = ((FloatingPointValue) value).doubleValue();
+                long longValue = (long) doubleValue;
+                return doubleValue == longValue ? longValue : Double.doubleToLongBits( doubleValue );
+            }
+            return ((NumberValue) value).longValue();
+        }
+        return value.hashCode64();
+    }
+
+    private static long mix( long hash )
+    {
+        // Finalization step of MurmurHash3, spreading the bits of the combined hash over all 64 bits
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private class FalsePositiveCountingClient implements IndexProgressor.NodeValueClient
+    {
+        private final IndexProgressor.NodeValueClient client;
+
+        FalsePositiveCountingClient( IndexProgressor.NodeValueClient client )
+        {
+            this.client = client;
+        }
+
+        @Override
+        public void initialize( IndexDescriptor descriptor, IndexProgressor progressor, IndexQuery[] query, IndexOrder indexOrder, boolean needsValues )
+        {
+            client.initialize( descriptor, new FalsePositiveCountingProgressor( progressor ), query, indexOrder, needsValues );
+        }
+
+        @Override
+        public boolean acceptNode( long reference, Value... values )
+        {
+            return client.acceptNode( reference, values );
+        }
+
+        @Override
+        public boolean needsValues()
+        {
+            return client.needsValues();
+        }
+    }
+
+    private class FalsePositiveCountingProgressor implements IndexProgressor
+    {
+        private final IndexProgressor progressor;
+        private boolean found;
+        private boolean exhausted;
+
+        FalsePositiveCountingProgressor( IndexProgressor progressor )
+        {
+            this.progressor = progressor;
+        }
+
+        @Override
+        public boolean next()
+        {
+            boolean next = progressor.next();
+            if ( next )
+            {
+                found = true;
+            }
+            else if ( !found && !exhausted )
+            {
+                falsePositives.incrementAndGet();
+            }
+            exhausted = !next;
+            return next;
+        }
+
+        @Override
+        public void close()
+        {
+            progressor.close();
+        }
+    }
+}
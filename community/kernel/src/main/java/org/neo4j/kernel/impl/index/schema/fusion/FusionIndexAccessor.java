@@ -80,6 +80,12 @@ class FusionIndexAccessor extends FusionIndexBase<IndexAccessor> implements Inde
         instanceSelector.forAll( accessor -> accessor.force( ioLimiter ) );
     }
 
+    @Override
+    public void compact( int maxWork )
+    {
+        instanceSelector.forAll( accessor -> accessor.compact( maxWork ) );
+    }
+
     @Override
     public void refresh()
     {
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.impl.iterator.ImmutableEmptyLongIterator;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.neo4j.collection.PrimitiveLongCollections;
+import org.neo4j.internal.kernel.api.Cursor;
+import org.neo4j.internal.kernel.api.Scan;
+
+import static org.neo4j.util.Preconditions.requirePositive;
+
+/**
+ * Hands out disjoint batches of a store scan to cursors of different threads. The entities added in the transaction are
+ * snapshotted when the scan is created and handed out first, then consecutive ranges of entity ids in the store, until the
+ * ranges start after the highest id in use. Entities deleted in the transaction are filtered out by the cursors themselves.
+ */
+abstract class BaseCursorScan<C extends Cursor> implements Scan<C>
+{
+    final Read read;
+    private final boolean hasChanges;
+    private final long[] added;
+    private final AtomicInteger nextAdded = new AtomicInteger();
+    private final AtomicLong nextStart = new AtomicLong();
+
+    BaseCursorScan( Read read, long[] added )
+    {
+        this.read = read;
+        this.hasChanges = read.hasTxStateWithChanges();
+        this.added = added;
+    }
+
+    @Override
+    public boolean reserveBatch( C cursor, int sizeHint )
+    {
+        requirePositive( sizeHint );
+        read.ktx.assertOpen();
+
+        LongIterator addedBatch = ImmutableEmptyLongIterator.INSTANCE;
+        int storeBatchSize = sizeHint;
+        if ( nextAdded.get() < added.length )
+        {
+            int from = nextAdded.getAndAdd( sizeHint );
+            int to = Math.min( from + sizeHint, added.length );
+            if ( from < to )
+            {
+                addedBatch = PrimitiveLongCollections.iterator( Arrays.copyOfRange( added, from, to ) );
+                storeBatchSize -= to - from;
+            }
+        }
+        long start = nextStart.getAndAdd( storeBatchSize );
+        return scanBatch( cursor, start, start + storeBatchSize, addedBatch, hasChanges );
+    }
+
+    /**
+     * Initializes the cursor with the store range {@code [start, stop)}, which may be empty, and the given added entities.
+     *
+     * @return whether the cursor got any added entities, or a range which is not entirely after the highest id in use.
+     */
+    abstract boolean scanBatch( C cursor, long start, long stop, LongIterator addedBatch, boolean hasChanges );
+}
@@ -64,6 +64,16 @@ class DefaultNodeCursor implements NodeCursor
         this.addedNodes = ImmutableEmptyLongIterator.INSTANCE;
     }
 
+    boolean scanBatch( Read read, long start, long stop, LongIterator addedNodes, boolean hasChanges )
+    {
+        boolean hasStoreBatch = storeCursor.scanRange( start, stop );
+        this.read = read;
+        this.single = NO_ID;
+        this.hasChanges = hasChanges ? HasChanges.YES : HasChanges.NO;
+        this.addedNodes = addedNodes;
+        return addedNodes.hasNext() || hasStoreBatch;
+    }
+
     void single( long reference, Read read )
     {
         storeCursor.single( reference );
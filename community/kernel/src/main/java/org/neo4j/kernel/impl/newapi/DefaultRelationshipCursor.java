@@ -48,6 +48,17 @@ abstract class DefaultRelationshipCursor<STORECURSOR extends StorageRelationship
         this.checkHasChanges = true;
     }
 
+    /**
+     * Initializes with whether or not there are changes decided up front, by a scan which hands out its own snapshot of the
+     * added relationships.
+     */
+    protected void init( Read read, boolean hasChanges )
+    {
+        this.read = read;
+        this.hasChanges = hasChanges;
+        this.checkHasChanges = false;
+    }
+
     @Override
     public long relationshipReference()
     {
@@ -51,6 +51,16 @@ class DefaultRelationshipScanCursor extends DefaultRelationshipCursor<StorageRel
         this.addedRelationships = ImmutableEmptyLongIterator.INSTANCE;
     }
 
+    boolean scanBatch( Read read, int type, long start, long stop, LongIterator addedRelationships, boolean hasChanges )
+    {
+        boolean hasStoreBatch = storeCursor.scanRange( type, start, stop );
+        this.type = type;
+        this.single = NO_ID;
+        init( read, hasChanges );
+        this.addedRelationships = addedRelationships;
+        return addedRelationships.hasNext() || hasStoreBatch;
+    }
+
     void single( long reference, Read read )
     {
         storeCursor.single( reference );
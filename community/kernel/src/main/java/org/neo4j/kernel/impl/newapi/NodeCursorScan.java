@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.eclipse.collections.api.iterator.LongIterator;
+
+import org.neo4j.internal.kernel.api.NodeCursor;
+
+final class NodeCursorScan extends BaseCursorScan<NodeCursor>
+{
+    NodeCursorScan( Read read )
+    {
+        super( read, read.hasTxStateWithChanges() ? read.txState().addedAndRemovedNodes().getAdded().toArray() : new long[0] );
+    }
+
+    @Override
+    boolean scanBatch( NodeCursor cursor, long start, long stop, LongIterator addedBatch, boolean hasChanges )
+    {
+        return ((DefaultNodeCursor) cursor).scanBatch( read, start, stop, addedBatch, hasChanges );
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.newapi;
+
+import org.eclipse.collections.api.iterator.LongIterator;
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
+import org.neo4j.internal.kernel.api.RelationshipScanCursor;
+import org.neo4j.kernel.api.txstate.TransactionState;
+
+final class RelationshipCursorScan extends BaseCursorScan<RelationshipScanCursor>
+{
+    private final int type;
+
+    /**
+     * @param type relationship type to scan over, or -1 for all relationships regardless of type.
+     */
+    RelationshipCursorScan( Read read, int type )
+    {
+        super( read, read.hasTxStateWithChanges() ? addedRelationships( read.txState(), type ) : new long[0] );
+        this.type = type;
+    }
+
+    @Override
+    boolean scanBatch( RelationshipScanCursor cursor, long start, long stop, LongIterator addedBatch, boolean hasChanges )
+    {
+        return ((DefaultRelationshipScanCursor) cursor).scanBatch( read, type, start, stop, addedBatch, hasChanges );
+    }
+
+    private static long[] addedRelationships( TransactionState txState, int type )
+    {
+        long[] added = txState.addedAndRemovedRelationships().getAdded().toArray();
+        if ( type == -1 )
+        {
+            return added;
+        }
+        LongArrayList ofType = new LongArrayList( added.length );
+        for ( long relationship : added )
+        {
+            txState.getRelationshipState( relationship ).accept( ( relationshipId, typeId, startNodeId, endNodeId ) ->
+            {
+                if ( typeId == type )
+                {
+                    ofType.add( relationshipId );
+                }
+            } );
+        }
+        return ofType.toArray();
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.pagecache;
+
+import org.neo4j.io.pagecache.IOLimiter;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_flush_background_interval;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_flush_background_threads;
+
+/**
+ * Runs the background flushers of the page cache while the database is running, if they are enabled by
+ * {@link org.neo4j.graphdb.factory.GraphDatabaseSettings#pagecache_flush_background_threads}.
+ * <p>
+ * The background flushers share the {@link IOLimiter} of the check pointer, so they write at the rate the check
+ * pointer is allowed to, and checkpoints only have to write out what the background flushers have not already.
+ */
+public class BackgroundPageCacheFlushing extends LifecycleAdapter
+{
+    private final PageCache pageCache;
+    private final Config config;
+    private final IOLimiter ioLimiter;
+    private boolean started;
+
+    public BackgroundPageCacheFlushing( PageCache pageCache, Config config, IOLimiter ioLimiter )
+    {
+        this.pageCache = pageCache;
+        this.config = config;
+        this.ioLimiter = ioLimiter;
+    }
+
+    @Override
+    public void start()
+    {
+        int threads = config.get( pagecache_flush_background_threads );
+        if ( threads > 0 && pageCache instanceof MuninnPageCache )
+        {
+            long intervalMillis = config.get( pagecache_flush_background_interval ).toMillis();
+            ((MuninnPageCache) pageCache).startBackgroundFlushing( threads, intervalMillis, ioLimiter );
+            started = true;
+        }
+    }
+
+    @Override
+    public void stop() throws Throwable
+    {
+        if ( started )
+        {
+            started = false;
+            ((MuninnPageCache) pageCache).stopBackgroundFlushing();
+        }
+    }
+}
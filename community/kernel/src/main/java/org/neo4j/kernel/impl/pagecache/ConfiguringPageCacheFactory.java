@@ -25,7 +25,10 @@ package org.neo4j.kernel.impl.pagecache;
 import org.neo4j.helpers.Service;
 import org.neo4j.io.ByteUnit;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.mem.GrabAllocator;
+import org.neo4j.io.mem.HugePageMode;
 import org.neo4j.io.mem.MemoryAllocator;
+import org.neo4j.io.mem.NumaTopology;
 import org.neo4j.io.os.OsBeanUtil;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageSwapperFactory;
@@ -40,6 +43,8 @@ import org.neo4j.memory.GlobalMemoryTracker;
 import org.neo4j.scheduler.JobScheduler;
 
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.mapped_memory_page_size;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_huge_pages;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_huge_pages_directory;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_swapper;
 import static org.neo4j.kernel.configuration.Settings.BYTES;
@@ -84,7 +89,7 @@ public class ConfiguringPageCacheFactory
     {
         if ( pageCache == null )
         {
-            this.swapperFactory = createAndConfigureSwapperFactory( fs, config, log );
+            this.swapperFactory = createAndConfigureSwapperFactory( fs, config, log, scheduler );
             this.pageCache = createPageCache();
         }
         return pageCache;
@@ -111,7 +116,33 @@ public class ConfiguringPageCacheFactory
             pageCacheMemorySetting = "" + heuristic;
         }
 
-        return MemoryAllocator.createAllocator( pageCacheMemorySetting, GlobalMemoryTracker.INSTANCE );
+        HugePageMode hugePageMode = config.get( pagecache_huge_pages );
+        MemoryAllocator memoryAllocator = MemoryAllocator.createAllocator( pageCacheMemorySetting,
+                GlobalMemoryTracker.INSTANCE, hugePageMode, config.get( pagecache_huge_pages_directory ),
+                ( grabSize, maxMappingSize ) -> log.warn( "A page cache memory allocation of " + grabSize + " bytes is " +
+                        "larger than the " + maxMappingSize + " bytes that can be mapped from " +
+                        pagecache_huge_pages_directory.name() + ", so it is allocated as regular memory instead, which " +
+                        "is only backed by huge pages if transparent huge pages are enabled." ) );
+        log.info( "Page cache memory layout: " + memoryAllocator.describeLayout() );
+        checkMemoryLayout( hugePageMode );
+        return memoryAllocator;
+    }
+
+    private void checkMemoryLayout( HugePageMode hugePageMode )
+    {
+        if ( hugePageMode == HugePageMode.TRANSPARENT && !"always".equals( GrabAllocator.transparentHugePagesSetting() ) )
+        {
+            log.warn( "The " + pagecache_huge_pages.name() + " setting is " + hugePageMode + ", but transparent huge " +
+                      "pages are not set to 'always' in /sys/kernel/mm/transparent_hugepage/enabled, so the page " +
+                      "cache memory will most likely not be backed by huge pages." );
+        }
+        NumaTopology numaTopology = NumaTopology.detect();
+        if ( numaTopology.isUnbalanced() )
+        {
+            log.warn( "This machine has " + numaTopology.nodeCount() + " NUMA nodes, but the memory of this process " +
+                      "is not interleaved across them, so the page cache memory will be placed on whichever node " +
+                      "first touches it. Consider starting the database with `numactl --interleave=all`." );
+        }
     }
 
     public static long defaultHeuristicPageCacheMemory()
@@ -184,10 +215,11 @@ public class ConfiguringPageCacheFactory
         log.info( msg );
     }
 
-    private static PageSwapperFactory createAndConfigureSwapperFactory( FileSystemAbstraction fs, Config config, Log log )
+    private static PageSwapperFactory createAndConfigureSwapperFactory( FileSystemAbstraction fs, Config config, Log log,
+            JobScheduler scheduler )
     {
         PageSwapperFactory factory = getPageSwapperFactory( config, log );
-        factory.open( fs, config );
+        factory.open( fs, config, scheduler );
         return factory;
     }
 
@@ -39,6 +39,7 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
     private long next;
     private long highMark;
     private long nextStoreReference;
+    private boolean batched;
     private boolean open;
 
     RecordNodeCursor( NodeStore read )
@@ -61,9 +62,30 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         this.next = 0;
         this.highMark = nodeHighMark();
         this.nextStoreReference = NO_ID;
+        this.batched = false;
         this.open = true;
     }
 
+    @Override
+    public boolean scanRange( long start, long stop )
+    {
+        long max = nodeHighMark();
+        if ( getId() != NO_ID )
+        {
+            resetState();
+        }
+        if ( pageCursor == null )
+        {
+            pageCursor = nodePage( start );
+        }
+        this.highMark = Math.min( stop - 1, max );
+        this.next = start <= highMark ? start : NO_ID;
+        this.nextStoreReference = NO_ID;
+        this.batched = true;
+        this.open = true;
+        return start <= max;
+    }
+
     @Override
     public void single( long reference )
     {
@@ -79,6 +101,7 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         //This marks the cursor as a "single cursor"
         this.highMark = NO_ID;
         this.nextStoreReference = NO_ID;
+        this.batched = false;
         this.open = true;
     }
 
@@ -159,9 +182,9 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
 
             if ( next > highMark )
             {
-                if ( isSingle() )
+                if ( isSingle() || batched )
                 {
-                    //we are a "single cursor"
+                    //we are a "single cursor" or a "batch cursor", neither of which goes beyond its range
                     next = NO_ID;
                     return inUse();
                 }
@@ -228,6 +251,7 @@ public class RecordNodeCursor extends NodeRecord implements StorageNodeCursor
         {
             return "RecordNodeCursor[id=" + getId() +
                     ", open state with: highMark=" + highMark +
+                    ", batched=" + batched +
                     ", next=" + next +
                     ", underlying record=" + super.toString() + "]";
         }
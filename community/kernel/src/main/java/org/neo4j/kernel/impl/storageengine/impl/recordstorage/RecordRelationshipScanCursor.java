@@ -35,6 +35,7 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
     private long highMark;
     private long nextStoreReference;
     private PageCursor pageCursor;
+    private boolean batched;
     private boolean open;
 
     RecordRelationshipScanCursor( RelationshipStore relationshipStore )
@@ -63,9 +64,37 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
         this.filterType = type;
         this.highMark = relationshipHighMark();
         this.nextStoreReference = NO_ID;
+        this.batched = false;
         this.open = true;
     }
 
+    @Override
+    public boolean scanRange( long start, long stop )
+    {
+        return scanRange( -1, start, stop );
+    }
+
+    @Override
+    public boolean scanRange( int type, long start, long stop )
+    {
+        long max = relationshipHighMark();
+        if ( getId() != NO_ID )
+        {
+            resetState();
+        }
+        if ( pageCursor == null )
+        {
+            pageCursor = relationshipPage( start );
+        }
+        this.filterType = type;
+        this.highMark = Math.min( stop - 1, max );
+        this.next = start <= highMark ? start : NO_ID;
+        this.nextStoreReference = NO_ID;
+        this.batched = true;
+        this.open = true;
+        return start <= max;
+    }
+
     @Override
     public void single( long reference )
     {
@@ -81,6 +110,7 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
         this.filterType = -1;
         this.highMark = NO_ID;
         this.nextStoreReference = NO_ID;
+        this.batched = false;
         this.open = true;
     }
 
@@ -115,6 +145,12 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
                     next = NO_ID;
                     return inUse();
                 }
+                else if ( batched )
+                {
+                    //we are a "batch cursor", which doesn't go beyond its range
+                    next = NO_ID;
+                    return isWantedTypeAndInUse();
+                }
                 else
                 {
                     //we are a "scan cursor"
@@ -161,7 +197,8 @@ class RecordRelationshipScanCursor extends RecordRelationshipCursor implements S
         }
         else
         {
-            return "RelationshipScanCursor[id=" + getId() + ", open state with: highMark=" + highMark + ", next=" + next + ", type=" + filterType +
+            return "RelationshipScanCursor[id=" + getId() + ", open state with: highMark=" + highMark + ", batched=" + batched + ", next=" + next +
+                    ", type=" + filterType +
                     ", underlying record=" + super.toString() + "]";
         }
     }
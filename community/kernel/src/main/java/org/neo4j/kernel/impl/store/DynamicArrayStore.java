@@ -216,25 +216,16 @@ public class DynamicArrayStore extends AbstractDynamicStore
         allocateRecordsFromBytes( target, bytes, recordAllocator );
     }
 
-    private static void allocateFromCompositeType(
-            Collection<DynamicRecord> target,
-            byte[] bytes,
-            DynamicRecordAllocator recordAllocator,
-            boolean allowsStorage,
-            Capability storageCapability )
+    private static byte[] encodeFromCompositeType( byte[] bytes, boolean allowsStorage, Capability storageCapability )
     {
-        if ( allowsStorage )
-        {
-            allocateRecordsFromBytes( target, bytes, recordAllocator );
-        }
-        else
+        if ( !allowsStorage )
         {
             throw new UnsupportedFormatCapabilityException( storageCapability );
         }
+        return bytes;
     }
 
-    private static void allocateFromString( Collection<DynamicRecord> target, String[] array,
-            DynamicRecordAllocator recordAllocator )
+    private static byte[] encodeFromString( String[] array )
     {
         byte[][] stringsAsBytes = new byte[array.length][];
         int totalBytesRequired = STRING_HEADER_SIZE; // 1b type + 4b array length
@@ -254,7 +245,7 @@ public class DynamicArrayStore extends AbstractDynamicStore
             buf.putInt( stringAsBytes.length );
             buf.put( stringAsBytes );
         }
-        allocateRecordsFromBytes( target, buf.array(), recordAllocator );
+        return buf.array();
     }
 
     public void allocateRecords( Collection<DynamicRecord> target, Object array )
@@ -264,6 +255,14 @@ public class DynamicArrayStore extends AbstractDynamicStore
 
     public static void allocateRecords( Collection<DynamicRecord> target, Object array,
             DynamicRecordAllocator recordAllocator, boolean allowStorePointsAndTemporal )
+    {
+        allocateRecordsFromBytes( target, encode( array, allowStorePointsAndTemporal ), recordAllocator );
+    }
+
+    /**
+     * @return the bytes that the given array is stored as in a chain of dynamic records, including its header.
+     */
+    public static byte[] encode( Object array, boolean allowStorePointsAndTemporal )
     {
         if ( !array.getClass().isArray() )
         {
@@ -273,46 +272,46 @@ public class DynamicArrayStore extends AbstractDynamicStore
         Class<?> type = array.getClass().getComponentType();
         if ( type.equals( String.class ) )
         {
-            allocateFromString( target, (String[]) array, recordAllocator );
+            return encodeFromString( (String[]) array );
         }
         else if ( type.equals( PointValue.class ) )
         {
-            allocateFromCompositeType( target,GeometryType.encodePointArray( (PointValue[]) array ),
-                    recordAllocator, allowStorePointsAndTemporal, Capability.POINT_PROPERTIES );
+            return encodeFromCompositeType( GeometryType.encodePointArray( (PointValue[]) array ),
+                    allowStorePointsAndTemporal, Capability.POINT_PROPERTIES );
         }
         else if ( type.equals( LocalDate.class ) )
         {
-            allocateFromCompositeType( target, TemporalType.encodeDateArray( (LocalDate[]) array ),
-                    recordAllocator, allowStorePointsAndTemporal, Capability.TEMPORAL_PROPERTIES );
+            return encodeFromCompositeType( TemporalType.encodeDateArray( (LocalDate[]) array ),
+                    allowStorePointsAndTemporal, Capability.TEMPORAL_PROPERTIES );
         }
         else if ( type.equals( LocalTime.class ) )
         {
-            allocateFromCompositeType( target, TemporalType.encodeLocalTimeArray( (LocalTime[]) array ),
-                    recordAllocator, allowStorePointsAndTemporal, Capability.TEMPORAL_PROPERTIES );
+            return encodeFromCompositeType( TemporalType.encodeLocalTimeArray( (LocalTime[]) array ),
+                    allowStorePointsAndTemporal, Capability.TEMPORAL_PROPERTIES );
         }
         else if ( type.equals( LocalDateTime.class ) )
         {
-            allocateFromCompositeType( target, TemporalType.encodeLocalDateTimeArray( (LocalDateTime[]) array ),
-                    recordAllocator, allowStorePointsAndTemporal, Capability.TEMPORAL_PROPERTIES );
+            return encodeFromCompositeType( TemporalType.encodeLocalDateTimeArray( (LocalDateTime[]) array ),
+                    allowStorePointsAndTemporal, Capability.TEMPORAL_PROPERTIES );
         }
         else if ( type.equals( OffsetTime.class ) )
         {
-            allocateFromCompositeType( target, TemporalType.encodeTimeArray( (OffsetTime[]) array ),
-                    recordAllocator, allowStorePointsAndTemporal, Capability.TEMPORAL_PROPERTIES );
+            return encodeFromCompositeType( TemporalType.encodeTimeArray( (OffsetTime[]) array ),
+                    allowStorePointsAndTemporal, Capability.TEMPORAL_PROPERTIES );
         }
         else if ( type.equals( ZonedDateTime.class ) )
         {
-            allocateFromCompositeType( target, TemporalType.encodeDateTimeArray( (ZonedDateTime[]) array ),
-                    recordAllocator, allowStorePointsAndTemporal, Capability.TEMPORAL_PROPERTIES );
+            return encodeFromCompositeType( TemporalType.encodeDateTimeArray( (ZonedDateTime[]) array ),
+                    allowStorePointsAndTemporal, Capability.TEMPORAL_PROPERTIES );
         }
         else if ( type.equals( DurationValue.class ) )
         {
-            allocateFromCompositeType( target, TemporalType.encodeDurationArray( (DurationValue[]) array ),
-                    recordAllocator, allowStorePointsAndTemporal, Capability.TEMPORAL_PROPERTIES );
+            return encodeFromCompositeType( TemporalType.encodeDurationArray( (DurationValue[]) array ),
+                    allowStorePointsAndTemporal, Capability.TEMPORAL_PROPERTIES );
         }
         else
         {
-            allocateFromNumbers( target, array, recordAllocator );
+            return encodeFromNumbers( array, 0 );
         }
     }
 
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.store;
+
+import com.github.luben.zstd.Zstd;
+
+import java.util.Arrays;
+
+import org.neo4j.kernel.impl.store.format.Capability;
+import org.neo4j.util.FeatureToggles;
+
+/**
+ * Encoding of values in the dynamic string and array stores of formats having {@link Capability#COMPRESSED_DYNAMIC_VALUES}.
+ * Every value is prefixed with a single codec byte:
+ * <pre>
+ * UNCOMPRESSED: [codec][value bytes ...]
+ * ZSTD:         [codec][uncompressed length, 4B][zstd frame ...]
+ * </pre>
+ * Values smaller than the compression threshold, or values which do not get smaller when compressed, are stored
+ * uncompressed so that reading them only means skipping the codec byte.
+ * <p>
+ * zstd-jni is not a transitive dependency of the kernel. All calls into it are kept in {@link ZstdCodec}, which is only loaded
+ * when opening a store in a format with compressed values, so that other stores never load the native library.
+ */
+final class DynamicValueCompression
+{
+    static final byte UNCOMPRESSED = 0;
+    static final byte ZSTD = 1;
+    static final int CODEC_SIZE = 1;
+    private static final int ZSTD_HEADER_SIZE = CODEC_SIZE + Integer.BYTES;
+
+    private static final int THRESHOLD = FeatureToggles.getInteger( DynamicValueCompression.class, "threshold", 128 );
+    private static final int LEVEL = FeatureToggles.getInteger( DynamicValueCompression.class, "level", 3 );
+
+    private DynamicValueCompression()
+    {
+    }
+
+    /**
+     * Called when opening a store with compressed dynamic values, to fail right away rather than on the first large value.
+     *
+     * @throws UnderlyingStorageException if zstd-jni is not on the class path, or its native library can't be loaded.
+     */
+    static void assertAvailable()
+    {
+        try
+        {
+            ZstdCodec.load();
+        }
+        catch ( LinkageError e )
+        {
+            throw new UnderlyingStorageException( "The record format of this store compresses property values with zstd, " +
+                    "which requires com.github.luben:zstd-jni on the class path", e );
+        }
+    }
+
+    /**
+     * @param value encoded string or array value.
+     * @return the value prefixed with a codec byte, compressed if that makes it smaller.
+     */
+    static byte[] compress( byte[] value )
+    {
+        if ( value.length >= THRESHOLD )
+        {
+            byte[] compressed = ZstdCodec.compress( value, LEVEL );
+            if ( ZSTD_HEADER_SIZE + compressed.length < CODEC_SIZE + value.length )
+            {
+                byte[] result = new byte[ZSTD_HEADER_SIZE + compressed.length];
+                result[0] = ZSTD;
+                putInt( result, CODEC_SIZE, value.length );
+                System.arraycopy( compressed, 0, result, ZSTD_HEADER_SIZE, compressed.length );
+                return result;
+            }
+        }
+        byte[] result = new byte[CODEC_SIZE + value.length];
+        result[0] = UNCOMPRESSED;
+        System.arraycopy( value, 0, result, CODEC_SIZE, value.length );
+        return result;
+    }
+
+    /**
+     * @param stored bytes of a stored value, starting with the codec byte.
+     * @param length number of stored bytes.
+     * @return the value as it was before {@link #compress(byte[]) compression}.
+     */
+    static byte[] decompress( byte[] stored, int length )
+    {
+        byte codec = stored[0];
+        switch ( codec )
+        {
+        case UNCOMPRESSED:
+            return Arrays.copyOfRange( stored, CODEC_SIZE, length );
+        case ZSTD:
+            return decompressZstd( stored, CODEC_SIZE, length - CODEC_SIZE );
+        default:
+            throw new InvalidRecordException( "Unknown codec " + codec + " for dynamic value" );
+        }
+    }
+
+    /**
+     * @param source bytes of a {@link #ZSTD} value, excluding the codec byte, i.e. starting at the uncompressed length.
+     * @param offset offset into {@code source} where the value starts.
+     * @param length number of bytes of the value.
+     * @return the uncompressed value.
+     */
+    static byte[] decompressZstd( byte[] source, int offset, int length )
+    {
+        int uncompressedLength = getInt( source, offset );
+        if ( uncompressedLength < 0 || length < Integer.BYTES )
+        {
+            throw new InvalidRecordException( "Invalid compressed dynamic value of " + length + " bytes, uncompressed length " + uncompressedLength );
+        }
+        byte[] value = new byte[uncompressedLength];
+        ZstdCodec.decompress( value, source, offset + Integer.BYTES, length - Integer.BYTES );
+        return value;
+    }
+
+    private static void putInt( byte[] target, int offset, int value )
+    {
+        target[offset] = (byte) (value >>> 24);
+        target[offset + 1] = (byte) (value >>> 16);
+        target[offset + 2] = (byte) (value >>> 8);
+        target[offset + 3] = (byte) value;
+    }
+
+    private static int getInt( byte[] source, int offset )
+    {
+        return (source[offset] & 0xFF) << 24 | (source[offset + 1] & 0xFF) << 16 | (source[offset + 2] & 0xFF) << 8 | source[offset + 3] & 0xFF;
+    }
+
+    private static final class ZstdCodec
+    {
+        static void load()
+        {
+            // Resolves the Zstd class and loads its native library
+            Zstd.isError( 0 );
+        }
+
+        static byte[] compress( byte[] value, int level )
+        {
+            return Zstd.compress( value, level );
+        }
+
+        static void decompress( byte[] target, byte[] source, int offset, int length )
+        {
+            long result = Zstd.decompressByteArray( target, 0, target.length, source, offset, length );
+            if ( Zstd.isError( result ) || result != target.length )
+            {
+                throw new InvalidRecordException( "Unable to decompress dynamic value: " +
+                        (Zstd.isError( result ) ? Zstd.getErrorName( result ) : result + " of " + target.length + " bytes decompressed") );
+            }
+        }
+    }
+}
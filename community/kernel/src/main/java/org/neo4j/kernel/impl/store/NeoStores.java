@@ -41,6 +41,7 @@ import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCachePartition;
 import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.tracing.cursor.context.VersionContextSupplier;
 import org.neo4j.kernel.NeoStoresDiagnostics;
@@ -80,6 +81,13 @@ public class NeoStores implements AutoCloseable
                                                                  " %s as one of the stores types that should be open" +
                                                                  " to be able to use it.";
 
+    /**
+     * The name of the page cache partition that the relationship group store is mapped into, when it has been given
+     * a quota with {@link GraphDatabaseSettings#pagecache_relationship_groups_reserved_share} or
+     * {@link GraphDatabaseSettings#pagecache_relationship_groups_max_share}.
+     */
+    public static final String RELATIONSHIP_GROUPS_PARTITION = "relationship_groups";
+
     public static boolean isStorePresent( PageCache pageCache, DatabaseLayout databaseLayout )
     {
         File metaDataStore = databaseLayout.metadataStore();
@@ -615,7 +623,19 @@ public class NeoStores implements AutoCloseable
     CommonAbstractStore createRelationshipGroupStore()
     {
         return initialize( new RelationshipGroupStore( layout.relationshipGroupStore(), layout.idRelationshipGroupStore(), config,
-                idGeneratorFactory, pageCache, logProvider, recordFormats, openOptions ) );
+                idGeneratorFactory, pageCache, logProvider, recordFormats, relationshipGroupStoreOpenOptions() ) );
+    }
+
+    private OpenOption[] relationshipGroupStoreOpenOptions()
+    {
+        double reservedShare = config.get( GraphDatabaseSettings.pagecache_relationship_groups_reserved_share );
+        double maxShare = config.get( GraphDatabaseSettings.pagecache_relationship_groups_max_share );
+        if ( reservedShare == 0 && maxShare == 1 )
+        {
+            return openOptions;
+        }
+        return ArrayUtil.concat( openOptions,
+                PageCachePartition.partition( RELATIONSHIP_GROUPS_PARTITION, reservedShare, maxShare ) );
     }
 
     CommonAbstractStore createLabelTokenNamesStore()
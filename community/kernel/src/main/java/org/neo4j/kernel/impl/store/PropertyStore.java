@@ -157,6 +157,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
     // this variable here can be removed once the support for older store versions (that do not have these two
     // capabilities) has ceased, the variable can be removed.
     private final boolean allowStorePointsAndTemporal;
+    private final boolean compressDynamicValues;
 
     public PropertyStore(
             File file,
@@ -178,6 +179,11 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         this.arrayStore = arrayPropertyStore;
         allowStorePointsAndTemporal =
                 recordFormats.hasCapability( Capability.POINT_PROPERTIES ) && recordFormats.hasCapability( Capability.TEMPORAL_PROPERTIES );
+        compressDynamicValues = recordFormats.hasCapability( Capability.COMPRESSED_DYNAMIC_VALUES );
+        if ( compressDynamicValues )
+        {
+            DynamicValueCompression.assertAvailable();
+        }
     }
 
     @Override
@@ -297,23 +303,39 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         return propertyBlock.getType().value( propertyBlock, this );
     }
 
-    private static void allocateStringRecords( Collection<DynamicRecord> target, byte[] chars, DynamicRecordAllocator allocator )
+    private static void allocateStringRecords( Collection<DynamicRecord> target, byte[] chars, DynamicRecordAllocator allocator,
+            boolean compressDynamicValues )
     {
-        AbstractDynamicStore.allocateRecordsFromBytes( target, chars, allocator );
+        AbstractDynamicStore.allocateRecordsFromBytes( target, compressDynamicValues ? DynamicValueCompression.compress( chars ) : chars, allocator );
     }
 
-    private static void allocateArrayRecords( Collection<DynamicRecord> target, Object array, DynamicRecordAllocator allocator, boolean allowStorePoints )
+    private static void allocateArrayRecords( Collection<DynamicRecord> target, Object array, DynamicRecordAllocator allocator, boolean allowStorePoints,
+            boolean compressDynamicValues )
     {
-        DynamicArrayStore.allocateRecords( target, array, allocator, allowStorePoints );
+        if ( compressDynamicValues )
+        {
+            AbstractDynamicStore.allocateRecordsFromBytes( target,
+                    DynamicValueCompression.compress( DynamicArrayStore.encode( array, allowStorePoints ) ), allocator );
+        }
+        else
+        {
+            DynamicArrayStore.allocateRecords( target, array, allocator, allowStorePoints );
+        }
     }
 
     public void encodeValue( PropertyBlock block, int keyId, Value value )
     {
-        encodeValue( block, keyId, value, stringStore, arrayStore, allowStorePointsAndTemporal );
+        encodeValue( block, keyId, value, stringStore, arrayStore, allowStorePointsAndTemporal, compressDynamicValues );
     }
 
     public static void encodeValue( PropertyBlock block, int keyId, Value value, DynamicRecordAllocator stringAllocator, DynamicRecordAllocator arrayAllocator,
             boolean allowStorePointsAndTemporal )
+    {
+        encodeValue( block, keyId, value, stringAllocator, arrayAllocator, allowStorePointsAndTemporal, false );
+    }
+
+    public static void encodeValue( PropertyBlock block, int keyId, Value value, DynamicRecordAllocator stringAllocator, DynamicRecordAllocator arrayAllocator,
+            boolean allowStorePointsAndTemporal, boolean compressDynamicValues )
     {
         if ( value instanceof ArrayValue )
         {
@@ -327,7 +349,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
 
             // Fall back to dynamic array store
             List<DynamicRecord> arrayRecords = new ArrayList<>();
-            allocateArrayRecords( arrayRecords, asObject, arrayAllocator, allowStorePointsAndTemporal );
+            allocateArrayRecords( arrayRecords, asObject, arrayAllocator, allowStorePointsAndTemporal, compressDynamicValues );
             setSingleBlockValue( block, keyId, PropertyType.ARRAY, Iterables.first( arrayRecords ).getId() );
             for ( DynamicRecord valueRecord : arrayRecords )
             {
@@ -337,7 +359,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         }
         else
         {
-            value.writeTo( new PropertyBlockValueWriter( block, keyId, stringAllocator, allowStorePointsAndTemporal ) );
+            value.writeTo( new PropertyBlockValueWriter( block, keyId, stringAllocator, allowStorePointsAndTemporal, compressDynamicValues ) );
         }
     }
 
@@ -353,16 +375,16 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
 
     public ByteBuffer loadString( long reference, ByteBuffer buffer, PageCursor page )
     {
-        return readDynamic( stringStore, reference, buffer, page );
+        return readDynamic( stringStore, reference, buffer, page, compressDynamicValues );
     }
 
     public ByteBuffer loadArray( long reference, ByteBuffer buffer, PageCursor page )
     {
-        return readDynamic( arrayStore, reference, buffer, page );
+        return readDynamic( arrayStore, reference, buffer, page, compressDynamicValues );
     }
 
     private static ByteBuffer readDynamic( AbstractDynamicStore store, long reference, ByteBuffer buffer,
-            PageCursor page )
+            PageCursor page, boolean compressDynamicValues )
     {
         if ( buffer == null )
         {
@@ -373,6 +395,10 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
             buffer.clear();
         }
         DynamicRecord record = store.newRecord();
+        // The codec byte of compressed values is skipped here, so that uncompressed values end up in the buffer
+        // exactly like they would for stores without compression
+        int skip = compressDynamicValues ? DynamicValueCompression.CODEC_SIZE : 0;
+        byte codec = DynamicValueCompression.UNCOMPRESSED;
         do
         {
             //We need to load forcefully here since otherwise we can have inconsistent reads
@@ -380,13 +406,25 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
             store.getRecordByCursor( reference, record, RecordLoad.FORCE, page );
             reference = record.getNextBlock();
             byte[] data = record.getData();
-            if ( buffer.remaining() < data.length )
+            if ( skip > 0 && data.length > 0 )
             {
-                buffer = grow( buffer, data.length );
+                codec = data[0];
             }
-            buffer.put( data, 0, data.length );
+            int length = Math.max( 0, data.length - skip );
+            if ( buffer.remaining() < length )
+            {
+                buffer = grow( buffer, length );
+            }
+            buffer.put( data, data.length - length, length );
+            skip = 0;
         }
         while ( reference != NO_ID );
+        if ( codec == DynamicValueCompression.ZSTD )
+        {
+            byte[] value = DynamicValueCompression.decompressZstd( buffer.array(), buffer.arrayOffset(), buffer.position() );
+            buffer = ByteBuffer.wrap( value );
+            buffer.position( value.length );
+        }
         return buffer;
     }
 
@@ -409,12 +447,15 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         private final int keyId;
         private final DynamicRecordAllocator stringAllocator;
         private final boolean allowStorePointsAndTemporal;
-        PropertyBlockValueWriter( PropertyBlock block, int keyId, DynamicRecordAllocator stringAllocator, boolean allowStorePointsAndTemporal )
+        private final boolean compressDynamicValues;
+        PropertyBlockValueWriter( PropertyBlock block, int keyId, DynamicRecordAllocator stringAllocator, boolean allowStorePointsAndTemporal,
+                boolean compressDynamicValues )
         {
             this.block = block;
             this.keyId = keyId;
             this.stringAllocator = stringAllocator;
             this.allowStorePointsAndTemporal = allowStorePointsAndTemporal;
+            this.compressDynamicValues = compressDynamicValues;
         }
 
         @Override
@@ -490,7 +531,7 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
             // Fall back to dynamic string store
             byte[] encodedString = encodeString( value );
             List<DynamicRecord> valueRecords = new ArrayList<>();
-            allocateStringRecords( valueRecords, encodedString, stringAllocator );
+            allocateStringRecords( valueRecords, encodedString, stringAllocator, compressDynamicValues );
             setSingleBlockValue( block, keyId, PropertyType.STRING, Iterables.first( valueRecords ).getId() );
             for ( DynamicRecord valueRecord : valueRecords )
             {
@@ -657,6 +698,10 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
 
     private String getStringFor( Collection<DynamicRecord> dynamicRecords )
     {
+        if ( compressDynamicValues )
+        {
+            return decodeString( decompress( dynamicRecords ) );
+        }
         Pair<byte[], byte[]> source = stringStore.readFullByteArray( dynamicRecords, PropertyType.STRING );
         // A string doesn't have a header in the data array
         return decodeString( source.other() );
@@ -668,11 +713,21 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         return getArrayFor( propertyBlock.getValueRecords() );
     }
 
-    private Value getArrayFor( Iterable<DynamicRecord> records )
+    private Value getArrayFor( Collection<DynamicRecord> records )
     {
+        if ( compressDynamicValues )
+        {
+            return readArrayFromBuffer( ByteBuffer.wrap( decompress( records ) ) );
+        }
         return getRightArray( arrayStore.readFullByteArray( records, PropertyType.ARRAY ) );
     }
 
+    private static byte[] decompress( Collection<DynamicRecord> records )
+    {
+        ByteBuffer stored = AbstractDynamicStore.concatData( records, new byte[0] );
+        return DynamicValueCompression.decompress( stored.array(), stored.limit() );
+    }
+
     @Override
     public String toString()
     {
@@ -704,6 +759,14 @@ public class PropertyStore extends CommonAbstractStore<PropertyRecord,NoStoreHea
         return allowStorePointsAndTemporal;
     }
 
+    /**
+     * @return whether or not values in the dynamic string and array stores are compressed.
+     */
+    public boolean compressDynamicValues()
+    {
+        return compressDynamicValues;
+    }
+
     /**
      * @return a calculator of property value sizes. The returned instance is designed to be used multiple times by a single thread only.
      */
@@ -45,21 +45,31 @@ public class PropertyValueRecordSizeCalculator implements ToIntFunction<Value[]>
     private final int propertyRecordSize;
     private final int stringRecordSize;
     private final int arrayRecordSize;
+    private final boolean compressDynamicValues;
 
     public PropertyValueRecordSizeCalculator( PropertyStore propertyStore )
     {
         this( propertyStore.getRecordSize(),
                 propertyStore.getStringStore().getRecordSize(), propertyStore.getStringStore().getRecordDataSize(),
-                propertyStore.getArrayStore().getRecordSize(), propertyStore.getArrayStore().getRecordDataSize() );
+                propertyStore.getArrayStore().getRecordSize(), propertyStore.getArrayStore().getRecordDataSize(),
+                propertyStore.compressDynamicValues() );
     }
 
     public PropertyValueRecordSizeCalculator( int propertyRecordSize,
             int stringRecordSize, int stringRecordDataSize,
             int arrayRecordSize, int arrayRecordDataSize )
+    {
+        this( propertyRecordSize, stringRecordSize, stringRecordDataSize, arrayRecordSize, arrayRecordDataSize, false );
+    }
+
+    public PropertyValueRecordSizeCalculator( int propertyRecordSize,
+            int stringRecordSize, int stringRecordDataSize,
+            int arrayRecordSize, int arrayRecordDataSize, boolean compressDynamicValues )
     {
         this.propertyRecordSize = propertyRecordSize;
         this.stringRecordSize = stringRecordSize;
         this.arrayRecordSize = arrayRecordSize;
+        this.compressDynamicValues = compressDynamicValues;
         this.stringRecordCounter = new StandardDynamicRecordAllocator( stringRecordIds, stringRecordDataSize );
         this.arrayRecordCounter = new StandardDynamicRecordAllocator( arrayRecordIds, arrayRecordDataSize );
     }
@@ -75,7 +85,7 @@ public class PropertyValueRecordSizeCalculator implements ToIntFunction<Value[]>
         for ( Value value : values )
         {
             PropertyBlock block = new PropertyBlock();
-            PropertyStore.encodeValue( block, 0 /*doesn't matter*/, value, stringRecordCounter, arrayRecordCounter, true );
+            PropertyStore.encodeValue( block, 0 /*doesn't matter*/, value, stringRecordCounter, arrayRecordCounter, true, compressDynamicValues );
             if ( block.getValueBlocks().length > freeBlocksInCurrentRecord )
             {
                 propertyRecordsUsed++;
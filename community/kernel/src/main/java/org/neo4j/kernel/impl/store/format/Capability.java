@@ -70,6 +70,11 @@ public enum Capability
      */
     SECONDARY_RECORD_UNITS( CapabilityType.FORMAT ),
 
+    /**
+     * Values in the dynamic string and array property stores are prefixed with a codec marker and may be compressed.
+     */
+    COMPRESSED_DYNAMIC_VALUES( CapabilityType.FORMAT, CapabilityType.STORE ),
+
     /**
      * Lucene Index supports sorting
      */
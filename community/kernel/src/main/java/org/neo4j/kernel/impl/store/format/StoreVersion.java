@@ -38,7 +38,9 @@ public enum StoreVersion
     HIGH_LIMIT_V3_1_0( "vE.H.2", "3.1.0" ),
     HIGH_LIMIT_V3_2_0( "vE.H.3", "3.2.0" ),
     HIGH_LIMIT_V3_4_0( "vE.H.4", "3.4.0" ),
-    HIGH_LIMIT_V3_6_0( "vE.H.5", "3.6.0" );
+    HIGH_LIMIT_V3_6_0( "vE.H.5", "3.6.0" ),
+
+    COMPRESSED_V3_6( "vC.Z.0", "3.6.0" );
 
     private final String versionString;
     private final String introductionVersion;
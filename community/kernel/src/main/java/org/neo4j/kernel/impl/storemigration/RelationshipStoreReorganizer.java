@@ -0,0 +1,367 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2020 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB.
+ *
+ * ONgDB is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.neo4j.kernel.impl.storemigration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.layout.DatabaseFile;
+import org.neo4j.io.layout.DatabaseLayout;
+import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.PageCursor;
+import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
+import org.neo4j.kernel.configuration.Config;
+import org.neo4j.kernel.impl.store.MetaDataStore;
+import org.neo4j.kernel.impl.store.MetaDataStore.Position;
+import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.NodeStore;
+import org.neo4j.kernel.impl.store.RelationshipGroupStore;
+import org.neo4j.kernel.impl.store.RelationshipStore;
+import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.StoreType;
+import org.neo4j.kernel.impl.store.format.RecordFormats;
+import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
+import org.neo4j.kernel.impl.store.id.validation.IdValidator;
+import org.neo4j.kernel.impl.store.record.NodeRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipGroupRecord;
+import org.neo4j.kernel.impl.store.record.RelationshipRecord;
+import org.neo4j.kernel.impl.util.monitoring.ProgressReporter;
+import org.neo4j.logging.NullLogProvider;
+import org.neo4j.storageengine.api.StoreId;
+import org.neo4j.unsafe.impl.batchimport.cache.LongArray;
+import org.neo4j.unsafe.impl.batchimport.cache.NumberArrayFactory;
+
+import static org.neo4j.kernel.impl.store.record.AbstractBaseRecord.NO_ID;
+import static org.neo4j.kernel.impl.store.record.Record.NULL_REFERENCE;
+import static org.neo4j.kernel.impl.store.record.RecordLoad.CHECK;
+
+/**
+ * Rewrites the relationship store of a database which is not running, such that the relationships of every node are
+ * stored next to each other. Relationships get new ids in the order they are found when walking the relationship
+ * chains, or the relationship group chains of dense nodes, of all nodes in node id order. A traversal of the
+ * relationships of a node will then mostly read consecutive records, instead of one page per hop.
+ * <p>
+ * The node, node label and relationship group stores are copied to a working directory, where the relationship
+ * pointers in them are updated while a new relationship store is written. Only when all of them have been written are
+ * they moved over the stores of the database, so that a failure while writing them leaves the database untouched.
+ * Before the move starts, a marker file is created in the working directory. The stores are moved one by one, so if the
+ * move is interrupted, the database is left with a mix of old and new stores, and the working directory with the
+ * marker must be kept. {@link #completeInterruptedReorganisation(DatabaseLayout, DatabaseLayout)} then completes the
+ * move, and must be called before the database is used again.
+ * <p>
+ * Relationship ids change, so anything keeping relationship ids outside of the record stores, like explicit
+ * relationship indexes or relationship fulltext indexes, must be rebuilt afterwards.
+ */
+public class RelationshipStoreReorganizer
+{
+    private static final StoreType[] COPIED_STORES = {StoreType.NODE_LABEL, StoreType.NODE, StoreType.RELATIONSHIP_GROUP};
+    private static final String MOVE_MARKER_NAME = "reorganised";
+
+    private final PageCache pageCache;
+    private final FileSystemAbstraction fs;
+    private final Config config;
+
+    public RelationshipStoreReorganizer( PageCache pageCache, FileSystemAbstraction fs, Config config )
+    {
+        this.pageCache = pageCache;
+        this.fs = fs;
+        this.config = config;
+    }
+
+    /**
+     * @param databaseLayout the database to reorganise.
+     * @param workingLayout an empty directory on the same partition as the database, to write the new stores to.
+     * @param format the record format of the database.
+     * @param progressReporter receives progress in number of visited nodes.
+     * @return the number of relationships in the reorganised relationship store.
+     * @throws IOException if reading or writing any of the store files fails. If the new stores have already been
+     * written, and moving them over the database failed, then {@link #hasUnfinishedMove(DatabaseLayout)} is
+     * {@code true}, and the working directory must be kept until the move has been completed.
+     */
+    public long reorganise( DatabaseLayout databaseLayout, DatabaseLayout workingLayout, RecordFormats format, ProgressReporter progressReporter )
+            throws IOException
+    {
+        fs.mkdirs( workingLayout.databaseDirectory() );
+        fileOperation( FileOperation.COPY, databaseLayout, workingLayout, false, COPIED_STORES );
+
+        long relationshipCount;
+        try ( NeoStores source = openStores( databaseLayout, format, false );
+              NeoStores target = openStores( workingLayout, format, true ) )
+        {
+            progressReporter.start( source.getNodeStore().getHighId() );
+            relationshipCount = new Reorganisation( source, target ).run( progressReporter );
+            progressReporter.completed();
+        }
+
+        fs.create( moveMarker( workingLayout ) ).close();
+        completeMove( databaseLayout, workingLayout );
+        return relationshipCount;
+    }
+
+    /**
+     * Complete a reorganisation whose move of the new stores over the database was interrupted.
+     *
+     * @param databaseLayout the database that was being reorganised.
+     * @param workingLayout the working directory of the interrupted reorganisation.
+     * @return {@code true} if there was an interrupted move, which has now been completed, or {@code false} if there
+     * was nothing to complete, in which case the database has not been touched by any reorganisation that used the
+     * given working directory.
+     * @throws IOException if moving the stores fails again.
+     */
+    public boolean completeInterruptedReorganisation( DatabaseLayout databaseLayout, DatabaseLayout workingLayout ) throws IOException
+    {
+        if ( !hasUnfinishedMove( workingLayout ) )
+        {
+            return false;
+        }
+        completeMove( databaseLayout, workingLayout );
+        return true;
+    }
+
+    /**
+     * @param workingLayout the working directory of a reorganisation.
+     * @return {@code true} if the new stores in the working directory have been written, but not yet all moved over
+     * the database.
+     */
+    public boolean hasUnfinishedMove( DatabaseLayout workingLayout )
+    {
+        return fs.fileExists( moveMarker( workingLayout ) );
+    }
+
+    private void completeMove( DatabaseLayout databaseLayout, DatabaseLayout workingLayout ) throws IOException
+    {
+        try
+        {
+            // Stores that were moved before an interruption are no longer in the working directory
+            fileOperation( FileOperation.MOVE, workingLayout, databaseLayout, true, COPIED_STORES );
+            fileOperation( FileOperation.MOVE, workingLayout, databaseLayout, true, StoreType.RELATIONSHIP );
+
+            // Relationship ids differ from those of any copy of this database made before, so it must not be possible
+            // to apply transactions from such a copy to it, or the other way around
+            MetaDataStore.setRecord( pageCache, databaseLayout.metadataStore(), Position.RANDOM_NUMBER, new StoreId( 0 ).getRandomId() );
+        }
+        catch ( IOException e )
+        {
+            throw new IOException( "Failed to move the reorganised stores from " + workingLayout.databaseDirectory() +
+                    " into " + databaseLayout.databaseDirectory() + ". Keep the former, and complete the reorganisation " +
+                    "before using the database", e );
+        }
+        fs.deleteFileOrThrow( moveMarker( workingLayout ) );
+    }
+
+    private static File moveMarker( DatabaseLayout workingLayout )
+    {
+        return workingLayout.file( MOVE_MARKER_NAME );
+    }
+
+    private NeoStores openStores( DatabaseLayout layout, RecordFormats format, boolean createIfNotExists )
+    {
+        return new StoreFactory( layout, config, new DefaultIdGeneratorFactory( fs ), pageCache, fs, format, NullLogProvider.getInstance(),
+                EmptyVersionContextSupplier.EMPTY ).openNeoStores( createIfNotExists, StoreType.NODE, StoreType.RELATIONSHIP, StoreType.RELATIONSHIP_GROUP );
+    }
+
+    private void fileOperation( FileOperation operation, DatabaseLayout from, DatabaseLayout to, boolean skipMissing, StoreType... types )
+            throws IOException
+    {
+        for ( StoreType type : types )
+        {
+            DatabaseFile databaseFile = type.getDatabaseFile();
+            List<File> files = from.file( databaseFile ).collect( Collectors.toList() );
+            from.idFile( databaseFile ).ifPresent( files::add );
+            for ( File file : files )
+            {
+                operation.perform( fs, file.getName(), from.databaseDirectory(), skipMissing, to.databaseDirectory(),
+                        ExistingTargetStrategy.OVERWRITE );
+            }
+        }
+    }
+
+    /**
+     * State of one reorganisation: the source and target stores, with cursors and records for reading the source stores,
+     * and the mapping from old to new relationship ids.
+     */
+    private static class Reorganisation
+    {
+        private final NodeStore sourceNodes;
+        private final RelationshipStore sourceRelationships;
+        private final RelationshipGroupStore sourceGroups;
+        private final NodeStore targetNodes;
+        private final RelationshipStore targetRelationships;
+        private final RelationshipGroupStore targetGroups;
+        private final NodeRecord node;
+        private final RelationshipRecord relationship;
+        private final RelationshipGroupRecord group;
+        private long nextNewId;
+
+        Reorganisation( NeoStores source, NeoStores target )
+        {
+            sourceNodes = source.getNodeStore();
+            sourceRelationships = source.getRelationshipStore();
+            sourceGroups = source.getRelationshipGroupStore();
+            targetNodes = target.getNodeStore();
+            targetRelationships = target.getRelationshipStore();
+            targetGroups = target.getRelationshipGroupStore();
+            node = sourceNodes.newRecord();
+            relationship = sourceRelationships.newRecord();
+            group = sourceGroups.newRecord();
+        }
+
+        long run( ProgressReporter progressReporter )
+        {
+            long highRelationshipId = sourceRelationships.getHighId();
+            try ( LongArray newIds = NumberArrayFactory.AUTO_WITHOUT_PAGECACHE.newLongArray( highRelationshipId, NO_ID );
+                  PageCursor nodeCursor = sourceNodes.openPageCursorForReading( 0 );
+                  PageCursor relationshipCursor = sourceRelationships.openPageCursorForReading( 0 );
+                  PageCursor groupCursor = sourceGroups.openPageCursorForReading( 0 ) )
+            {
+                // Every relationship in the chains of a node has a new id once that node has been visited,
+                // so the pointers of the node and its groups can be updated right away
+                long highNodeId = sourceNodes.getHighId();
+                for ( long nodeId = 0; nodeId < highNodeId; nodeId++ )
+                {
+                    sourceNodes.getRecordByCursor( nodeId, node, CHECK, nodeCursor );
+                    if ( node.inUse() && !NULL_REFERENCE.is( node.getNextRel() ) )
+                    {
+                        if ( node.isDense() )
+                        {
+                            reorganiseGroupChain( nodeId, node.getNextRel(), newIds, relationshipCursor, groupCursor );
+                        }
+                        else
+                        {
+                            assignChain( nodeId, node.getNextRel(), newIds, relationshipCursor );
+                            node.setNextRel( newIds.get( node.getNextRel() ) );
+                            // A new id may need more bytes than the old one, in formats with variable length references
+                            targetNodes.prepareForCommit( node );
+                            targetNodes.updateRecord( node );
+                        }
+                    }
+                    progressReporter.progress( 1 );
+                }
+
+                // Only relationships in an inconsistent store are not part of the chains of their nodes.
+                // They keep their relative order, after all the others
+                for ( long id = 0; id < highRelationshipId; id++ )
+                {
+                    if ( newIds.get( id ) == NO_ID )
+                    {
+                        sourceRelationships.getRecordByCursor( id, relationship, CHECK, relationshipCursor );
+                        if ( relationship.inUse() )
+                        {
+                            newIds.set( id, nextNewId() );
+                        }
+                    }
+                }
+
+                writeRelationships( newIds, relationshipCursor );
+                return nextNewId;
+            }
+        }
+
+        private void reorganiseGroupChain( long nodeId, long firstGroupId, LongArray newIds, PageCursor relationshipCursor, PageCursor groupCursor )
+        {
+            long groupId = firstGroupId;
+            while ( !NULL_REFERENCE.is( groupId ) )
+            {
+                sourceGroups.getRecordByCursor( groupId, group, CHECK, groupCursor );
+                if ( !group.inUse() )
+                {
+                    break;
+                }
+                assignChain( nodeId, group.getFirstOut(), newIds, relationshipCursor );
+                assignChain( nodeId, group.getFirstIn(), newIds, relationshipCursor );
+                assignChain( nodeId, group.getFirstLoop(), newIds, relationshipCursor );
+                group.setFirstOut( newId( group.getFirstOut(), newIds ) );
+                group.setFirstIn( newId( group.getFirstIn(), newIds ) );
+                group.setFirstLoop( newId( group.getFirstLoop(), newIds ) );
+                targetGroups.prepareForCommit( group );
+                targetGroups.updateRecord( group );
+                groupId = group.getNext();
+            }
+        }
+
+        private void assignChain( long nodeId, long firstRelationshipId, LongArray newIds, PageCursor relationshipCursor )
+        {
+            long relationshipId = firstRelationshipId;
+            while ( !NULL_REFERENCE.is( relationshipId ) )
+            {
+                sourceRelationships.getRecordByCursor( relationshipId, relationship, CHECK, relationshipCursor );
+                if ( !relationship.inUse() )
+                {
+                    break;
+                }
+                if ( newIds.get( relationshipId ) == NO_ID )
+                {
+                    newIds.set( relationshipId, nextNewId() );
+                }
+                relationshipId = relationship.getFirstNode() == nodeId ? relationship.getFirstNextRel() : relationship.getSecondNextRel();
+            }
+        }
+
+        private void writeRelationships( LongArray newIds, PageCursor relationshipCursor )
+        {
+            // Secondary record units, of formats which have them, are allocated above all the new ids
+            targetRelationships.setHighestPossibleIdInUse( nextNewId - 1 );
+            long highRelationshipId = sourceRelationships.getHighId();
+            for ( long id = 0; id < highRelationshipId; id++ )
+            {
+                sourceRelationships.getRecordByCursor( id, relationship, CHECK, relationshipCursor );
+                if ( !relationship.inUse() )
+                {
+                    continue;
+                }
+                relationship.setId( newIds.get( id ) );
+                if ( !relationship.isFirstInFirstChain() )
+                {
+                    relationship.setFirstPrevRel( newId( relationship.getFirstPrevRel(), newIds ) );
+                }
+                relationship.setFirstNextRel( newId( relationship.getFirstNextRel(), newIds ) );
+                if ( !relationship.isFirstInSecondChain() )
+                {
+                    relationship.setSecondPrevRel( newId( relationship.getSecondPrevRel(), newIds ) );
+                }
+                relationship.setSecondNextRel( newId( relationship.getSecondNextRel(), newIds ) );
+                relationship.setSecondaryUnitId( NO_ID );
+                relationship.setRequiresSecondaryUnit( false );
+                targetRelationships.prepareForCommit( relationship );
+                targetRelationships.updateRecord( relationship );
+            }
+        }
+
+        private long nextNewId()
+        {
+            if ( IdValidator.isReservedId( nextNewId ) )
+            {
+                nextNewId++;
+            }
+            return nextNewId++;
+        }
+
+        private static long newId( long oldId, LongArray newIds )
+        {
+            return NULL_REFERENCE.is( oldId ) ? oldId : newIds.get( oldId );
+        }
+    }
+}
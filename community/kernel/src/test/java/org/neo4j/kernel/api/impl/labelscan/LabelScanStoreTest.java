@@ -528,6 +528,39 @@ public abstract class LabelScanStoreTest
         }
     }
 
+    @Test
+    public void shouldFindNodesWithAllGivenLabelsWhenOneLabelIsSparseAndOtherDense() throws Exception
+    {
+        // GIVEN
+        int denseLabel = 1;
+        int sparseLabel = 2;
+        int nodeCount = 20_000;
+        int sparseInterval = 4_999;
+        start();
+
+        // WHEN
+        List<NodeLabelUpdate> updates = new ArrayList<>();
+        List<Long> expected = new ArrayList<>();
+        for ( long nodeId = 0; nodeId < nodeCount; nodeId++ )
+        {
+            boolean sparse = nodeId % sparseInterval == 0;
+            updates.add( labelChanges( nodeId, EMPTY_LONG_ARRAY, sparse ? new long[] {denseLabel, sparseLabel} : new long[] {denseLabel} ) );
+            if ( sparse )
+            {
+                expected.add( nodeId );
+            }
+        }
+        write( updates.iterator() );
+
+        // THEN
+        try ( LabelScanReader reader = store.newReader() )
+        {
+            long[] expectedIds = expected.stream().mapToLong( Long::longValue ).toArray();
+            assertArrayEquals( expectedIds, PrimitiveLongCollections.asArray( reader.nodesWithAllLabels( new int[] {denseLabel, sparseLabel} ) ) );
+            assertArrayEquals( expectedIds, PrimitiveLongCollections.asArray( reader.nodesWithAllLabels( new int[] {sparseLabel, denseLabel} ) ) );
+        }
+    }
+
     private void prepareIndex() throws IOException
     {
         start();
@@ -31,7 +31,9 @@ import org.junit.rules.RuleChain;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.neo4j.gis.spatial.index.curves.SpaceFillingCurve;
 import org.neo4j.gis.spatial.index.curves.StandardConfiguration;
@@ -220,6 +222,47 @@ public class GenericAccessorPointsTest
         assertEquals( derivedValueForCenterPoint, derivedValueForFaultyCoords, "expected same derived value" );
     }
 
+    @Test
+    public void partitionedQueryShouldNotSplitGeometryRangeQueries() throws IndexEntryConflictException, IndexNotApplicableKernelException
+    {
+        // given
+        List<Value> pointValues = new ArrayList<>();
+        List<IndexEntryUpdate<?>> updates = new ArrayList<>();
+        long nodeId = 1;
+        for ( int i = 0; i < 5000; i++ )
+        {
+            PointValue value = Values.pointValue( WGS84, random.nextDouble() * 360 - 180, random.nextDouble() * 180 - 90 );
+            nodeId = addPointsToLists( pointValues, updates, nodeId, value );
+        }
+        processAll( updates );
+        IndexQuery range = IndexQuery.range( descriptor.schema().getPropertyId(),
+                Values.pointValue( WGS84, -90, -45 ), true, Values.pointValue( WGS84, 90, 45 ), true );
+
+        try ( IndexReader indexReader = accessor.newReader() )
+        {
+            // when
+            List<IndexReader.Partition> partitions = indexReader.partitionedQuery( 4, true, range );
+
+            // then
+            assertEquals( 1, partitions.size() );
+            SimpleNodeValueClient partitionClient = new SimpleNodeValueClient();
+            partitions.get( 0 ).query( partitionClient );
+            SimpleNodeValueClient client = new SimpleNodeValueClient();
+            indexReader.query( client, IndexOrder.NONE, true, range );
+            assertEquals( nodeIds( client ), nodeIds( partitionClient ) );
+        }
+    }
+
+    private static Set<Long> nodeIds( SimpleNodeValueClient client )
+    {
+        Set<Long> nodeIds = new HashSet<>();
+        while ( client.next() )
+        {
+            assertTrue( nodeIds.add( client.reference ) );
+        }
+        return nodeIds;
+    }
+
     private long addPointsToLists( List<Value> pointValues, List<IndexEntryUpdate<?>> updates, long nodeId, PointValue... values )
     {
         for ( PointValue value : values )
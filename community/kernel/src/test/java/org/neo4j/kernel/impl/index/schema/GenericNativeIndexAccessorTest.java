@@ -26,21 +26,41 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import java.io.File;
+import java.util.concurrent.CountDownLatch;
 
 import org.neo4j.gis.spatial.index.curves.SpaceFillingCurveConfiguration;
+import org.neo4j.internal.kernel.api.IndexOrder;
+import org.neo4j.internal.kernel.api.IndexQuery;
 import org.neo4j.io.fs.FileSystemAbstraction;
+import org.neo4j.io.pagecache.IOLimiter;
 import org.neo4j.kernel.api.index.IndexDirectoryStructure;
+import org.neo4j.kernel.api.index.IndexEntryUpdate;
+import org.neo4j.kernel.api.index.IndexProvider;
+import org.neo4j.kernel.api.index.IndexUpdater;
+import org.neo4j.kernel.api.index.UniquenessFilterStatistics;
 import org.neo4j.kernel.api.schema.SchemaDescriptorFactory;
+import org.neo4j.kernel.impl.api.index.IndexUpdateMode;
 import org.neo4j.kernel.impl.index.schema.config.IndexSpecificSpaceFillingCurveSettingsCache;
+import org.neo4j.scheduler.JobScheduler;
+import org.neo4j.scheduler.ThreadPoolJobScheduler;
+import org.neo4j.storageengine.api.schema.IndexDescriptor;
 import org.neo4j.storageengine.api.schema.IndexDescriptorFactory;
+import org.neo4j.storageengine.api.schema.IndexReader;
+import org.neo4j.storageengine.api.schema.SimpleNodeValueClient;
 import org.neo4j.storageengine.api.schema.StoreIndexDescriptor;
 import org.neo4j.test.rule.PageCacheAndDependenciesRule;
 import org.neo4j.test.rule.fs.DefaultFileSystemRule;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.neo4j.index.internal.gbptree.RecoveryCleanupWorkCollector.immediate;
 import static org.neo4j.kernel.api.index.IndexProvider.Monitor.EMPTY;
+import static org.neo4j.values.storable.Values.doubleValue;
+import static org.neo4j.values.storable.Values.intValue;
+import static org.neo4j.values.storable.Values.stringValue;
 
 public class GenericNativeIndexAccessorTest
 {
@@ -69,4 +89,157 @@ public class GenericNativeIndexAccessorTest
         // then
         assertFalse( fs.fileExists( indexDirectory ) );
     }
+
+    @Test
+    public void uniqueIndexShouldSkipLookupsOfAbsentValuesUsingPersistedUniquenessFilter() throws Exception
+    {
+        // given
+        File root = storage.directory().directory( "root" );
+        IndexDirectoryStructure directoryStructure = IndexDirectoryStructure.directoriesByProvider( root ).forProvider( GenericNativeIndexProvider.DESCRIPTOR );
+        long indexId = 8;
+        File indexFile = new File( directoryStructure.directoryForIndex( indexId ), "my-index" );
+        StoreIndexDescriptor descriptor = IndexDescriptorFactory.uniqueForSchema( SchemaDescriptorFactory.forLabel( 1, 1 ) ).withId( indexId );
+        FileSystemAbstraction fs = storage.fileSystem();
+        try ( GenericNativeIndexAccessor accessor = newAccessor( fs, directoryStructure, indexFile, descriptor, EMPTY, null ) )
+        {
+            try ( IndexUpdater updater = accessor.newUpdater( IndexUpdateMode.ONLINE ) )
+            {
+                updater.process( IndexEntryUpdate.add( 1, descriptor, stringValue( "a" ) ) );
+                updater.process( IndexEntryUpdate.add( 2, descriptor, intValue( 5 ) ) );
+            }
+            accessor.force( IOLimiter.UNLIMITED );
+        }
+        assertTrue( fs.fileExists( UniquenessBloomFilter.filterFile( indexFile ) ) );
+
+        // when
+        try ( GenericNativeIndexAccessor accessor = newAccessor( fs, directoryStructure, indexFile, descriptor, EMPTY, null );
+              IndexReader reader = accessor.newReader() )
+        {
+            // then
+            assertEquals( 1, exactLookup( reader, stringValue( "a" ) ) );
+            assertEquals( 2, exactLookup( reader, doubleValue( 5.0 ) ) );
+            assertEquals( -1, exactLookup( reader, stringValue( "b" ) ) );
+            assertEquals( 3, accessor.uniquenessFilter.lookups() );
+            assertEquals( 1, accessor.uniquenessFilter.skippedLookups() + accessor.uniquenessFilter.falsePositives() );
+        }
+    }
+
+    @Test
+    public void uniqueIndexShouldBuildMissingUniquenessFilterInBackgroundAndReleaseItOnClose() throws Exception
+    {
+        // given an index without a filter file
+        File root = storage.directory().directory( "root" );
+        IndexDirectoryStructure directoryStructure = IndexDirectoryStructure.directoriesByProvider( root ).forProvider( GenericNativeIndexProvider.DESCRIPTOR );
+        long indexId = 8;
+        File indexFile = new File( directoryStructure.directoryForIndex( indexId ), "my-index" );
+        StoreIndexDescriptor descriptor = IndexDescriptorFactory.uniqueForSchema( SchemaDescriptorFactory.forLabel( 1, 1 ) ).withId( indexId );
+        FileSystemAbstraction fs = storage.fileSystem();
+        try ( GenericNativeIndexAccessor accessor = newAccessor( fs, directoryStructure, indexFile, descriptor, EMPTY, null ) )
+        {
+            try ( IndexUpdater updater = accessor.newUpdater( IndexUpdateMode.ONLINE ) )
+            {
+                for ( int i = 0; i < 100; i++ )
+                {
+                    updater.process( IndexEntryUpdate.add( i, descriptor, stringValue( "value" + i ) ) );
+                }
+            }
+            accessor.force( IOLimiter.UNLIMITED );
+        }
+        fs.deleteFile( UniquenessBloomFilter.filterFile( indexFile ) );
+        long reservedMemoryBefore = UniquenessBloomFilter.reservedMemory();
+
+        // when
+        RecordingMonitor monitor = new RecordingMonitor();
+        ThreadPoolJobScheduler jobScheduler = new ThreadPoolJobScheduler();
+        try
+        {
+            try ( GenericNativeIndexAccessor accessor = newAccessor( fs, directoryStructure, indexFile, descriptor, monitor, jobScheduler ) )
+            {
+                monitor.opened.await();
+                try ( IndexReader reader = accessor.newReader() )
+                {
+                    // then
+                    for ( int i = 0; i < 100; i++ )
+                    {
+                        assertEquals( i, exactLookup( reader, stringValue( "value" + i ) ) );
+                    }
+                    assertEquals( -1, exactLookup( reader, stringValue( "other" ) ) );
+                }
+                assertTrue( accessor.uniquenessFilter.isReady() );
+                assertEquals( 101, monitor.statistics.lookups() );
+                assertEquals( reservedMemoryBefore + monitor.statistics.memoryUsage(), UniquenessBloomFilter.reservedMemory() );
+            }
+            assertTrue( monitor.closed );
+            assertEquals( reservedMemoryBefore, UniquenessBloomFilter.reservedMemory() );
+        }
+        finally
+        {
+            jobScheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void uniqueIndexShouldNotKeepUniquenessFilterUnlessEnabled() throws Exception
+    {
+        // given
+        File root = storage.directory().directory( "root" );
+        IndexDirectoryStructure directoryStructure = IndexDirectoryStructure.directoriesByProvider( root ).forProvider( GenericNativeIndexProvider.DESCRIPTOR );
+        long indexId = 8;
+        File indexFile = new File( directoryStructure.directoryForIndex( indexId ), "my-index" );
+        StoreIndexDescriptor descriptor = IndexDescriptorFactory.uniqueForSchema( SchemaDescriptorFactory.forLabel( 1, 1 ) ).withId( indexId );
+        FileSystemAbstraction fs = storage.fileSystem();
+        IndexSpecificSpaceFillingCurveSettingsCache spatialSettings = mock( IndexSpecificSpaceFillingCurveSettingsCache.class );
+
+        // when
+        try ( GenericNativeIndexAccessor accessor = new GenericNativeIndexAccessor( storage.pageCache(), fs, indexFile, new GenericLayout( 1, spatialSettings ),
+                immediate(), EMPTY, descriptor, spatialSettings, mock( SpaceFillingCurveConfiguration.class ),
+                new FileSystemIndexDropAction( fs, directoryStructure ), false ) )
+        {
+            try ( IndexUpdater updater = accessor.newUpdater( IndexUpdateMode.ONLINE ) )
+            {
+                updater.process( IndexEntryUpdate.add( 1, descriptor, stringValue( "a" ) ) );
+            }
+            accessor.force( IOLimiter.UNLIMITED );
+
+            // then
+            assertNull( accessor.uniquenessFilter );
+        }
+        assertFalse( fs.fileExists( UniquenessBloomFilter.filterFile( indexFile ) ) );
+    }
+
+    private GenericNativeIndexAccessor newAccessor( FileSystemAbstraction fs, IndexDirectoryStructure directoryStructure, File indexFile,
+            StoreIndexDescriptor descriptor, IndexProvider.Monitor monitor, JobScheduler jobScheduler )
+    {
+        IndexSpecificSpaceFillingCurveSettingsCache spatialSettings = mock( IndexSpecificSpaceFillingCurveSettingsCache.class );
+        return new GenericNativeIndexAccessor( storage.pageCache(), fs, indexFile, new GenericLayout( 1, spatialSettings ), immediate(), monitor,
+                descriptor, spatialSettings, mock( SpaceFillingCurveConfiguration.class ), new FileSystemIndexDropAction( fs, directoryStructure ), false,
+                true, jobScheduler );
+    }
+
+    private static long exactLookup( IndexReader reader, Object value )
+    {
+        SimpleNodeValueClient client = new SimpleNodeValueClient();
+        reader.query( client, IndexOrder.NONE, false, IndexQuery.exact( 1, value ) );
+        return client.next() ? client.reference : -1;
+    }
+
+    private static class RecordingMonitor extends IndexProvider.Monitor.Adaptor
+    {
+        private final CountDownLatch opened = new CountDownLatch( 1 );
+        private volatile UniquenessFilterStatistics statistics;
+        private volatile boolean closed;
+
+        @Override
+        public void uniquenessFilterOpened( File indexFile, IndexDescriptor indexDescriptor, UniquenessFilterStatistics statistics )
+        {
+            this.statistics = statistics;
+            opened.countDown();
+        }
+
+        @Override
+        public void uniquenessFilterClosed( File indexFile, IndexDescriptor indexDescriptor, UniquenessFilterStatistics statistics )
+        {
+            closed = true;
+        }
+    }
 }
@@ -40,6 +40,9 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -524,6 +527,90 @@ public abstract class NativeIndexAccessorTests<KEY extends NativeIndexKey<KEY>,
         assertEntityIdHits( expected1, result1 );
     }
 
+    @Test
+    public void partitionedQueryShouldFindAllEntriesFromPartitionsProgressedByDifferentThreads() throws Exception
+    {
+        // given
+        IndexEntryUpdate<IndexDescriptor>[] updates = manyUpdatesSingleType( valueCreatorUtil.supportedTypes() );
+        processAll( updates );
+
+        // when
+        Collection<Long> result;
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            result = queryPartitionsConcurrently( reader.partitionedQuery( 4, false, IndexQuery.exists( 0 ) ) );
+        }
+
+        // then
+        assertEntityIdHits( extractEntityIds( updates, alwaysTrue() ), result );
+    }
+
+    @Test
+    public void partitionedQueryShouldFindMatchingEntriesForRangePredicate() throws Exception
+    {
+        // given
+        IndexEntryUpdate<IndexDescriptor>[] updates = manyUpdatesSingleType( supportedTypesExcludingNonOrderable() );
+        processAll( updates );
+        valueCreatorUtil.sort( updates );
+        IndexQuery rangeQuery = valueCreatorUtil.rangeQuery(
+                valueOf( updates[updates.length / 10] ), true, valueOf( updates[updates.length - updates.length / 10] ), false );
+
+        // when
+        Collection<Long> result;
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            result = queryPartitionsConcurrently( reader.partitionedQuery( 4, false, rangeQuery ) );
+        }
+
+        // then
+        assertEntityIdHits( extractEntityIds( updates, rangeQuery::acceptsValue ), result );
+    }
+
+    @Test
+    public void partitionedQueryShouldReturnNoEntriesForEmptyRange() throws Exception
+    {
+        // given
+        IndexEntryUpdate<IndexDescriptor>[] updates = someUpdatesSingleTypeNoDuplicates( supportedTypesExcludingNonOrderable() );
+        processAll( updates );
+        valueCreatorUtil.sort( updates );
+
+        // when
+        List<IndexReader.Partition> partitions;
+        Collection<Long> result;
+        try ( IndexReader reader = accessor.newReader() )
+        {
+            partitions = reader.partitionedQuery( 4, false,
+                    valueCreatorUtil.rangeQuery( valueOf( updates[updates.length - 1] ), true, valueOf( updates[0] ), true ) );
+            result = queryPartitionsConcurrently( partitions );
+        }
+
+        // then
+        assertEquals( 1, partitions.size() );
+        assertEntityIdHits( EMPTY_LONG_ARRAY, result );
+    }
+
+    @Test
+    public void partitionedQueryShouldOnlyOpenSeekersForPartitionsBeingQueried() throws Exception
+    {
+        // given
+        processAll( manyUpdatesSingleType( valueCreatorUtil.supportedTypes() ) );
+
+        try ( NativeIndexReader<?,?> reader = (NativeIndexReader<?,?>) accessor.newReader() )
+        {
+            // when
+            List<IndexReader.Partition> partitions = reader.partitionedQuery( 4, false, IndexQuery.exists( 0 ) );
+
+            // then
+            assertTrue( "Expected the range to be split, got " + partitions.size() + " partitions", partitions.size() > 1 );
+            assertTrue( reader.openSeekers.isEmpty() );
+            NodeValueIterator client = new NodeValueIterator();
+            partitions.get( 0 ).query( client );
+            assertEquals( 1, reader.openSeekers.size() );
+            PrimitiveLongCollections.asArray( client );
+            assertTrue( reader.openSeekers.isEmpty() );
+        }
+    }
+
     private long entityIdOf( IndexEntryUpdate<IndexDescriptor> update )
     {
         return update.getEntityId();
@@ -935,6 +1022,37 @@ public abstract class NativeIndexAccessorTests<KEY extends NativeIndexKey<KEY>,
         };
     }
 
+    private Collection<Long> queryPartitionsConcurrently( List<IndexReader.Partition> partitions ) throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool( partitions.size() );
+        try
+        {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for ( IndexReader.Partition partition : partitions )
+            {
+                futures.add( executor.submit( () ->
+                {
+                    NodeValueIterator client = new NodeValueIterator();
+                    partition.query( client );
+                    return PrimitiveLongCollections.asArray( client );
+                } ) );
+            }
+            Collection<Long> result = new ArrayList<>();
+            for ( Future<long[]> future : futures )
+            {
+                for ( long entityId : future.get() )
+                {
+                    result.add( entityId );
+                }
+            }
+            return result;
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+    }
+
     private LongIterator query( IndexReader reader, IndexQuery query ) throws IndexNotApplicableKernelException
     {
         NodeValueIterator client = new NodeValueIterator();
@@ -1094,6 +1212,27 @@ public abstract class NativeIndexAccessorTests<KEY extends NativeIndexKey<KEY>,
         return valueCreatorUtil.someUpdates( random, new ValueType[]{type}, true );
     }
 
+    /**
+     * Enough updates for the tree to have internal nodes, i.e. more than one leaf.
+     */
+    private IndexEntryUpdate<IndexDescriptor>[] manyUpdatesSingleType( ValueType[] types )
+    {
+        ValueType type;
+        do
+        {
+            type = random.randomValues().among( types );
+        }
+        while ( type == ValueType.BOOLEAN );
+        Iterator<IndexEntryUpdate<IndexDescriptor>> generator = valueCreatorUtil.randomUpdateGenerator( random, new ValueType[]{type} );
+        @SuppressWarnings( "unchecked" )
+        IndexEntryUpdate<IndexDescriptor>[] updates = new IndexEntryUpdate[5_000];
+        for ( int i = 0; i < updates.length; i++ )
+        {
+            updates[i] = generator.next();
+        }
+        return updates;
+    }
+
     private IndexEntryUpdate<IndexDescriptor>[] someUpdatesSingleTypeNoDuplicates()
     {
         return someUpdatesSingleTypeNoDuplicates( valueCreatorUtil.supportedTypes() );
@@ -165,4 +165,22 @@ public class SpatialIndexAccessorTest extends NativeIndexAccessorTests<SpatialIn
     public void respectIndexOrder()
     {   // Spatial is non-orderable so test does not make sense
     }
+
+    @Override
+    public void partitionedQueryShouldFindMatchingEntriesForRangePredicate()
+    {
+        // Spatial range queries are not partitioned and are already covered by the regular range query tests
+    }
+
+    @Override
+    public void partitionedQueryShouldReturnNoEntriesForEmptyRange()
+    {
+        // Spatial is non-orderable so there's no empty range to construct from sorted values
+    }
+
+    @Override
+    public void partitionedQueryShouldOnlyOpenSeekersForPartitionsBeingQueried()
+    {
+        // The spatial reader delegates to one reader per coordinate reference system and doesn't partition queries
+    }
 }
@@ -28,6 +28,7 @@ import org.junit.Rule;
 import org.junit.Test;
 
 import org.neo4j.graphdb.factory.GraphDatabaseSettings;
+import org.neo4j.io.mem.HugePageMode;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.impl.muninn.MuninnPageCache;
 import org.neo4j.io.pagecache.tracing.PageCacheTracer;
@@ -44,6 +45,7 @@ import org.neo4j.test.rule.fs.EphemeralFileSystemRule;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_huge_pages;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_memory;
 import static org.neo4j.graphdb.factory.GraphDatabaseSettings.pagecache_swapper;
 import static org.neo4j.helpers.collection.MapUtil.stringMap;
@@ -136,6 +138,25 @@ public class ConfiguringPageCacheFactoryTest
         logProvider.rawMessageMatcher().assertContains( TEST_PAGESWAPPER_NAME );
     }
 
+    @Test
+    public void mustLogPageCacheMemoryLayout()
+    {
+        // Given
+        Config config = Config.defaults( stringMap(
+                pagecache_memory.name(), "8m",
+                pagecache_huge_pages.name(), HugePageMode.TRANSPARENT.name() ) );
+        AssertableLogProvider logProvider = new AssertableLogProvider();
+        Log log = logProvider.getLog( PageCache.class );
+
+        // When
+        ConfiguringPageCacheFactory cacheFactory = new ConfiguringPageCacheFactory( fsRule.get(), config, PageCacheTracer.NULL,
+                PageCursorTracerSupplier.NULL, log, EmptyVersionContextSupplier.EMPTY, jobScheduler );
+        cacheFactory.getOrCreatePageCache().close();
+
+        // Then
+        logProvider.rawMessageMatcher().assertContains( "Page cache memory layout: huge pages TRANSPARENT" );
+    }
+
     @Test( expected = IllegalArgumentException.class )
     public void mustThrowIfConfiguredPageSwapperCannotBeFound()
     {
@@ -22,6 +22,7 @@
  */
 package org.neo4j.kernel.impl.storageengine.impl.recordstorage;
 
+import org.apache.commons.lang3.StringUtils;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
@@ -30,21 +31,28 @@ import org.junit.Test;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.stream.LongStream;
 
+import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.helpers.collection.IteratorWrapper;
+import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.impl.store.NeoStores;
+import org.neo4j.kernel.impl.store.PropertyStore;
 import org.neo4j.kernel.impl.store.StoreFactory;
+import org.neo4j.kernel.impl.store.format.compressed.Compressed;
 import org.neo4j.kernel.impl.store.id.DefaultIdGeneratorFactory;
 import org.neo4j.kernel.impl.store.record.NodeRecord;
 import org.neo4j.kernel.impl.store.record.PropertyBlock;
+import org.neo4j.kernel.impl.store.record.PropertyRecord;
 import org.neo4j.logging.NullLogProvider;
 import org.neo4j.test.rule.PageCacheAndDependenciesRule;
 import org.neo4j.test.rule.RandomRule;
 import org.neo4j.unsafe.batchinsert.internal.DirectRecordAccessSet;
 import org.neo4j.values.storable.RandomValues;
 import org.neo4j.values.storable.Value;
+import org.neo4j.values.storable.Values;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
@@ -70,8 +78,7 @@ public class RecordPropertyCursorTest
     @Before
     public void setup()
     {
-        neoStores = new StoreFactory( storage.directory().databaseLayout(), Config.defaults(), new DefaultIdGeneratorFactory( storage.fileSystem() ),
-                storage.pageCache(), storage.fileSystem(), NullLogProvider.getInstance(), EmptyVersionContextSupplier.EMPTY ).openAllNeoStores( true );
+        neoStores = openNeoStores( storage.directory().databaseLayout(), Config.defaults() );
         creator = new PropertyCreator( neoStores.getPropertyStore(), new PropertyTraverser() );
         owner = neoStores.getNodeStore().newRecord();
     }
@@ -121,6 +128,43 @@ public class RecordPropertyCursorTest
         cursor.close();
     }
 
+    @Test
+    public void shouldReadPropertyChainWithCompressedDynamicValues()
+    {
+        // given
+        neoStores.close();
+        neoStores = openNeoStores( storage.directory().databaseLayout( "compressed" ),
+                Config.defaults( GraphDatabaseSettings.record_format, Compressed.NAME ) );
+        creator = new PropertyCreator( neoStores.getPropertyStore(), new PropertyTraverser() );
+        String document = StringUtils.repeat( "{\"name\":\"value\",\"numbers\":[1,2,3]}", 200 );
+        Value[] values = {
+                Values.stringValue( document ),
+                Values.stringArray( document, document.toUpperCase() ),
+                Values.longArray( LongStream.range( 0, 1_000 ).toArray() ),
+                Values.stringValue( "short" )};
+
+        // when
+        long firstPropertyId = storeValuesAsPropertyChain( creator, owner, values );
+
+        // then
+        assertPropertyChain( values, firstPropertyId, createCursor() );
+        PropertyStore propertyStore = neoStores.getPropertyStore();
+        for ( PropertyRecord record : propertyStore.getPropertyRecordChain( firstPropertyId ) )
+        {
+            for ( PropertyBlock block : record )
+            {
+                assertEquals( values[block.getKeyIndexId()], propertyStore.getValue( block ) );
+            }
+        }
+        assertTrue( propertyStore.getStringStore().getHighId() < document.length() / propertyStore.getStringStore().getRecordDataSize() );
+    }
+
+    private NeoStores openNeoStores( DatabaseLayout databaseLayout, Config config )
+    {
+        return new StoreFactory( databaseLayout, config, new DefaultIdGeneratorFactory( storage.fileSystem() ),
+                storage.pageCache(), storage.fileSystem(), NullLogProvider.getInstance(), EmptyVersionContextSupplier.EMPTY ).openAllNeoStores( true );
+    }
+
     private RecordPropertyCursor createCursor()
     {
         return new RecordPropertyCursor( neoStores.getPropertyStore() );
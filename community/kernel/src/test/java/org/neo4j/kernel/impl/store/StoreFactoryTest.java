@@ -36,6 +36,7 @@ import org.neo4j.graphdb.factory.GraphDatabaseSettings;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.layout.DatabaseLayout;
 import org.neo4j.io.pagecache.PageCache;
+import org.neo4j.io.pagecache.tracing.DefaultPageCacheTracer;
 import org.neo4j.io.pagecache.tracing.cursor.context.EmptyVersionContextSupplier;
 import org.neo4j.kernel.configuration.Config;
 import org.neo4j.kernel.configuration.Settings;
@@ -152,6 +153,24 @@ public class StoreFactoryTest
         assertEquals( 0, fsRule.get().listFiles( testDirectory.databaseDir() ).length );
     }
 
+    @Test
+    public void shouldMapRelationshipGroupStoreIntoPartitionOnlyWhenGivenAQuota()
+    {
+        DefaultPageCacheTracer tracer = new DefaultPageCacheTracer();
+        pageCache = pageCacheRule.getPageCache( fsRule.get(), PageCacheRule.config().withTracer( tracer ) );
+        storeFactory( Config.defaults() ).openAllNeoStores( true ).close();
+        assertEquals( 0, tracer.partitions().size() );
+
+        neoStores = storeFactory( Config.defaults( GraphDatabaseSettings.pagecache_relationship_groups_reserved_share,
+                "0.1" ) ).openAllNeoStores();
+        assertEquals( 1, tracer.partitions().size() );
+        assertEquals( NeoStores.RELATIONSHIP_GROUPS_PARTITION, tracer.partitions().get( 0 ).name() );
+
+        neoStores.close();
+        neoStores = null;
+        assertEquals( 0, tracer.partitions().size() );
+    }
+
     @Test
     public void shouldHandleStoreConsistingOfOneEmptyFile() throws Exception
     {
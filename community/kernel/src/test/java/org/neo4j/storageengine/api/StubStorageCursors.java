@@ -485,6 +485,12 @@ public class StubStorageCursors implements StorageReader
             this.iterator = nodeData.keySet().iterator();
         }
 
+        @Override
+        public boolean scanRange( long start, long stop )
+        {
+            throw new UnsupportedOperationException( "Not implemented yet" );
+        }
+
         @Override
         public void single( long reference )
         {
@@ -600,6 +606,18 @@ public class StubStorageCursors implements StorageReader
             next = NO_ID;
         }
 
+        @Override
+        public boolean scanRange( long start, long stop )
+        {
+            return scanRange( -1, start, stop );
+        }
+
+        @Override
+        public boolean scanRange( int type, long start, long stop )
+        {
+            throw new UnsupportedOperationException( "Not implemented yet" );
+        }
+
         @Override
         public void single( long reference )
         {
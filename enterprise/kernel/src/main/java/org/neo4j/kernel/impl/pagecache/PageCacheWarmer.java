@@ -18,26 +18,34 @@
  */
 package org.neo4j.kernel.impl.pagecache;
 
+import org.eclipse.collections.impl.list.mutable.primitive.LongArrayList;
+
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 import java.util.OptionalLong;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
 import java.util.stream.Stream;
 
 import org.neo4j.graphdb.Resource;
+import org.neo4j.io.IOUtils;
 import org.neo4j.io.fs.FileSystemAbstraction;
 import org.neo4j.io.pagecache.PageCache;
 import org.neo4j.io.pagecache.PageCursor;
@@ -45,6 +53,7 @@ import org.neo4j.io.pagecache.PagedFile;
 import org.neo4j.io.pagecache.impl.FileIsNotMappedException;
 import org.neo4j.kernel.impl.transaction.state.NeoStoreFileListing;
 import org.neo4j.scheduler.Group;
+import org.neo4j.scheduler.JobHandle;
 import org.neo4j.scheduler.JobScheduler;
 import org.neo4j.storageengine.api.StoreFileMetadata;
 
@@ -63,31 +72,50 @@ import static org.neo4j.io.pagecache.PagedFile.PF_SHARED_READ_LOCK;
  * The profiles are collected in the "profiles" directory, so it is easy to get rid of all of them, on the off chance
  * that something is wrong with them.
  * <p>
- * These cacheprof files are compressed bitmaps where each raised bit indicates that the page identified by the
- * bit-index was in memory.
+ * These cacheprof files are compressed arrays with a byte of heat for each page in the file. Every profile adds heat
+ * to the pages that are in memory, and lets the heat of all pages decay a bit, so pages that are in memory in profile
+ * after profile end up being the hottest. Reheating loads the hottest pages of all the files first, in parallel across
+ * the files, and then works its way down to the coldest, optionally limited to a maximum number of pages per second.
+ * It stops when it has loaded as many pages as the page cache can hold, so the cold tail never evicts the hot head.
+ * Since reheating starts once the database is available, this means the hot data is in memory quickly, while the long
+ * tail loads in the background.
  */
 public class PageCacheWarmer implements NeoStoreFileListing.StoreFileProvider
 {
     public static final String SUFFIX_CACHEPROF = ".cacheprof";
 
     private static final int IO_PARALLELISM = Runtime.getRuntime().availableProcessors();
+    // Reheating loads the pages in this many rounds, from the hottest to the coldest.
+    private static final int HEAT_LEVELS = 8;
+    private static final int HEAT_LEVEL_SHIFT = 5;
 
     private final FileSystemAbstraction fs;
     private final PageCache pageCache;
     private final JobScheduler scheduler;
     private final File databaseDirectory;
     private final ProfileRefCounts refCounts;
+    private final int maxPagesPerSecond;
     private volatile boolean stopped;
     private ExecutorService executor;
     private PageLoaderFactory pageLoaderFactory;
 
     PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, File databaseDirectory )
+    {
+        this( fs, pageCache, scheduler, databaseDirectory, 0 );
+    }
+
+    /**
+     * @param maxPagesPerSecond the maximum number of pages per second to load when reheating, or 0 for no limit.
+     */
+    PageCacheWarmer( FileSystemAbstraction fs, PageCache pageCache, JobScheduler scheduler, File databaseDirectory,
+            int maxPagesPerSecond )
     {
         this.fs = fs;
         this.pageCache = pageCache;
         this.scheduler = scheduler;
         this.databaseDirectory = databaseDirectory;
         this.refCounts = new ProfileRefCounts();
+        this.maxPagesPerSecond = maxPagesPerSecond;
     }
 
     @Override
@@ -144,20 +172,45 @@ public class PageCacheWarmer implements NeoStoreFileListing.StoreFileProvider
         {
             return OptionalLong.empty();
         }
-        long pagesLoaded = 0;
         List<PagedFile> files = pageCache.listExistingMappings();
         Profile[] existingProfiles = findExistingProfiles( files );
+        List<PagedFile> profiledFiles = new ArrayList<>();
+        List<Profile> profiles = new ArrayList<>();
         for ( PagedFile file : files )
         {
-            try
+            Optional<Profile> savedProfile = filterRelevant( existingProfiles, file )
+                    .sorted( Comparator.reverseOrder() ) // Try most recent profile first.
+                    .filter( this::verifyChecksum )
+                    .findFirst();
+            if ( savedProfile.isPresent() )
             {
-                pagesLoaded += reheat( file, existingProfiles );
+                profiledFiles.add( file );
+                profiles.add( savedProfile.get() );
             }
-            catch ( FileIsNotMappedException ignore )
+        }
+
+        // The profiles checks out. Read each of them once, sorting the pages of the files by their heat level.
+        List<HeatedFile> heatedFiles = new ArrayList<>( profiledFiles.size() );
+        long[] pagesPerLevel = new long[HEAT_LEVELS];
+        for ( int i = 0; i < profiledFiles.size() && !stopped; i++ )
+        {
+            HeatedFile heatedFile = readHeat( profiledFiles.get( i ), profiles.get( i ) );
+            heatedFiles.add( heatedFile );
+            for ( int level = 0; level < HEAT_LEVELS; level++ )
             {
-                // The database is allowed to map and unmap files while we are trying to heat it up.
+                pagesPerLevel[level] += heatedFile.pagesAtLevel[level].size();
             }
         }
+
+        // Let's load them in, hottest pages first, but no more than the page cache can hold.
+        PageBudget budget = new PageBudget( maxPagesPerSecond );
+        long maxPages = pageCache.maxCachedPages();
+        long pagesLoaded = 0;
+        for ( int level = HEAT_LEVELS - 1; level >= 0 && !stopped && pagesLoaded < maxPages; level-- )
+        {
+            pagesLoaded += reheat( heatedFiles, level, pagesPerLevel[level], maxPages - pagesLoaded, budget );
+        }
+        pageCache.reportEvents();
         return OptionalLong.of( pagesLoaded );
     }
 
@@ -200,46 +253,107 @@ public class PageCacheWarmer implements NeoStoreFileListing.StoreFileProvider
         return OptionalLong.of( pagesInMemory );
     }
 
-    private long reheat( PagedFile file, Profile[] existingProfiles ) throws IOException
+    private HeatedFile readHeat( PagedFile file, Profile profile ) throws IOException
     {
-        Optional<Profile> savedProfile = filterRelevant( existingProfiles, file )
-                .sorted( Comparator.reverseOrder() ) // Try most recent profile first.
-                .filter( this::verifyChecksum )
-                .findFirst();
-
-        if ( !savedProfile.isPresent() )
+        HeatedFile heatedFile = new HeatedFile( file );
+        try ( Profile.HeatReader heatReader = profile.readHeat( fs ) )
         {
-            return 0;
+            long pageId = 0;
+            int heat;
+            while ( (heat = heatReader.next()) != -1 )
+            {
+                if ( heat != 0 )
+                {
+                    heatedFile.pagesAtLevel[heat >> HEAT_LEVEL_SHIFT].add( pageId );
+                }
+                pageId++;
+            }
         }
+        return heatedFile;
+    }
 
-        // The file contents checks out. Let's load it in.
-        long pagesLoaded = 0;
-        try ( InputStream input = savedProfile.get().read( fs );
-              PageLoader loader = pageLoaderFactory.getLoader( file ) )
+    /**
+     * Load the pages at the given heat level, of all the given files, in parallel. If there are more of them than the
+     * given maximum, then every file gets a share of the maximum in proportion to how many of the pages it has.
+     */
+    private long reheat( List<HeatedFile> files, int level, long levelPages, long maxPages, PageBudget budget )
+            throws IOException
+    {
+        AtomicLong pagesLoaded = new AtomicLong();
+        List<JobHandle> jobs = new ArrayList<>( files.size() );
+        for ( HeatedFile file : files )
         {
-            long pageId = 0;
-            int b;
-            while ( (b = input.read()) != -1 )
+            LongArrayList pages = file.pagesAtLevel[level];
+            int count = levelPages <= maxPages ? pages.size() : (int) ((double) pages.size() * maxPages / levelPages);
+            if ( count > 0 )
             {
-                for ( int i = 0; i < 8; i++ )
+                jobs.add( scheduler.schedule( Group.FILE_IO_HELPER, () ->
                 {
-                    if ( stopped )
+                    try
                     {
-                        pageCache.reportEvents();
-                        return pagesLoaded;
+                        reheat( file.pagedFile, pages, count, budget, pagesLoaded );
                     }
-                    if ( (b & 1) == 1 )
+                    catch ( IOException e )
                     {
-                        loader.load( pageId );
-                        pagesLoaded++;
+                        throw new UncheckedIOException( e );
                     }
-                    b >>= 1;
-                    pageId++;
-                }
+                } ) );
+            }
+        }
+
+        IOException failure = null;
+        for ( JobHandle job : jobs )
+        {
+            try
+            {
+                job.waitTermination();
+            }
+            catch ( InterruptedException e )
+            {
+                Thread.currentThread().interrupt();
+                failure = addFailure( failure, e );
             }
+            catch ( ExecutionException e )
+            {
+                failure = addFailure( failure, e.getCause() );
+            }
+        }
+        if ( failure != null )
+        {
+            throw failure;
         }
         pageCache.reportEvents();
-        return pagesLoaded;
+        return pagesLoaded.get();
+    }
+
+    private void reheat( PagedFile file, LongArrayList pages, int count, PageBudget budget, AtomicLong pagesLoaded )
+            throws IOException
+    {
+        try ( PageLoader loader = pageLoaderFactory.getLoader( file ) )
+        {
+            for ( int i = 0; i < count && !stopped; i++ )
+            {
+                budget.acquire();
+                loader.load( pages.get( i ) );
+                pagesLoaded.incrementAndGet();
+            }
+        }
+        catch ( FileIsNotMappedException ignore )
+        {
+            // The database is allowed to map and unmap files while we are trying to heat it up.
+        }
+    }
+
+    private static IOException addFailure( IOException failure, Throwable cause )
+    {
+        Throwable unwrapped = cause instanceof UncheckedIOException ? cause.getCause() : cause;
+        IOException exception = unwrapped instanceof IOException ? (IOException) unwrapped : new IOException( unwrapped );
+        if ( failure == null )
+        {
+            return exception;
+        }
+        failure.addSuppressed( exception );
+        return failure;
     }
 
     private boolean verifyChecksum( Profile profile )
@@ -269,27 +383,20 @@ public class PageCacheWarmer implements NeoStoreFileListing.StoreFileProvider
                 .map( Profile::next )
                 .orElse( Profile.first( file.file() ) );
 
+        Optional<Profile> previousProfile = filterRelevant( existingProfiles, file ).max( naturalOrder() );
         try ( OutputStream output = nextProfile.write( fs );
-              PageCursor cursor = file.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT ) )
+              PageCursor cursor = file.io( 0, PF_SHARED_READ_LOCK | PF_NO_FAULT );
+              PreviousHeat previousHeat = new PreviousHeat( previousProfile ) )
         {
-            int stepper = 0;
-            int b = 0;
             while ( cursor.next() )
             {
-                if ( cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID )
+                boolean inMemory = cursor.getCurrentPageId() != PageCursor.UNBOUND_PAGE_ID;
+                if ( inMemory )
                 {
                     pagesInMemory++;
-                    b |= 1 << stepper;
-                }
-                stepper++;
-                if ( stepper == 8 )
-                {
-                    output.write( b );
-                    b = 0;
-                    stepper = 0;
                 }
+                output.write( Profile.nextHeat( previousHeat.next(), inMemory ) );
             }
-            output.write( b );
             output.flush();
         }
 
@@ -301,6 +408,104 @@ public class PageCacheWarmer implements NeoStoreFileListing.StoreFileProvider
         return pagesInMemory;
     }
 
+    /**
+     * The heat of the pages in the previous profile of a file, if any. If the previous profile cannot be read, then
+     * the pages are considered to have had no heat.
+     */
+    private final class PreviousHeat implements AutoCloseable
+    {
+        private Profile.HeatReader reader;
+
+        PreviousHeat( Optional<Profile> profile )
+        {
+            if ( profile.isPresent() )
+            {
+                try
+                {
+                    reader = profile.get().readHeat( fs );
+                }
+                catch ( IOException ignore )
+                {
+                }
+            }
+        }
+
+        int next()
+        {
+            if ( reader != null )
+            {
+                try
+                {
+                    int heat = reader.next();
+                    if ( heat != -1 )
+                    {
+                        return heat;
+                    }
+                }
+                catch ( IOException ignore )
+                {
+                }
+                close();
+            }
+            return 0;
+        }
+
+        @Override
+        public void close()
+        {
+            IOUtils.closeAllSilently( reader );
+            reader = null;
+        }
+    }
+
+    /**
+     * The pages of a file that have heat in its profile, by heat level.
+     */
+    private static final class HeatedFile
+    {
+        private final PagedFile pagedFile;
+        private final LongArrayList[] pagesAtLevel = new LongArrayList[HEAT_LEVELS];
+
+        HeatedFile( PagedFile pagedFile )
+        {
+            this.pagedFile = pagedFile;
+            for ( int level = 0; level < HEAT_LEVELS; level++ )
+            {
+                pagesAtLevel[level] = new LongArrayList();
+            }
+        }
+    }
+
+    /**
+     * Limits how many pages per second reheating will load, across all the files that are reheated in parallel.
+     */
+    private static final class PageBudget
+    {
+        private final int maxPagesPerSecond;
+        private final long startNanos;
+        private final AtomicLong pages = new AtomicLong();
+
+        PageBudget( int maxPagesPerSecond )
+        {
+            this.maxPagesPerSecond = maxPagesPerSecond;
+            this.startNanos = System.nanoTime();
+        }
+
+        void acquire()
+        {
+            if ( maxPagesPerSecond <= 0 )
+            {
+                return;
+            }
+            long dueNanos = startNanos + TimeUnit.SECONDS.toNanos( pages.incrementAndGet() ) / maxPagesPerSecond;
+            long waitNanos;
+            while ( (waitNanos = dueNanos - System.nanoTime()) > 0 )
+            {
+                LockSupport.parkNanos( this, waitNanos );
+            }
+        }
+    }
+
     private static ExecutorService buildExecutorService( JobScheduler scheduler )
     {
         BlockingQueue<Runnable> workQueue = new LinkedBlockingQueue<>( IO_PARALLELISM * 4 );
@@ -22,6 +22,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
@@ -37,6 +39,13 @@ import static org.neo4j.kernel.impl.pagecache.PageCacheWarmer.SUFFIX_CACHEPROF;
 final class Profile implements Comparable<Profile>
 {
     private static final String PROFILE_DIR = "profiles";
+    // Profiles start with this header, followed by one unsigned byte of heat for every page in the file. Profiles
+    // written by older versions have no header, and are bitmaps where a raised bit means the page was in memory.
+    private static final byte[] HEAT_HEADER = {'h', 'e', 'a', 't', 1};
+    // The heat a page gains every time a profile finds it in memory. Heat decays by a quarter with every profile, so
+    // pages that are in memory in profile after profile approach the maximum heat.
+    private static final int HEAT_GAIN = 64;
+    static final int MAX_HEAT = 255;
     private final File profileFile;
     private final File pagedFile;
     private final long profileSequenceId;
@@ -110,7 +119,9 @@ final class Profile implements Comparable<Profile>
         OutputStream sink = fs.openAsOutputStream( profileFile, false );
         try
         {
-            return new GZIPOutputStream( sink );
+            OutputStream output = new GZIPOutputStream( sink );
+            output.write( HEAT_HEADER );
+            return output;
         }
         catch ( IOException e )
         {
@@ -119,6 +130,46 @@ final class Profile implements Comparable<Profile>
         }
     }
 
+    /**
+     * Open this profile for reading the heat of the pages, in page id order.
+     */
+    HeatReader readHeat( FileSystemAbstraction fs ) throws IOException
+    {
+        PushbackInputStream input = new PushbackInputStream( read( fs ), HEAT_HEADER.length );
+        try
+        {
+            byte[] header = new byte[HEAT_HEADER.length];
+            int length = 0;
+            int n;
+            while ( length < header.length && (n = input.read( header, length, header.length - length )) != -1 )
+            {
+                length += n;
+            }
+            boolean legacy = length < header.length || !Arrays.equals( header, HEAT_HEADER );
+            if ( legacy )
+            {
+                input.unread( header, 0, length );
+            }
+            return new HeatReader( input, legacy );
+        }
+        catch ( IOException e )
+        {
+            IOUtils.closeAllSilently( input );
+            throw e;
+        }
+    }
+
+    /**
+     * Compute the heat of a page for a new profile, given its heat in the previous profile, and whether it is in memory
+     * right now. The heat decays by a quarter, but at least by one, in every profile, so pages that are no longer in
+     * memory eventually cool down to zero.
+     */
+    static int nextHeat( int previousHeat, boolean inMemory )
+    {
+        int decayed = Math.max( 0, previousHeat - Math.max( 1, previousHeat >> 2 ) );
+        return Math.min( decayed + (inMemory ? HEAT_GAIN : 0), MAX_HEAT );
+    }
+
     Profile next()
     {
         long next = profileSequenceId + 1L;
@@ -175,4 +226,52 @@ final class Profile implements Comparable<Profile>
             return Stream.empty();
         }
     }
+
+    /**
+     * Reads the heat of the pages in a profile, one page at a time.
+     */
+    static final class HeatReader implements AutoCloseable
+    {
+        private final InputStream input;
+        private final boolean legacy;
+        private int bits;
+        private int bitsLeft;
+
+        private HeatReader( InputStream input, boolean legacy )
+        {
+            this.input = input;
+            this.legacy = legacy;
+        }
+
+        /**
+         * @return the heat of the next page, between 0 and {@link #MAX_HEAT} inclusive, or -1 if there are no more
+         * pages in the profile.
+         */
+        int next() throws IOException
+        {
+            if ( !legacy )
+            {
+                return input.read();
+            }
+            if ( bitsLeft == 0 )
+            {
+                bits = input.read();
+                if ( bits == -1 )
+                {
+                    return -1;
+                }
+                bitsLeft = 8;
+            }
+            int bit = bits & 1;
+            bits >>= 1;
+            bitsLeft--;
+            return bit == 1 ? HEAT_GAIN : 0;
+        }
+
+        @Override
+        public void close() throws IOException
+        {
+            input.close();
+        }
+    }
 }
@@ -29,6 +29,7 @@ import org.junit.rules.RuleChain;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -36,6 +37,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.OptionalLong;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.GZIPOutputStream;
 
 import org.neo4j.graphdb.Resource;
 import org.neo4j.io.ByteUnit;
@@ -56,6 +58,8 @@ import org.neo4j.test.rule.fs.FileSystemRule;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertSame;
@@ -277,6 +281,41 @@ public class PageCacheWarmerTest
         }
     }
 
+    @Test
+    public void reheatMustNotLoadMorePagesThanThePageCacheCanHold() throws Exception
+    {
+        int profiledPages = 200;
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
+              PagedFile pf = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE ) )
+        {
+            try ( PageCursor writer = pf.io( 0, PagedFile.PF_SHARED_WRITE_LOCK ) )
+            {
+                for ( int pageId = 0; pageId < profiledPages; pageId++ )
+                {
+                    assertTrue( writer.next( pageId ) );
+                }
+            }
+            pf.flushAndForce();
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            warmer.start();
+            warmer.profile();
+        }
+
+        clearTracerCounts();
+        long initialFaults = cacheTracer.faults();
+        String pageCacheMemory = String.valueOf( 50 * ByteUnit.kibiBytes( 9 ) );
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg.withMemory( pageCacheMemory ) );
+              PagedFile ignore = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            assertThat( pageCache.maxCachedPages(), lessThan( (long) profiledPages ) );
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            warmer.start();
+            assertThat( warmer.reheat(), is( OptionalLong.of( pageCache.maxCachedPages() ) ) );
+            pageCache.reportEvents();
+            assertThat( cacheTracer.faults(), is( initialFaults + pageCache.maxCachedPages() ) );
+        }
+    }
+
     @SuppressWarnings( "unused" )
     @Test
     public void profileMustNotDeleteFilesCurrentlyExposedViaFileListing() throws Exception
@@ -323,6 +362,88 @@ public class PageCacheWarmerTest
         }
     }
 
+    @Test
+    public void profileMustAccumulateHeatOfPagesThatStayInMemory() throws Exception
+    {
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
+              PagedFile pf = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE ) )
+        {
+            try ( PageCursor writer = pf.io( 0, PagedFile.PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( writer.next( 1 ) );
+                assertTrue( writer.next( 3 ) );
+            }
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            warmer.start();
+            warmer.profile();
+            warmer.profile();
+            warmer.profile();
+        }
+
+        Profile profile = Profile.first( file ).next().next();
+        int heat = Profile.nextHeat( Profile.nextHeat( Profile.nextHeat( 0, true ), true ), true );
+        try ( Profile.HeatReader reader = profile.readHeat( fs ) )
+        {
+            assertThat( reader.next(), is( 0 ) );
+            assertThat( reader.next(), is( heat ) );
+            assertThat( reader.next(), is( 0 ) );
+            assertThat( reader.next(), is( heat ) );
+            assertThat( reader.next(), is( -1 ) );
+        }
+        assertThat( heat, greaterThan( Profile.nextHeat( 0, true ) ) );
+    }
+
+    @Test
+    public void heatOfPagesThatAreNoLongerInMemoryMustDecayToZero()
+    {
+        int heat = Profile.MAX_HEAT;
+        int profiles = 0;
+        while ( heat > 0 )
+        {
+            int next = Profile.nextHeat( heat, false );
+            assertThat( next, lessThan( heat ) );
+            heat = next;
+            profiles++;
+        }
+        assertThat( profiles, lessThanOrEqualTo( 32 ) );
+        assertThat( Profile.nextHeat( 0, false ), is( 0 ) );
+        for ( int previousHeat = 1; previousHeat < 4; previousHeat++ )
+        {
+            assertThat( Profile.nextHeat( previousHeat, false ), is( previousHeat - 1 ) );
+        }
+    }
+
+    @Test
+    public void mustReheatFromLegacyBitmapProfiles() throws Exception
+    {
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
+              PagedFile pf = pageCache.map( file, pageCache.pageSize(), StandardOpenOption.CREATE ) )
+        {
+            try ( PageCursor writer = pf.io( 0, PagedFile.PF_SHARED_WRITE_LOCK ) )
+            {
+                assertTrue( writer.next( 3 ) );
+            }
+        }
+        File legacyProfile = Profile.first( file ).file();
+        fs.mkdirs( legacyProfile.getParentFile() );
+        try ( OutputStream output = new GZIPOutputStream( fs.openAsOutputStream( legacyProfile, false ) ) )
+        {
+            output.write( 0b1010 );
+        }
+
+        clearTracerCounts();
+        long initialFaults = cacheTracer.faults();
+        try ( PageCache pageCache = pageCacheRule.getPageCache( fs, cfg );
+              PagedFile ignore = pageCache.map( file, pageCache.pageSize() ) )
+        {
+            PageCacheWarmer warmer = new PageCacheWarmer( fs, pageCache, scheduler, testDirectory.databaseDir() );
+            warmer.start();
+            assertThat( warmer.reheat(), is( OptionalLong.of( 2 ) ) );
+            pageCache.reportEvents();
+            assertThat( cacheTracer.faults(), is( initialFaults + 2L ) );
+        }
+    }
+
     @Test
     public void profilesMustSortByPagedFileAndProfileSequenceId()
     {
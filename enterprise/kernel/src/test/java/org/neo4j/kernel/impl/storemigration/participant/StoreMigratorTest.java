@@ -130,6 +130,8 @@ public class StoreMigratorTest
         actualVersions.add( StoreVersion.HIGH_LIMIT_V3_4_0.versionString() );
         assertFalse( CountsMigrator.countStoreRebuildRequired( StoreVersion.HIGH_LIMIT_V3_6_0.versionString() ) );
         actualVersions.add( StoreVersion.HIGH_LIMIT_V3_6_0.versionString() );
+        assertFalse( CountsMigrator.countStoreRebuildRequired( StoreVersion.COMPRESSED_V3_6.versionString() ) );
+        actualVersions.add( StoreVersion.COMPRESSED_V3_6.versionString() );
 
         assertEquals( expectedVersions, actualVersions );
     }
@@ -94,6 +94,11 @@ public class MetricsSettings implements LoadableConfig
     public static final Setting<Boolean> neoLogRotationEnabled = buildSetting(
             "metrics.neo4j.logrotation.enabled", BOOLEAN ).inherits( neoEnabled ).build();
 
+    @Description( "Enable reporting metrics about the uniqueness filters of unique indexes; lookups answered without seeking the index, " +
+                  "false positives and memory usage." )
+    public static final Setting<Boolean> neoUniquenessFilterEnabled = buildSetting(
+            "metrics.neo4j.uniqueness_filter.enabled", BOOLEAN ).inherits( neoEnabled ).build();
+
     /**
      * @deprecated high availability database/edition is deprecated in favour of causal clustering. It will be removed in next major release.
      */
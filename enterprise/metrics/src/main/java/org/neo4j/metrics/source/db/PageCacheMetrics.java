@@ -21,7 +21,13 @@ package org.neo4j.metrics.source.db;
 import com.codahale.metrics.Gauge;
 import com.codahale.metrics.MetricRegistry;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.neo4j.io.pagecache.monitoring.PageCacheCounters;
+import org.neo4j.io.pagecache.monitoring.PageCachePartitionCounters;
 import org.neo4j.kernel.impl.annotations.Documented;
 import org.neo4j.kernel.lifecycle.LifecycleAdapter;
 
@@ -50,9 +56,33 @@ public class PageCacheMetrics extends LifecycleAdapter
     public static final String PC_HIT_RATIO = name( PAGE_CACHE_PREFIX, "hit_ratio" );
     @Documented( "The ratio of number of used pages to total number of available pages" )
     public static final String PC_USAGE_RATIO = name( PAGE_CACHE_PREFIX, "usage_ratio" );
+    @Documented( "The total number of pages read from files with page checksums, that did not match their checksum" )
+    public static final String PC_CHECKSUM_MISMATCHES = name( PAGE_CACHE_PREFIX, "checksum_mismatches" );
+    @Documented( "The number of page cache partitions. Every partition also has the metrics " +
+                 "'neo4j.page_cache.partition.<name>.pages', '.max_pages', '.page_faults' and '.evictions'" )
+    public static final String PC_PARTITIONS = name( PAGE_CACHE_PREFIX, "partitions" );
+
+    private static final String PC_PARTITION_PREFIX = name( PAGE_CACHE_PREFIX, "partition" );
 
     private final MetricRegistry registry;
     private final PageCacheCounters pageCacheCounters;
+    private String evictionPolicyHitRatio;
+    // The metrics of every partition, registered when the partition is created and removed along with it.
+    private final Map<PageCachePartitionCounters,List<String>> partitionMetrics = new HashMap<>();
+    private final PageCacheCounters.PartitionListener partitionListener = new PageCacheCounters.PartitionListener()
+    {
+        @Override
+        public void partitionCreated( PageCachePartitionCounters partition )
+        {
+            registerPartition( partition );
+        }
+
+        @Override
+        public void partitionRemoved( PageCachePartitionCounters partition )
+        {
+            removePartition( partition );
+        }
+    };
 
     public PageCacheMetrics( MetricRegistry registry, PageCacheCounters pageCacheCounters )
     {
@@ -72,6 +102,47 @@ public class PageCacheMetrics extends LifecycleAdapter
         registry.register( PC_EVICTION_EXCEPTIONS, (Gauge<Long>) pageCacheCounters::evictionExceptions );
         registry.register( PC_HIT_RATIO, (Gauge<Double>) pageCacheCounters::hitRatio );
         registry.register( PC_USAGE_RATIO, (Gauge<Double>) pageCacheCounters::usageRatio );
+        registry.register( PC_CHECKSUM_MISMATCHES, (Gauge<Long>) pageCacheCounters::checksumMismatches );
+
+        // The hit ratio is also published under the name of the eviction policy, as in
+        // 'neo4j.page_cache.hit_ratio.clock', so runs with different eviction policies can be told apart.
+        String evictionPolicy = pageCacheCounters.evictionPolicy();
+        if ( !evictionPolicy.isEmpty() )
+        {
+            evictionPolicyHitRatio = name( PC_HIT_RATIO, evictionPolicy );
+            registry.register( evictionPolicyHitRatio, (Gauge<Double>) pageCacheCounters::hitRatio );
+        }
+
+        registry.register( PC_PARTITIONS, (Gauge<Integer>) () -> pageCacheCounters.partitions().size() );
+        // Partitions come and go as files are mapped into them and unmapped, usually while the metrics are running.
+        pageCacheCounters.addPartitionListener( partitionListener );
+    }
+
+    private synchronized void registerPartition( PageCachePartitionCounters partition )
+    {
+        List<String> metrics = new ArrayList<>();
+        registerPartitionGauge( metrics, partition, "pages", partition::pages );
+        registerPartitionGauge( metrics, partition, "max_pages", partition::maxPages );
+        registerPartitionGauge( metrics, partition, "page_faults", partition::faults );
+        registerPartitionGauge( metrics, partition, "evictions", partition::evictions );
+        partitionMetrics.put( partition, metrics );
+    }
+
+    private void registerPartitionGauge( List<String> metrics, PageCachePartitionCounters partition, String metric,
+            Gauge<Long> gauge )
+    {
+        String metricName = name( PC_PARTITION_PREFIX, partition.name(), metric );
+        registry.register( metricName, gauge );
+        metrics.add( metricName );
+    }
+
+    private synchronized void removePartition( PageCachePartitionCounters partition )
+    {
+        List<String> metrics = partitionMetrics.remove( partition );
+        if ( metrics != null )
+        {
+            metrics.forEach( registry::remove );
+        }
     }
 
     @Override
@@ -86,5 +157,18 @@ public class PageCacheMetrics extends LifecycleAdapter
         registry.remove( PC_EVICTION_EXCEPTIONS );
         registry.remove( PC_HIT_RATIO );
         registry.remove( PC_USAGE_RATIO );
+        registry.remove( PC_CHECKSUM_MISMATCHES );
+        if ( evictionPolicyHitRatio != null )
+        {
+            registry.remove( evictionPolicyHitRatio );
+            evictionPolicyHitRatio = null;
+        }
+        registry.remove( PC_PARTITIONS );
+        pageCacheCounters.removePartitionListener( partitionListener );
+        synchronized ( this )
+        {
+            partitionMetrics.values().forEach( metrics -> metrics.forEach( registry::remove ) );
+            partitionMetrics.clear();
+        }
     }
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018-2020 "Graph Foundation"
+ * Graph Foundation, Inc. [https://graphfoundation.org]
+ *
+ * Copyright (c) 2002-2018 "Neo4j,"
+ * Neo4j Sweden AB [http://neo4j.com]
+ *
+ * This file is part of ONgDB Enterprise Edition. The included source
+ * code can be redistributed and/or modified under the terms of the
+ * GNU AFFERO GENERAL PUBLIC LICENSE Version 3
+ * (http://www.fsf.org/licensing/licenses/agpl-3.0.html) as found
+ * in the associated LICENSE.txt file.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Affero General Public License for more details.
+ */
+package org.neo4j.metrics.source.db;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+import org.neo4j.kernel.api.index.IndexProvider;
+import org.neo4j.kernel.api.index.UniquenessFilterStatistics;
+import org.neo4j.kernel.impl.annotations.Documented;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+import org.neo4j.kernel.monitoring.Monitors;
+import org.neo4j.storageengine.api.schema.IndexDescriptor;
+
+import static com.codahale.metrics.MetricRegistry.name;
+
+@Documented( ".Unique index uniqueness filter metrics" )
+public class UniquenessFilterMetrics extends LifecycleAdapter
+{
+    private static final String NAME_PREFIX = "neo4j.index.uniqueness_filter";
+
+    @Documented( "The total number of exact lookups in unique indexes which consulted a uniqueness filter" )
+    public static final String LOOKUPS = name( NAME_PREFIX, "lookups" );
+    @Documented( "The total number of exact lookups in unique indexes which a uniqueness filter answered without seeking the index" )
+    public static final String SKIPPED_LOOKUPS = name( NAME_PREFIX, "skipped_lookups" );
+    @Documented( "The total number of exact lookups in unique indexes which a uniqueness filter let through, but which didn't find anything" )
+    public static final String FALSE_POSITIVES = name( NAME_PREFIX, "false_positives" );
+    @Documented( "The number of bytes of heap used by uniqueness filters" )
+    public static final String MEMORY_USAGE = name( NAME_PREFIX, "memory_usage" );
+
+    private final MetricRegistry registry;
+    private final Monitors monitors;
+    private final Map<File,UniquenessFilterStatistics> openFilters = new ConcurrentHashMap<>();
+    private final IndexProvider.Monitor listener = new IndexProvider.Monitor.Adaptor()
+    {
+        @Override
+        public void uniquenessFilterOpened( File indexFile, IndexDescriptor indexDescriptor, UniquenessFilterStatistics statistics )
+        {
+            openFilters.put( indexFile, statistics );
+        }
+
+        @Override
+        public void uniquenessFilterClosed( File indexFile, IndexDescriptor indexDescriptor, UniquenessFilterStatistics statistics )
+        {
+            openFilters.remove( indexFile, statistics );
+        }
+    };
+
+    public UniquenessFilterMetrics( MetricRegistry registry, Monitors monitors )
+    {
+        this.registry = registry;
+        this.monitors = monitors;
+    }
+
+    @Override
+    public void start()
+    {
+        monitors.addMonitorListener( listener );
+        registry.register( LOOKUPS, (Gauge<Long>) () -> sum( UniquenessFilterStatistics::lookups ) );
+        registry.register( SKIPPED_LOOKUPS, (Gauge<Long>) () -> sum( UniquenessFilterStatistics::skippedLookups ) );
+        registry.register( FALSE_POSITIVES, (Gauge<Long>) () -> sum( UniquenessFilterStatistics::falsePositives ) );
+        registry.register( MEMORY_USAGE, (Gauge<Long>) () -> sum( UniquenessFilterStatistics::memoryUsage ) );
+    }
+
+    @Override
+    public void stop()
+    {
+        registry.remove( LOOKUPS );
+        registry.remove( SKIPPED_LOOKUPS );
+        registry.remove( FALSE_POSITIVES );
+        registry.remove( MEMORY_USAGE );
+        monitors.removeMonitorListener( listener );
+    }
+
+    private long sum( ToLongFunction<UniquenessFilterStatistics> statistic )
+    {
+        return openFilters.values().stream().mapToLong( statistic ).sum();
+    }
+}
@@ -59,6 +59,8 @@ public class Neo4jAdminUsageTest
                         "        Import from a collection of CSV files or a pre-3.0 database.\n" +
                         "    memrec\n" +
                         "        Print Neo4j heap and pagecache memory settings recommendations.\n" +
+                        "    reorganize\n" +
+                        "        Store the relationships of each node next to each other.\n" +
                         "    report\n" +
                         "        Produces a zip/tar of the most common information needed for remote assessments.\n" +
                         "    store-info\n" +